@@ -0,0 +1,58 @@
+package benchmark;
+
+import Message.CodecUtil;
+import Message.constant.Online.ONLINE_NOTIFY_RESPONSE_RESULT_CODE;
+import Message.online.AddKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AddKey : 1/10/100 K-STRUCT
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AddKeyBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int keyStructs;
+
+    private byte[] body;
+    private AddKey encoder;
+    private AddKey decoder;
+    private ByteBuffer sendBuffer;
+
+    @Setup
+    public void setUp() {
+        CodecUtil.SetLogEnabled(false);
+        body = CodecFixtures.addKeyBody(keyStructs);
+        decoder = new AddKey();
+        CodecFixtures.require(decoder.DecodeMessage(body) == ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED,
+                "AddKey[" + keyStructs + "]");
+        encoder = new AddKey(body);
+        sendBuffer = ByteBuffer.allocate(encoder.GetSize());
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.DecodeMessage(body);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return encoder.EncodeObject();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeTo() throws IOException {
+        sendBuffer.clear();
+        encoder.EncodeTo(sendBuffer);
+        return sendBuffer;
+    }
+}
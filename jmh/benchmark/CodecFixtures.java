@@ -0,0 +1,167 @@
+package benchmark;
+
+import Message.EtcsInfo;
+import Message.ValidPeriod;
+import Message.constant.Common.*;
+import Message.constant.Offline;
+import Message.constant.Offline.*;
+import Message.constant.Online.*;
+import Message.offline.entity.ReplaceAllKeys;
+import Message.offline.entity.sub.OfflineHeader;
+import Message.offline.entity.sub.OfflineKeyStruct;
+import Message.online.sub.OnlineHeader;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * 코덱 벤치마크 공용 픽스처
+ * <p> K-STRUCT 마다 피어 수를 1~MAX_PEERS 로 달리하여 실제 배치와 비슷한 크기 분포 사용
+ */
+final class CodecFixtures {
+
+    static final int MAX_PEERS = 8;
+
+    private CodecFixtures() {
+    }
+
+    // 픽스처가 디코딩 오류 경로를 측정하지 않도록 사전 확인
+    static void require(boolean condition, String name) {
+        if (!condition) {
+            throw new IllegalStateException("Invalid benchmark fixture: " + name);
+        }
+    }
+
+    /* OfflineKeyMsg (REPLACE_ALL_KEYS) *********************************************************************************/
+
+    static OfflineHeader offlineHeader() {
+        EtcsInfo receiver = new EtcsInfo(ETCS_TYPE.RBC, new byte[]{0x01, 0x02, 0x03});
+        EtcsInfo sender = new EtcsInfo(ETCS_TYPE.KEY_MANAGEMENT_ENTITY, new byte[]{0x04, 0x05, 0x06});
+        return new OfflineHeader(new byte[4], Offline.OFFLINE_KMC_VERSION, receiver, sender, new byte[]{0, 0, 0, 7},
+                new byte[]{0, 1}, Offline.AUTH_ALGO_3DES, new byte[]{0, 0, 0, 9}, OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS);
+    }
+
+    static ReplaceAllKeys replaceAllKeys(int keyStructCount) {
+        EtcsInfo kmEtcsIdExp = new EtcsInfo(ETCS_TYPE.KEY_MANAGEMENT_ENTITY, new byte[]{0x04, 0x05, 0x06});
+        OfflineKeyStruct[] keyStructs = new OfflineKeyStruct[keyStructCount];
+        for (int i = 0; i < keyStructCount; i++) {
+            int peerCount = 1 + i % MAX_PEERS;
+            EtcsInfo[] peers = new EtcsInfo[peerCount];
+            for (int p = 0; p < peerCount; p++) {
+                peers[p] = new EtcsInfo(ETCS_TYPE.RBC, new byte[]{(byte) i, (byte) p, 0x01});
+            }
+            byte[] enc = new byte[OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE];
+            Arrays.fill(enc, (byte) i);
+            keyStructs[i] = new OfflineKeyStruct((byte) OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE, kmEtcsIdExp, new byte[]{0, 0, (byte) (i >> 8), (byte) i},
+                    enc, new byte[]{0, (byte) peerCount}, peers, new ValidPeriod(new byte[]{0x01, 0x01, 0x01, 0x01}, new byte[]{0x02, 0x02, 0x02, 0x02}));
+        }
+        return new ReplaceAllKeys(Offline.AUTH_ALGO_3DES, new byte[]{(byte) (keyStructCount >> 8), (byte) keyStructCount},
+                keyStructs, new byte[COMMON_SIZE.CBC_MAC_SIZE]);
+    }
+
+    /* OfflineKmMsg *****************************************************************************************************/
+
+    static byte kmMessageType(String name) {
+        switch (name) {
+            case "KMAC_EXCHANGE":
+                return OFFLINE_KM_MESSAGE.KMAC_EXCHANGE;
+            case "KMAC_DELETION":
+                return OFFLINE_KM_MESSAGE.KMAC_DELETION;
+            case "KMAC_UPDATE":
+                return OFFLINE_KM_MESSAGE.KMAC_UPDATE;
+            case "CONF_KMAC_EXCHANGE":
+                return OFFLINE_KM_MESSAGE.CONF_KMAC_EXCHANGE;
+            case "CONF_KMAC_DELETION":
+                return OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION;
+            case "CONF_KMAC_UPDATE":
+                return OFFLINE_KM_MESSAGE.CONF_KMAC_UPDATE;
+            case "KMAC_NEGACK":
+                return OFFLINE_KM_MESSAGE.KMAC_NEGACK;
+            default:
+                throw new IllegalArgumentException("Unknown KM message type: " + name);
+        }
+    }
+
+    // KM 메시지 필드 순서대로 바이트 배열 구성 (tr_quant 2, KMAC_NEGACK 은 KMAC_EXCHANGE 에 대한 응답)
+    static byte[] kmMessage(byte type) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean isNegack = type == OFFLINE_KM_MESSAGE.KMAC_NEGACK;
+        boolean hasSubType = type == OFFLINE_KM_MESSAGE.KMAC_DELETION || type == OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION;
+
+        out.write(type);
+        if (hasSubType) {
+            out.write(0x01);
+        }
+        if (isNegack) {
+            out.write(OFFLINE_KM_MESSAGE.KMAC_EXCHANGE);
+        }
+        writeSequence(out, 3, 0x10);                   // ob_etcs_id
+        if (!isNegack) {
+            out.write(2);                              // tr_quant
+            writeEtcs(out, 0x20);
+            writeEtcs(out, 0x30);
+        }
+        writeEtcs(out, 0x40);                          // km_etcs_id_issuer
+        writeEtcs(out, 0x50);                          // km_etcs_id_target
+        writeSequence(out, 3, 0x60);                   // issue_date
+        if (type == OFFLINE_KM_MESSAGE.KMAC_EXCHANGE || type == OFFLINE_KM_MESSAGE.KMAC_UPDATE) {
+            writeSequence(out, COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE, 0x70);
+            out.write(9);                              // t_num
+            writeSequence(out, OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE, 0x80);
+            writeSequence(out, 3, 0xA0);               // snum
+        } else if (type == OFFLINE_KM_MESSAGE.KMAC_DELETION) {
+            writeSequence(out, 3, 0x70);               // eff_date
+            out.write(9);
+            writeSequence(out, 3, 0xA0);
+            out.write(0x01);                           // reason
+        } else if (isNegack) {
+            out.write(9);
+            out.write(0x01);                           // reason
+        } else {
+            out.write(9);
+        }
+        writeSequence(out, COMMON_SIZE.CBC_MAC_SIZE, 0xC0);
+        return out.toByteArray();
+    }
+
+    /* OnlineHeader / AddKey ********************************************************************************************/
+
+    static OnlineHeader onlineHeader() {
+        return new OnlineHeader(new byte[]{0, 0, 0, 20}, new EtcsInfo(ETCS_TYPE.RBC, new byte[]{0x01, 0x02, 0x03}),
+                new EtcsInfo(ETCS_TYPE.KEY_MANAGEMENT_ENTITY, new byte[]{0x04, 0x05, 0x06}), new byte[]{0, 0, 0, 1},
+                new byte[]{0, 1}, ONLINE_KEY_MESSAGE_TYPE.CMD_ADD_KEYS);
+    }
+
+    // REQ-NUM + K-STRUCT(length, identifier, etcs id, kmac, peer num, peers, valid period)
+    static byte[] addKeyBody(int keyStructCount) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(keyStructCount >> 8);
+        out.write(keyStructCount);
+        for (int i = 0; i < keyStructCount; i++) {
+            int peerCount = 1 + i % MAX_PEERS;
+            out.write(ONLINE_KEY_SIZE.KMAC_SIZE);
+            writeEtcs(out, 0x01);                      // identifier : etcs id
+            writeSequence(out, ONLINE_KEY_SIZE.SNUM_SIZE, i);
+            writeEtcs(out, 0x09);                      // km_etcs_id_exp
+            writeSequence(out, ONLINE_KEY_SIZE.KMAC_SIZE, 0x10);
+            out.write(peerCount >> 8);
+            out.write(peerCount);
+            for (int p = 0; p < peerCount; p++) {
+                writeEtcs(out, 0x20 + p);
+            }
+            writeSequence(out, COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE, 0x30);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeEtcs(ByteArrayOutputStream out, int value) {
+        out.write(ETCS_TYPE.RBC);
+        writeSequence(out, 3, value);
+    }
+
+    private static void writeSequence(ByteArrayOutputStream out, int count, int start) {
+        for (int i = 0; i < count; i++) {
+            out.write(start + i);
+        }
+    }
+}
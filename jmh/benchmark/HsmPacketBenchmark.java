@@ -0,0 +1,62 @@
+package benchmark;
+
+import communication.CONFIG.HSM_PACKET;
+import communication.packet.HsmPacket;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HsmPacket : 본문 64B / 4KB
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HsmPacketBenchmark {
+
+    @Param({"64", "4096"})
+    public int bodySize;
+
+    private byte[] message;
+    private ByteBuffer frame;
+    private HsmPacket packet;
+    private HsmPacket decoder;
+
+    @Setup
+    public void setUp() {
+        byte[] body = new byte[bodySize];
+        Arrays.fill(body, (byte) 0x5A);
+        packet = new HsmPacket(HSM_PACKET.HEADER_TYPE_HSM, (byte) 0x01, body);
+        message = packet.EncodeObject();
+        frame = packet.EncodeFrame();
+        decoder = new HsmPacket();
+        CodecFixtures.require(decoder.DecodeMessage(message), "HsmPacket[" + bodySize + "B]");
+    }
+
+    @Benchmark
+    public boolean decode() {
+        return decoder.DecodeMessage(message);
+    }
+
+    @Benchmark
+    public boolean decodeFrame() {
+        ByteBuffer view = frame.duplicate();
+        view.position(HsmPacket.LENGTH_FIELD_SIZE);
+        return decoder.DecodeFrame(view);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return packet.EncodeObject();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeFrame() {
+        return packet.EncodeFrame();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import Message.CodecUtil;
+import Message.constant.Offline.OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE;
+import codec.offlineEntity.OfflineKeyMsgDecoder;
+import codec.offlineEntity.OfflineKeyMsgEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OfflineKeyMsgDecoder / OfflineKeyMsgEncoder : REPLACE_ALL_KEYS 1/10/100 K-STRUCT
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OfflineKeyMsgBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int keyStructs;
+
+    private byte[] message;
+    private OfflineKeyMsgEncoder encoder;
+    private OfflineKeyMsgDecoder decoder;
+    private ByteBuffer sendBuffer;
+
+    @Setup
+    public void setUp() {
+        // 성공 로그(String.format + 로그 큐 적재)가 측정에 포함되지 않도록 코덱 로그를 끔
+        CodecUtil.SetLogEnabled(false);
+        encoder = new OfflineKeyMsgEncoder(CodecFixtures.offlineHeader(), CodecFixtures.replaceAllKeys(keyStructs));
+        message = encoder.EncodeObject();
+        sendBuffer = ByteBuffer.allocate(message.length);
+        decoder = new OfflineKeyMsgDecoder();
+        CodecFixtures.require(decoder.DecodeMessage(message) == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED,
+                "ReplaceAllKeys[" + keyStructs + "]");
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.DecodeMessage(message);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.EncodeObject();
+    }
+
+    @Benchmark
+    public boolean encodeTo() {
+        sendBuffer.clear();
+        return encoder.EncodeTo(sendBuffer);
+    }
+}
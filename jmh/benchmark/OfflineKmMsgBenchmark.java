@@ -0,0 +1,54 @@
+package benchmark;
+
+import Message.CodecUtil;
+import codec.offlineKmc.OfflineKmMsg;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OfflineKmMsg : KMAC_* 전체 메시지 종류
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OfflineKmMsgBenchmark {
+
+    @Param({"KMAC_EXCHANGE", "KMAC_DELETION", "KMAC_UPDATE", "CONF_KMAC_EXCHANGE", "CONF_KMAC_DELETION", "CONF_KMAC_UPDATE", "KMAC_NEGACK"})
+    public String type;
+
+    private byte[] message;
+    private OfflineKmMsg encoder;
+    private OfflineKmMsg decoder;
+    private ByteBuffer sendBuffer;
+
+    @Setup
+    public void setUp() {
+        CodecUtil.SetLogEnabled(false);
+        message = CodecFixtures.kmMessage(CodecFixtures.kmMessageType(type));
+        decoder = new OfflineKmMsg();
+        CodecFixtures.require(decoder.DecodeMessage(message), type);
+        encoder = new OfflineKmMsg(message);
+        sendBuffer = ByteBuffer.allocate(encoder.GetSize());
+    }
+
+    @Benchmark
+    public boolean decode() {
+        return decoder.DecodeMessage(message);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return encoder.EncodeObject();
+    }
+
+    @Benchmark
+    public boolean encodeTo() {
+        sendBuffer.clear();
+        return encoder.EncodeTo(sendBuffer);
+    }
+}
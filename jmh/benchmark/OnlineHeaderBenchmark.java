@@ -0,0 +1,44 @@
+package benchmark;
+
+import Message.CodecUtil;
+import Message.constant.Online.ONLINE_NOTIFY_RESPONSE_RESULT_CODE;
+import Message.online.sub.OnlineHeader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OnlineHeader (CMD_ADD_KEYS)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OnlineHeaderBenchmark {
+
+    private byte[] message;
+    private OnlineHeader encoder;
+    private OnlineHeader decoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        CodecUtil.SetLogEnabled(false);
+        encoder = CodecFixtures.onlineHeader();
+        message = encoder.EncodeObject();
+        decoder = new OnlineHeader();
+        CodecFixtures.require(decoder.DecodeMessage(message) == ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED, "OnlineHeader");
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.DecodeMessage(message);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return encoder.EncodeObject();
+    }
+}
@@ -1,26 +1,31 @@
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import Message.CodecUtil;
 import Threads.*;
 import com.nb.kms.hsm.EventMsg.*;
+import com.nb.kms.hsm.HsmDBService;
+import com.nb.kms.hsm.HsmMetrics;
 import com.nb.kms.hsm.HsmMsg;
+import com.nb.kms.hsm.HsmProvider;
+import com.nb.kms.hsm.HsmSessionPool;
+import com.nb.kms.hsm.HsmTaskQueue;
 import com.nb.kms.hsm.Logger;
-import safenet.jcprov.*;
-import safenet.jcprov.constants.CKF;
-import safenet.jcprov.constants.CKU;
+import com.nb.kms.hsm.OfflineMacVerifier;
 
 public class HsmHandler {
-    private static BlockingQueue<HsmMsg> taskQueue;
+    private static HsmTaskQueue taskQueue;
 
     private static HsmHandler instance;
-    private CK_SESSION_HANDLE session = null;
+    private HsmSessionPool sessionPool = null;
 
     private final AtomicInteger state = new AtomicInteger(0); // 0: disconnected, 1: connected
 
 
     static {
-        taskQueue = new LinkedBlockingQueue<>();
+        taskQueue = new HsmTaskQueue(HSM_INFO.TASK_QUEUE_CAPACITY, HSM_INFO.TASK_QUEUE_LOW_PRIORITY_LIMIT);
     }
 
     public static synchronized HsmHandler getInstance() {
@@ -32,13 +37,32 @@ public class HsmHandler {
 
     public static void main(String[] args) {
         HsmHandler handler = HsmHandler.getInstance();
-        // 세션 초기화
+        HsmProvider hsmProvider = HsmProvider.getInstance();
+        // 세션 초기화 (jce 구현은 HSM 세션 없이 동작)
         //hsmService.initializeSession(HSM_INFO.SLOT_ID, HSM_INFO.PASSWORD);
-        handler.initializeSession(HSM_INFO.SLOT_ID, HSM_INFO.PASSWORD);
+        if (hsmProvider.requiresSession()) {
+            handler.initializeSession(HSM_INFO.SLOT_ID, HSM_INFO.PASSWORD);
+            if (handler.getSessionPool() == null) {
+                Logger.error("HSM session pool is not available, exiting");
+                return;
+            }
+        } else {
+            Logger.log("INFO", "Using software HSM provider (" + HSM_INFO.HSM_PROVIDER + ", latency " + HSM_INFO.JCE_LATENCY_MICROS + "us)");
+        }
 
-        // HSMWorkerThread에 세션 핸들을 넘겨줌
+        // 수신 오프라인 메시지 CBC-MAC 검증기 등록 (디코더가 바디 처리 전에 검증)
+        if (!OfflineMacVerifier.MODE_OFF.equalsIgnoreCase(HSM_INFO.MAC_VERIFY_MODE)) {
+            CodecUtil.SetCbcMacVerifier(new OfflineMacVerifier(hsmProvider, handler.getSessionPool(), HSM_INFO.MAC_VERIFY_MODE));
+        }
+
+        // DB 연결 풀 / 로컬 키 메타데이터 저장소를 미리 열어 첫 요청 전에 동기화 시작
+        HsmDBService.getInstance();
+
+        // HSMWorkerThread에 세션 풀을 넘겨줌 (워커마다 작업 단위로 세션 대여)
         new Thread(new EventReceiverThread(taskQueue)).start();
-        new Thread(new HSMWorkerThread(taskQueue, handler.getSessionHandle())).start();
+        for (int i = 0; i < HSM_INFO.WORKER_THREAD_COUNT; i++) {
+            new Thread(new HSMWorkerThread(taskQueue, handler.getSessionPool(), hsmProvider), "HSMWorker-" + i).start();
+        }
 
         // 작업을 추가하는 예제
         // TCP 통신 확인을 위한 주석처리
@@ -47,6 +71,26 @@ public class HsmHandler {
         addTask(new HsmMsg(header, HSM_MSG_TYPE.GENERATE_KEY, HSM_KEY_TYPE.DES3_TYPE, "DES3KEY"));*/
 
 
+        // 작업별/단계별 지연 시간 히스토그램 JMX 노출
+        HsmMetrics.registerMBean();
+
+        // 작업 큐 길이 / 작업별 대기 시간, 지연 시간 백분위 주기적 출력
+        if (HSM_INFO.TASK_QUEUE_METRICS_INTERVAL_SEC > 0 || HSM_INFO.LATENCY_METRICS_INTERVAL_SEC > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "TaskQueueMetrics");
+                t.setDaemon(true);
+                return t;
+            });
+            if (HSM_INFO.TASK_QUEUE_METRICS_INTERVAL_SEC > 0) {
+                reporter.scheduleAtFixedRate(() -> Logger.log("INFO", taskQueue.toString()),
+                        HSM_INFO.TASK_QUEUE_METRICS_INTERVAL_SEC, HSM_INFO.TASK_QUEUE_METRICS_INTERVAL_SEC, TimeUnit.SECONDS);
+            }
+            if (HSM_INFO.LATENCY_METRICS_INTERVAL_SEC > 0) {
+                reporter.scheduleAtFixedRate(() -> Logger.log("INFO", HsmMetrics.getInstance().getReport()),
+                        HSM_INFO.LATENCY_METRICS_INTERVAL_SEC, HSM_INFO.LATENCY_METRICS_INTERVAL_SEC, TimeUnit.SECONDS);
+            }
+        }
+
         // 세션 종료를 특정 조건에 맞춰 호출 (프로그램 종료)
         Runtime.getRuntime().addShutdownHook(new Thread(() -> handler.closeSession()));
 
@@ -54,18 +98,11 @@ public class HsmHandler {
 
     public synchronized void initializeSession(long slotId, String password) {
         if (state.compareAndSet(0, 1)) {
-            try {
-                session = new CK_SESSION_HANDLE();
-                CryptokiEx.C_Initialize(new CK_C_INITIALIZE_ARGS(CKF.OS_LOCKING_OK));
-                CryptokiEx.C_OpenSession(slotId, CKF.RW_SESSION | CKF.SERIAL_SESSION, null, null, session);
-
-                if (!password.isEmpty()) {
-                    CryptokiEx.C_Login(session, CKU.USER, password.getBytes(), password.length());
-                }
-
-                Logger.log("INFO", "Session initialized for slot " + slotId + " password " + password);
-            } catch (CKR_Exception e) {
-                Logger.error("Error initializing session", e);
+            sessionPool = new HsmSessionPool(slotId, password, HSM_INFO.SESSION_POOL_SIZE);
+            if (sessionPool.open()) {
+                Logger.log("INFO", "Session pool initialized for slot " + slotId + " (size " + sessionPool.getPoolSize() + ")");
+            } else {
+                sessionPool = null;
                 state.set(0); // 초기화 실패시 상태를 복원
             }
         } else {
@@ -75,27 +112,23 @@ public class HsmHandler {
 
     public synchronized void closeSession() {
         if (state.compareAndSet(1, 0)) {
-            if (session != null) {
-                try {
-                    Cryptoki.C_Logout(session);
-                    Cryptoki.C_CloseSession(session);
-                    Cryptoki.C_Finalize(null);
-                } catch (CKR_Exception ex) {
-                    Logger.error("Error closing session", ex);
-                } finally {
-                    session = null;
-                }
+            if (sessionPool != null) {
+                sessionPool.close();
+                sessionPool = null;
             }
             Logger.log("INFO", "Session closed");
         }
     }
 
-    // 작업을 큐에 추가하는 메서드
-    public static void addTask(HsmMsg task) {
-        taskQueue.add(task);
+    // 작업을 큐에 추가하는 메서드 (큐가 가득 차면 false)
+    public static boolean addTask(HsmMsg task) {
+        return taskQueue.offer(task);
+    }
+
+    public static HsmTaskQueue getTaskQueue() {
+        return taskQueue;
     }
-    public CK_SESSION_HANDLE getSessionHandle() {
-        return session;
+    public HsmSessionPool getSessionPool() {
+        return sessionPool;
     }
-    public void setSessionHandle(CK_SESSION_HANDLE session) { this.session = session; }
 }
\ No newline at end of file
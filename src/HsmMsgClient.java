@@ -1,14 +1,19 @@
 import com.nb.kms.hsm.EventMsg;
 import com.nb.kms.hsm.HsmMsg;
+import com.nb.kms.hsm.HsmResponse;
 import com.nb.kms.hsm.HsmStatus;
+import com.nb.kms.hsm.HsmWireCodec;
 import com.nb.kms.hsm.EventMsg.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
 import java.net.Socket;
 
 public class HsmMsgClient {
@@ -18,6 +23,7 @@ public class HsmMsgClient {
         int serverPort = 5000; // 서버 포트
         String clientAddress = "192.168.75.88"; // 클라이언트 IP
         int clientPort = 5001; // 클라이언트가 결과를 받을 포트
+        boolean binaryFormat = true; // true : HsmWireCodec 바이너리 프레임, false : Java 직렬화
 
         //암복호화 테스트용 원본데이터
         byte[] plainData = {0x12, 0x03, 0x3C, 0x56, 0x4F, 0x6B, 0x1A, 0x32, 0x12, 0x03, 0x3C, 0x56, 0x4F, 0x6B, 0x1A, 0x32, 0x12, 0x03, 0x3C, 0x56, 0x4F, 0x6B, 0x1A, 0x32};
@@ -38,84 +44,90 @@ public class HsmMsgClient {
 
 
 
-        // 클라이언트에서 서버로 메시지를 전송하는 스레드
+        // 같은 연결로 여러 요청을 연속 전송 (correlationId 로 응답 매칭)
+        HsmMsg[] requests = {
+                msg,
+                new HsmMsg(header, HSM_MSG_TYPE.GET_KCV, HSM_KEY_TYPE.DES3_TYPE, 3459, 7773310, KEY_GEN_TYPE.ktransKey1),
+                new HsmMsg(header, HSM_MSG_TYPE.GET_STATUS)
+        };
+        for (int i = 0; i < requests.length; i++) {
+            requests[i].setCorrelationId(i + 1);
+        }
+
         try (Socket socket = new Socket()) {
             System.out.println("Attempting to connect to server...");
             socket.connect(new InetSocketAddress(serverAddress, serverPort), 5000);
             System.out.println("Connected to server: " + serverAddress);
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream())) {
-                System.out.println("Sending HsmMsg...");
-                oos.writeObject(msg);
-                oos.flush();
-                System.out.println("HsmMsg sent successfully.");
+            if (binaryFormat) {
+                exchangeBinary(socket, requests);
+            } else {
+                exchangeObjects(socket, requests);
             }
-        } catch (IOException e) {
+        } catch (EOFException e) {
+            System.err.println("Server closed the connection before all responses arrived.");
+        } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error during communication: " + e.getMessage());
             e.printStackTrace();
-            return;  // 통신 오류 시 더 이상 진행하지 않음
         }
 
-        // 응답을 받기 위한 데몬 스레드 시작
-        Thread responseThread = new Thread(() -> {
-            try (ServerSocket responseServerSocket = new ServerSocket(clientPort)) {
-                System.out.println("Waiting for response from server...");
-
-                while (true) {  // 계속해서 응답을 기다림
-                    try (Socket responseSocket = responseServerSocket.accept();
-                         ObjectInputStream ois = new ObjectInputStream(responseSocket.getInputStream())) {
-
-                        Object response = null;
-
-                        try {
-                            response = ois.readObject();  // 객체 읽기 시도
-                        } catch (EOFException eofException) {
-                            // 스트림 끝에 도달했을 때 발생하는 예외를 처리
-                            System.err.println("Reached end of stream unexpectedly: " + eofException.getMessage());
-                            continue;  // 그냥 다음 루프로 넘어가도록 함
-                        }
-
-                        if (response == null) {
-                            System.err.println("Received null response from server.");
-                            continue;  // Null인 경우 메시지를 처리하지 않고 다음 반복으로 넘어감
-                        }
-
-                        System.out.println("Received response from server.");
-
-                        if (response instanceof String) {
-                            System.out.println("Response from server: " + response);
-                        } else if (response instanceof byte[]) {
-                            System.out.println("Response from server (byte[]): " + bytesToHex((byte[]) response));
-                        } else if (response instanceof HsmStatus) {
-                            // HsmStatus 객체 처리
-                            HsmStatus hsmStatus = (HsmStatus) response;
-                            System.out.println("HSM State: " + hsmStatus.getHsmState());
-                            System.out.println("Network Status: " + hsmStatus.getNetworkStatus());
-                        }
-                    } catch (IOException | ClassNotFoundException e) {
-                        System.err.println("Error during receiving response: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-
-            } catch (IOException e) {
-                System.err.println("Error setting up response server socket: " + e.getMessage());
-                e.printStackTrace();
-            }
-        });
+        System.out.println("Client is shutting down...");
+    }
 
-        responseThread.setDaemon(true);  // 스레드를 데몬 스레드로 설정
-        responseThread.start();
+    private static void exchangeBinary(Socket socket, HsmMsg[] requests) throws IOException {
+        HsmWireCodec codec = new HsmWireCodec();
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+        HsmWireCodec.writePreamble(out);
+        for (HsmMsg request : requests) {
+            codec.writeMsg(out, request);
+        }
+        out.flush();
+        socket.shutdownOutput(); // 더 보낼 요청이 없음을 알림 (서버는 응답을 모두 보낸 뒤 연결 종료)
+        System.out.println(requests.length + " HsmMsg sent successfully.");
+
+        // 응답은 처리 완료 순서대로 도착하므로 correlationId 로 요청과 매칭
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        for (int received = 0; received < requests.length; received++) {
+            HsmResponse hsmResponse = codec.readResponse(in);
+            System.out.print("Response [" + hsmResponse.getCorrelationId() + "] ");
+            printResult(hsmResponse.getResult());
+        }
+    }
 
-        // 메인 스레드가 종료될 때까지 대기 (예: 사용자 입력 대기)
-        try {
-            System.out.println("Press Enter to exit...");
-            System.in.read();
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static void exchangeObjects(Socket socket, HsmMsg[] requests) throws IOException, ClassNotFoundException {
+        ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream());
+        for (HsmMsg request : requests) {
+            oos.writeObject(request);
+        }
+        oos.flush();
+        socket.shutdownOutput();
+        System.out.println(requests.length + " HsmMsg sent successfully.");
+
+        ObjectInputStream ois = new ObjectInputStream(socket.getInputStream());
+        for (int received = 0; received < requests.length; received++) {
+            Object response = ois.readObject();
+            if (!(response instanceof HsmResponse)) {
+                System.err.println("Unexpected response type: " + response);
+                continue;
+            }
+            HsmResponse hsmResponse = (HsmResponse) response;
+            System.out.print("Response [" + hsmResponse.getCorrelationId() + "] ");
+            printResult(hsmResponse.getResult());
         }
+    }
 
-        System.out.println("Client is shutting down...");
+    private static void printResult(Object result) {
+        if (result instanceof String) {
+            System.out.println("Response from server: " + result);
+        } else if (result instanceof byte[]) {
+            System.out.println("Response from server (byte[]): " + bytesToHex((byte[]) result));
+        } else if (result instanceof HsmStatus) {
+            // HsmStatus 객체 처리
+            HsmStatus hsmStatus = (HsmStatus) result;
+            System.out.println("HSM State: " + hsmStatus.getHsmState() + ", Network Status: " + hsmStatus.getNetworkStatus());
+        } else {
+            System.out.println("Response from server: " + result);
+        }
     }
 
     // 바이트 배열을 16진수 문자열로 변환하는 헬퍼 메서드
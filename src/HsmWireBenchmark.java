@@ -0,0 +1,114 @@
+import com.nb.kms.hsm.EventMsg;
+import com.nb.kms.hsm.EventMsg.*;
+import com.nb.kms.hsm.HsmMsg;
+import com.nb.kms.hsm.HsmResponse;
+import com.nb.kms.hsm.HsmStatus;
+import com.nb.kms.hsm.HsmWireCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Java 직렬화와 HsmWireCodec 바이너리 형식 비교
+ * <p> 메시지당 전송 바이트 수와 디코딩 시간(ns) 출력
+ * <p> 직렬화는 연결마다 새 스트림을 여는 기존 방식(클래스 디스크립터 포함)으로 측정
+ */
+public class HsmWireBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        HsmMsg.hsmMsgHeader header = new HsmMsg.hsmMsgHeader(EventMsg.HSM_HEADER.HEADER_TYPE_HSM, "192.168.75.88", 5001);
+
+        byte[] macData = new byte[64];
+        Arrays.fill(macData, (byte) 0x5A);
+
+        HsmMsg getKcv = new HsmMsg(header, HSM_MSG_TYPE.GET_KCV, HSM_KEY_TYPE.DES3_TYPE, 3459, 7773310, KEY_GEN_TYPE.ktransKey1);
+        getKcv.setCorrelationId(1);
+        HsmMsg calculateCbc = new HsmMsg(header, HSM_MSG_TYPE.CALCULATE_CBC, HSM_KEY_TYPE.DES3_TYPE, 3459, 7773310, KEY_GEN_TYPE.kmacKey, macData);
+        calculateCbc.setCorrelationId(2);
+
+        benchmarkMsg("GET_KCV", getKcv);
+        benchmarkMsg("CALCULATE_CBC(64B)", calculateCbc);
+
+        benchmarkResponse("byte[3] KCV", new byte[]{0x12, 0x34, 0x56});
+        benchmarkResponse("String", "Key deleted: " + KEY_GEN_TYPE.kmacKey);
+        benchmarkResponse("HsmStatus", new HsmStatus("OK", "CONNECTED"));
+    }
+
+    private static void benchmarkMsg(String name, HsmMsg msg) throws Exception {
+        byte[] serialized = serialize(msg);
+
+        HsmWireCodec encoder = new HsmWireCodec();
+        ByteBuffer frame = encoder.encodeMsg(msg);
+        byte[] binary = Arrays.copyOf(frame.array(), frame.limit());
+
+        long serialNs = measure(() -> deserialize(serialized));
+
+        HsmWireCodec decoder = new HsmWireCodec();
+        long binaryNs = measure(() -> decoder.readMsg(new ByteArrayInputStream(binary)));
+
+        print("request  " + name, serialized.length, binary.length, serialNs, binaryNs);
+    }
+
+    private static void benchmarkResponse(String name, Object result) throws Exception {
+        byte[] serialized = serialize(new HsmResponse(1, result));
+
+        HsmWireCodec encoder = new HsmWireCodec();
+        ByteBuffer frame = encoder.encodeResponse(1, result);
+        byte[] binary = Arrays.copyOf(frame.array(), frame.limit());
+
+        long serialNs = measure(() -> deserialize(serialized));
+
+        HsmWireCodec decoder = new HsmWireCodec();
+        long binaryNs = measure(() -> decoder.readResponse(new ByteArrayInputStream(binary)));
+
+        print("response " + name, serialized.length, binary.length, serialNs, binaryNs);
+    }
+
+    private interface Decode {
+        Object run() throws Exception;
+    }
+
+    // 메시지당 평균 디코딩 시간 (ns)
+    private static long measure(Decode decode) throws Exception {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += decode.run() != null ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += decode.run() != null ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 0) {
+            System.out.println("unexpected null decode");
+        }
+        return elapsed / ITERATIONS;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(object);
+        }
+        return bos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+
+    private static void print(String name, int serialBytes, int binaryBytes, long serialNs, long binaryNs) {
+        System.out.printf("%-32s serialization %5d B %7d ns | binary %4d B %6d ns%n",
+                name, serialBytes, serialNs, binaryBytes, binaryNs);
+    }
+}
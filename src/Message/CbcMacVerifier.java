@@ -0,0 +1,32 @@
+package Message;
+
+import Message.offline.entity.sub.OfflineHeader;
+import java.nio.ByteBuffer;
+
+/**
+ * 수신한 오프라인 메시지의 CBC-MAC 검증 인터페이스
+ * <p> 디코더는 MAC 계산 구간(메시지 시작 ~ CBC-MAC 직전)과 수신 MAC 만 넘기고, 키 조회와 계산 위치(HSM / 프로세스 내부)는 구현에서 결정
+ * <p> {@link CodecUtil#SetCbcMacVerifier(CbcMacVerifier)} 로 등록하지 않으면 검증 생략
+ */
+public interface CbcMacVerifier
+{
+    /**
+     * 오프라인 키 메시지 검증 (헤더의 serial 은 MAC 계산에 사용한 KTRANS 일련번호)
+     * @param header 디코딩한 헤더
+     * @param macInput MAC 계산 구간 (position ~ limit, 읽어도 원본 버퍼 위치는 변하지 않는 복제본)
+     * @param receivedMac 메시지의 8바이트 CBC-MAC
+     * @return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE
+     */
+    int VerifyKeyMessage(OfflineHeader header, ByteBuffer macInput, byte[] receivedMac);
+
+    /**
+     * KM 메시지 검증
+     * @param kmMessageType OFFLINE_KM_MESSAGE
+     * @param kmEtcsIdIssuer 발신 KM ETCS ID
+     * @param kmEtcsIdTarget 수신 KM ETCS ID
+     * @param macInput MAC 계산 구간 (position ~ limit)
+     * @param receivedMac 메시지의 8바이트 CBC-MAC
+     * @return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE
+     */
+    int VerifyKmMessage(byte kmMessageType, EtcsInfo kmEtcsIdIssuer, EtcsInfo kmEtcsIdTarget, ByteBuffer macInput, byte[] receivedMac);
+}
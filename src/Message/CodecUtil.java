@@ -1,13 +1,17 @@
 package Message;
 
+import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import Message.constant.Online.*;
-import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
+import codec.offlineEntity.OfflineCbcMac;
 import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 import singleton.Logger;
@@ -17,29 +21,129 @@ public class CodecUtil
     public final byte ERROR_BYTE = (byte)0XCD; /* CD(Collision Detection) */
     public final int ERROR_CODE = -1;
 
+    /* 오류 로그 제한 : 초당 ERROR_LOG_LIMIT_PER_SECOND 건까지만 기록하고 나머지는 개수만 집계 (잘못된 패킷 폭주 시 로그 비용 제한) */
+    private static final int ERROR_LOG_LIMIT_PER_SECOND = 20;
+    private static final AtomicLong errorLogWindow = new AtomicLong();
+    private static final AtomicInteger errorLogCount = new AtomicInteger();
+    private static final AtomicLong suppressedErrorLogCount = new AtomicLong();
+    private static final AtomicLong unreportedErrorLogCount = new AtomicLong(); /* 다음 로그에 덧붙일 생략 건수 */
+    private static final AtomicLong decodeFailCount = new AtomicLong();
+
+    /* 스레드별 마지막 디코딩 오류 (문자열 조합 없이 원인만 보관하고, 필요할 때 GetLastDecodeError 로 조회) */
+    private static final ThreadLocal<DecodeError> lastDecodeError = ThreadLocal.withInitial(DecodeError::new);
+
+    /* 수신 메시지 CBC-MAC 검증기 (미등록 시 검증 생략) */
+    private static volatile CbcMacVerifier cbcMacVerifier;
+
+    /* 코덱 로그 파일 기록 여부 (벤치마크 측정 등에서 끔) */
+    private static volatile boolean bLogEnabled = true;
+
+    private static class ThreadCbcMac
+    {
+        private byte[] ktrans;
+        private OfflineCbcMac cbcMac;
+    }
+    private static final ThreadLocal<ThreadCbcMac> threadCbcMac = ThreadLocal.withInitial(ThreadCbcMac::new);
+
+    /**
+     * 디코딩 실패 원인 (스레드별로 재사용하며 DecodeFail 호출 시 덮어씀)
+     */
+    public static class DecodeError
+    {
+        private int resultCode;
+        private String reason;
+        private Class<?> source;
+
+        public int GetResultCode()
+        {
+            return resultCode;
+        }
+
+        public String GetReason()
+        {
+            return reason;
+        }
+
+        public Class<?> GetSource()
+        {
+            return source;
+        }
+
+        @Override
+        public String toString()
+        {
+            return source == null ? "none" : "[" + source.getSimpleName() + "] " + reason + " (result code " + resultCode + ")";
+        }
+    }
+
+    /**
+     * 버퍼의 현재 위치에 구조체를 직렬화하여 기록하는 메서드 (EncodeTo)
+     */
+    @FunctionalInterface
+    public interface BufferEncoder
+    {
+        void EncodeTo(ByteBuffer buffer) throws IOException;
+    }
+
     /**
-     * Calculate the DES CBC MAC using the standard cipher algorithms
+     * Calculate the DES CBC MAC using the standard cipher algorithms (ISO 9797-1 MAC Algorithm 3)
+     * <p> 스레드별로 마지막에 사용한 키의 초기화된 Cipher 를 재사용 (같은 KTRANS 로 연속 계산 시 Cipher 생성/초기화 생략)
      * @param ktrans 24bytes Ktrans data
      * @param data 헤더부터 CBC 제외한 나머지 패킷
-     * @return cbcMac
-     * #TODO : MAC 체크 적용
+     * @return cbcMac * 실패 시 null
      */
     public byte[] CalculateCbcMac(byte[] ktrans, byte[] data) {
-        byte[] cbcMac = null;
-
         try
         {
-            SecretKeySpec skeySpec = new SecretKeySpec(ktrans, "DES");
-            Cipher cbcDES = Cipher.getInstance("DES/CBC/ZeroBytePadding");
-            cbcDES.init(Cipher.DECRYPT_MODE, skeySpec, new IvParameterSpec(new byte[8]));
-            cbcMac = cbcDES.doFinal(data);
+            OfflineCbcMac cbcMac = GetThreadCbcMac(ktrans);
+            cbcMac.Update(data, 0, data.length);
+            return cbcMac.DoFinal();
         }
-        catch (GeneralSecurityException e)
+        catch (GeneralSecurityException | IllegalArgumentException e)
         {
-            e.printStackTrace();
+            IsExceptionPrintingAndWriteLog(e);
+            return null;
         }
+    }
 
-        return cbcMac;
+    /* 스레드별 마지막 KTRANS 의 MAC 계산기 (키가 바뀔 때만 새로 생성) */
+    private static OfflineCbcMac GetThreadCbcMac(byte[] ktrans) throws GeneralSecurityException
+    {
+        ThreadCbcMac cached = threadCbcMac.get();
+        if (cached.cbcMac == null || !Arrays.equals(cached.ktrans, ktrans))
+        {
+            cached.cbcMac = new OfflineCbcMac(ktrans);
+            cached.ktrans = ktrans.clone();
+        }
+        cached.cbcMac.Reset();
+        return cached.cbcMac;
+    }
+
+    /**
+     * 수신 메시지 CBC-MAC 검증기 등록 * null 이면 검증 생략
+     * <p> OfflineKeyMsgDecoder / OfflineKmMsg 가 디코딩 중 이 검증기를 사용
+     */
+    public static void SetCbcMacVerifier(CbcMacVerifier verifier)
+    {
+        cbcMacVerifier = verifier;
+    }
+
+    public static CbcMacVerifier GetCbcMacVerifier()
+    {
+        return cbcMacVerifier;
+    }
+
+    /**
+     * 코덱 로그 기록 설정 * false 이면 WriteLog / WriteErrorLog 와 인코딩/디코딩 성공 로그의 메시지 생성을 생략
+     */
+    public static void SetLogEnabled(boolean enabled)
+    {
+        bLogEnabled = enabled;
+    }
+
+    public static boolean IsLogEnabled()
+    {
+        return bLogEnabled;
     }
 
     /**
@@ -83,6 +187,10 @@ public class CodecUtil
         final String RED = "\033[0;31m";      // 빨간색
         final String RESET = "\033[0m";              // 리셋 (기본 색상으로 돌아가기)
 
+        if (!bLogEnabled)
+        {
+            return;
+        }
         Logger logger = Logger.GetInstance();
         logger.Write(logMessage,Logger.LOG_TYPE_CODEC);
         /* Add timeStamp and save log */
@@ -94,6 +202,10 @@ public class CodecUtil
     {
         final String CYAN = "\033[0;36m";    // 청록색
         final String RESET = "\033[0m";      // 리셋 (기본 색상으로 돌아가기)
+        if (!bLogEnabled)
+        {
+            return;
+        }
         /* Add timeStamp and save log */
         Logger logger = Logger.GetInstance();
         logger.Write(logMessage,Logger.LOG_TYPE_CODEC);
@@ -125,7 +237,11 @@ public class CodecUtil
      */
     public void IsExceptionPrintingAndWriteLog(Exception exception)
     {
-        WriteErrorLog( GetStackTrace(exception) );
+        if (!TryAcquireErrorLog()) /* 제한 초과 시 스택 트레이스 문자열을 만들지 않음 */
+        {
+            return;
+        }
+        WriteErrorLog( GetStackTrace(exception) + SuppressedErrorLogMessage() );
 
 //        if (exception instanceof NullPointerException)
 //        {
@@ -134,6 +250,97 @@ public class CodecUtil
 //        }
     }
 
+    /***
+     * ByteBuffer 디코딩 중 남은 바이트가 필드 크기보다 작을 때(EOF) 공통 처리
+     * @param e 버퍼 부족 예외
+     * @return RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST
+     */
+    public int DeserializeFailResult(BufferUnderflowException e)
+    {
+        return DeserializeFailResult();
+    }
+
+    /***
+     * 남은 바이트가 필드 크기보다 작을 때(EOF) 공통 처리 * 읽기 전에 길이를 확인한 경우 예외 없이 호출
+     * @return RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST
+     */
+    public int DeserializeFailResult()
+    {
+        return DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST,
+                EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
+    }
+
+    /***
+     * 디코딩 검증 실패 공통 처리 (예외 객체와 스택 트레이스를 만들지 않음)
+     * <p> 원인은 스레드별 DecodeError 에 기록하고, 로그는 초당 제한 안에서만 작성
+     * @param nResultCode 반환할 결과 코드 (OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE / ONLINE_NOTIFY_RESPONSE_RESULT_CODE)
+     * @param strReason 실패 원인 (상수 문자열 권장 * 로그를 기록할 때만 문자열을 조합)
+     * @return nResultCode
+     */
+    public int DecodeFail(int nResultCode, String strReason)
+    {
+        decodeFailCount.incrementAndGet();
+        DecodeError error = lastDecodeError.get();
+        error.resultCode = nResultCode;
+        error.reason = strReason;
+        error.source = getClass();
+
+        if (TryAcquireErrorLog())
+        {
+            WriteErrorLog(error + SuppressedErrorLogMessage() + System.lineSeparator());
+        }
+        return nResultCode;
+    }
+
+    /**
+     * @return 현재 스레드에서 마지막으로 발생한 디코딩 실패 원인
+     */
+    public static DecodeError GetLastDecodeError()
+    {
+        return lastDecodeError.get();
+    }
+
+    /**
+     * @return DecodeFail 누적 호출 수
+     */
+    public static long GetDecodeFailCount()
+    {
+        return decodeFailCount.get();
+    }
+
+    /**
+     * @return 로그 제한으로 기록하지 않은 오류 로그 누적 수
+     */
+    public static long GetSuppressedErrorLogCount()
+    {
+        return suppressedErrorLogCount.get();
+    }
+
+    /* 1초 단위 구간마다 ERROR_LOG_LIMIT_PER_SECOND 건까지 로그 허용 */
+    private static boolean TryAcquireErrorLog()
+    {
+        long nNowSecond = System.nanoTime() / 1_000_000_000L;
+        long nWindow = errorLogWindow.get();
+        if (nWindow != nNowSecond && errorLogWindow.compareAndSet(nWindow, nNowSecond))
+        {
+            errorLogCount.set(0);
+        }
+        if (errorLogCount.incrementAndGet() <= ERROR_LOG_LIMIT_PER_SECOND)
+        {
+            return true;
+        }
+        suppressedErrorLogCount.incrementAndGet();
+        unreportedErrorLogCount.incrementAndGet();
+        return false;
+    }
+
+    /* 직전 구간에서 생략된 로그 수를 다음 로그 뒤에 붙임 */
+    private static String SuppressedErrorLogMessage()
+    {
+        long nSuppressed = unreportedErrorLogCount.getAndSet(0);
+        return nSuppressed == 0 ? "" : " (" + nSuppressed + " error logs suppressed)";
+    }
+
     public int GetObjectLastIndex(int objectSize)
     {
         return objectSize - 1;
@@ -244,6 +451,38 @@ public class CodecUtil
         }
     }
 
+    /**
+     * GetSize() 로 계산한 최종 크기의 배열을 한 번만 할당하고 EncodeTo 로 직접 채워서 반환
+     * <p> 필드마다 중간 배열을 만들고 이어 붙이는 SerializeMultipleByteArrays / AddPacket 방식의 반복 복사를 대체
+     * @param nSize 인코딩될 전체 크기 (GetSize)
+     * @param encoder 버퍼의 현재 위치부터 필드를 기록하는 메서드 (EncodeTo)
+     * @return 인코딩된 바이트 배열
+     * @throws IOException 크기가 잘못되었거나 실제 기록된 크기가 nSize 와 다른 경우
+     */
+    public byte[] EncodeToArray(int nSize, BufferEncoder encoder) throws IOException
+    {
+        if (nSize < COMMON_SIZE.EMPTY)
+        {
+            throw new IOException("Invalid encode size : " + nSize);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(nSize);
+        try
+        {
+            encoder.EncodeTo(buffer);
+        }
+        catch (BufferOverflowException e)
+        {
+            throw new IOException("Encoded data exceeds size " + nSize, e);
+        }
+
+        if (buffer.hasRemaining())
+        {
+            throw new IOException("Encoded data is smaller than size " + nSize + " (written " + buffer.position() + ")");
+        }
+        return buffer.array();
+    }
+
     /**
      * Reverses the byte order of a byte array.
      * This method swaps the endianness of the byte array.
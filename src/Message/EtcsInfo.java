@@ -1,7 +1,9 @@
 package Message;
 
 import Message.constant.Common.*;
+import Message.constant.Offline.*;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -60,11 +62,33 @@ public class EtcsInfo extends CodecUtil
         {
             this.etcsIdType = ERROR_BYTE;
             Arrays.fill(this.etcsId, ERROR_BYTE);
-            IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Byte array must be exactly 4 bytes long."));
+            super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST,
+                    "Byte array must be exactly 4 bytes long.");
             return false;
         }
     }
 
+    /**
+     * 버퍼의 현재 위치에서 구조체 크기(4바이트)만큼 읽어 초기화 * 복사용 임시 배열 없이 필드에 직접 읽음
+     * @param buffer 읽을 버퍼 (읽은 만큼 position 이동)
+     * @throws java.nio.BufferUnderflowException 남은 바이트가 구조체 크기보다 작은 경우
+     */
+    public void DecodeMessage(ByteBuffer buffer)
+    {
+        SetEtcsIdType(buffer.get());
+        buffer.get(this.etcsId);
+    }
+
+    /**
+     * 버퍼의 현재 위치에 구조체를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (기록한 만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.etcsIdType);
+        buffer.put(this.etcsId);
+    }
+
     public boolean CheckEtcsTypeValue(byte bEtcsType)
     {
         return switch(bEtcsType)
@@ -87,7 +111,7 @@ public class EtcsInfo extends CodecUtil
     {
         try
         {
-            return super.SerializeMultipleByteArrays(new byte[]{etcsIdType}, etcsId);
+            return super.EncodeToArray(GetSize(), this::EncodeTo);
         }
         catch (IOException e)
         {
@@ -1,6 +1,7 @@
 package Message;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import Message.constant.Common.*;
 
 /***
@@ -51,6 +52,27 @@ public class ValidPeriod extends CodecUtil
         this.to = super.SeparationByteArray(bValidPeriodMessage,4,7);
     }
 
+    /**
+     * 버퍼의 현재 위치에서 구조체 크기(8바이트)만큼 읽어 초기화
+     * @param buffer 읽을 버퍼 (읽은 만큼 position 이동)
+     * @throws java.nio.BufferUnderflowException 남은 바이트가 구조체 크기보다 작은 경우
+     */
+    public void DecodeMessage(ByteBuffer buffer)
+    {
+        buffer.get(this.from);
+        buffer.get(this.to);
+    }
+
+    /**
+     * 버퍼의 현재 위치에 구조체를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (기록한 만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.from);
+        buffer.put(this.to);
+    }
+
     /***
      * @return 필드 인스턴스들의 값을 직렬화한 바이트 배열
      */
@@ -58,7 +80,7 @@ public class ValidPeriod extends CodecUtil
     {
         try
         {
-            return super.SerializeMultipleByteArrays(from,to);
+            return super.EncodeToArray(GetSize(), this::EncodeTo);
         }
         catch (IOException e)
         {
@@ -5,8 +5,10 @@ import Message.offline.entity.sub.OfflineKeyStruct;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -67,6 +69,23 @@ public class AddAuthenticationKey extends CodecUtil
         }
     }
 
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
     /**
      * KEY_MESSAGE_ADD_AUTHENTICATION_STRUCT Class Returns a serialized value.
      * @return serialize to KEY_MESSAGE_ADD_AUTHENTICATION_STRUCT values
@@ -84,83 +103,48 @@ public class AddAuthenticationKey extends CodecUtil
         }
     }
 
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
-        {
-            try { /* EOF check */
-                /* Insert K-Struct */
-                Queue<byte[]> qKStruct = new LinkedList<>(); /* 직렬화된 K-struct 바이트배열을 저장할 큐 */
-                do {
-                    byte bLength = dis.readByte();
-                    byte[] bKmcId = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                    dis.readFully(bKmcId);
-                    byte[] bSerialNumber = new byte[OFFLINE_KEY_MESSAGE_SIZE.SERIAL_SIZE];
-                    dis.readFully(bSerialNumber);
-                    byte[] bEnc = new byte[OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE];
-                    dis.readFully(bEnc);
-                    byte[] bPeerNum = new byte[OFFLINE_KEY_MESSAGE_SIZE.PEER_NUM_SIZE];
-                    dis.readFully(bPeerNum);
-                    int nPeerIdLength = ConvertByteArrayToInt(bPeerNum) * COMMON_SIZE.ETCS_STRUCT_SIZE;
-                    byte[] bPeerId = new byte[nPeerIdLength];
-                    dis.readFully(bPeerId);
-
-                    byte[] bValidPeriod = new byte[COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE];
-                    dis.readFully(bValidPeriod);
-                    qKStruct.add( /* 설정한 값들을 직렬화하여 큐에 저장 */
-                            super.SerializeMultipleByteArrays(
-                                    new byte[]{bLength},
-                                    bKmcId,
-                                    bSerialNumber,
-                                    bEnc,
-                                    bPeerNum,
-                                    bPeerId,
-                                    bValidPeriod
-                            ));
-                    /* 남은 크기가를 확인하고 CBC_MAC 사이즈 이하의 크기라면 K-struct 구성 종료 */
-                    if (dis.available() <= COMMON_SIZE.CBC_MAC_SIZE)
-                    {
-                        break;
-                    }
-                } while (true);
-                int nPacketSize = qKStruct.size();
-                this.keyStructs = new OfflineKeyStruct[nPacketSize];
-                for (int idx = 0; idx < nPacketSize; idx++)
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            /* Insert K-Struct * 임시 배열로 재직렬화하지 않고 버퍼에서 바로 파싱 */
+            List<OfflineKeyStruct> keyStructList = new ArrayList<>();
+            do {
+                OfflineKeyStruct keyStruct = new OfflineKeyStruct();
+                if(keyStruct.DecodeMessage(buffer) != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
                 {
-                    /* 큐의 바이트배열을 이용하여 구조체 생성 */
-                    this.keyStructs[idx] = new OfflineKeyStruct();
-                    if(this.keyStructs[idx].DecodeMessage(qKStruct.poll()) != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
-                    {
-                        IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[AddAuthenticationKey] KeyStruct[] value error "));
-                        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                    }
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[AddAuthenticationKey] KeyStruct[] value error ");
                 }
+                keyStructList.add(keyStruct);
+                /* 남은 크기가를 확인하고 CBC_MAC 사이즈 이하의 크기라면 K-struct 구성 종료 */
+            } while (buffer.remaining() > COMMON_SIZE.CBC_MAC_SIZE);
+            this.keyStructs = keyStructList.toArray(new OfflineKeyStruct[0]);
 
-                dis.readFully(this.cbcMac);
-
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+            if (buffer.remaining() < this.cbcMac.length)
+            {
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            buffer.get(this.cbcMac);
+
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
@@ -183,7 +167,7 @@ public class AddAuthenticationKey extends CodecUtil
     {
 
         try {
-            if (this.keyStructs.length == COMMON_SIZE.EMPTY)
+            if (this.keyStructs == null || this.keyStructs.length == COMMON_SIZE.EMPTY)
             {
                 /* k_struct 가 하나도 구성되지 않았다면 예외 처리 */
                 throw new IOException("K-struct is Empty");
@@ -212,18 +196,26 @@ public class AddAuthenticationKey extends CodecUtil
      * @throws IOException If k_structs is null.
      */
     private byte[] SerializeToBytes() throws IOException
+    {
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer) throws IOException
     {
         if(keyStructs == null)
         {
             throw new IOException("k_structs is null");
         }
 
-        byte[] bSerializedMsg = new byte[COMMON_SIZE.EMPTY];
         for (OfflineKeyStruct kStruct : keyStructs)
         {
-            bSerializedMsg = super.AddPacket(bSerializedMsg,kStruct.EncodeObject());
+            kStruct.EncodeTo(buffer);
         }
-        return super.SerializeMultipleByteArrays(bSerializedMsg, cbcMac);
+        buffer.put(this.cbcMac);
     }
 
     public OfflineKeyStruct[] GetKeyStructs()
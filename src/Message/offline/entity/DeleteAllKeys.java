@@ -4,6 +4,8 @@ import Message.CodecUtil;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Structure of KEY_MESSAGE_DELETE_ALL_STRUCT Request
@@ -59,6 +61,23 @@ public class DeleteAllKeys extends CodecUtil
         }
     }
 
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
     /**
      * KEY_MESSAGE_ADD_AUTHENTICATION_STRUCT Class Returns a serialized value.
      * Check whether the key_type value is the correct value.
@@ -96,47 +115,44 @@ public class DeleteAllKeys extends CodecUtil
         return OFFLINE_KEY_MESSAGE_SIZE.KEY_TYPE_SIZE + cbcMac.length;
     }
 
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
-        {
-            try
-            { /* EOF check */
-                this.keyType = dis.readByte();
-                /*   0000 0001 KMAC
-                 *   0000 0010 KTRANS
-                 **  0000 0011 KMAC + KTRANS */
-                if(this.keyType > 0b00000011)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException("[DeleteAllKeys] keyType value error "));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < GetSize()) /* 고정 크기 : 읽기 전에 남은 길이 확인 (BufferUnderflowException 미발생) */
+            {
+                return super.DeserializeFailResult();
+            }
+            this.keyType = buffer.get();
+            /*   0000 0001 KMAC
+             *   0000 0010 KTRANS
+             **  0000 0011 KMAC + KTRANS */
+            if(this.keyType > 0b00000011)
+            {
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[DeleteAllKeys] keyType value error ");
+            }
 
-                dis.readFully(this.cbcMac);
+            buffer.get(this.cbcMac);
 
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
-            }
-            catch (EOFException e)
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
@@ -144,9 +160,27 @@ public class DeleteAllKeys extends CodecUtil
     /* Byte-serialize field instance values */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{this.keyType},
-                this.cbcMac);
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer) throws IOException
+    {
+        switch (this.keyType)
+        {
+            case KEY_TYPE.KMAC,KEY_TYPE.KTRANS,KEY_TYPE.KMAC_KTRANS ->
+            {
+                buffer.put(this.keyType);
+                buffer.put(this.cbcMac);
+            }
+            default ->
+            {
+                throw new IOException("key_type value Error");
+            }
+        }
     }
 
     public void SetCbcMac(byte[] CbcMac)
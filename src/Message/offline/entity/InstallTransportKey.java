@@ -4,6 +4,8 @@ import Message.CodecUtil;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -68,6 +70,23 @@ public class InstallTransportKey extends CodecUtil
         }
     }
 
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
     /**
      * KEY_MESSAGE_INSTALL_TRANS_KEY_STRUCT Class Returns a serialized value.
      * @return serialize to KEY_MESSAGE_INSTALL_TRANS_KEY_STRUCT values
@@ -95,40 +114,38 @@ public class InstallTransportKey extends CodecUtil
     }
 
     /* 바이트 배열을 이용하여 객체의 필드 초기화 */
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
-        {
-            try
-            { /* EOF check */
-                this.length = dis.readByte();
-                dis.readFully(this.serialNumber);
-                dis.readFully(this.ktrans);
-                dis.readFully(this.cbcMac);
-
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < GetSize()) /* 고정 크기 : 읽기 전에 남은 길이 확인 (BufferUnderflowException 미발생) */
+            {
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            this.length = buffer.get();
+            buffer.get(this.serialNumber);
+            buffer.get(this.ktrans);
+            buffer.get(this.cbcMac);
+
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
@@ -136,12 +153,19 @@ public class InstallTransportKey extends CodecUtil
     /* 객체를 바이트 배열로 직렬화 */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{this.length},
-                this.serialNumber,
-                this.ktrans,
-                this.cbcMac
-        );
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.length);
+        buffer.put(this.serialNumber);
+        buffer.put(this.ktrans);
+        buffer.put(this.cbcMac);
     }
 
     /* Getter, Setter */
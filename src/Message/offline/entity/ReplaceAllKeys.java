@@ -4,12 +4,11 @@ import Message.CodecUtil;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import Message.offline.entity.sub.OfflineKeyStruct;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ReplaceAllKeys extends CodecUtil
 {
@@ -80,17 +79,7 @@ public class ReplaceAllKeys extends CodecUtil
             {
                 throw new IOException("k_struct is Null");
             }
-            byte[] bKStructPacket = new byte[COMMON_SIZE.EMPTY];
-            for(OfflineKeyStruct ob : this.KeyStruct)
-            {
-                bKStructPacket = super.AddPacket(bKStructPacket,ob.EncodeObject());
-            }
-            return super.SerializeMultipleByteArrays(
-                    new byte[]{this.eAlgo},
-                    this.kNum,
-                    bKStructPacket,
-                    this.cbcMac
-            );
+            return super.EncodeToArray(GetSize(), this::EncodeTo);
         }
         catch (IOException e)
         {
@@ -104,101 +93,115 @@ public class ReplaceAllKeys extends CodecUtil
      * @return 구조체의 크기 반환
      */
     public int GetSize(){
-        return OFFLINE_KEY_MESSAGE_SIZE.E_ALGO_SIZE + kNum.length + (KeyStruct != null ? KeyStruct.length * KeyStruct[0].GetSize() : 0) + cbcMac.length;
+        int nKeyStructSize = 0;
+        if (KeyStruct != null)
+        {
+            /* k-struct 마다 피어 수가 다를 수 있으므로 각각의 크기를 합산 */
+            for (OfflineKeyStruct ob : KeyStruct)
+            {
+                nKeyStructSize += ob.GetSize();
+            }
+        }
+        return OFFLINE_KEY_MESSAGE_SIZE.E_ALGO_SIZE + kNum.length + nKeyStructSize + cbcMac.length;
     }
 
-    /* 바이트 배열을 이용하여 객체의 필드 초기화 */
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer) throws IOException
     {
-        if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
+        if(this.KeyStruct == null)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            throw new IOException("k_struct is Null");
         }
-
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
+        buffer.put(this.eAlgo);
+        buffer.put(this.kNum);
+        for(OfflineKeyStruct ob : this.KeyStruct)
         {
-            try
-            { /* EOF check */
-                this.eAlgo = dis.readByte();
-                if(!CheckOfflineKeyMsgAuthAlgo(this.eAlgo)) /* 인증 알고리즘 확인*/
-                {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[ReplaceAllKeys] authAlgo value Error "));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_DECRYPTION_ALGORITHM_NOT_IMPLEMENTATION;
-                }
+            ob.EncodeTo(buffer);
+        }
+        buffer.put(this.cbcMac);
+    }
 
-                dis.readFully(this.kNum);
-                Queue<byte[]> k_structPacket = new LinkedList<>();
-                do {
-                    byte bLength = dis.readByte();
-                    byte[] bKmcId = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                    dis.readFully(bKmcId);
-                    byte[] bSerialNumber = new byte[OFFLINE_KEY_MESSAGE_SIZE.SERIAL_SIZE];
-                    dis.readFully(bSerialNumber);
-                    byte[] bEnc = new byte[OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE];
-                    dis.readFully(bEnc);
-                    byte[] bPeerNum = new byte[OFFLINE_KEY_MESSAGE_SIZE.PEER_NUM_SIZE];
-                    dis.readFully(bPeerNum);
-                    int nPeerIdLength = ConvertByteArrayToInt(bPeerNum) * COMMON_SIZE.ETCS_STRUCT_SIZE;
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     * @return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE [0,5,12,13]
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
 
-                    byte[] nPeerId = new byte[nPeerIdLength];
-                    dis.readFully(nPeerId);  /* EOF 익셉션 자주 발생하는 부분 */
+    /* 바이트 배열을 이용하여 객체의 필드 초기화 */
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
+    {
+        if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
+        {
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
+        }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-                    byte[] bValidPeriod = new byte[COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE];
-                    dis.readFully(bValidPeriod);
-                    k_structPacket.add(
-                            super.SerializeMultipleByteArrays(
-                                    new byte[]{bLength},
-                                    bKmcId,
-                                    bSerialNumber,
-                                    bEnc,
-                                    bPeerNum,
-                                    nPeerId,
-                                    bValidPeriod
-                            ));
-                    /* CRC 사이즈 또는 그 이하로 남는다면 남은 K_STRUCT 가 없음  */
-                    if (dis.available() <= COMMON_SIZE.CBC_MAC_SIZE)
-                    {
-                        break;
-                    }
-                } while (true);
-                int nPacketSize = k_structPacket.size();
-                this.KeyStruct = new OfflineKeyStruct[nPacketSize];
-                for (int idx = 0; idx < nPacketSize; idx++)
-                {
-                    this.KeyStruct[idx] = new OfflineKeyStruct();
-                    int nResult = this.KeyStruct[idx].DecodeMessage(k_structPacket.poll());
-                    if(nResult != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
-                    {
-                        return nResult;
-                    }
-                }
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < OFFLINE_KEY_MESSAGE_SIZE.E_ALGO_SIZE + this.kNum.length)
+            {
+                return super.DeserializeFailResult();
+            }
+            this.eAlgo = buffer.get();
+            if(!CheckOfflineKeyMsgAuthAlgo(this.eAlgo)) /* 인증 알고리즘 확인*/
+            {
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_DECRYPTION_ALGORITHM_NOT_IMPLEMENTATION, "[ReplaceAllKeys] authAlgo value Error ");
+            }
 
-                if( super.ConvertByteArrayToInt(this.kNum) != this.KeyStruct.length )
+            buffer.get(this.kNum);
+            List<OfflineKeyStruct> keyStructList = new ArrayList<>();
+            do {
+                /* k-struct 를 임시 배열로 재직렬화하지 않고 버퍼에서 바로 파싱 */
+                OfflineKeyStruct keyStruct = new OfflineKeyStruct();
+                int nResult = keyStruct.DecodeMessage(buffer);
+                if(nResult != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException("The number of k-num and keyStruct is not the same"));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                    return nResult;
                 }
+                keyStructList.add(keyStruct);
+                /* CRC 사이즈 또는 그 이하로 남는다면 남은 K_STRUCT 가 없음  */
+            } while (buffer.remaining() > COMMON_SIZE.CBC_MAC_SIZE);
+            this.KeyStruct = keyStructList.toArray(new OfflineKeyStruct[0]);
 
-                dis.readFully(this.cbcMac);
+            if( super.ConvertByteArrayToInt(this.kNum) != this.KeyStruct.length )
+            {
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "The number of k-num and keyStruct is not the same");
+            }
 
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+            if (buffer.remaining() < this.cbcMac.length)
+            {
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            buffer.get(this.cbcMac);
+
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
@@ -5,6 +5,8 @@ import Message.EtcsInfo;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 public class ReplaceEtcsEntities extends CodecUtil {
     private EtcsInfo KmEtcsIdExp = new EtcsInfo();
@@ -62,6 +64,23 @@ public class ReplaceEtcsEntities extends CodecUtil {
         }
     }
 
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
     /***
      *
      * @return 클래스 필드 인스턴스들의 값을 바이트 배열로 직렬화하여 반환
@@ -86,57 +105,56 @@ public class ReplaceEtcsEntities extends CodecUtil {
     public int GetSize()
     {
         return this.KmEtcsIdExp.GetSize() + this.serialNumber.length + this.peerNum.length +
-                (this.EtcsIdExpPeer != null ? this.EtcsIdExpPeer.length * this.EtcsIdExpPeer[0].GetSize(): COMMON_SIZE.EMPTY )  /* ETCS NULL CHECK */
+                (this.EtcsIdExpPeer != null ? this.EtcsIdExpPeer.length * COMMON_SIZE.ETCS_STRUCT_SIZE : COMMON_SIZE.EMPTY )  /* ETCS NULL CHECK */
                 + this.cbcMac.length;
     }
 
     /* 바이트 배열을 이용하여 객체의 필드 초기화 */
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
-        {
-            try
-            { /* EOF check */
-                byte[] bEtcsTemp = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                dis.readFully(bEtcsTemp);
-                this.KmEtcsIdExp.DecodeMessage(bEtcsTemp);
-
-                dis.readFully(this.serialNumber);
-                dis.readFully(this.peerNum);
-
-                int nPeerToInt = super.ConvertByteArrayToInt(this.peerNum);
-                this.EtcsIdExpPeer = new EtcsInfo[nPeerToInt];
-                for (int idx = 0; idx < nPeerToInt; idx++) {
-                    byte[] bEtcsId = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                    dis.readFully(bEtcsId);
-                    this.EtcsIdExpPeer[idx] = new EtcsInfo();
-                }
-
-                dis.readFully(this.cbcMac);
-
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < COMMON_SIZE.ETCS_STRUCT_SIZE + this.serialNumber.length + this.peerNum.length)
+            {
+                return super.DeserializeFailResult();
+            }
+            this.KmEtcsIdExp.DecodeMessage(buffer);
+
+            buffer.get(this.serialNumber);
+            buffer.get(this.peerNum);
+
+            int nPeerToInt = super.ConvertByteArrayToInt(this.peerNum);
+            if (nPeerToInt * COMMON_SIZE.ETCS_STRUCT_SIZE + this.cbcMac.length > buffer.remaining())
+            { /* 피어 수가 남은 바이트보다 많으면 배열을 만들기 전에 실패 처리 */
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            this.EtcsIdExpPeer = new EtcsInfo[nPeerToInt];
+            for (int idx = 0; idx < nPeerToInt; idx++) {
+                this.EtcsIdExpPeer[idx] = new EtcsInfo();
+                this.EtcsIdExpPeer[idx].DecodeMessage(buffer);
+            }
+
+            buffer.get(this.cbcMac);
+
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
@@ -144,25 +162,28 @@ public class ReplaceEtcsEntities extends CodecUtil {
     /* 객체를 바이트 배열로 직렬화 */
     private byte[] SerializeToBytes() throws IOException
     {
-        if(this.EtcsIdExpPeer.length != super.ConvertByteArrayToInt(this.peerNum) )
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer) throws IOException
+    {
+        if(this.EtcsIdExpPeer == null || this.EtcsIdExpPeer.length != super.ConvertByteArrayToInt(this.peerNum) )
         {
             throw new IOException("peer etcs object size error");
         }
 
-        byte[] bEtcsObjectByteArray = new byte[COMMON_SIZE.EMPTY];
-
+        this.KmEtcsIdExp.EncodeTo(buffer);
+        buffer.put(this.serialNumber);
+        buffer.put(this.peerNum);
         for(EtcsInfo object : this.EtcsIdExpPeer)
         {
-            bEtcsObjectByteArray = super.AddPacket(bEtcsObjectByteArray, object.EncodeObject());
+            object.EncodeTo(buffer);
         }
-
-        return super.SerializeMultipleByteArrays(
-                this.KmEtcsIdExp.EncodeObject(),
-                this.serialNumber,
-                this.peerNum,
-                bEtcsObjectByteArray,
-                this.cbcMac
-        );
+        buffer.put(this.cbcMac);
     }
 
     public EtcsInfo GetKmEtcsIdExp()
@@ -3,10 +3,9 @@ package Message.offline.entity;
 import Message.CodecUtil;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 public class ResponseNotify extends CodecUtil
 {
@@ -66,6 +65,23 @@ public class ResponseNotify extends CodecUtil
         }
     }
 
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
     /***
      *
      * @return 클래스 필드 인스턴스들의 값을 바이트 배열로 직렬화하여 반환
@@ -90,7 +106,7 @@ public class ResponseNotify extends CodecUtil
     public int GetSize()
     {
         return OFFLINE_KEY_MESSAGE_SIZE.RESULT_SIZE +
-                (this.length == 0 ? OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE: OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE + this.length)
+                (this.length == 0 ? OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE: OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE + Byte.toUnsignedInt(this.length))
                 + this.sequenceNumber.length + this.cbcMac.length;
     }
 
@@ -111,58 +127,70 @@ public class ResponseNotify extends CodecUtil
     }
 
 
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
-        {
-            try
-            { /* EOF check */
-                this.result = dis.readByte();
-                this.length = dis.readByte();
-                { /* 설정된 length 필드에 맞춰서 text 크기 할당 */
-                    this.text = new byte[this.length];
-                    dis.readFully(this.text);
-                }
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < OFFLINE_KEY_MESSAGE_SIZE.RESULT_SIZE + OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE)
+            {
+                return super.DeserializeFailResult();
+            }
+            this.result = buffer.get();
+            this.length = buffer.get();
+            if (buffer.remaining() < Byte.toUnsignedInt(this.length) + this.sequenceNumber.length + this.cbcMac.length)
+            {
+                return super.DeserializeFailResult();
+            }
+            { /* 설정된 length 필드에 맞춰서 text 크기 할당 */
+                this.text = new byte[Byte.toUnsignedInt(this.length)];
+                buffer.get(this.text);
+            }
 
-                dis.readFully(this.sequenceNumber);
-                dis.readFully(this.cbcMac);
+            buffer.get(this.sequenceNumber);
+            buffer.get(this.cbcMac);
 
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
-            }
-            catch (EOFException e)
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
     /* 객체를 바이트 배열로 직렬화 */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{this.result},
-                /* 길이조건이 0이라면 text 값은 포함시키지 않음 */
-                this.length == 0 ? new byte[]{0x00} : super.AddPacket(new byte[]{this.length},this.text),
-                this.sequenceNumber,
-                this.cbcMac
-        );
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.result);
+        buffer.put(this.length);
+        if (this.length != 0) /* 길이조건이 0이라면 text 값은 포함시키지 않음 */
+        {
+            buffer.put(this.text);
+        }
+        buffer.put(this.sequenceNumber);
+        buffer.put(this.cbcMac);
     }
 
     public byte GetResult()
@@ -6,6 +6,8 @@ import Message.ValidPeriod;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 public class UpdateKeyValidityPeriod extends CodecUtil
 {
@@ -60,6 +62,23 @@ public class UpdateKeyValidityPeriod extends CodecUtil
         }
     }
 
+    /***
+     * 버퍼의 position ~ limit 구간을 바디 전체로 보고 복사 없이 초기화
+     * @param buffer 바디 구간 버퍼 (읽은 만큼 position 이동)
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
     /***
      *
      * @return 클래스 필드 인스턴스들의 값을 바이트 배열로 직렬화하여 반환
@@ -86,47 +105,41 @@ public class UpdateKeyValidityPeriod extends CodecUtil
         return KmEtcsIdExp.GetSize() + this.serialNumber.length + this.validPeriod.GetSize() + this.cbcMac.length;
     }
 
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
+        return DeserializeFromBuffer(ByteBuffer.wrap(byteArrayInputStream));
+    }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
-        {
-            try
-            { /* EOF check */
-                byte[] bEtcsId = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                dis.readFully(bEtcsId);
-                this.KmEtcsIdExp.DecodeMessage(bEtcsId);
-
-                dis.readFully(this.serialNumber);
-
-                byte[] bValid = new byte[COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE];
-                dis.readFully(bValid);
-                this.KmEtcsIdExp.DecodeMessage(bValid);
-
-                dis.readFully(this.cbcMac);
-
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < GetSize()) /* 고정 크기 : 읽기 전에 남은 길이 확인 (BufferUnderflowException 미발생) */
+            {
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            this.KmEtcsIdExp.DecodeMessage(buffer);
+
+            buffer.get(this.serialNumber);
+
+            this.validPeriod.DecodeMessage(buffer);
+
+            buffer.get(this.cbcMac);
+
+            /* 스트림에 남은 바이트가 있는지 확인 */
+            if (buffer.hasRemaining())
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
             }
         }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
+        }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
@@ -134,12 +147,19 @@ public class UpdateKeyValidityPeriod extends CodecUtil
     /* 객체를 바이트 배열로 직렬화 */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                this.KmEtcsIdExp.EncodeObject(),
-                this.serialNumber,
-                this.validPeriod.EncodeObject(),
-                this.cbcMac
-        );
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 바디를 직렬화하여 기록 (헤더 뒤에 이어서 기록 가능)
+     * @param buffer 기록할 버퍼 (바디 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        this.KmEtcsIdExp.EncodeTo(buffer);
+        buffer.put(this.serialNumber);
+        this.validPeriod.EncodeTo(buffer);
+        buffer.put(this.cbcMac);
     }
 
     public EtcsInfo GetKmEtcsIdExp()
@@ -5,10 +5,9 @@ import Message.EtcsInfo;
 import Message.constant.Offline;
 import Message.constant.Common;
 import Message.constant.Offline.*;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 /***
  * Offline Key Message 의 헤더
@@ -100,68 +99,79 @@ public class OfflineHeader extends CodecUtil
         }
     }
 
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == Common.COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
+        ByteBuffer buffer = ByteBuffer.wrap(byteArrayInputStream);
+        int nResultCode = DeserializeFromBuffer(buffer);
+
+        /* 스트림에 남은 바이트가 있는지 확인 */
+        if (nResultCode == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED && buffer.hasRemaining())
+        {
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, Common.EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+        }
+        return nResultCode;
+    }
+
+    /***
+     * 버퍼의 현재 위치에서 헤더 크기만큼 복사 없이 파싱 (뒤따르는 바디는 그대로 둠)
+     * @param buffer 메시지 버퍼 (헤더 크기만큼 position 이동)
+     * @return <p><b>발생 가능한 Result Code[0,3,11,12,13,18]
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
         {
-            try
-            { /* EOF Check */
-                dis.readFully(this.length);
-                this.version = dis.readByte();
-                if(this.version != Offline.OFFLINE_KMC_VERSION) /* 인터페이스 버전 체크 */
-                {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[OfflineHeader Decode] version value error "));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INTERFACE_VERSION_NOT_SUPPORTED;
-                }
-
-                byte[] bEtcsId = new byte[Common.COMMON_SIZE.ETCS_STRUCT_SIZE];
-                dis.readFully(bEtcsId);
-                this.receiver.DecodeMessage(bEtcsId);
-
-                byte[] bEtcsId2 = new byte[Common.COMMON_SIZE.ETCS_STRUCT_SIZE];
-                dis.readFully(bEtcsId2);
-                this.sender.DecodeMessage(bEtcsId2);
-
-                dis.readFully(this.transaction);
-                dis.readFully(this.sequence);
-
-                this.authAlgo = dis.readByte();
-                if(this.authAlgo != Offline.AUTH_ALGO_3DES) /* 인증 알고리즘 체크 */
-                {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[OfflineHeader Decode] authAlgo value Error "));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_AUTHENTICATION_ALGORITHM_NOT_IMPLEMENTED;
-                }
-                dis.readFully(this.serial);
-                this.msgType = dis.readByte();
-                /* 헤더에 삽입된 메시지 타입이 OFFLINE_KEY_MESSAGE_TYPE 에 속하는지 맞는지 체크*/
-                if (!CheckOfflineKeyMsgType(this.msgType)) /* 메시지 타입 체크 */
-                {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[OfflineHeader Decode] This type does not belong to OFFLINE_KEY_MESSAGE_TYPE"));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_NOT_SUPPORTED;
-                }
-
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > Common.COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(Common.EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF Check */
+            if (buffer.remaining() < GetSize()) /* 고정 크기 : 읽기 전에 남은 길이 확인 (BufferUnderflowException 미발생) */
+            {
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            buffer.get(this.length);
+            this.version = buffer.get();
+            if(this.version != Offline.OFFLINE_KMC_VERSION) /* 인터페이스 버전 체크 */
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(Common.EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INTERFACE_VERSION_NOT_SUPPORTED, "[OfflineHeader Decode] version value error ");
             }
+
+            this.receiver.DecodeMessage(buffer);
+            this.sender.DecodeMessage(buffer);
+
+            buffer.get(this.transaction);
+            buffer.get(this.sequence);
+
+            this.authAlgo = buffer.get();
+            if(this.authAlgo != Offline.AUTH_ALGO_3DES) /* 인증 알고리즘 체크 */
+            {
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_AUTHENTICATION_ALGORITHM_NOT_IMPLEMENTED, "[OfflineHeader Decode] authAlgo value Error ");
+            }
+            buffer.get(this.serial);
+            this.msgType = buffer.get();
+            /* 헤더에 삽입된 메시지 타입이 OFFLINE_KEY_MESSAGE_TYPE 에 속하는지 맞는지 체크*/
+            if (!CheckOfflineKeyMsgType(this.msgType)) /* 메시지 타입 체크 */
+            {
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_NOT_SUPPORTED, "[OfflineHeader Decode] This type does not belong to OFFLINE_KEY_MESSAGE_TYPE");
+            }
+        }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
         }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
@@ -170,17 +180,24 @@ public class OfflineHeader extends CodecUtil
     /* 객체를 바이트 배열로 직렬화 */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                this.length,
-                new byte[]{this.version},
-                this.receiver.EncodeObject(),
-                this.sender.EncodeObject(),
-                this.transaction,
-                this.sequence,
-                new byte[]{this.authAlgo},
-                this.serial,
-                new byte[]{this.msgType}
-        );
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 헤더를 직렬화하여 기록 (뒤이어 바디를 같은 버퍼에 기록할 수 있음)
+     * @param buffer 기록할 버퍼 (헤더 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.length);
+        buffer.put(this.version);
+        this.receiver.EncodeTo(buffer);
+        this.sender.EncodeTo(buffer);
+        buffer.put(this.transaction);
+        buffer.put(this.sequence);
+        buffer.put(this.authAlgo);
+        buffer.put(this.serial);
+        buffer.put(this.msgType);
     }
     /**
      * 필드 인스턴스들의 총 크기
@@ -5,10 +5,9 @@ import Message.constant.Common.*;
 import Message.EtcsInfo;
 import Message.ValidPeriod;
 import Message.constant.Offline.*;
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Structure of K-STRUCT
@@ -23,6 +22,10 @@ import java.io.IOException;
 public class OfflineKeyStruct extends CodecUtil
 {
     private byte length;
+    /* length + KM-ETCS-ID-EXP + SNUM + ENC(KMAC) + PEER-NUM (피어 목록 앞까지의 고정 크기) */
+    public static final int KEY_STRUCT_FIXED_SIZE = OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE + COMMON_SIZE.ETCS_STRUCT_SIZE +
+            OFFLINE_KEY_MESSAGE_SIZE.SERIAL_SIZE + OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE + OFFLINE_KEY_MESSAGE_SIZE.PEER_NUM_SIZE;
+
     private EtcsInfo KmEtcsIdExp = new EtcsInfo();
     private byte[] sNum = new byte[OFFLINE_KEY_MESSAGE_SIZE.SERIAL_SIZE];
     private byte[] enc = new byte[OFFLINE_KEY_MESSAGE_SIZE.KMAC_SIZE];
@@ -85,21 +88,7 @@ public class OfflineKeyStruct extends CodecUtil
     {
         try
         {
-            byte[] bPeerPacket = new byte[COMMON_SIZE.EMPTY];
-            for(EtcsInfo EtcsObject : EtcsIdExpPeer)
-            {
-                bPeerPacket = super.AddPacket(bPeerPacket,EtcsObject.EncodeObject());
-            }
-
-            return super.SerializeMultipleByteArrays(
-                    new byte[]{length},
-                    this.KmEtcsIdExp.EncodeObject(),
-                    this.sNum,
-                    this.enc,
-                    this.peerNum,
-                    bPeerPacket,
-                    this.validPeriod.EncodeObject()
-            );
+            return super.EncodeToArray(GetSize(), this::EncodeTo);
         }
         catch (IOException e)
         {
@@ -108,61 +97,97 @@ public class OfflineKeyStruct extends CodecUtil
         }
     }
 
-    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    /***
+     * 버퍼의 현재 위치에서 k-struct 하나를 복사 없이 파싱 (뒤따르는 k-struct 는 그대로 둠)
+     * @param buffer 메시지 버퍼 (k-struct 크기만큼 position 이동)
+     * @return <p><b>발생 가능한 Result Code[0,3,18]
+     */
+    public int DecodeMessage(ByteBuffer buffer)
+    {
+        try
+        {
+            return DeserializeFromBuffer(buffer);
+        }
+        catch (Exception e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
+
+    private int DeserializeFromBytes(byte[] byteArrayInputStream)
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR;
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
-             DataInputStream dis = new DataInputStream(bais))
+        ByteBuffer buffer = ByteBuffer.wrap(byteArrayInputStream);
+        int nResultCode = DeserializeFromBuffer(buffer);
+
+        /* 스트림에 남은 바이트가 있는지 확인 */
+        if (nResultCode == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED && buffer.hasRemaining())
         {
-            try { /* EOF check */
-                this.length = dis.readByte();
-
-                byte[] temp_kmcId = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                dis.readFully(temp_kmcId);
-                this.KmEtcsIdExp.DecodeMessage(temp_kmcId);
-
-                dis.readFully(this.sNum);
-                dis.readFully(this.enc);
-                dis.readFully(this.peerNum);
-
-                int nPeerCnt = super.ConvertByteArrayToInt(this.peerNum);
-                this.EtcsIdExpPeer = new EtcsInfo[nPeerCnt];
-                for (int idx = 0; idx < nPeerCnt; idx++)
-                {
-                    byte[] bPeerEtcsId = new byte[COMMON_SIZE.ETCS_STRUCT_SIZE];
-                    dis.readFully(bPeerEtcsId);
-                    this.EtcsIdExpPeer[idx] = new EtcsInfo(bPeerEtcsId);
-                }
-
-                byte[] bValid = new byte[COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE];
-                dis.readFully(bValid);
-                this.validPeriod.DecodeMessage(bValid);
-
-                /* 스트림에 남은 바이트가 있는지 확인 */
-                if (dis.available() > COMMON_SIZE.EMPTY)
-                {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-                }
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+        }
+        return nResultCode;
+    }
+
+    private int DeserializeFromBuffer(ByteBuffer buffer)
+    {
+        try
+        { /* EOF check */
+            if (buffer.remaining() < KEY_STRUCT_FIXED_SIZE) /* 피어 목록 앞까지의 고정 크기 확인 */
+            {
+                return super.DeserializeFailResult();
             }
-            catch (EOFException e)
+            this.length = buffer.get();
+            this.KmEtcsIdExp.DecodeMessage(buffer);
+
+            buffer.get(this.sNum);
+            buffer.get(this.enc);
+            buffer.get(this.peerNum);
+
+            int nPeerCnt = super.ConvertByteArrayToInt(this.peerNum);
+            if (nPeerCnt * COMMON_SIZE.ETCS_STRUCT_SIZE + COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE > buffer.remaining())
+            { /* 피어 수가 남은 바이트보다 많으면 배열을 만들기 전에 실패 처리 */
+                return super.DeserializeFailResult();
+            }
+            this.EtcsIdExpPeer = new EtcsInfo[nPeerCnt];
+            for (int idx = 0; idx < nPeerCnt; idx++)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
+                this.EtcsIdExpPeer[idx] = new EtcsInfo();
+                this.EtcsIdExpPeer[idx].DecodeMessage(buffer);
             }
+
+            this.validPeriod.DecodeMessage(buffer);
+        }
+        catch (BufferUnderflowException e)
+        {
+            return super.DeserializeFailResult(e);
         }
 
         return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
+    /***
+     * 버퍼의 현재 위치에 k-struct 를 직렬화하여 기록 (피어 목록을 중간 배열 없이 바로 기록)
+     * @param buffer 기록할 버퍼 (k-struct 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.length);
+        this.KmEtcsIdExp.EncodeTo(buffer);
+        buffer.put(this.sNum);
+        buffer.put(this.enc);
+        buffer.put(this.peerNum);
+        for(EtcsInfo EtcsObject : this.EtcsIdExpPeer)
+        {
+            EtcsObject.EncodeTo(buffer);
+        }
+        this.validPeriod.EncodeTo(buffer);
+    }
+
     public int GetSize()
     {
         if(this.EtcsIdExpPeer == null)
@@ -170,7 +195,7 @@ public class OfflineKeyStruct extends CodecUtil
             return super.ERROR_CODE;
         }
         return OFFLINE_KEY_MESSAGE_SIZE.LENGTH_FILED_SIZE + this.KmEtcsIdExp.GetSize() + this.sNum.length + this.enc.length +
-                this.peerNum.length + (this.EtcsIdExpPeer.length * this.EtcsIdExpPeer[0].GetSize()) + this.validPeriod.GetSize();
+                this.peerNum.length + (this.EtcsIdExpPeer.length * COMMON_SIZE.ETCS_STRUCT_SIZE) + this.validPeriod.GetSize();
     }
 
     public byte GetLength()
@@ -5,6 +5,7 @@ import Message.constant.Common;
 import Message.EtcsInfo;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
  *  038 key_offline[kmc<->kmc] KEY_MESSAGE : CONF_KMAC_DELETION(0b00000111)
@@ -110,11 +111,11 @@ public class ConfKmacDeletion extends CodecUtil
         IncorporateKmacDeletion(kmacDeletion);
     }
 
-    private void DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == 0)
         {
-            throw new IllegalArgumentException("Input stream is null or empty");
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -126,7 +127,7 @@ public class ConfKmacDeletion extends CodecUtil
                 byte bReadKmMsg = dis.readByte();
                 if (bReadKmMsg != this.kmMessage)
                 {
-                    throw new IOException("Invalid km_msg value.");
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "Invalid km_msg value.");
                 }
 
                 /* Read the rest of the fields */
@@ -141,7 +142,11 @@ public class ConfKmacDeletion extends CodecUtil
                 byte[] bCombinedArray = new byte[1 + bTrEtcsId.length];
                 bCombinedArray[0] = bTrQuant;
                 System.arraycopy(bTrEtcsId, 0, bCombinedArray, 1, bTrEtcsId.length);
-                this.TracksidePeer = new TracksidePeer(bCombinedArray);
+                this.TracksidePeer = new TracksidePeer();
+                if (!this.TracksidePeer.DecodeMessage(bCombinedArray))
+                {
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[ConfKmacDeletion] tr_etcs_id value error");
+                }
 
 
                 byte[] bTempEtcsArray = new byte[KM_MESSAGE_SIZE.ETCS_STRUCT_SIZE];
@@ -157,31 +162,38 @@ public class ConfKmacDeletion extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > Common.COMMON_SIZE.EMPTY)
                 {
-                    throw new IllegalArgumentException(Common.EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, Common.EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(Common.EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                throw exception;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, Common.EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
+        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
     /* Byte-serialize field instance values */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{kmMessage, subType},
-                this.obEtcsId,
-                this.TracksidePeer.EncodeObject(),
-                this.KmEtcsIdIssuer.EncodeObject(),
-                this.KmEtcsIdTarget.EncodeObject(),
-                this.issueDate,
-                new byte[]{tNum},
-                this.cbcMac);
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 메시지를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (메시지 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(kmMessage);
+        buffer.put(subType);
+        buffer.put(this.obEtcsId);
+        this.TracksidePeer.EncodeTo(buffer);
+        this.KmEtcsIdIssuer.EncodeTo(buffer);
+        this.KmEtcsIdTarget.EncodeTo(buffer);
+        buffer.put(this.issueDate);
+        buffer.put(tNum);
+        buffer.put(this.cbcMac);
     }
 
     /***
@@ -200,12 +212,18 @@ public class ConfKmacDeletion extends CodecUtil
      */
     private boolean IncorporateMsgFromBuffer(byte[] bConfKmacDeletionMessage){
         try {
-            DeserializeFromBytes(bConfKmacDeletionMessage);
+            if (DeserializeFromBytes(bConfKmacDeletionMessage) != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+            {
+                return false;
+            }
             switch (bConfKmacDeletionMessage[0])
             {
                 case OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION ->
                 {
-                    DeserializeFromBytes(bConfKmacDeletionMessage);
+                    if (DeserializeFromBytes(bConfKmacDeletionMessage) != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+                    {
+                        return false;
+                    }
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_DELETION ->
                 {
@@ -5,6 +5,7 @@ import Message.EtcsInfo;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -112,11 +113,11 @@ public class ConfKmacExchange extends CodecUtil
      * 바이트 배열을 받아 구조체로 병합
      * @param byteArrayInputStream 구조로 복사할 바이트 배열
      */
-    private void DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
+    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            throw new IllegalArgumentException("Input stream is null or empty");
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -127,7 +128,7 @@ public class ConfKmacExchange extends CodecUtil
                 /* Read and ignore km_msg, because it's a constant */
                 byte bReadKmMsg = dis.readByte();
                 if (bReadKmMsg != this.kmMessage) {
-                    throw new IOException("Invalid km_msg value.");
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "Invalid km_msg value.");
                 }
 
                 /* Read the rest of the fields */
@@ -141,7 +142,11 @@ public class ConfKmacExchange extends CodecUtil
                 byte[] bCombinedArray = new byte[KM_MESSAGE_SIZE.TR_QUANT_SIZE + bTrEtcsId.length];
                 bCombinedArray[0] = bTruant;
                 System.arraycopy(bTrEtcsId, 0, bCombinedArray, 1, bTrEtcsId.length);
-                this.TracksidePeer = new TracksidePeer(bCombinedArray);
+                this.TracksidePeer = new TracksidePeer();
+                if (!this.TracksidePeer.DecodeMessage(bCombinedArray))
+                {
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[ConfKmacExchange] tr_etcs_id value error");
+                }
 
                 byte[] bTempEtcsId = new byte[KM_MESSAGE_SIZE.ETCS_STRUCT_SIZE];
                 dis.readFully(bTempEtcsId);
@@ -159,17 +164,15 @@ public class ConfKmacExchange extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    throw new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                throw exception;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
+        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
     /**
@@ -180,16 +183,23 @@ public class ConfKmacExchange extends CodecUtil
      */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{this.kmMessage},
-                this.obEtcsId,
-                this.TracksidePeer.EncodeObject(),
-                this.KmEtcsIdIssuer.EncodeObject(),
-                this.KmEtcsIdTarget.EncodeObject(),
-                this.issueDate,
-                new byte[]{this.tNum},
-                this.cbcMac
-        );
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 메시지를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (메시지 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.kmMessage);
+        buffer.put(this.obEtcsId);
+        this.TracksidePeer.EncodeTo(buffer);
+        this.KmEtcsIdIssuer.EncodeTo(buffer);
+        this.KmEtcsIdTarget.EncodeTo(buffer);
+        buffer.put(this.issueDate);
+        buffer.put(this.tNum);
+        buffer.put(this.cbcMac);
     }
 
     /***
@@ -216,7 +226,10 @@ public class ConfKmacExchange extends CodecUtil
             {
                 case OFFLINE_KM_MESSAGE.CONF_KMAC_EXCHANGE ->
                 {
-                    DeserializeFromBytes(bConfKmacExchange);
+                    if (DeserializeFromBytes(bConfKmacExchange) != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+                    {
+                        return false;
+                    }
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_EXCHANGE ->
                 {
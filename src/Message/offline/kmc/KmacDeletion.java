@@ -6,6 +6,7 @@ import Message.EtcsInfo;
 import Message.constant.Offline.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
  *  038 key_offline[kmc<->kmc] KM_MESSAGE : KMAC_DELETION(0b00000110)
@@ -86,8 +87,7 @@ public class KmacDeletion extends CodecUtil
     {
         try
         {
-            DeserializeFromBytes(byteArrayInputStream);
-            return true;
+            return DeserializeFromBytes(byteArrayInputStream) == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
         }
         catch (Exception e)
         {
@@ -113,11 +113,11 @@ public class KmacDeletion extends CodecUtil
         }
     }
 
-    private void DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == 0)
         {
-            throw new IllegalArgumentException("Input stream is null or empty");
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -128,7 +128,7 @@ public class KmacDeletion extends CodecUtil
                 /* Read and ignore km_msg, because it's a constant */
                 byte bReadKmMsg = dis.readByte();
                 if (bReadKmMsg != this.kmMessage) {
-                    throw new IOException("Invalid km_msg value.");
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "Invalid km_msg value.");
                 }
 
                 /* Read the rest of the fields */
@@ -143,7 +143,11 @@ public class KmacDeletion extends CodecUtil
                 byte[] bCombinedArray = new byte[KM_MESSAGE_SIZE.TR_QUANT_SIZE + tr_etcs_id.length];
                 bCombinedArray[KM_MESSAGE_IDX.TR_QUANT_IDX] = bTrQuant;
                 System.arraycopy(tr_etcs_id, 0, bCombinedArray, 1, tr_etcs_id.length);
-                this.TracksidePeer = new TracksidePeer(bCombinedArray);
+                this.TracksidePeer = new TracksidePeer();
+                if (!this.TracksidePeer.DecodeMessage(bCombinedArray))
+                {
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[KmacDeletion] tr_etcs_id value error");
+                }
 
 
                 byte[] bTempEtcsId = new byte[KM_MESSAGE_SIZE.ETCS_STRUCT_SIZE];
@@ -162,34 +166,41 @@ public class KmacDeletion extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    throw new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                throw exception;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
+        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
     /* Byte-serialize field instance values */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{kmMessage, subType},
-                this.obEtcsId,
-                this.TracksidePeer.EncodeObject(),
-                this.KmEtcsIdIssuer.EncodeObject(),
-                this.KmEtcsIdTarget.EncodeObject(),
-                this.issueDate,
-                this.effDate,
-                new byte[]{tNum},
-                this.sNum,
-                new byte[]{reason},
-                this.cbcMac);
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 메시지를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (메시지 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(kmMessage);
+        buffer.put(subType);
+        buffer.put(this.obEtcsId);
+        this.TracksidePeer.EncodeTo(buffer);
+        this.KmEtcsIdIssuer.EncodeTo(buffer);
+        this.KmEtcsIdTarget.EncodeTo(buffer);
+        buffer.put(this.issueDate);
+        buffer.put(this.effDate);
+        buffer.put(tNum);
+        buffer.put(this.sNum);
+        buffer.put(reason);
+        buffer.put(this.cbcMac);
     }
 
     /***
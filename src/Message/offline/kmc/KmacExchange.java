@@ -6,6 +6,7 @@ import Message.ValidPeriod;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
  * KMAC Exchange request between off-line KM Domains.
@@ -83,8 +84,7 @@ public class KmacExchange extends CodecUtil {
     {
         try
         {
-            DeserializeFromBytes(byteArrayInputStream);
-            return true;
+            return DeserializeFromBytes(byteArrayInputStream) == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
         }
         catch (Exception e)
         {
@@ -110,11 +110,11 @@ public class KmacExchange extends CodecUtil {
         }
     }
 
-    private void DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            throw new IllegalArgumentException("Input stream is null or empty");
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -125,7 +125,7 @@ public class KmacExchange extends CodecUtil {
                 /* Read and ignore km_msg, because it's a constant */
                 byte bReadKmMsg = dis.readByte();
                 if (bReadKmMsg != this.kmMessage) {
-                    throw new IOException("Invalid km_msg value.");
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "Invalid km_msg value.");
                 }
 
                 dis.readFully(this.obEtcsId);
@@ -138,7 +138,11 @@ public class KmacExchange extends CodecUtil {
                 byte[] bCombinedArray = new byte[KM_MESSAGE_SIZE.TR_QUANT_SIZE + bTrEtcsId.length];
                 bCombinedArray[KM_MESSAGE_IDX.TR_QUANT_IDX] = bTrQuant;
                 System.arraycopy(bTrEtcsId, 0, bCombinedArray, 1, bTrEtcsId.length);
-                this.TracksidePeer = new TracksidePeer(bCombinedArray);
+                this.TracksidePeer = new TracksidePeer();
+                if (!this.TracksidePeer.DecodeMessage(bCombinedArray))
+                {
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[KmacExchange] tr_etcs_id value error");
+                }
 
                 byte[] bTempEtcsId = new byte[KM_MESSAGE_SIZE.ETCS_STRUCT_SIZE];
                 dis.readFully(bTempEtcsId);
@@ -158,34 +162,39 @@ public class KmacExchange extends CodecUtil {
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    throw new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                throw exception;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
+        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{this.kmMessage},
-                this.obEtcsId,
-                this.TracksidePeer.EncodeObject(),
-                this.KmEtcsIdIssuer.EncodeObject(),
-                this.KmEtcsIdTarget.EncodeObject(),
-                this.issueDate,
-                this.validPeriod.EncodeObject(),
-                new byte[]{this.tNum},
-                this.enc,
-                this.sNum,
-                this.cbcMac
-        );
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 메시지를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (메시지 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.kmMessage);
+        buffer.put(this.obEtcsId);
+        this.TracksidePeer.EncodeTo(buffer);
+        this.KmEtcsIdIssuer.EncodeTo(buffer);
+        this.KmEtcsIdTarget.EncodeTo(buffer);
+        buffer.put(this.issueDate);
+        this.validPeriod.EncodeTo(buffer);
+        buffer.put(this.tNum);
+        buffer.put(this.enc);
+        buffer.put(this.sNum);
+        buffer.put(this.cbcMac);
     }
 
     /***
@@ -194,7 +203,7 @@ public class KmacExchange extends CodecUtil {
      */
     public int GetSize()
     {
-        return COMMON_SIZE.EMPTY + this.obEtcsId.length + this.TracksidePeer.GetSize() + this.KmEtcsIdIssuer.GetSize() + this.KmEtcsIdTarget.GetSize() +
+        return KM_MESSAGE_SIZE.KM_MESSAGE_SIZE + this.obEtcsId.length + this.TracksidePeer.GetSize() + this.KmEtcsIdIssuer.GetSize() + this.KmEtcsIdTarget.GetSize() +
                 this.issueDate.length + this.validPeriod.GetSize() + KM_MESSAGE_SIZE.TNUM_SIZE + this.enc.length + this.sNum.length + this.cbcMac.length;
     }
 
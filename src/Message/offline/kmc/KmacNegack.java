@@ -5,6 +5,7 @@ import Message.EtcsInfo;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -139,11 +140,11 @@ public class KmacNegack extends CodecUtil {
         SetIncorporateObject(KmacExchangeObject);
     }
 
-    private void DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
+    private int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            throw new IllegalArgumentException("Input stream is null or empty");
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -153,7 +154,7 @@ public class KmacNegack extends CodecUtil {
                 /* Read and ignore km_msg, because it's a constant */
                 byte bReadKmMsg = dis.readByte();
                 if (bReadKmMsg != this.kmMessage) {
-                    throw new IOException("Invalid km_msg value.");
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "Invalid km_msg value.");
                 }
 
                 /* Read the rest of the fields */
@@ -169,30 +170,38 @@ public class KmacNegack extends CodecUtil {
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    throw new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                throw exception;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
+        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
     /* Byte-serialize field instance values */
-    private byte[] SerializeToBytes() throws IOException {
-        return super.SerializeMultipleByteArrays(
-                new byte[]{this.kmMessage,this.AbMessage},
-                this.obEtcsId,
-                this.KmEtcsIdIssuer.EncodeObject(),
-                this.KmEtcsIdTarget.EncodeObject(),
-                this.issueDate,
-                new byte[]{this.tNum,reason},
-                this.cbcMac
-        );
+    private byte[] SerializeToBytes() throws IOException
+    {
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /***
+     * 버퍼의 현재 위치에 메시지를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (메시지 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.kmMessage);
+        buffer.put(this.AbMessage);
+        buffer.put(this.obEtcsId);
+        this.KmEtcsIdIssuer.EncodeTo(buffer);
+        this.KmEtcsIdTarget.EncodeTo(buffer);
+        buffer.put(this.issueDate);
+        buffer.put(this.tNum);
+        buffer.put(reason);
+        buffer.put(this.cbcMac);
     }
 
     /***
@@ -273,7 +282,10 @@ public class KmacNegack extends CodecUtil {
             {
                 case OFFLINE_KM_MESSAGE.KMAC_NEGACK ->
                 {
-                    DeserializeFromBytes(bKmacNegackMessage);
+                    if (DeserializeFromBytes(bKmacNegackMessage) != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+                    {
+                        return false;
+                    }
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_EXCHANGE ->
                 {
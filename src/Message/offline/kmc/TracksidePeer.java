@@ -5,6 +5,7 @@ import Message.EtcsInfo;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public class TracksidePeer extends CodecUtil
 {
@@ -36,8 +37,7 @@ public class TracksidePeer extends CodecUtil
     {
         try
         {
-            DeserializeFromBytes(bTracksidePeerMessage);
-            return true;
+            return DeserializeFromBytes(bTracksidePeerMessage) == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
         }
         catch (Exception e)
         {
@@ -74,11 +74,11 @@ public class TracksidePeer extends CodecUtil
                 (this.EtcsIdExpTrackside != null ? this.EtcsIdExpTrackside.length * KM_MESSAGE_SIZE.ETCS_STRUCT_SIZE : COMMON_SIZE.EMPTY) ;
     }
 
-    public void DeserializeFromBytes(byte[] byteArrayInputStream) throws Exception
+    public int DeserializeFromBytes(byte[] byteArrayInputStream) throws IOException
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            throw new IllegalArgumentException("Input stream is null or empty");
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -89,7 +89,7 @@ public class TracksidePeer extends CodecUtil
                 this.tracksideQuant = dis.readByte();
                 if (byteArrayInputStream.length != (this.tracksideQuant * KM_MESSAGE_SIZE.ETCS_STRUCT_SIZE) + KM_MESSAGE_SIZE.TR_QUANT_SIZE)
                 {
-                    throw new IllegalArgumentException("Buffer Size Error");
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "Buffer Size Error");
                 }
 
                 this.EtcsIdExpTrackside = new EtcsInfo[this.tracksideQuant];
@@ -104,30 +104,34 @@ public class TracksidePeer extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    throw new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
+                    return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                throw exception;
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
+        return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
     /* Byte-serialize field instance values */
     private byte[] SerializeToBytes() throws IOException
     {
-        byte[] bSerializedMsg = new byte[COMMON_SIZE.EMPTY];
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
 
+    /***
+     * 버퍼의 현재 위치에 구조체를 직렬화하여 기록 (ETCS ID 목록을 중간 배열 없이 바로 기록)
+     * @param buffer 기록할 버퍼 (구조체 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.tracksideQuant);
         for(EtcsInfo obEtcs : this.EtcsIdExpTrackside)
         {
-            bSerializedMsg = super.AddPacket(bSerializedMsg,obEtcs.EncodeObject());
+            obEtcs.EncodeTo(buffer);
         }
-
-        return super.SerializeMultipleByteArrays(new byte[]{this.tracksideQuant}, bSerializedMsg);
     }
 
     public byte GetTracksideQuant()
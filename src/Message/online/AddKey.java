@@ -9,6 +9,7 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -65,15 +66,7 @@ public class AddKey extends CodecUtil
     {
         try
         {
-            byte[] bStructBuffer = new byte[COMMON_SIZE.EMPTY];
-            for(OnlineKeyStruct object : this.KeyStruct){
-                bStructBuffer = super.AddPacket(bStructBuffer,object.EncodeObject());
-            }
-
-            return super.SerializeMultipleByteArrays(
-                    this.reqNum,
-                    bStructBuffer
-            );
+            return super.EncodeToArray(GetSize(), this::EncodeTo);
         }
         catch (IOException e)
         {
@@ -86,8 +79,7 @@ public class AddKey extends CodecUtil
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "Input stream is null or empty");
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -99,8 +91,7 @@ public class AddKey extends CodecUtil
                 int nReqNum = super.ConvertByteArrayToInt(this.reqNum);
                 if(!(nReqNum >= 1 && nReqNum <= 100))
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException("nReqNum value Error"));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "nReqNum value Error");
                 }
 
                 { /* Insert K-Struct */
@@ -148,22 +139,34 @@ public class AddKey extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
         return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
+    /**
+     * 버퍼의 현재 위치에 메시지를 직렬화하여 기록 (k-struct 를 누적 복사 없이 순서대로 기록)
+     * @param buffer 기록할 버퍼 (메시지 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer) throws IOException
+    {
+        if(KeyStruct == null)
+        {
+            throw new IOException("k_struct is null");
+        }
+        buffer.put(this.reqNum);
+        for(OnlineKeyStruct object : this.KeyStruct)
+        {
+            object.EncodeTo(buffer);
+        }
+    }
+
     /**
      * @return 구조체의 크기를 반환
      */
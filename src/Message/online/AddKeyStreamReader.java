@@ -0,0 +1,215 @@
+package Message.online;
+
+import Message.CodecUtil;
+import Message.constant.Common.*;
+import Message.constant.Online.*;
+import Message.online.sub.OnlineKeyStruct;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * CMD_ADD_KEYS 바디를 스트림에서 K-STRUCT 단위로 읽는 디코더
+ * <p> AddKey 는 바디 전체를 받은 뒤 OnlineKeyStruct[] 로 디코딩하지만, 이 클래스는 K-STRUCT 하나가 도착할 때마다 반환하므로
+ * 나머지를 수신하는 동안 첫 K-STRUCT 부터 HSM 설치(스테이징)를 시작할 수 있음
+ * <p> 헤더는 호출 측에서 먼저 읽고 (메시지 길이 - 헤더 크기) 를 바디 길이로 전달 * {@link #Finish()} 성공 전에는 설치 내용을 확정하면 안 됨
+ */
+public class AddKeyStreamReader extends CodecUtil
+{
+    private static final int KEY_STRUCT_FIXED_SIZE = OnlineKeyStruct.KEY_STRUCT_FIXED_SIZE;
+    private static final int MAX_REQ_NUM = 100;
+
+    private final DataInputStream input;
+    private final byte[] reqNum = new byte[ONLINE_KEY_SIZE.REQ_NUM_SIZE];
+
+    private byte[] readBuffer = new byte[KEY_STRUCT_FIXED_SIZE * 2];
+    private int nRemaining;
+    private int nKeyStructCount = 0;
+    private boolean bReqNumRead = false;
+    private boolean bFinished = false;
+    private int resultCode = ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED;
+
+    /**
+     * @param inputStream 헤더 다음 위치의 스트림 (소켓 입력 등)
+     * @param nBodyLength 헤더를 제외한 바디 길이 (헤더의 메시지 길이 - 헤더 크기)
+     */
+    public AddKeyStreamReader(InputStream inputStream, int nBodyLength)
+    {
+        this.input = inputStream instanceof DataInputStream ? (DataInputStream) inputStream : new DataInputStream(inputStream);
+        this.nRemaining = nBodyLength;
+    }
+
+    /**
+     * @return 읽을 K-STRUCT 가 남아있는지 여부 (REQ-NUM 은 처음 호출할 때 읽음)
+     */
+    public boolean HasNext() throws IOException
+    {
+        if (!bReqNumRead && !bFinished)
+        {
+            ReadReqNum();
+        }
+        return !bFinished && nRemaining > COMMON_SIZE.EMPTY;
+    }
+
+    /**
+     * 다음 K-STRUCT 하나를 읽어서 반환 * 필요한 바이트가 도착할 때까지 대기
+     * @return 디코딩된 K-STRUCT * 실패 시 null (결과 코드는 {@link #GetResultCode()})
+     * @throws IOException 스트림 읽기 실패 (메시지 중간 EOF 는 결과 코드로 반환)
+     */
+    public OnlineKeyStruct Next() throws IOException
+    {
+        if (!HasNext())
+        {
+            Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "[AddKeyStreamReader] No K-STRUCT left");
+            return null;
+        }
+        if (nKeyStructCount >= ConvertByteArrayToInt(this.reqNum))
+        {
+            Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "[AddKeyStreamReader] K-STRUCT count exceeds req num");
+            return null;
+        }
+
+        try
+        {
+            if (KEY_STRUCT_FIXED_SIZE > nRemaining)
+            {
+                Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_MASSAGE_LENGTH_ERROR, "[AddKeyStreamReader] K-STRUCT exceeds message length");
+                return null;
+            }
+            /* 고정 크기 부분을 먼저 읽어 PEER-NUM 으로 K-STRUCT 전체 크기 계산 */
+            ReadBody(readBuffer, 0, KEY_STRUCT_FIXED_SIZE);
+            int nPeerNum = ((readBuffer[KEY_STRUCT_FIXED_SIZE - 2] & 0xFF) << 8) | (readBuffer[KEY_STRUCT_FIXED_SIZE - 1] & 0xFF);
+            int nStructSize = KEY_STRUCT_FIXED_SIZE + nPeerNum * COMMON_SIZE.ETCS_STRUCT_SIZE + COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE;
+            if (nStructSize - KEY_STRUCT_FIXED_SIZE > nRemaining)
+            {
+                Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_MASSAGE_LENGTH_ERROR,
+                        "[AddKeyStreamReader] K-STRUCT exceeds message length");
+                return null;
+            }
+
+            if (readBuffer.length < nStructSize)
+            {
+                readBuffer = Arrays.copyOf(readBuffer, nStructSize);
+            }
+            ReadBody(readBuffer, KEY_STRUCT_FIXED_SIZE, nStructSize - KEY_STRUCT_FIXED_SIZE);
+
+            OnlineKeyStruct keyStruct = new OnlineKeyStruct();
+            int nResultCode = keyStruct.DecodeMessage(Arrays.copyOf(readBuffer, nStructSize));
+            if (nResultCode != ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED)
+            {
+                Fail(nResultCode, "[AddKeyStreamReader] KeyStruct value error");
+                return null;
+            }
+
+            nKeyStructCount++;
+            return keyStruct;
+        }
+        catch (EOFException e)
+        {
+            DeserializeFail(e);
+            return null;
+        }
+    }
+
+    /**
+     * 바디를 끝까지 읽었는지, K-STRUCT 개수가 REQ-NUM 과 같은지 확인
+     * <p> 이 메서드가 성공을 반환한 뒤에만 스테이징한 키를 확정해야 함
+     * @return ONLINE_NOTIFY_RESPONSE_RESULT_CODE
+     */
+    public int Finish()
+    {
+        if (bFinished)
+        {
+            return resultCode;
+        }
+        if (!bReqNumRead || nRemaining != COMMON_SIZE.EMPTY)
+        {
+            return Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR,
+                    "[AddKeyStreamReader] Bytes remain in message");
+        }
+        if (ConvertByteArrayToInt(this.reqNum) != nKeyStructCount)
+        {
+            return Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR,
+                    "The number of req-num and keyStruct is not the same");
+        }
+        bFinished = true;
+        return resultCode;
+    }
+
+    /**
+     * 실패 후 같은 연결을 계속 쓰기 위해 현재 메시지의 남은 바이트를 버림
+     * @return 버린 바이트 수
+     */
+    public int SkipRemaining() throws IOException
+    {
+        int nSkipped = COMMON_SIZE.EMPTY;
+        while (nRemaining > COMMON_SIZE.EMPTY)
+        {
+            int nCount = input.skipBytes(nRemaining);
+            if (nCount <= COMMON_SIZE.EMPTY)
+            {
+                break;
+            }
+            nRemaining -= nCount;
+            nSkipped += nCount;
+        }
+        return nSkipped;
+    }
+
+    private void ReadReqNum() throws IOException
+    {
+        try
+        {
+            ReadBody(this.reqNum, 0, this.reqNum.length);
+            bReqNumRead = true;
+            int nReqNum = ConvertByteArrayToInt(this.reqNum);
+            if (!(nReqNum >= 1 && nReqNum <= MAX_REQ_NUM))
+            {
+                Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "nReqNum value Error");
+            }
+        }
+        catch (EOFException e)
+        {
+            DeserializeFail(e);
+        }
+    }
+
+    private void ReadBody(byte[] buffer, int nOffset, int nLength) throws IOException
+    {
+        if (nLength > nRemaining)
+        {
+            throw new EOFException("Read beyond message length");
+        }
+        input.readFully(buffer, nOffset, nLength);
+        nRemaining -= nLength;
+    }
+
+    private int DeserializeFail(EOFException e)
+    {
+        return Fail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
+    }
+
+    private int Fail(int nResultCode, String strReason)
+    {
+        this.resultCode = nResultCode;
+        this.bFinished = true;
+        return super.DecodeFail(nResultCode, strReason);
+    }
+
+    public byte[] GetReqNum()
+    {
+        return reqNum;
+    }
+
+    public int GetKeyStructCount()
+    {
+        return nKeyStructCount;
+    }
+
+    public int GetResultCode()
+    {
+        return resultCode;
+    }
+}
@@ -8,6 +8,7 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class IdentifierKey extends CodecUtil
 {
@@ -78,8 +79,12 @@ public class IdentifierKey extends CodecUtil
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "Input stream is null or empty");
+        }
+
+        if (byteArrayInputStream.length < GetSize()) /* 고정 크기 : 읽기 전에 길이 확인 (EOFException 미발생) */
+        {
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -96,17 +101,12 @@ public class IdentifierKey extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
 
@@ -124,9 +124,17 @@ public class IdentifierKey extends CodecUtil
     /** 객체를 바이트 배열로 직렬화 */
     private byte[] SerializeToBytes() throws IOException
     {
-        return super.SerializeMultipleByteArrays(
-                this.EtcsIdExp.EncodeObject(),
-                this.sNum);
+        return super.EncodeToArray(GetSize(), this::EncodeTo);
+    }
+
+    /**
+     * 버퍼의 현재 위치에 구조체를 직렬화하여 기록
+     * @param buffer 기록할 버퍼 (구조체 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        this.EtcsIdExp.EncodeTo(buffer);
+        buffer.put(this.sNum);
     }
 
 
@@ -17,6 +17,9 @@ import java.io.IOException;
  */
 public class OnlineHeader extends CodecUtil
 {
+    /* 디코딩 실패 사유 (잘못된 패킷마다 문자열을 만들지 않도록 상수로 둠) */
+    private static final String VERSION_ERROR = "[OnlineHeader] Version value is not " + Online.ONLINE_INTERFACE_VERSION;
+
     private byte[] messageLength = new byte[ONLINE_KEY_SIZE.HEADER_LENGTH_SIZE]; /* 20 .. 5000 */
     private final byte interfaceVersion = Online.ONLINE_INTERFACE_VERSION; /* interface version value 2 고정*/
     private EtcsInfo ReceiverId = new EtcsInfo();
@@ -110,8 +113,12 @@ public class OnlineHeader extends CodecUtil
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == Common.COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "Input stream is null or empty");
+        }
+
+        if (byteArrayInputStream.length < GetSize()) /* 고정 크기 : 읽기 전에 길이 확인 (EOFException 미발생) */
+        {
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, Common.EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -123,16 +130,13 @@ public class OnlineHeader extends CodecUtil
                 int nMessageLength = super.ConvertByteArrayToInt(this.messageLength);
                 if( !( (nMessageLength >= 20) && (nMessageLength <= 5000) ) ) /* 길이 체크 */
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException("[OnlineHeader] messageLength size error It doesn't belong between 20..5000"));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_MASSAGE_LENGTH_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_MASSAGE_LENGTH_ERROR, "[OnlineHeader] messageLength size error It doesn't belong between 20..5000");
                 }
 
                 /* 인터페이스 버전이 2가 아니라면 경고 * 디코딩 프로세스를 종료시키진 않음 */
                 if( dis.readByte() != this.interfaceVersion) /* 인터페이스 버전 체크 */
                 {
-                    String strError = String.format("[OnlineHeader] Version value is not %d", Online.ONLINE_INTERFACE_VERSION);
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(strError));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_UNSUPPORTED_IF_VERSION;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_UNSUPPORTED_IF_VERSION, VERSION_ERROR);
                 }
 
                 byte[] bEtcsIdReceiver = new byte[Common.COMMON_SIZE.ETCS_STRUCT_SIZE];
@@ -145,16 +149,14 @@ public class OnlineHeader extends CodecUtil
                 dis.readFully(this.transactionNum);
                 if(super.ConvertByteArrayToInt(this.transactionNum) == 0)
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException("[OnlineHeader] Transaction Number is not 0"));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "[OnlineHeader] Transaction Number is not 0");
                 }
 
                 dis.readFully(this.sequenceNum);
                 int nSequenceNum = super.ConvertByteArrayToInt(this.sequenceNum);
                 if(!(nSequenceNum >= 0 && nSequenceNum <= 65535))
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException("[OnlineHeader] sequenceNum value error"));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "[OnlineHeader] sequenceNum value error");
                 }
 
                 this.messageType = dis.readByte();
@@ -167,17 +169,12 @@ public class OnlineHeader extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > Common.COMMON_SIZE.EMPTY)
                 {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException(Common.EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, Common.EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(Common.EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, Common.EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
         return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED;
@@ -9,9 +9,14 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class OnlineKeyStruct extends CodecUtil
 {
+    /* length + IDENTIFIER + KM-ETCS-ID-EXP + ENC(KMAC) + PEER-NUM (피어 목록 앞까지의 고정 크기) */
+    public static final int KEY_STRUCT_FIXED_SIZE = ONLINE_KEY_SIZE.LENGTH_FILED_SIZE + ONLINE_KEY_SIZE.IDENTIFIER_STRUCT_SIZE +
+            COMMON_SIZE.ETCS_STRUCT_SIZE + ONLINE_KEY_SIZE.KMAC_SIZE + ONLINE_KEY_SIZE.PEER_NUM_SIZE;
+
     private byte length;
     private IdentifierKey Identifier = new IdentifierKey();
     private EtcsInfo EtcsIdExp = new EtcsInfo();
@@ -78,21 +83,7 @@ public class OnlineKeyStruct extends CodecUtil
     public byte[] EncodeObject(){
         try
         {
-            byte[] bPeerPacket = new byte[COMMON_SIZE.EMPTY];
-            for(EtcsInfo EtcsObject : this.EtcsIdPeer)
-            {
-                bPeerPacket = super.AddPacket(bPeerPacket,EtcsObject.EncodeObject());
-            }
-
-            return super.SerializeMultipleByteArrays(
-                    new byte[]{length},
-                    this.Identifier.EncodeObject(),
-                    this.EtcsIdExp.EncodeObject(),
-                    this.kMac,
-                    this.peerNum,
-                    bPeerPacket,
-                    this.ValidPeriod.EncodeObject()
-            );
+            return super.EncodeToArray(GetSize(), this::EncodeTo);
         }
         catch (IOException e)
         {
@@ -105,8 +96,15 @@ public class OnlineKeyStruct extends CodecUtil
     {
         if (byteArrayInputStream == null || byteArrayInputStream.length == COMMON_SIZE.EMPTY)
         {
-            super.IsExceptionPrintingAndWriteLog(new IllegalArgumentException("Input stream is null or empty"));
-            return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "Input stream is null or empty");
+        }
+
+        /* 읽기 전에 길이 확인 (EOFException 미발생) : 피어 목록 앞까지의 고정 크기 + 피어 목록 + 유효기간 */
+        if (byteArrayInputStream.length < KEY_STRUCT_FIXED_SIZE ||
+                byteArrayInputStream.length < KEY_STRUCT_FIXED_SIZE + (((byteArrayInputStream[KEY_STRUCT_FIXED_SIZE - 2] & 0xFF) << 8) |
+                        (byteArrayInputStream[KEY_STRUCT_FIXED_SIZE - 1] & 0xFF)) * COMMON_SIZE.ETCS_STRUCT_SIZE + COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE)
+        {
+            return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
         }
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(byteArrayInputStream);
@@ -117,8 +115,7 @@ public class OnlineKeyStruct extends CodecUtil
                 this.length = dis.readByte();
                 if(this.length != ONLINE_KEY_SIZE.KMAC_SIZE)
                 {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[OnlineKeyStruct] length value Error"));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "[OnlineKeyStruct] length value Error");
                 }
 
                 /* Identifier */
@@ -138,8 +135,7 @@ public class OnlineKeyStruct extends CodecUtil
                 int nPeerCnt = GetPeer_numToInt();
                 if(!(nPeerCnt >= 1 && nPeerCnt <= 100))
                 {
-                    IsExceptionPrintingAndWriteLog( new IllegalArgumentException("[OnlineKeyStruct] peerNum value Error"));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, "[OnlineKeyStruct] peerNum value Error");
                 }
 
                 EtcsIdPeer = new EtcsInfo[nPeerCnt];
@@ -158,22 +154,35 @@ public class OnlineKeyStruct extends CodecUtil
                 /* 스트림에 남은 바이트가 있는지 확인 */
                 if (dis.available() > COMMON_SIZE.EMPTY)
                 {
-                    IsExceptionPrintingAndWriteLog(new IllegalArgumentException(EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE));
-                    return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                    return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_EXTRA_BYTE);
                 }
             }
             catch (EOFException e)
             {
-                /* 익셉션 발생 이유 설명 및 스택 트레이스 복사 */
-                EOFException exception = new EOFException(EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
-                exception.setStackTrace(e.getStackTrace());
-                super.IsExceptionPrintingAndWriteLog(exception);
-                return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR;
+                return super.DecodeFail(ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_FORMAT_ERROR, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
             }
         }
         return ONLINE_NOTIFY_RESPONSE_RESULT_CODE.RESPONSE_CODE_REQUEST_SUCCESSFULLY_PROCESSED;
     }
 
+    /**
+     * 버퍼의 현재 위치에 k-struct 를 직렬화하여 기록 (피어 목록을 중간 배열 없이 바로 기록)
+     * @param buffer 기록할 버퍼 (k-struct 크기만큼 position 이동)
+     */
+    public void EncodeTo(ByteBuffer buffer)
+    {
+        buffer.put(this.length);
+        this.Identifier.EncodeTo(buffer);
+        this.EtcsIdExp.EncodeTo(buffer);
+        buffer.put(this.kMac);
+        buffer.put(this.peerNum);
+        for(EtcsInfo EtcsObject : this.EtcsIdPeer)
+        {
+            EtcsObject.EncodeTo(buffer);
+        }
+        this.ValidPeriod.EncodeTo(buffer);
+    }
+
     /**
      * @return 구조체의 크기를 반환
      */
@@ -185,7 +194,7 @@ public class OnlineKeyStruct extends CodecUtil
             return super.ERROR_CODE;
         }
         return ONLINE_KEY_SIZE.LENGTH_FILED_SIZE + this.Identifier.GetSize() + this.EtcsIdExp.GetSize() + this.kMac.length +
-                this.peerNum.length + (this.EtcsIdPeer.length * this.EtcsIdPeer[0].GetSize()) + this.ValidPeriod.GetSize();
+                this.peerNum.length + (this.EtcsIdPeer.length * COMMON_SIZE.ETCS_STRUCT_SIZE) + this.ValidPeriod.GetSize();
     }
 
     public int GetPeer_numToInt()
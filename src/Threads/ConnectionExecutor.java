@@ -0,0 +1,203 @@
+package Threads;
+
+import com.nb.kms.hsm.EventMsg.HSM_INFO;
+import com.nb.kms.hsm.Logger;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.Socket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * EventReceiverThread 의 연결 처리 실행기
+ * <p> JDK 21 이상이면 연결마다 가상 스레드, 아니면 크기가 제한된 플랫폼 스레드 풀 사용
+ * <p> 풀이 가득 차면 연결을 바로 닫고 거절 건수를 기록 (연결은 클라이언트가 끊을 때까지 유지되므로 대기열에 두지 않음)
+ * <p> 응답 쓰기(ResponseChannel)는 가상 스레드 모드면 같은 실행기, 풀 모드면 크기가 제한된 공용 쓰기 풀에서 실행
+ * <p> 수락률(초당 연결 수), 처리 중인 핸들러 수, 거절 건수를 주기적으로 로그 출력
+ */
+public class ConnectionExecutor {
+
+    public static final String MODE_AUTO = "auto";
+    public static final String MODE_VIRTUAL = "virtual";
+    public static final String MODE_POOL = "pool";
+
+    private final ExecutorService executor;
+    private final ExecutorService writerExecutor;
+    private final String mode;
+    private final ScheduledExecutorService metricsReporter;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicInteger activeHandlers = new AtomicInteger();
+    private final AtomicInteger peakActiveHandlers = new AtomicInteger();
+
+    private long lastReportedAccepted = 0;
+    private long lastReportTime = System.nanoTime();
+    private volatile double acceptRate = 0;
+
+    public ConnectionExecutor(String mode, int poolSize, int writerPoolSize, long metricsIntervalSec) {
+        ExecutorService virtual = MODE_POOL.equals(mode) ? null : newVirtualThreadExecutor();
+        if (virtual != null) {
+            this.executor = virtual;
+            this.writerExecutor = virtual;
+            this.mode = MODE_VIRTUAL;
+        } else {
+            if (MODE_VIRTUAL.equals(mode)) {
+                Logger.log("INFO", "Virtual threads are not available on this JVM, using bounded pool");
+            }
+            this.executor = newBoundedPool(poolSize);
+            this.writerExecutor = newWriterPool(writerPoolSize);
+            this.mode = MODE_POOL;
+        }
+
+        if (metricsIntervalSec > 0) {
+            metricsReporter = Executors.newSingleThreadScheduledExecutor(daemonFactory("ConnectionMetrics"));
+            metricsReporter.scheduleAtFixedRate(this::report, metricsIntervalSec, metricsIntervalSec, TimeUnit.SECONDS);
+        } else {
+            metricsReporter = null;
+        }
+        Logger.log("INFO", "Connection executor mode: " + this.mode);
+    }
+
+    /**
+     * HSM_INFO 설정값으로 생성
+     */
+    public static ConnectionExecutor create() {
+        return new ConnectionExecutor(HSM_INFO.CONNECTION_EXECUTOR_MODE, HSM_INFO.CONNECTION_POOL_SIZE,
+                HSM_INFO.RESPONSE_WRITER_POOL_SIZE, HSM_INFO.CONNECTION_METRICS_INTERVAL_SEC);
+    }
+
+    /**
+     * 수락한 연결 처리 요청 * 거절되면 연결을 닫음
+     * @return 처리 요청 성공여부
+     */
+    public boolean submit(Socket clientSocket, Consumer<Socket> handler) {
+        acceptedCount.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                int active = activeHandlers.incrementAndGet();
+                peakActiveHandlers.accumulateAndGet(active, Math::max);
+                try {
+                    handler.accept(clientSocket);
+                } finally {
+                    activeHandlers.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            Logger.error("Connection handler saturated, rejecting " + clientSocket.getRemoteSocketAddress()
+                    + " (active " + activeHandlers.get() + ")");
+            try {
+                clientSocket.close();
+            } catch (IOException ignored) {
+                // 연결 종료 실패는 무시
+            }
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        if (writerExecutor != executor) {
+            writerExecutor.shutdownNow();
+        }
+        if (metricsReporter != null) {
+            metricsReporter.shutdownNow();
+        }
+    }
+
+    /**
+     * ResponseChannel 의 응답 쓰기 작업을 실행할 실행기
+     */
+    public Executor getWriterExecutor() {
+        return writerExecutor;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int getActiveHandlers() {
+        return activeHandlers.get();
+    }
+
+    public int getPeakActiveHandlers() {
+        return peakActiveHandlers.get();
+    }
+
+    /**
+     * 마지막 보고 주기의 초당 수락 연결 수
+     */
+    public double getAcceptRate() {
+        return acceptRate;
+    }
+
+    private synchronized void report() {
+        long now = System.nanoTime();
+        long accepted = acceptedCount.get();
+        double elapsedSec = (now - lastReportTime) / 1_000_000_000.0;
+        acceptRate = elapsedSec > 0 ? (accepted - lastReportedAccepted) / elapsedSec : 0;
+        lastReportedAccepted = accepted;
+        lastReportTime = now;
+
+        Logger.log("INFO", String.format("Connections mode=%s acceptRate=%.1f/s active=%d peak=%d accepted=%d rejected=%d",
+                mode, acceptRate, activeHandlers.get(), peakActiveHandlers.getAndSet(activeHandlers.get()), accepted, rejectedCount.get()));
+    }
+
+    // JDK 21+ Executors.newVirtualThreadPerTaskExecutor (JDK 17 에서도 컴파일되도록 리플렉션으로 호출)
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    // 대기열 없이 바로 넘김 * 모든 스레드가 연결을 처리 중이면 거절 (대기열에 넣으면 앞 연결이 끊길 때까지 아무도 읽지 않음)
+    private static ExecutorService newBoundedPool(int poolSize) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonFactory("ClientHandler"),
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    // 연결마다 쓰기 작업은 최대 하나이므로 대기 작업 수는 연결 수(CONNECTION_POOL_SIZE) 이내
+    private static ExecutorService newWriterPool(int writerPoolSize) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(writerPoolSize, writerPoolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonFactory("ResponseWriter"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
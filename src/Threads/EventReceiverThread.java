@@ -1,63 +1,145 @@
 package Threads;
 
+import com.nb.kms.hsm.EventMsg.HSM_INFO;
+import com.nb.kms.hsm.EventMsg.HSM_MSG_TYPE;
 import com.nb.kms.hsm.HsmMsg;
+import com.nb.kms.hsm.HsmResponder;
+import com.nb.kms.hsm.HsmTaskQueue;
+import com.nb.kms.hsm.HsmWireCodec;
 import com.nb.kms.hsm.Logger;
+import com.nb.kms.hsm.ResponseChannel;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.SequenceInputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.concurrent.BlockingQueue;
 
-public record EventReceiverThread(BlockingQueue<HsmMsg> taskQueue) implements Runnable {
+public record EventReceiverThread(BlockingQueue<HsmMsg> taskQueue, ConnectionExecutor connectionExecutor) implements Runnable {
+
+    public static final String INVALID_RESPONSE = "Invalid request, rejected.";
+
+    public EventReceiverThread(BlockingQueue<HsmMsg> taskQueue) {
+        this(taskQueue, ConnectionExecutor.create());
+    }
 
     @Override
     public void run() {
         try (ServerSocket serverSocket = new ServerSocket(5000)) {
             while (true) {
                 Socket clientSocket = serverSocket.accept();
-                new Thread(() -> handleClient(clientSocket)).start(); // 클라이언트 연결을 별도 스레드에서 처리
+                connectionExecutor.submit(clientSocket, this::handleClient); // 클라이언트 연결을 실행기에서 처리 (포화 시 거절)
             }
         } catch (IOException e) {
             Logger.error("Server socket error", e);
+        } finally {
+            connectionExecutor.shutdown();
         }
     }
 
     private void handleClient(Socket clientSocket) {
-        try (ObjectInputStream ois = new ObjectInputStream(clientSocket.getInputStream())) {
-            Object receivedObject = ois.readObject();
+        // 한 연결에서 여러 요청을 연속으로 수신, 응답은 correlationId 를 붙여 같은 연결로 전송
+        ResponseChannel channel = null;
+        try {
+            // 첫 4바이트로 요청 형식 판별 (HsmWireCodec PREAMBLE / Java 직렬화 스트림 헤더)
+            BufferedInputStream in = new BufferedInputStream(clientSocket.getInputStream());
+            byte[] head = new byte[HsmWireCodec.PREAMBLE.length];
+            int headLength = in.readNBytes(head, 0, head.length);
 
-            if (receivedObject instanceof HsmMsg) {
-                HsmMsg task = (HsmMsg) receivedObject;
-
-                if (isValidHsmMsg(task)) {
-                    taskQueue.put(task);
-                } else {
-                    Logger.error("Received HsmMsg has invalid fields: " + task);
-                }
+            if (HsmWireCodec.isPreamble(head, headLength)) {
+                channel = new ResponseChannel(clientSocket, true, connectionExecutor.getWriterExecutor());
+                receiveBinary(in, channel);
+            } else if (HSM_INFO.ALLOW_JAVA_SERIALIZATION) {
+                channel = new ResponseChannel(clientSocket, false, connectionExecutor.getWriterExecutor());
+                InputStream rest = new SequenceInputStream(new ByteArrayInputStream(head, 0, headLength), in);
+                receiveObjects(new ObjectInputStream(rest), channel);
             } else {
-                Logger.error("Received object is not of type HsmMsg: " + receivedObject.getClass().getName());
+                Logger.error("Rejected non-binary request stream from " + clientSocket.getRemoteSocketAddress());
+                clientSocket.close();
             }
-        } catch (ClassNotFoundException | InterruptedException e) {
+        } catch (EOFException e) {
+            // 클라이언트 송신 종료
+        } catch (ClassNotFoundException e) {
             Logger.error("Error processing client request", e);
-            Thread.currentThread().interrupt();
         } catch (IOException e) {
-            Logger.error("I/O error occurred", e);
+            if (channel == null || !channel.isClosed()) {
+                Logger.error("I/O error occurred", e);
+            }
         } finally {
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                Logger.error("Failed to close client socket", e);
+            if (channel != null) {
+                channel.inputClosed(); /* 처리 중인 요청의 응답을 모두 보낸 뒤 연결 종료 */
+            } else if (!clientSocket.isClosed()) {
+                try {
+                    clientSocket.close();
+                } catch (IOException ignored) {
+                    // 연결 종료 실패는 무시
+                }
+            }
+        }
+    }
+
+    private void receiveBinary(InputStream in, ResponseChannel channel) throws IOException {
+        HsmWireCodec codec = new HsmWireCodec();
+        while (true) {
+            enqueue(codec.readMsg(in), channel);
+        }
+    }
+
+    private void receiveObjects(ObjectInputStream ois, ResponseChannel channel) throws IOException, ClassNotFoundException {
+        while (true) {
+            Object receivedObject = ois.readObject();
+
+            if (receivedObject instanceof HsmMsg) {
+                enqueue((HsmMsg) receivedObject, channel);
+            } else {
+                Logger.error("Received object is not of type HsmMsg: " + receivedObject.getClass().getName());
+            }
+        }
+    }
+
+    private void enqueue(HsmMsg task, ResponseChannel channel) {
+        if (!isValidHsmMsg(task)) {
+            Logger.error("Received HsmMsg has invalid fields: " + task);
+            // correlationId 로 응답을 기다리는 클라이언트가 멈추지 않도록 거절 응답
+            if (task.getCorrelationId() != 0) {
+                task.setResponseChannel(channel);
+                channel.begin();
+                HsmResponder.send(task, INVALID_RESPONSE);
+                channel.end();
+            }
+            return;
+        }
+        if (task.getCorrelationId() != 0) {
+            task.setResponseChannel(channel);
+            channel.begin();
+        }
+        // 큐가 가득 차면 대기하지 않고 바로 busy 응답 (수신 스레드가 막히지 않도록)
+        if (!taskQueue.offer(task)) {
+            Logger.error("Task queue is full, rejecting operation " + task.getOperation());
+            HsmResponder.send(task, HsmTaskQueue.BUSY_RESPONSE);
+            if (task.getResponseChannel() != null) {
+                task.getResponseChannel().end();
             }
         }
     }
 
     // 유효성 검사 메서드
     private boolean isValidHsmMsg(HsmMsg task) {
-        // Header부분 null이 아닌지, Operation 값이 유효한지 확인 (다른 조건 OR 제외됨)
-        if (task.getOperation() < 0 || task.getHeader() == null) {
+        // Header부분 null이 아닌지, Operation 값이 정의된 HSM_MSG_TYPE 범위인지 확인
+        // (범위 밖 값은 큐/지표의 작업별 통계 항목을 무한정 늘리므로 여기서 거절)
+        if (task.getOperation() < HSM_MSG_TYPE.GENERATE_KEY || task.getOperation() > HSM_MSG_TYPE.BATCH_KCV
+                || task.getHeader() == null) {
             return false;
         }
+        // 일괄 KCV 는 키 목록이 있어야 하고 최대 개수 이내
+        if (task.getOperation() == HSM_MSG_TYPE.BATCH_KCV) {
+            return task.getKeys() != null && !task.getKeys().isEmpty() && task.getKeys().size() <= HSM_INFO.BATCH_KCV_MAX_KEYS;
+        }
         // 추가적인 유효성 검사 로직 추가 가능
         return true;
     }
@@ -2,31 +2,74 @@ package Threads;
 
 import com.nb.kms.hsm.*;
 import safenet.jcprov.CK_SESSION_HANDLE;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import com.nb.kms.hsm.EventMsg.*;
 
 public class HSMWorkerThread implements Runnable {
     private final BlockingQueue<HsmMsg> taskQueue;
-    private CK_SESSION_HANDLE session = null;
+    private final HsmSessionPool sessionPool;
+    private final HsmProvider hsmProvider;
 
-    public HSMWorkerThread(BlockingQueue<HsmMsg> taskQueue, CK_SESSION_HANDLE session) {
+    /* 현재 작업이 대여한 세션 (DB 응답 대기 중에는 풀에 돌려주고 suspended 로 표시) */
+    private CK_SESSION_HANDLE session;
+    private boolean sessionSuspended;
+
+    /* 응답마다 새 연결을 여는 기존 클라이언트의 응답 (세션 반납 후 전송) */
+    private final List<Object> deferredResults = new ArrayList<>();
+
+    public HSMWorkerThread(BlockingQueue<HsmMsg> taskQueue, HsmSessionPool sessionPool) {
+        this(taskQueue, sessionPool, HsmProvider.getInstance());
+    }
+
+    /**
+     * @param sessionPool 세션이 필요 없는 구현(jce)이면 null 가능
+     */
+    public HSMWorkerThread(BlockingQueue<HsmMsg> taskQueue, HsmSessionPool sessionPool, HsmProvider hsmProvider) {
         this.taskQueue = taskQueue;
-        this.session = session;
+        this.sessionPool = sessionPool;
+        this.hsmProvider = hsmProvider;
     }
 
     @Override
     public void run() {
         while (true) {
             try {
-                HsmMsg task = taskQueue.take(); // 작업 큐에서 하나의 작업을 가져옴
-                Object result = processTask(task); // 작업을 처리함
-                Logger.log("INFO", "Task processed: " + result.toString());
+                HsmMsg task = taskQueue.take(); // 작업 큐에서 하나의 작업을 가져옴 (대기 시간은 HsmTaskQueue 에서 기록)
 
-                // 결과를 TCP로 전송 -> processTask로
+                long taskStart = System.nanoTime();
+                HsmMetrics.begin(task.getOperation());
+                try {
+                    // 작업 단위로 세션 대여 (세션이 필요 없는 구현은 풀 없이 처리)
+                    if (hsmProvider.requiresSession() && !acquireSession()) {
+                        fail(task, "HSM session unavailable.");
+                        continue;
+                    }
 
+                    Object result;
+                    long processStart = System.nanoTime();
+                    try {
+                        result = processTask(task); // 작업을 처리함
+                    } finally {
+                        releaseSession();
+                        sessionSuspended = false;
+                        HsmMetrics.record("process", processStart);
+                    }
+                    Logger.debug("Task processed: {}", result);
+                } finally {
+                    sendDeferredResults(task);
+                    if (task.getResponseChannel() != null) {
+                        task.getResponseChannel().end();
+                    }
+                    HsmMetrics.record("total", taskStart);
+                    HsmMetrics.end();
+                }
 
             } catch (InterruptedException e) {
                 Logger.error("Worker thread interrupted", e);
@@ -36,8 +79,7 @@ public class HSMWorkerThread implements Runnable {
     }
 
     private Object processTask(HsmMsg task) {
-        HsmService hsmService = HsmService.getInstance();
-        hsmService.setSessionHandle(session);
+        HsmProvider hsmService = hsmProvider;
 
         try {
             // task.getOperation()에 따른 기본 분기 처리
@@ -45,55 +87,69 @@ public class HSMWorkerThread implements Runnable {
                 case HSM_MSG_TYPE.GENERATE_KEY -> {
 
                     hsmService.generateKey(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
+                    invalidateKcv(hsmService, task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
                     byte[] kcv = hsmService.calculateKCV(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
-                    sendResult(task.getHeader(), kcv);
+                    if (kcv == null) {
+                        return fail(task, "Failed to calculate KCV.");
+                    }
+                    sendResult(task, kcv);
                     return "Key generated";
                 }
                 case HSM_MSG_TYPE.COPY_KEY -> {
 
                     // 키 복사 수행
                     hsmService.copyKey(task.getKeyGenType(), task.getSerialNum(), task.getEtcsId(), task.getNewSerialNum(), task.getNewEtcsId(), HSM_INFO.PASSWORD);
+                    invalidateKcv(hsmService, task.getKeyGenType(), task.getNewSerialNum(), task.getNewEtcsId());
 
                     // 결과 메시지 전송
-                    sendResult(task.getHeader(), "Key copied from " + task.getSerialNum() + " to " + task.getNewSerialNum());
+                    sendResult(task, "Key copied from " + task.getSerialNum() + " to " + task.getNewSerialNum());
                     return "Key copied";
                 }
                 case HSM_MSG_TYPE.CALCULATE_CBC -> {
                     String keyLabel = hsmService.makeLabel(task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
 
-                    // 원본 키의 KCV 계산
+                    // DB KCV 조회를 먼저 시작하고 (KCV 캐시 경유, 캐시에 없으면 DB 조회 스레드에서 실행) 그동안 원본 키의 KCV 계산
+                    HsmDBService dbService = HsmDBService.getInstance();
+                    CompletableFuture<String> dbKcvFuture = dbService.getKCVAsync(keyLabel);
                     byte[] calculatedKCV = hsmService.calculateKCV(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
                     if (calculatedKCV == null) {
                         Logger.log("ERROR", "Failed to calculate KCV for key label: " + keyLabel);
-                        sendResult(task.getHeader(), "Failed to calculate KCV.");
-                        return "Failed to calculate KCV.";
+                        return fail(task, "Failed to calculate KCV.");
                     }
 
-                    // DB에서 KCV 가져오기
-                    HsmDBService dbService = HsmDBService.getInstance();
-                    String dbKCV = dbService.getKCV(keyLabel);
+                    String dbKCV = awaitDb(dbKcvFuture);
                     if (dbKCV == null) {
                         Logger.log("ERROR", "Failed to retrieve KCV from DB for key label: " + keyLabel);
-                        sendResult(task.getHeader(), "Failed to retrieve KCV from DB.");
-                        return "Failed to retrieve KCV from DB.";
+                        return fail(task, "Failed to retrieve KCV from DB.");
                     }
 
-                    // KCV 비교
-                    if (hsmService.bytesToHex(calculatedKCV).equals(dbKCV)) {
+                    // KCV 비교 (캐시 값이 다르면 다른 프로세스가 DB 를 바꿨을 수 있으므로 캐시를 지우고 한 번 더 조회)
+                    String hsmKCV = hsmService.bytesToHex(calculatedKCV);
+                    if (!hsmKCV.equals(dbKCV)) {
+                        dbService.invalidateKcv(keyLabel);
+                        dbKCV = awaitDb(dbService.getKCVAsync(keyLabel));
+                    }
+                    if (hsmKCV.equals(dbKCV)) {
+                        if (!resumeSession()) {
+                            return fail(task, "HSM session unavailable.");
+                        }
                         // KCV가 일치하는 경우에만 CBC-MAC 계산
-                        byte[] cbcMac = hsmService.calculateCBCMAC(task.getKeyGenType(), task.getSerialNum(), task.getEtcsId(), task.getData());
-                        sendResult(task.getHeader(), cbcMac);
+                        byte[] cbcMac = hsmService.calculateCBCMAC(task.getKeyGenType(), task.getSerialNum(), task.getEtcsId(), task.getData(), calculatedKCV);
+                        if (cbcMac == null) {
+                            return fail(task, "Failed to calculate CBC-MAC.");
+                        }
+                        sendResult(task, cbcMac);
                         return "CBC-MAC Calculated";
                     } else {
                         Logger.log("ERROR", "KCV mismatch for key label: " + keyLabel);
-                        sendResult(task.getHeader(), "KCV mismatch.");
-                        return "KCV mismatch.";
+                        return fail(task, "KCV mismatch.");
                     }
                 }
                 case HSM_MSG_TYPE.DELETE_KEY -> {
 
                     hsmService.deleteKey(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
-                    sendResult(task.getHeader(), "Key deleted: " + task.getKeyGenType());
+                    invalidateKcv(hsmService, task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
+                    sendResult(task, "Key deleted: " + task.getKeyGenType());
                     return "Key deleted: " + task.getKeyGenType();
                 }
 
@@ -103,12 +159,11 @@ public class HSMWorkerThread implements Runnable {
                     byte[] encryptedData = hsmService.encryptDataWithKey(task.getKeyGenType(), task.getSerialNum(), task.getEtcsId(), task.getData());
                     if (encryptedData == null) {
                         Logger.log("ERROR", "Failed to encrypt data with key label: " + task.getKeyGenType());
-                        sendResult(task.getHeader(), "Failed to encrypt data.");
-                        return "Failed to encrypt data.";
+                        return fail(task, "Failed to encrypt data.");
                     }
 
                     // 결과 전송
-                    sendResult(task.getHeader(), encryptedData);
+                    sendResult(task, encryptedData);
                     return "Data encrypted successfully.";
                 }
                 case HSM_MSG_TYPE.DECRYPT_KEY -> {
@@ -117,66 +172,206 @@ public class HSMWorkerThread implements Runnable {
                     byte[] decryptedData = hsmService.decryptDataWithKey(task.getKeyGenType(), task.getSerialNum(), task.getEtcsId(), task.getData());
                     if (decryptedData == null) {
                         Logger.log("ERROR", "Failed to decrypt data with key label: " + task.getKeyGenType());
-                        sendResult(task.getHeader(), "Failed to decrypt data.");
-                        return "Failed to decrypt data.";
+                        return fail(task, "Failed to decrypt data.");
                     }
 
                     // 결과 전송
-                    sendResult(task.getHeader(), decryptedData);
+                    sendResult(task, decryptedData);
                     return "Data decrypted successfully.";
                 }
                 case HSM_MSG_TYPE.GET_KCV -> {
 
                     byte[] kcv = hsmService.calculateKCV(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
-                    sendResult(task.getHeader(), kcv);
-                    return kcv != null ? kcv : "Failed to calculate KCV.";
+                    if (kcv == null) {
+                        return fail(task, "Failed to calculate KCV.");
+                    }
+                    sendResult(task, kcv);
+                    return kcv;
                 }
                 case HSM_MSG_TYPE.GET_KEY -> {
 
                     byte[] plainTextKey = hsmService.getPlainTextKey(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
-                    sendResult(task.getHeader(), plainTextKey);
-                    return plainTextKey != null ? plainTextKey : "Failed to retrieve plaintext key.";
+                    if (plainTextKey == null) {
+                        return fail(task, "Failed to retrieve plaintext key.");
+                    }
+                    sendResult(task, plainTextKey);
+                    return plainTextKey;
                 }
                 case HSM_MSG_TYPE.GET_STATUS -> {
                     // HSM 상태와 네트워크 상태 확인
                     HsmStatus status = hsmService.getHsmStatusAndNetworkState(task.getHeader().getAddress());
+                    if (status == null) {
+                        return fail(task, "Failed to get HSM status.");
+                    }
 
                     // 결과를 외부 앱에 전송
-                    sendResult(task.getHeader(), status);
+                    sendResult(task, status);
                     return status.toString(); // 객체의 상태를 로그에 남기기 위해 문자열로 반환
                 }
                 case HSM_MSG_TYPE.INJECT_KEY -> {
                     hsmService.injectPrivateKey(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId(), task.getData());
+                    invalidateKcv(hsmService, task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
                     byte[] kcv = hsmService.calculateKCV(task.getKeyType(), task.getKeyGenType(), task.getSerialNum(), task.getEtcsId());
-                    sendResult(task.getHeader(), kcv);
-                    return kcv != null ? kcv : "Failed to calculate KCV.";
+                    if (kcv == null) {
+                        return fail(task, "Failed to calculate KCV.");
+                    }
+                    sendResult(task, kcv);
+                    return kcv;
+                }
+                case HSM_MSG_TYPE.BATCH_KCV -> {
+                    return processBatchKcv(hsmService, task);
+                }
+                default -> {
+                    Logger.error("Unsupported operation type: " + task.getOperation());
+                    return fail(task, "Unsupported operation type: " + task.getOperation());
                 }
-                default -> Logger.error("Unsupported operation type: " + task.getOperation());
             }
 
-
         } catch (Exception ex) {
             Logger.error("Error processing task", ex);
-            return "Error processing task: " + ex.getMessage();
+            return fail(task, "Error processing task: " + ex.getMessage());
         }
-        return null;
     }
 
-    // 객체를 전송하는 sendResult 메서드
-    private void sendResult(HsmMsg.hsmMsgHeader header, Object message) {
+    // 키 목록을 BATCH_KCV_CHUNK_SIZE 단위로 나눠 KCV 계산 -> DB 일괄 조회 -> 비교 후 구간별 결과를 바로 전송
+    private String processBatchKcv(HsmProvider hsmService, HsmMsg task) {
+        List<KeyRef> keys = task.getKeys();
+        HsmDBService dbService = HsmDBService.getInstance();
+        int total = keys.size();
+        int matched = 0;
+
+        for (int offset = 0; offset < total; offset += HSM_INFO.BATCH_KCV_CHUNK_SIZE) {
+            List<KeyRef> chunk = keys.subList(offset, Math.min(offset + HSM_INFO.BATCH_KCV_CHUNK_SIZE, total));
+
+            List<String> labels = new ArrayList<>(chunk.size());
+            for (KeyRef key : chunk) {
+                labels.add(hsmService.makeLabel(key.getKeyGenType(), key.getSerialNum(), key.getEtcsId()));
+            }
+
+            // DB 일괄 조회와 HSM KCV 계산을 동시에 진행
+            if (!resumeSession()) {
+                return fail(task, "HSM session unavailable.");
+            }
+            CompletableFuture<Map<String, String>> dbKcvFuture = dbService.getKCVsAsync(labels);
+            byte[][] kcvs = hsmService.calculateKCVs(chunk);
+            Map<String, String> dbKcvs = awaitDb(dbKcvFuture);
+            if (dbKcvs == null) {
+                return fail(task, "Failed to retrieve KCV from DB.");
+            }
+
+            List<KcvCheckResult> results = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                String label = labels.get(i);
+                String hsmKcv = kcvs[i] != null ? hsmService.bytesToHex(kcvs[i]) : null;
+                String dbKcv = dbKcvs.get(label);
 
-        if (message == null) {
-            Logger.error("Attempted to send a null message to " + header.getAddress() + ":" + header.getPort());
+                int status;
+                if (hsmKcv == null) {
+                    status = KcvCheckResult.NOT_IN_HSM;
+                } else if (dbKcv == null) {
+                    status = KcvCheckResult.NOT_IN_DB;
+                } else if (hsmKcv.equals(dbKcv)) {
+                    status = KcvCheckResult.MATCH;
+                    matched++;
+                } else {
+                    status = KcvCheckResult.MISMATCH;
+                    Logger.log("ERROR", "KCV mismatch for key label: " + label);
+                }
+                results.add(new KcvCheckResult(label, status, hsmKcv, dbKcv));
+            }
+
+            boolean last = offset + chunk.size() >= total;
+            sendResult(task, new KcvBatchResult(offset, total, last, results));
+        }
+        return "Batch KCV checked: " + matched + "/" + total + " matched";
+    }
+
+    // 세션 대여 후 현재 스레드의 세션으로 지정
+    private boolean acquireSession() throws InterruptedException {
+        long borrowStart = System.nanoTime();
+        session = sessionPool.borrow(HSM_INFO.SESSION_BORROW_TIMEOUT_MS);
+        HsmMetrics.record("sessionBorrow", borrowStart);
+        hsmProvider.setSessionHandle(session);
+        return session != null;
+    }
+
+    private void releaseSession() {
+        hsmProvider.setSessionHandle(null);
+        if (session != null) {
+            sessionPool.release(session);
+            session = null;
+        }
+    }
+
+    // awaitDb 에서 돌려준 세션을 다시 대여 (돌려준 적이 없으면 그대로)
+    private boolean resumeSession() {
+        if (!sessionSuspended) {
+            return true;
+        }
+        sessionSuspended = false;
+        try {
+            return acquireSession();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * DB 조회 결과 대기 * 아직 끝나지 않았으면 기다리는 동안 세션을 풀에 돌려줘 다른 워커가 HSM 을 쓰게 함
+     * <p> 이후 HSM 호출이 필요하면 resumeSession() 으로 다시 대여
+     * @return 조회 결과, 실패 / 시간 초과 시 null
+     */
+    private <T> T awaitDb(CompletableFuture<T> future) {
+        if (!future.isDone() && session != null) {
+            releaseSession();
+            sessionSuspended = true;
+        }
+        long start = System.nanoTime();
+        try {
+            return future.get(HSM_INFO.DB_WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            Logger.error("Error waiting for DB result", e);
+            return null;
+        } finally {
+            HsmMetrics.record("dbWait", start);
+        }
+    }
+
+    // HSM 키가 바뀌었으므로 라벨의 DB KCV 캐시 제거
+    private void invalidateKcv(HsmProvider hsmService, String keyGenType, int serialNum, int etcsId) {
+        HsmDBService.getInstance().invalidateKcv(hsmService.makeLabel(keyGenType, serialNum, etcsId));
+    }
+
+    // 객체를 전송하는 sendResult 메서드
+    // 요청 연결이 있으면 쓰기 대기열에 넣기만 하고, 응답마다 새 연결을 여는 경우는 세션 반납 후 전송
+    private void sendResult(HsmMsg task, Object message) {
+        if (task.getResponseChannel() == null) {
+            deferredResults.add(message);
             return;
         }
+        long start = System.nanoTime();
+        HsmResponder.send(task, message);
+        HsmMetrics.record("send", start);
+    }
 
-        try (Socket socket = new Socket(header.getAddress(), header.getPort());
-             ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream())) {
-            oos.writeObject(message);
-            oos.flush();
-        } catch (IOException e) {
-            Logger.error("Failed to send message via TCP", e);
+    private void sendDeferredResults(HsmMsg task) {
+        for (Object message : deferredResults) {
+            long start = System.nanoTime();
+            HsmResponder.send(task, message);
+            HsmMetrics.record("send", start);
         }
+        deferredResults.clear();
+    }
+
+    // 실패 응답 전송 후 실패 건수로 집계
+    private String fail(HsmMsg task, String message) {
+        HsmMetrics.markFailure();
+        sendResult(task, message);
+        return message;
     }
 
     public String bytesToDecimalString(byte[] bytes) {
@@ -1,3 +1,4 @@
+import com.nb.kms.hsm.HsmService;
 import safenet.jcprov.*;
 import safenet.jcprov.constants.*;
 import java.util.Arrays;
@@ -44,6 +45,28 @@ public class TripleDESCBCMACExample {
             byte[] mac = calculate3DESCBCMAC(session, key1, key2, key3, data);
             System.out.println("최종 3DES CBC-MAC: " + bytesToHex(mac));
 
+            // 단일 스트림(ISO 9797-1 MAC 알고리즘 3) 방식 회귀 확인 : 블록 단위 결과와 같아야 함
+            byte[] singlePassMac = HsmService.calculateIso9797Alg3Mac(session, key1, key2, key3, data);
+            System.out.println("단일 스트림 3DES CBC-MAC: " + bytesToHex(singlePassMac));
+            if (!Arrays.equals(mac, singlePassMac)) {
+                throw new IllegalStateException("CBC-MAC mismatch between per-block and single-pass calculation");
+            }
+
+            // 블록 경계 전후 길이에 대해서도 두 방식 비교
+            for (int length = 0; length <= data.length; length++) {
+                byte[] part = Arrays.copyOf(data, length);
+                if (!Arrays.equals(calculate3DESCBCMAC(session, key1, key2, key3, part),
+                        HsmService.calculateIso9797Alg3Mac(session, key1, key2, key3, part))) {
+                    throw new IllegalStateException("CBC-MAC mismatch for data length " + length);
+                }
+            }
+            System.out.println("단일 스트림 CBC-MAC 회귀 확인 완료");
+
+            // 분할 키 세션 오브젝트 삭제
+            CryptokiEx.C_DestroyObject(session, key1);
+            CryptokiEx.C_DestroyObject(session, key2);
+            CryptokiEx.C_DestroyObject(session, key3);
+
             // 세션 닫기 및 종료
             CryptokiEx.C_Logout(session);
             CryptokiEx.C_CloseSession(session);
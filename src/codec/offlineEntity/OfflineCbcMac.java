@@ -0,0 +1,143 @@
+package codec.offlineEntity;
+
+import Message.CodecUtil;
+import Message.constant.Common.*;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * 오프라인 키 메시지 CBC-MAC 누적 계산 클래스 (ISO 9797-1 MAC Algorithm 3, KTRANS 3중 DES 키)
+ * <p> 메시지를 받는 대로 Update 로 나누어 넣으면 블록 단위로 체인 값을 갱신하므로 전체 메시지를 버퍼링할 필요가 없음
+ * <p> 마지막 블록은 0x00 으로 패딩 후 K1 으로 암호화, K2 로 복호화, K3 로 암호화하여 MAC 생성
+ */
+public class OfflineCbcMac extends CodecUtil
+{
+    private static final int BLOCK_SIZE = COMMON_SIZE.CBC_MAC_SIZE;
+    private static final int DES_KEY_SIZE = 8;
+
+    private final Cipher firstKeyCipher;
+    private final Cipher secondKeyCipher;
+    private final Cipher thirdKeyCipher;
+
+    private final byte[] chain = new byte[BLOCK_SIZE];      /* CBC 체인 값 (IV 0) */
+    private final byte[] pending = new byte[BLOCK_SIZE];    /* 블록을 채우지 못하고 남은 입력 */
+    private int nPendingLength = 0;
+
+    /**
+     * @param ktrans 24바이트 전송 키 (K1 | K2 | K3)
+     * @throws GeneralSecurityException DES 암호화 모듈 초기화 실패
+     */
+    public OfflineCbcMac(byte[] ktrans) throws GeneralSecurityException
+    {
+        if (ktrans == null || ktrans.length != DES_KEY_SIZE * 3)
+        {
+            throw new IllegalArgumentException("KTRANS must be 24 bytes long.");
+        }
+        this.firstKeyCipher = NewDesCipher(ktrans, 0, Cipher.ENCRYPT_MODE);
+        this.secondKeyCipher = NewDesCipher(ktrans, DES_KEY_SIZE, Cipher.DECRYPT_MODE);
+        this.thirdKeyCipher = NewDesCipher(ktrans, DES_KEY_SIZE * 2, Cipher.ENCRYPT_MODE);
+    }
+
+    /**
+     * 받은 메시지 일부를 MAC 계산에 반영
+     * @param data 입력 버퍼
+     * @param nOffset 시작 위치
+     * @param nLength 길이
+     */
+    public void Update(byte[] data, int nOffset, int nLength) throws GeneralSecurityException
+    {
+        int nEnd = nOffset + nLength;
+        while (nOffset < nEnd)
+        {
+            int nCopy = Math.min(BLOCK_SIZE - nPendingLength, nEnd - nOffset);
+            System.arraycopy(data, nOffset, pending, nPendingLength, nCopy);
+            nPendingLength += nCopy;
+            nOffset += nCopy;
+
+            if (nPendingLength == BLOCK_SIZE)
+            {
+                ChainBlock();
+            }
+        }
+    }
+
+    /**
+     * 버퍼의 position ~ limit 구간을 MAC 계산에 반영 (position 은 limit 으로 이동)
+     * @param buffer 입력 버퍼
+     */
+    public void Update(ByteBuffer buffer) throws GeneralSecurityException
+    {
+        if (buffer.hasArray())
+        {
+            Update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+        while (buffer.hasRemaining())
+        {
+            int nCopy = Math.min(BLOCK_SIZE - nPendingLength, buffer.remaining());
+            buffer.get(pending, nPendingLength, nCopy);
+            nPendingLength += nCopy;
+
+            if (nPendingLength == BLOCK_SIZE)
+            {
+                ChainBlock();
+            }
+        }
+    }
+
+    /**
+     * 누적된 입력으로 MAC 을 계산하고 상태를 초기화
+     * @return 8바이트 CBC-MAC
+     */
+    public byte[] DoFinal() throws GeneralSecurityException
+    {
+        if (nPendingLength > 0) /* 패딩 방식 1 : 마지막 블록만 0x00 으로 채움 */
+        {
+            Arrays.fill(pending, nPendingLength, BLOCK_SIZE, (byte) 0x00);
+            ChainBlock();
+        }
+
+        byte[] mac = thirdKeyCipher.doFinal(secondKeyCipher.doFinal(chain));
+        Reset();
+        return mac;
+    }
+
+    /**
+     * 누적된 입력의 MAC 과 수신한 MAC 비교 (상수 시간 비교)
+     * @param receivedMac 메시지에 포함된 CBC-MAC
+     * @return 일치 여부
+     */
+    public boolean Verify(byte[] receivedMac) throws GeneralSecurityException
+    {
+        return MessageDigest.isEqual(DoFinal(), receivedMac);
+    }
+
+    public void Reset()
+    {
+        Arrays.fill(chain, (byte) 0x00);
+        Arrays.fill(pending, (byte) 0x00);
+        nPendingLength = 0;
+    }
+
+    private void ChainBlock() throws GeneralSecurityException
+    {
+        for (int idx = 0; idx < BLOCK_SIZE; idx++)
+        {
+            pending[idx] ^= chain[idx];
+        }
+        firstKeyCipher.doFinal(pending, 0, BLOCK_SIZE, chain, 0);
+        nPendingLength = 0;
+    }
+
+    private static Cipher NewDesCipher(byte[] ktrans, int nOffset, int nMode) throws GeneralSecurityException
+    {
+        Cipher cipher = Cipher.getInstance("DES/ECB/NoPadding");
+        cipher.init(nMode, new SecretKeySpec(ktrans, nOffset, DES_KEY_SIZE, "DES"));
+        return cipher;
+    }
+}
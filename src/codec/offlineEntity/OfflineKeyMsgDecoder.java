@@ -1,10 +1,13 @@
 package codec.offlineEntity;
 
+import Message.CbcMacVerifier;
 import Message.CodecUtil;
 import Message.offline.entity.*;
 import Message.offline.entity.sub.*;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
+import java.nio.ByteBuffer;
+
 public class OfflineKeyMsgDecoder extends CodecUtil
 {
     private OfflineHeader Header;
@@ -80,76 +83,120 @@ public class OfflineKeyMsgDecoder extends CodecUtil
      * @return OFFLINE_NOTIFY_RESPONSE_RESULT_CODE
      */
     public int DecodeMessage(byte[] bOfflineMessage)
+    {
+        if (bOfflineMessage == null)
+        {
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "[OfflineMsgDecoder] Message is Null");
+        }
+        return DecodeMessage(ByteBuffer.wrap(bOfflineMessage));
+    }
+
+    /**
+     * 버퍼의 position ~ limit 구간을 메시지 하나로 보고 구조체 초기화
+     * <p> 헤더와 바디를 별도 배열로 잘라내지 않고 같은 버퍼 위에서 한 번에 순차 파싱
+     * @param buffer 메시지 버퍼 (읽은 만큼 position 이동)
+     * @return OFFLINE_NOTIFY_RESPONSE_RESULT_CODE
+     */
+    public int DecodeMessage(ByteBuffer buffer)
     {
         /* 필드 인스턴스 초기화 */
         InitInstanceFiledValues();
 
-        int nHeaderSize = GetHeader().GetSize();
-        int nResultCode = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST;
-        /* 헤더의 크기값은 고정이므로 시작부터 헤더의 크기까지 자르고, 나머지는 바디값으로 사용 */
-        byte[] bHeaderArray = super.SeparationByteArray(bOfflineMessage,0, super.GetObjectLastIndex(nHeaderSize) );
-        byte[] bBodyArray = super.SeparationByteArray(bOfflineMessage, nHeaderSize, super.GetObjectLastIndex(bOfflineMessage.length));
+        int nMessageStart = buffer.position();
+        int nMessageSize = buffer.remaining();
 
-        /* 파싱 성공 여부에 따라 리턴값 결정 */
+        /* 검증 실패는 예외 없이 결과 코드로 반환 (잘못된 패킷이 몰려도 정상 패킷과 비슷한 비용) */
         try
         {
+            /* 헤더의 크기값은 고정이므로 헤더를 먼저 읽고, 버퍼의 나머지는 바디값으로 사용 */
+            int nResultCode = DecodeHeader(buffer);
+            if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
             {
-                /*TODO :CBC MAC check*/
+                return nResultCode; /* 실패 원인은 하위 디코더에서 기록 */
             }
-
-            nResultCode = DecodeHeader(bHeaderArray);
-            if (nResultCode == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+            if(ConvertByteArrayToInt( GetHeader().GetLength() ) != nMessageSize ) /* 헤더 파싱에 문제가 없다면 길이 검사 */
             {
-                if(ConvertByteArrayToInt( GetHeader().GetLength() ) != bOfflineMessage.length ) /* 헤더 파싱에 문제가 없다면 길이 검사 */
-                {
-                    nResultCode = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR; /* 길이 문제 발생 시 에러코드 설정 */
-                    throw new IllegalArgumentException("[OfflineMsgDecoder] Packet size does not match length field in header");
-                }
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR,
+                        "[OfflineMsgDecoder] Packet size does not match length field in header");
             }
-            else
+
+            if (!buffer.hasRemaining()) /* 바디가 비어있는 경우 기존 바이트 배열 디코딩과 같은 에러코드 */
             {
-                throw new IllegalArgumentException("[OfflineMsgDecoder] Header packet parsing Fail");
+                return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "[OfflineMsgDecoder] Body packet is empty");
             }
 
-            nResultCode = DecodeBody(bBodyArray);
+            /* 바디를 처리하기 전에 헤더의 KTRANS 로 CBC-MAC 검증 (검증기 미등록 시 생략) */
+            nResultCode = VerifyCbcMac(buffer, nMessageStart, nMessageSize);
             if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
             {
-                throw new IllegalArgumentException("[OfflineMsgDecoder] Body packet parsing Fail");
+                return nResultCode;
             }
+            nResultCode = DecodeBody(buffer.slice());
+            if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+            {
+                return nResultCode; /* 실패 원인은 하위 디코더에서 기록 */
+            }
+            buffer.position(buffer.limit());
+            return nResultCode;
         }
-        catch (IllegalArgumentException e)
+        catch (Exception e)
         {
+            /* 디코더 메소드에서 정의되지 않은 예외 발생 시 에러코드 설정 */
             super.IsExceptionPrintingAndWriteLog(e);
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+        }
+    }
 
+    /**
+     * 메시지 끝의 CBC-MAC 검증
+     * @param buffer 메시지 버퍼 (position 은 변경하지 않음)
+     * @param nMessageStart 메시지 시작 위치
+     * @param nMessageSize 메시지 전체 크기
+     * @return OFFLINE_NOTIFY_RESPONSE_RESULT_CODE
+     */
+    private int VerifyCbcMac(ByteBuffer buffer, int nMessageStart, int nMessageSize)
+    {
+        CbcMacVerifier verifier = GetCbcMacVerifier();
+        if (verifier == null)
+        {
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
         }
-        catch (Exception e)
+        if (buffer.remaining() < COMMON_SIZE.CBC_MAC_SIZE)
         {
-            /* 디코더 메소드에서 정의되지 않은 예외 발생 시 에러코드 설정 */
-            nResultCode = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
-            super.IsExceptionPrintingAndWriteLog(e);
+            return super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR,
+                    "[OfflineMsgDecoder] Body is shorter than CBC-MAC");
         }
-        finally
+
+        int nMacOffset = nMessageStart + nMessageSize - COMMON_SIZE.CBC_MAC_SIZE;
+        byte[] receivedMac = new byte[COMMON_SIZE.CBC_MAC_SIZE];
+        buffer.get(nMacOffset, receivedMac);
+
+        ByteBuffer macInput = buffer.duplicate();
+        macInput.position(nMessageStart).limit(nMacOffset);
+        int nResultCode = verifier.VerifyKeyMessage(this.Header, macInput, receivedMac);
+        if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
         {
-            return nResultCode;
+            return super.DecodeFail(nResultCode, "[OfflineMsgDecoder] CBC-MAC verification failed");
         }
+        return nResultCode;
     }
 
     /**
      * 헤더 메시지 디코딩
-     * @param bHeaderArray 파싱할 버퍼
+     * @param buffer 파싱할 버퍼 (헤더 크기만큼 position 이동)
      * @return 성공여부
      */
-    private int DecodeHeader(byte[] bHeaderArray)
+    private int DecodeHeader(ByteBuffer buffer)
     {
-        return this.Header.DecodeMessage(bHeaderArray);
+        return this.Header.DecodeMessage(buffer);
     }
 
     /**
      * 바디 메시지 디코딩
-     * @param bBodyArray 파싱할 버퍼
+     * @param bodyBuffer 파싱할 바디 구간 버퍼
      * @return 성공여부
      */
-    private int DecodeBody(byte[] bBodyArray) {
+    private int DecodeBody(ByteBuffer bodyBuffer) {
         int nResultCode = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
         try
         {
@@ -158,47 +205,47 @@ public class OfflineKeyMsgDecoder extends CodecUtil
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS ->
                 {
                     ReplaceAllKeys = new ReplaceAllKeys();
-                    nResultCode = ReplaceAllKeys.DecodeMessage(bBodyArray);
+                    nResultCode = ReplaceAllKeys.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_DELETE_ALL_KEYS ->
                 {
                     DeleteAllKeys = new DeleteAllKeys();
-                    nResultCode = DeleteAllKeys.DecodeMessage(bBodyArray);
+                    nResultCode = DeleteAllKeys.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_ADD_AUTHENTICATION_KEY ->
                 {
                     AddAuthenticationKey = new AddAuthenticationKey();
-                    nResultCode = AddAuthenticationKey.DecodeMessage(bBodyArray);
+                    nResultCode = AddAuthenticationKey.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_DELETE_KEY ->
                 {
                     DeleteKey = new DeleteKey();
-                    nResultCode = DeleteKey.DecodeMessage(bBodyArray);
+                    nResultCode = DeleteKey.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ETCS_ENTITIES ->
                 {
                     ReplaceEtcsEntities = new ReplaceEtcsEntities();
-                    nResultCode = ReplaceEtcsEntities.DecodeMessage(bBodyArray);
+                    nResultCode = ReplaceEtcsEntities.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_UPDATE_KEY_VALIDITY_PERIOD ->
                 {
                     UpdateKeyValidityPeriod = new UpdateKeyValidityPeriod();
-                    nResultCode = UpdateKeyValidityPeriod.DecodeMessage(bBodyArray);
+                    nResultCode = UpdateKeyValidityPeriod.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_INSTALL_TRANSPORT_KEY ->
                 {
                     InstallTransportKey = new InstallTransportKey();
-                    nResultCode = InstallTransportKey.DecodeMessage(bBodyArray);
+                    nResultCode = InstallTransportKey.DecodeMessage(bodyBuffer);
                 }
                 case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_RESPONSE_NOTIFY ->
                 {
                     ResponseNotify = new ResponseNotify();
-                    nResultCode = ResponseNotify.DecodeMessage(bBodyArray);
+                    nResultCode = ResponseNotify.DecodeMessage(bodyBuffer);
                 }
                 default -> {
-                    /* 정의되지 않은 메시지 예외처리 */
-                    String strException = String.format("[OfflineMsgDecoder] Header MsgType Value does not belong to OFFLINE_KEY_MESSAGE_TYPE. [type value : %d ]",Header.GetMsgType());
-                    throw new IllegalArgumentException(strException);
+                    /* 정의되지 않은 메시지 처리 */
+                    nResultCode = super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_NOT_SUPPORTED,
+                            "[OfflineMsgDecoder] Header MsgType Value does not belong to OFFLINE_KEY_MESSAGE_TYPE");
                 }
             }
         }
@@ -286,6 +333,10 @@ public class OfflineKeyMsgDecoder extends CodecUtil
 
     private void WriteSuccessLog()
     {
+        if (!IsLogEnabled())
+        {
+            return;
+        }
         String strSuccessMsg = String.format("[OfflineMsgDecoder] Parsing %s message", CheckOfflineKeyMsgType(Header.GetMsgType()));
         WriteLog(strSuccessMsg);
     }
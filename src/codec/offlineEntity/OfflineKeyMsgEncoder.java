@@ -9,6 +9,7 @@ import Message.offline.entity.*;
 import Message.offline.entity.sub.OfflineHeader;
 import Message.offline.entity.sub.OfflineKeyStruct;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  *      오프라인 메시지 인코딩 클래스<p>
@@ -93,10 +94,8 @@ public class OfflineKeyMsgEncoder extends CodecUtil
                 throw new IOException("Data size check fail");
             }
 
-            byte[] bHeaderArray = Header.EncodeObject();
-            byte[] bBodyArray = EncodeBodyObject(); /* 실패 시 throw 던져짐 */
-
-            bResultBuffer = super.AddPacket(bHeaderArray,bBodyArray);
+            /* 헤더 길이 필드의 전체 크기로 한 번만 할당하고 헤더, 바디를 이어서 기록 (실패 시 throw 던져짐) */
+            bResultBuffer = super.EncodeToArray(GetSize(), this::WriteMessage);
 
             WriteEncodeLog();
             bResult = true; /* 예외 적중이 없다면 정상 진행 완료 */
@@ -117,6 +116,46 @@ public class OfflineKeyMsgEncoder extends CodecUtil
         }
     }
 
+    /**
+     * 설정된 타입에 맞춰 헤더, 바디를 호출자가 준비한 버퍼의 현재 위치에 이어서 기록
+     * <p> 송신용 버퍼를 재사용하는 경우 중간 배열 없이 바로 기록 * 실패 시 버퍼 위치는 호출 전으로 복구
+     * @param buffer 기록할 버퍼 (GetSize() 이상의 남은 공간 필요)
+     * @return 성공여부
+     */
+    public boolean EncodeTo(ByteBuffer buffer)
+    {
+        int nStartPosition = buffer.position();
+        try
+        {
+            if(!SettingHeaderLength()) /* 헤더 패킷 길이 설정 */
+            {
+                throw new IOException("Data size check fail");
+            }
+            if(buffer.remaining() < GetSize())
+            {
+                throw new IOException("Buffer remaining " + buffer.remaining() + " is smaller than message size " + GetSize());
+            }
+
+            WriteMessage(buffer);
+            WriteEncodeLog();
+            return true;
+        }
+        catch (Exception e)
+        {
+            WriteErrorLog("[OfflineKeyMsgEncoder] Packet create fail for this Class.");
+            super.IsExceptionPrintingAndWriteLog(e);
+            buffer.position(nStartPosition);
+            return false;
+        }
+    }
+
+    /* 헤더와 바디를 버퍼에 순서대로 기록 */
+    private void WriteMessage(ByteBuffer buffer) throws IOException
+    {
+        Header.EncodeTo(buffer);
+        EncodeBodyTo(buffer);
+    }
+
     /**
      * 헤더 타입에 맞춰 생성된 객체를 추적하여 사이즈 추출
      * @return Header Size + Body Size
@@ -273,14 +312,59 @@ public class OfflineKeyMsgEncoder extends CodecUtil
         }
     }
 
+    /**
+     * 헤더에 설정되어있는 바디 객체를 버퍼의 현재 위치에 기록
+     * @param buffer 기록할 버퍼
+     * @throws IOException 바디 필드 값 오류
+     *                   <p>NullPointerException -> Header, Body filed reference error
+     *                   <p>IllegalArgumentException Header Message Type value error
+     */
+    private void EncodeBodyTo(ByteBuffer buffer) throws IOException
+    {
+        try
+        {
+            switch (Header.GetMsgType()) /* 헤더의 타입 체크 */
+            {
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS -> ReplaceAllKeys.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_DELETE_ALL_KEYS -> DeleteAllKeys.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_ADD_AUTHENTICATION_KEY -> AddAuthenticationKey.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_DELETE_KEY -> DeleteKey.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ETCS_ENTITIES -> ReplaceEtcsEntities.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_UPDATE_KEY_VALIDITY_PERIOD -> UpdateKeyValidityPeriod.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_INSTALL_TRANSPORT_KEY -> InstallTransportKey.EncodeTo(buffer);
+                case OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_RESPONSE_NOTIFY -> ResponseNotify.EncodeTo(buffer);
+                default -> throw new IllegalArgumentException("[OfflineKeyMsgEncoder] Header type value is not Defined OFFLINE_KEY_MESSAGE_TYPE");
+            }
+        }
+        catch (NullPointerException e)
+        {
+            /* 예외 메시지 형식 지정 */
+            String strError = String.format("[OfflineKeyMsgEncoder] The object you are trying to extract packets from has not been initialized [Type value : %02x]", Header.GetMsgType());
+
+            /* 새로운 NullPointerException 을 생성하고, 스택 트레이스를 설정 */
+            NullPointerException newException = new NullPointerException(strError);
+            newException.setStackTrace(e.getStackTrace());
+
+            throw newException;
+        }
+    }
+
     private void WriteEncodeLog()
     {
+        if (!IsLogEnabled())
+        {
+            return;
+        }
         String strSuccessMsg = String.format("[OfflineKeyMsgEncoder] [Encode OK] %s message", CheckOfflineKeyMsgType(Header.GetMsgType()));
         WriteErrorLog(strSuccessMsg);
     }
 
     private void WriteFiledSetLog()
     {
+        if (!IsLogEnabled())
+        {
+            return;
+        }
         String strMsg = String.format("[OfflineKeyMsgEncoder] set Body(%s)", CheckOfflineKeyMsgType(Header.GetMsgType()));
         WriteErrorLog(strMsg);
     }
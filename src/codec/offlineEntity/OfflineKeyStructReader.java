@@ -0,0 +1,354 @@
+package codec.offlineEntity;
+
+import Message.CodecUtil;
+import Message.constant.Common.*;
+import Message.constant.Offline.*;
+import Message.offline.entity.sub.OfflineHeader;
+import Message.offline.entity.sub.OfflineKeyStruct;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * REPLACE_ALL_KEYS / ADD_AUTHENTICATION_KEY 메시지를 스트림에서 K-STRUCT 단위로 읽는 디코더
+ * <p> 메시지 전체를 버퍼링하고 OfflineKeyStruct[] 로 디코딩하는 OfflineKeyMsgDecoder 와 달리,
+ * 소켓에서 K-STRUCT 하나가 도착할 때마다 반환하므로 첫 K-STRUCT 부터 HSM 설치(스테이징)를 시작할 수 있음
+ * <p> CBC-MAC 은 읽은 바이트로 누적 계산하고 {@link #Finish()} 에서 검증 * Finish 가 성공하기 전에는 설치 내용을 확정하면 안 됨
+ * <pre>
+ * OfflineKeyStructReader reader = new OfflineKeyStructReader(socket.getInputStream(), new OfflineCbcMac(ktrans1));
+ * if (reader.ReadHeader() == RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+ * {
+ *     OfflineKeyStruct keyStruct;
+ *     while (reader.HasNext() &amp;&amp; (keyStruct = reader.Next()) != null)
+ *     {
+ *         stage(keyStruct);
+ *     }
+ *     if (reader.Finish() == RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED) commit(); else rollback();
+ * }
+ * </pre>
+ */
+public class OfflineKeyStructReader extends CodecUtil
+{
+    private static final int KEY_STRUCT_FIXED_SIZE = OfflineKeyStruct.KEY_STRUCT_FIXED_SIZE;
+
+    private static final int STATE_HEADER = 0;
+    private static final int STATE_BODY = 1;
+    private static final int STATE_FINISHED = 2;
+
+    private final DataInputStream input;
+    private final OfflineCbcMac cbcMac; /* null 이면 MAC 검증 생략 (OfflineKeyMsgDecoder 와 동일) */
+
+    private final OfflineHeader Header = new OfflineHeader();
+    private byte eAlgo;
+    private final byte[] kNum = new byte[OFFLINE_KEY_MESSAGE_SIZE.K_NUM_SIZE];
+    private final byte[] receivedCbcMac = new byte[COMMON_SIZE.CBC_MAC_SIZE];
+
+    private byte[] readBuffer = new byte[Math.max(Header.GetSize(), KEY_STRUCT_FIXED_SIZE * 2)];
+    private int nRemaining = 0; /* 아직 읽지 않은 바디 크기 (CBC-MAC 포함) */
+    private int nKeyStructCount = 0;
+    private int state = STATE_HEADER;
+    private int resultCode = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
+
+    /**
+     * @param inputStream 메시지를 읽을 스트림 (소켓 입력 등)
+     * @param cbcMac KTRANS1 으로 초기화한 MAC 계산기 * null 이면 MAC 검증 생략
+     */
+    public OfflineKeyStructReader(InputStream inputStream, OfflineCbcMac cbcMac)
+    {
+        this.input = inputStream instanceof DataInputStream ? (DataInputStream) inputStream : new DataInputStream(inputStream);
+        this.cbcMac = cbcMac;
+        if (cbcMac != null)
+        {
+            cbcMac.Reset();
+        }
+    }
+
+    /**
+     * 헤더와 K-STRUCT 앞의 바디 필드(E-ALGO, K-NUM)를 읽음
+     * @return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE
+     * @throws IOException 스트림 읽기 실패 (메시지 중간 EOF 는 결과 코드로 반환)
+     */
+    public int ReadHeader() throws IOException
+    {
+        if (state != STATE_HEADER)
+        {
+            return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR, "[OfflineKeyStructReader] Header has already been read");
+        }
+
+        try
+        {
+            int nHeaderSize = Header.GetSize();
+            ReadFully(readBuffer, nHeaderSize);
+            int nResultCode = Header.DecodeMessage(ByteBuffer.wrap(readBuffer, 0, nHeaderSize));
+            if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+            {
+                return Fail(nResultCode, "[OfflineKeyStructReader] Header packet parsing Fail");
+            }
+
+            byte bMsgType = Header.GetMsgType();
+            if (bMsgType != OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS && bMsgType != OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_ADD_AUTHENTICATION_KEY)
+            {
+                return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_NOT_SUPPORTED,
+                        String.format("[OfflineKeyStructReader] Message type [%02X] does not contain K-STRUCT", bMsgType));
+            }
+
+            /* 헤더의 길이 필드로 바디 크기를 정함 * 최소 K-STRUCT 1개 + CBC-MAC 이 들어갈 크기여야 함 */
+            nRemaining = ConvertByteArrayToInt(Header.GetLength()) - nHeaderSize;
+            int nPrefixSize = bMsgType == OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS ?
+                    OFFLINE_KEY_MESSAGE_SIZE.E_ALGO_SIZE + OFFLINE_KEY_MESSAGE_SIZE.K_NUM_SIZE : COMMON_SIZE.EMPTY;
+            if (nRemaining < nPrefixSize + KEY_STRUCT_FIXED_SIZE + COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE + COMMON_SIZE.CBC_MAC_SIZE)
+            {
+                return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR,
+                        "[OfflineKeyStructReader] Length field in header is too small");
+            }
+
+            if (bMsgType == OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS)
+            {
+                ReadBody(readBuffer, nPrefixSize);
+                this.eAlgo = readBuffer[0];
+                System.arraycopy(readBuffer, OFFLINE_KEY_MESSAGE_SIZE.E_ALGO_SIZE, this.kNum, 0, this.kNum.length);
+                if (!CheckOfflineKeyMsgAuthAlgo(this.eAlgo)) /* 인증 알고리즘 확인*/
+                {
+                    return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_DECRYPTION_ALGORITHM_NOT_IMPLEMENTATION,
+                            "[OfflineKeyStructReader] authAlgo value Error ");
+                }
+            }
+        }
+        catch (EOFException e)
+        {
+            return DeserializeFail(e);
+        }
+
+        state = STATE_BODY;
+        return resultCode;
+    }
+
+    /**
+     * @return 읽을 K-STRUCT 가 남아있는지 여부 (CBC-MAC 크기보다 많이 남은 경우)
+     */
+    public boolean HasNext()
+    {
+        return state == STATE_BODY && nRemaining > COMMON_SIZE.CBC_MAC_SIZE;
+    }
+
+    /**
+     * 다음 K-STRUCT 하나를 읽어서 반환 * 필요한 바이트가 도착할 때까지 대기
+     * @return 디코딩된 K-STRUCT * 실패 시 null (결과 코드는 {@link #GetResultCode()})
+     * @throws IOException 스트림 읽기 실패 (메시지 중간 EOF 는 결과 코드로 반환)
+     */
+    public OfflineKeyStruct Next() throws IOException
+    {
+        if (!HasNext())
+        {
+            Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, "[OfflineKeyStructReader] No K-STRUCT left");
+            return null;
+        }
+
+        try
+        {
+            if (KEY_STRUCT_FIXED_SIZE > nRemaining - COMMON_SIZE.CBC_MAC_SIZE)
+            {
+                Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST,
+                        "[OfflineKeyStructReader] K-STRUCT exceeds length field in header");
+                return null;
+            }
+            /* 고정 크기 부분을 먼저 읽어 PEER-NUM 으로 K-STRUCT 전체 크기 계산 */
+            ReadBody(readBuffer, KEY_STRUCT_FIXED_SIZE);
+            int nPeerNum = ((readBuffer[KEY_STRUCT_FIXED_SIZE - 2] & 0xFF) << 8) | (readBuffer[KEY_STRUCT_FIXED_SIZE - 1] & 0xFF);
+            int nStructSize = KEY_STRUCT_FIXED_SIZE + nPeerNum * COMMON_SIZE.ETCS_STRUCT_SIZE + COMMON_SIZE.VALID_PERIOD_STRUCT_SIZE;
+            if (nStructSize - KEY_STRUCT_FIXED_SIZE > nRemaining - COMMON_SIZE.CBC_MAC_SIZE)
+            {
+                Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST,
+                        "[OfflineKeyStructReader] K-STRUCT exceeds length field in header");
+                return null;
+            }
+
+            if (readBuffer.length < nStructSize)
+            {
+                readBuffer = Arrays.copyOf(readBuffer, nStructSize);
+            }
+            ReadBody(readBuffer, KEY_STRUCT_FIXED_SIZE, nStructSize - KEY_STRUCT_FIXED_SIZE);
+
+            OfflineKeyStruct keyStruct = new OfflineKeyStruct();
+            ByteBuffer structBuffer = ByteBuffer.wrap(readBuffer, 0, nStructSize);
+            int nResultCode = keyStruct.DecodeMessage(structBuffer);
+            if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED || structBuffer.hasRemaining())
+            {
+                Fail(nResultCode == OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED ?
+                        OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST : nResultCode,
+                        "[OfflineKeyStructReader] KeyStruct value error");
+                return null;
+            }
+
+            nKeyStructCount++;
+            return keyStruct;
+        }
+        catch (EOFException e)
+        {
+            DeserializeFail(e);
+            return null;
+        }
+    }
+
+    /**
+     * 마지막 CBC-MAC 을 읽고 메시지 전체를 검증 (K-NUM 개수, 남은 길이, CBC-MAC)
+     * <p> 이 메서드가 성공을 반환한 뒤에만 스테이징한 키를 확정해야 함
+     * @return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE
+     * @throws IOException 스트림 읽기 실패 (메시지 중간 EOF 는 결과 코드로 반환)
+     */
+    public int Finish() throws IOException
+    {
+        if (state != STATE_BODY)
+        {
+            return state == STATE_HEADER ?
+                    Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR, "[OfflineKeyStructReader] Header has not been read") : resultCode;
+        }
+
+        if (nRemaining != COMMON_SIZE.CBC_MAC_SIZE) /* K-STRUCT 를 끝까지 읽지 않았거나 남은 길이가 CBC-MAC 과 맞지 않음 */
+        {
+            return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST,
+                    "[OfflineKeyStructReader] Bytes remain before CBC-MAC");
+        }
+
+        try
+        {
+            input.readFully(this.receivedCbcMac); /* CBC-MAC 필드는 MAC 계산에서 제외 */
+            nRemaining = COMMON_SIZE.EMPTY;
+        }
+        catch (EOFException e)
+        {
+            return DeserializeFail(e);
+        }
+
+        if (Header.GetMsgType() == OFFLINE_KEY_MESSAGE_TYPE.KEY_MESSAGE_REPLACE_ALL_KEYS && ConvertByteArrayToInt(this.kNum) != nKeyStructCount)
+        {
+            return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST,
+                    "The number of k-num and keyStruct is not the same");
+        }
+
+        try
+        {
+            if (cbcMac != null && !cbcMac.Verify(this.receivedCbcMac))
+            {
+                return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_AUTHENTICATION_OF_MAC_COD_HAS_FAILED,
+                        "[OfflineKeyStructReader] CBC-MAC mismatch");
+            }
+        }
+        catch (GeneralSecurityException e)
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+            return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR, "[OfflineKeyStructReader] CBC-MAC calculation fail");
+        }
+
+        state = STATE_FINISHED;
+        return resultCode;
+    }
+
+    /**
+     * 실패 후 같은 연결을 계속 쓰기 위해 현재 메시지의 남은 바이트를 버림
+     * @return 버린 바이트 수
+     */
+    public int SkipRemaining() throws IOException
+    {
+        int nSkipped = COMMON_SIZE.EMPTY;
+        while (nRemaining > COMMON_SIZE.EMPTY)
+        {
+            int nCount = input.skipBytes(nRemaining);
+            if (nCount <= COMMON_SIZE.EMPTY)
+            {
+                break;
+            }
+            nRemaining -= nCount;
+            nSkipped += nCount;
+        }
+        return nSkipped;
+    }
+
+    /* 바디 바이트를 읽고 남은 길이와 CBC-MAC 에 반영 */
+    private void ReadBody(byte[] buffer, int nLength) throws IOException
+    {
+        ReadBody(buffer, 0, nLength);
+    }
+
+    private void ReadBody(byte[] buffer, int nOffset, int nLength) throws IOException
+    {
+        if (nLength > nRemaining)
+        {
+            throw new EOFException("Read beyond length field in header");
+        }
+        input.readFully(buffer, nOffset, nLength);
+        nRemaining -= nLength;
+        UpdateMac(buffer, nOffset, nLength);
+    }
+
+    /* 헤더 바이트를 읽고 CBC-MAC 에 반영 */
+    private void ReadFully(byte[] buffer, int nLength) throws IOException
+    {
+        input.readFully(buffer, 0, nLength);
+        UpdateMac(buffer, 0, nLength);
+    }
+
+    private void UpdateMac(byte[] buffer, int nOffset, int nLength) throws IOException
+    {
+        if (cbcMac == null)
+        {
+            return;
+        }
+        try
+        {
+            cbcMac.Update(buffer, nOffset, nLength);
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new IOException("CBC-MAC update fail", e);
+        }
+    }
+
+    private int DeserializeFail(EOFException e)
+    {
+        return Fail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_INCONSISTENCY_DETECTED_IN_THE_RECEIVED_REQUEST, EXCEPTION_STRING.EXCEPTION_DESERIALIZE_FAIL);
+    }
+
+    private int Fail(int nResultCode, String strReason)
+    {
+        this.resultCode = nResultCode;
+        this.state = STATE_FINISHED;
+        return super.DecodeFail(nResultCode, strReason);
+    }
+
+    /* getter ************************************************************************************************************/
+
+    public OfflineHeader GetHeader()
+    {
+        return Header;
+    }
+
+    public byte GetEAlgo()
+    {
+        return eAlgo;
+    }
+
+    public byte[] GetKNum()
+    {
+        return kNum;
+    }
+
+    public byte[] GetCbcMac()
+    {
+        return receivedCbcMac;
+    }
+
+    public int GetKeyStructCount()
+    {
+        return nKeyStructCount;
+    }
+
+    public int GetResultCode()
+    {
+        return resultCode;
+    }
+}
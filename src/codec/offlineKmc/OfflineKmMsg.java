@@ -1,9 +1,14 @@
 package codec.offlineKmc;
 
+import Message.CbcMacVerifier;
 import Message.CodecUtil;
+import Message.EtcsInfo;
 import Message.offline.kmc.*;
 import Message.constant.Common.*;
 import Message.constant.Offline.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * This is a class that creates KM messages for requests and responses.
  * You can set up the structure through the constructor that takes a byte array as a parameter.
@@ -47,8 +52,8 @@ public class OfflineKmMsg extends CodecUtil
 
     /***
      * Set the structure through byte array parameter values.
+     * <p> CBC-MAC verifier registered in CodecUtil checks the message after decoding (skipped when not registered).
      * @param bOfflineKmMessage byte Array
-     * #TODO : Check Cbc Mac
      */
     public boolean DecodeMessage(byte[] bOfflineKmMessage)
     {
@@ -56,43 +61,65 @@ public class OfflineKmMsg extends CodecUtil
         boolean bResult = false;
         try
         {
+            if (bOfflineKmMessage == null || bOfflineKmMessage.length == COMMON_SIZE.EMPTY) /* 메시지 타입 필드를 참조할 수 없는 경우 버퍼 에러 */
+            {
+                super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "[OfflineKmMsg] KM_MESSAGE buffer Error");
+                return false;
+            }
+
+            /* 생성자 대신 DecodeMessage 결과로 판단하여 잘못된 메시지에서도 예외가 발생하지 않도록 함 */
             this.KmMessageType = bOfflineKmMessage[COMMON_SIZE.ETCS_MESSAGE_TYPE_IDX];
             switch(this.KmMessageType)
             {
                 case OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION ->
                 {
-                    ConfKmacDeletion = new ConfKmacDeletion(bOfflineKmMessage);
+                    ConfKmacDeletion = new ConfKmacDeletion();
+                    bResult = ConfKmacDeletion.DecodeMessage(bOfflineKmMessage);
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_EXCHANGE ->
                 {
-                    KmacExchange = new KmacExchange(bOfflineKmMessage);
+                    KmacExchange = new KmacExchange();
+                    bResult = KmacExchange.DecodeMessage(bOfflineKmMessage);
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_DELETION ->
                 {
-                    KmacDeletion = new KmacDeletion(bOfflineKmMessage);
+                    KmacDeletion = new KmacDeletion();
+                    bResult = KmacDeletion.DecodeMessage(bOfflineKmMessage);
                 }
                 case OFFLINE_KM_MESSAGE.CONF_KMAC_EXCHANGE ->
                 {
-                    ConfKmacExchange = new ConfKmacExchange(bOfflineKmMessage);
+                    ConfKmacExchange = new ConfKmacExchange();
+                    bResult = ConfKmacExchange.DecodeMessage(bOfflineKmMessage);
                 }
                 case OFFLINE_KM_MESSAGE.CONF_KMAC_UPDATE ->
                 {
-                    ConfKmacUpdate = new ConfKmacUpdate(bOfflineKmMessage);
+                    ConfKmacUpdate = new ConfKmacUpdate();
+                    bResult = ConfKmacUpdate.DecodeMessage(bOfflineKmMessage);
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_NEGACK ->
                 {
-                    KmacNegack = new KmacNegack(bOfflineKmMessage);
+                    KmacNegack = new KmacNegack();
+                    bResult = KmacNegack.DecodeMessage(bOfflineKmMessage);
                 }
                 case OFFLINE_KM_MESSAGE.KMAC_UPDATE ->
                 {
-                    KmacUpdate = new KmacUpdate(bOfflineKmMessage);
+                    KmacUpdate = new KmacUpdate();
+                    bResult = KmacUpdate.DecodeMessage(bOfflineKmMessage);
                 }
                 default ->
                 {
-                    throw new IllegalArgumentException("[OfflineKmMsg] MsgType Value does not belong to OFFLINE_KM_MESSAGE");
+                    super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_NOT_SUPPORTED,
+                            "[OfflineKmMsg] MsgType Value does not belong to OFFLINE_KM_MESSAGE");
                 }
             }
-            bResult = true;
+            if (bResult)
+            {
+                bResult = VerifyCbcMac(bOfflineKmMessage);
+            }
+            if (!bResult)
+            {
+                InitInstanceFiledValues();
+            }
         }
         catch (NullPointerException e) /* 헤더에서 메시지 타입 필드를 참조할 수 없는 경우 버퍼 에러 */
         {
@@ -110,6 +137,77 @@ public class OfflineKmMsg extends CodecUtil
         }
     }
 
+    /**
+     * Verify the trailing CBC-MAC with the registered verifier (the MAC covers the message up to the CBC-MAC field).
+     * @param bOfflineKmMessage decoded KM message
+     * @return verification result
+     */
+    private boolean VerifyCbcMac(byte[] bOfflineKmMessage)
+    {
+        CbcMacVerifier verifier = GetCbcMacVerifier();
+        if (verifier == null)
+        {
+            return true;
+        }
+        if (bOfflineKmMessage.length < COMMON_SIZE.CBC_MAC_SIZE)
+        {
+            super.DecodeFail(OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_MESSAGE_LENGTH_ERROR, "[OfflineKmMsg] KM_MESSAGE is shorter than CBC-MAC");
+            return false;
+        }
+
+        EtcsInfo kmEtcsIdIssuer;
+        EtcsInfo kmEtcsIdTarget;
+        switch (this.KmMessageType)
+        {
+            case OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION ->
+            {
+                kmEtcsIdIssuer = ConfKmacDeletion.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = ConfKmacDeletion.GetKmEtcsIdTarget();
+            }
+            case OFFLINE_KM_MESSAGE.KMAC_EXCHANGE ->
+            {
+                kmEtcsIdIssuer = KmacExchange.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = KmacExchange.GetKmEtcsIdTarget();
+            }
+            case OFFLINE_KM_MESSAGE.KMAC_DELETION ->
+            {
+                kmEtcsIdIssuer = KmacDeletion.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = KmacDeletion.GetKmEtcsIdTarget();
+            }
+            case OFFLINE_KM_MESSAGE.CONF_KMAC_EXCHANGE ->
+            {
+                kmEtcsIdIssuer = ConfKmacExchange.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = ConfKmacExchange.GetKmEtcsIdTarget();
+            }
+            case OFFLINE_KM_MESSAGE.CONF_KMAC_UPDATE ->
+            {
+                kmEtcsIdIssuer = ConfKmacUpdate.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = ConfKmacUpdate.GetKmEtcsIdTarget();
+            }
+            case OFFLINE_KM_MESSAGE.KMAC_NEGACK ->
+            {
+                kmEtcsIdIssuer = KmacNegack.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = KmacNegack.GetKmEtcsIdTarget();
+            }
+            default ->
+            {
+                kmEtcsIdIssuer = KmacUpdate.GetKmEtcsIdIssuer();
+                kmEtcsIdTarget = KmacUpdate.GetKmEtcsIdTarget();
+            }
+        }
+
+        int nMacOffset = bOfflineKmMessage.length - COMMON_SIZE.CBC_MAC_SIZE;
+        byte[] receivedMac = Arrays.copyOfRange(bOfflineKmMessage, nMacOffset, bOfflineKmMessage.length);
+        int nResultCode = verifier.VerifyKmMessage(this.KmMessageType, kmEtcsIdIssuer, kmEtcsIdTarget,
+                ByteBuffer.wrap(bOfflineKmMessage, 0, nMacOffset), receivedMac);
+        if (nResultCode != OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED)
+        {
+            super.DecodeFail(nResultCode, "[OfflineKmMsg] CBC-MAC verification failed");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Retrieves the packet based on the message type.
      * <p>
@@ -171,6 +269,74 @@ public class OfflineKmMsg extends CodecUtil
         }
     }
 
+    /**
+     * Writes the message of the current type at the buffer's current position.
+     * <p>
+     * Each message class writes its fields directly into the caller's buffer, so a reused send buffer
+     * needs no intermediate arrays. On failure the buffer position is restored.
+     * </p>
+     *
+     * @param buffer destination buffer with at least GetSize() bytes remaining
+     * @return whether the message was written
+     */
+    public boolean EncodeTo(ByteBuffer buffer)
+    {
+        int nStartPosition = buffer.position();
+        try
+        {
+            switch (this.KmMessageType)
+            {
+                case OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION -> ConfKmacDeletion.EncodeTo(buffer);
+                case OFFLINE_KM_MESSAGE.KMAC_EXCHANGE -> KmacExchange.EncodeTo(buffer);
+                case OFFLINE_KM_MESSAGE.KMAC_DELETION -> KmacDeletion.EncodeTo(buffer);
+                case OFFLINE_KM_MESSAGE.CONF_KMAC_EXCHANGE -> ConfKmacExchange.EncodeTo(buffer);
+                case OFFLINE_KM_MESSAGE.CONF_KMAC_UPDATE -> ConfKmacUpdate.EncodeTo(buffer);
+                case OFFLINE_KM_MESSAGE.KMAC_NEGACK -> KmacNegack.EncodeTo(buffer);
+                case OFFLINE_KM_MESSAGE.KMAC_UPDATE -> KmacUpdate.EncodeTo(buffer);
+                default -> throw new IllegalArgumentException("[OfflineKmMsg] MsgType Value does not belong to OFFLINE_KM_MESSAGE");
+            }
+            return true;
+        }
+        catch (NullPointerException e)
+        {
+            NullPointerException exception = new NullPointerException("The object you are trying to extract packets from has not been initialized");
+            exception.setStackTrace(e.getStackTrace());
+            super.IsExceptionPrintingAndWriteLog(exception);
+        }
+        catch (RuntimeException e) /* BufferOverflowException, IllegalArgumentException */
+        {
+            super.IsExceptionPrintingAndWriteLog(e);
+        }
+        buffer.position(nStartPosition);
+        return false;
+    }
+
+    /**
+     * Size of the message of the current type.
+     * @return message size, or ERROR_CODE if the message type is unknown or the object is not set
+     */
+    public int GetSize()
+    {
+        try
+        {
+            return switch (this.KmMessageType)
+            {
+                case OFFLINE_KM_MESSAGE.CONF_KMAC_DELETION -> ConfKmacDeletion.GetSize();
+                case OFFLINE_KM_MESSAGE.KMAC_EXCHANGE -> KmacExchange.GetSize();
+                case OFFLINE_KM_MESSAGE.KMAC_DELETION -> KmacDeletion.GetSize();
+                case OFFLINE_KM_MESSAGE.CONF_KMAC_EXCHANGE -> ConfKmacExchange.GetSize();
+                case OFFLINE_KM_MESSAGE.CONF_KMAC_UPDATE -> ConfKmacUpdate.GetSize();
+                case OFFLINE_KM_MESSAGE.KMAC_NEGACK -> KmacNegack.GetSize();
+                case OFFLINE_KM_MESSAGE.KMAC_UPDATE -> KmacUpdate.GetSize();
+                default -> ERROR_CODE;
+            };
+        }
+        catch (NullPointerException e)
+        {
+            return ERROR_CODE;
+        }
+    }
+
     /***
      * Creates a KMAC_NEGACK object using the input object and reason code.
      * @param obKmacDeletion request object
@@ -0,0 +1,443 @@
+package com.nb.kms.hsm;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JDBC 커넥션 풀
+ * <p> 최대 maxSize 개까지만 연결을 만들고, 빌려간 연결은 {@link PooledConnection#close()} 로 반납한다.
+ * <p> 반납된 연결은 가장 최근 것부터 재사용(LIFO)하며, validationIntervalMs 이상 쉬었던 연결은 대여 전에 isValid 로 확인한다.
+ * <p> idleTimeoutMs 이상 쉬는 연결은 minIdle 개만 남기고 주기적으로 닫는다.
+ * <p> 연결마다 SQL 문자열 단위로 PreparedStatement 를 캐시하므로 호출 측은 prepare 로 받은 문장을 닫지 않는다.
+ */
+public class DbConnectionPool implements DbConnectionPoolMXBean {
+    public static final String OBJECT_NAME = "com.nb.kms.hsm:type=DbConnectionPool";
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutNanos;
+    private final long validationIntervalNanos;
+    private final int statementCacheSize;
+    private final int queryTimeoutSec;
+    private final int networkTimeoutMs;
+
+    private final Semaphore permits;
+    private final ArrayDeque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowTimeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong statementHitCount = new AtomicLong();
+    private final AtomicLong statementMissCount = new AtomicLong();
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+
+    // setNetworkTimeout 용 (드라이버가 타임아웃 시 연결을 끊는 작업만 실행)
+    private final Executor networkTimeoutExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "DbNetworkTimeout");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param maxSize 최대 연결 수 (대여 대기 상한)
+     * @param minIdle 유휴 정리 후에도 남겨둘 연결 수
+     * @param idleTimeoutMs 이 시간 이상 쉬는 연결은 정리 대상
+     * @param validationIntervalMs 이 시간 이상 쉬었던 연결은 대여 전 isValid 확인
+     * @param statementCacheSize 연결마다 캐시할 PreparedStatement 수 (LRU)
+     * @param queryTimeoutSec 문장별 쿼리 타임아웃 (setQueryTimeout)
+     * @param networkTimeoutSec 연결 / 소켓 대기 최대 시간 (접속 타임아웃, setNetworkTimeout)
+     */
+    public DbConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                            long idleTimeoutMs, long validationIntervalMs, int statementCacheSize,
+                            int queryTimeoutSec, int networkTimeoutSec) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid connection pool size: " + maxSize);
+        }
+        this.url = url;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.setProperty("user", user);
+        this.connectionProperties.setProperty("password", password);
+        this.connectionProperties.setProperty("connectTimeout", String.valueOf(networkTimeoutSec * 1000L));
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMs);
+        this.statementCacheSize = statementCacheSize;
+        this.queryTimeoutSec = queryTimeoutSec;
+        this.networkTimeoutMs = networkTimeoutSec * 1000;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DbPoolEvictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long evictIntervalMs = Math.max(1000, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, evictIntervalMs, evictIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 연결 대여 * try-with-resources 로 사용하면 close 시 반납
+     * @param timeoutMs 모든 연결이 사용 중일 때 대기 시간 (ms)
+     * @throws SQLException 시간 내에 대여하지 못했거나 새 연결 생성 실패
+     */
+    public PooledConnection borrow(long timeoutMs) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                borrowTimeoutCount.incrementAndGet();
+                throw new SQLTimeoutException("Timed out waiting for DB connection (" + timeoutMs + "ms, active " + activeCount.get() + "/" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for DB connection", e);
+        }
+
+        try {
+            PooledConnection conn;
+            while ((conn = pollIdle()) != null) {
+                if (System.nanoTime() - conn.lastUsedAt < validationIntervalNanos || isValid(conn)) {
+                    break;
+                }
+                Logger.log("ERROR", "DB connection is invalid, reopening");
+                discard(conn);
+            }
+            if (conn == null) {
+                conn = create();
+            }
+            conn.returned = false;
+            activeCount.incrementAndGet();
+            borrowCount.incrementAndGet();
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        } finally {
+            waitHistogram.record(System.nanoTime() - start);
+            HsmMetrics.record("db.poolWait", start);
+        }
+    }
+
+    /**
+     * 연결 하나로 처리하는 DB 작업
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(PooledConnection conn) throws SQLException;
+    }
+
+    /**
+     * 연결을 대여해 work 를 실행하고 반납 * 연결 오류가 나면 그 연결은 풀에 되돌리지 않음
+     * @param timeoutMs 대여 대기 시간 (ms)
+     */
+    public <T> T execute(long timeoutMs, SqlWork<T> work) throws SQLException {
+        try (PooledConnection conn = borrow(timeoutMs)) {
+            try {
+                return work.run(conn);
+            } catch (SQLException e) {
+                if (isConnectionError(e)) {
+                    conn.markBroken();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 연결 오류(끊김, 타임아웃)인지 판단 * 이 경우 연결을 재사용하지 않도록 {@link PooledConnection#markBroken()} 호출
+     */
+    public static boolean isConnectionError(SQLException e) {
+        if (e instanceof SQLNonTransientConnectionException || e instanceof SQLRecoverableException || e instanceof SQLTimeoutException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        synchronized (idleConnections) {
+            for (PooledConnection conn : idleConnections) {
+                closeQuietly(conn);
+            }
+            idleConnections.clear();
+        }
+    }
+
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to register DbConnectionPool MBean", e);
+        }
+    }
+
+    // ---- 통계 ----
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    @Override
+    public int getIdleCount() {
+        synchronized (idleConnections) {
+            return idleConnections.size();
+        }
+    }
+
+    @Override
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    @Override
+    public long getBorrowTimeoutCount() {
+        return borrowTimeoutCount.get();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    @Override
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    @Override
+    public double getWaitP50Micros() {
+        return waitHistogram.getPercentileNanos(50) / 1_000.0;
+    }
+
+    @Override
+    public double getWaitP99Micros() {
+        return waitHistogram.getPercentileNanos(99) / 1_000.0;
+    }
+
+    @Override
+    public double getWaitMaxMicros() {
+        return waitHistogram.getMaxNanos() / 1_000.0;
+    }
+
+    @Override
+    public long getStatementCacheHitCount() {
+        return statementHitCount.get();
+    }
+
+    @Override
+    public long getStatementCacheMissCount() {
+        return statementMissCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DbConnectionPool{active=%d, idle=%d, total=%d/%d, borrowed=%d, timeouts=%d, created=%d, evicted=%d, waitP99=%.1fus, stmtHit=%d, stmtMiss=%d}",
+                getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getBorrowCount(), getBorrowTimeoutCount(),
+                getCreatedCount(), getEvictedCount(), getWaitP99Micros(), getStatementCacheHitCount(), getStatementCacheMissCount());
+    }
+
+    // ---- 내부 ----
+
+    private PooledConnection pollIdle() {
+        synchronized (idleConnections) {
+            return idleConnections.pollFirst();
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = DriverManager.getConnection(url, connectionProperties);
+        HsmMetrics.record("db.connect", start);
+        try {
+            connection.setNetworkTimeout(networkTimeoutExecutor, networkTimeoutMs);
+        } catch (SQLException | UnsupportedOperationException e) {
+            // 드라이버가 지원하지 않으면 connectTimeout / queryTimeout 만 적용
+        }
+        totalCount.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(connection);
+    }
+
+    private boolean isValid(PooledConnection conn) {
+        try {
+            return conn.connection.isValid(Math.max(1, queryTimeoutSec));
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection conn) {
+        activeCount.decrementAndGet();
+        try {
+            if (closed || conn.broken || conn.connection.isClosed()) {
+                discard(conn);
+                return;
+            }
+            conn.lastUsedAt = System.nanoTime();
+            synchronized (idleConnections) {
+                idleConnections.addFirst(conn);
+            }
+        } catch (SQLException e) {
+            discard(conn);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection conn) {
+        totalCount.decrementAndGet();
+        closeQuietly(conn);
+    }
+
+    // 오래 쉰 연결 정리 (가장 오래된 것은 큐 뒤쪽)
+    private void evictIdle() {
+        long now = System.nanoTime();
+        while (true) {
+            PooledConnection conn;
+            synchronized (idleConnections) {
+                conn = idleConnections.peekLast();
+                if (conn == null || idleConnections.size() <= minIdle || now - conn.lastUsedAt < idleTimeoutNanos) {
+                    return;
+                }
+                idleConnections.pollLast();
+            }
+            evictedCount.incrementAndGet();
+            discard(conn);
+        }
+    }
+
+    private static void closeQuietly(PooledConnection conn) {
+        conn.closeStatements();
+        try {
+            conn.connection.close();
+        } catch (SQLException e) {
+            // 이미 끊어진 연결
+        }
+    }
+
+    /**
+     * 풀에서 대여한 연결 * close 하면 실제로 닫지 않고 풀에 반납
+     */
+    public class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private long lastUsedAt = System.nanoTime();
+        private boolean broken = false;
+        private boolean returned = false;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        closeStatement(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * 캐시된 PreparedStatement 반환 (없으면 생성 후 쿼리 타임아웃 설정) * 호출 측에서 닫지 않음
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement pstmt = statements.get(sql);
+            if (pstmt != null && !pstmt.isClosed()) {
+                statementHitCount.incrementAndGet();
+                pstmt.clearParameters();
+                return pstmt;
+            }
+            statementMissCount.incrementAndGet();
+            pstmt = connection.prepareStatement(sql);
+            if (queryTimeoutSec > 0) {
+                pstmt.setQueryTimeout(queryTimeoutSec);
+            }
+            statements.put(sql, pstmt);
+            return pstmt;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        // 연결 오류 발생 시 호출 * 반납할 때 풀에 넣지 않고 닫음
+        public void markBroken() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                release(this);
+            }
+        }
+
+        private void closeStatements() {
+            Iterator<PreparedStatement> it = statements.values().iterator();
+            while (it.hasNext()) {
+                closeStatement(it.next());
+                it.remove();
+            }
+        }
+
+        private void closeStatement(PreparedStatement pstmt) {
+            try {
+                pstmt.close();
+            } catch (SQLException e) {
+                // 연결이 이미 닫힌 경우
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.nb.kms.hsm;
+
+/**
+ * DB 커넥션 풀 상태 JMX 노출 (ObjectName : com.nb.kms.hsm:type=DbConnectionPool)
+ */
+public interface DbConnectionPoolMXBean {
+
+    int getMaxSize();
+
+    int getActiveCount();
+
+    int getIdleCount();
+
+    int getTotalCount();
+
+    long getBorrowCount();
+
+    long getBorrowTimeoutCount();
+
+    long getCreatedCount();
+
+    long getEvictedCount();
+
+    double getWaitP50Micros();
+
+    double getWaitP99Micros();
+
+    double getWaitMaxMicros();
+
+    long getStatementCacheHitCount();
+
+    long getStatementCacheMissCount();
+}
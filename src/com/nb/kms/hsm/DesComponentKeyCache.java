@@ -0,0 +1,207 @@
+package com.nb.kms.hsm;
+
+import safenet.jcprov.CK_OBJECT_HANDLE;
+import safenet.jcprov.CK_SESSION_HANDLE;
+import safenet.jcprov.CKR_Exception;
+import safenet.jcprov.constants.CKR;
+import safenet.jcprov.CryptokiEx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 3DES CBC-MAC 계산용 DES 분할 키(세션 오브젝트) 캐시
+ * <p> KMAC 라벨마다 24바이트 키를 8바이트 3개로 나눈 세션 오브젝트를 한 번만 생성하고 재사용
+ * <p> 저장 시점의 KCV 와 현재 KCV 가 다르면 키가 교체된 것으로 보고 폐기
+ * <p> 제거(교체/무효화/LRU)되는 세션 오브젝트는 C_DestroyObject 로 삭제
+ * <p> get / put 으로 받은 항목은 사용 후 반드시 release * 다른 워커가 사용 중인 항목은 마지막 release 때 삭제
+ */
+public class DesComponentKeyCache {
+
+    /**
+     * 라벨별 캐시 항목
+     */
+    public static class Entry {
+        private final byte[] kcv;
+        private final CK_OBJECT_HANDLE[] components;
+        private int refCount = 0;        /* 사용 중인 워커 수 (캐시 잠금으로 보호) */
+        private boolean retired = false; /* 캐시에서 제거됨 * refCount 가 0 이 되면 삭제 */
+
+        private Entry(byte[] kcv, CK_OBJECT_HANDLE[] components) {
+            this.kcv = kcv.clone();
+            this.components = components;
+        }
+
+        public CK_OBJECT_HANDLE getKey1() {
+            return components[0];
+        }
+
+        public CK_OBJECT_HANDLE getKey2() {
+            return components[1];
+        }
+
+        public CK_OBJECT_HANDLE getKey3() {
+            return components[2];
+        }
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public DesComponentKeyCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param keyLabel KMAC 라벨
+     * @param kcv 현재 키의 KCV
+     * @param session KCV 불일치로 폐기할 때 사용할 세션
+     * @return KCV 가 일치하는 캐시 항목 (사용 후 release), 없으면 null
+     */
+    public Entry get(String keyLabel, byte[] kcv, CK_SESSION_HANDLE session) {
+        Entry stale = null;
+        synchronized (this) {
+            Entry entry = entries.get(keyLabel);
+            if (entry != null && Arrays.equals(entry.kcv, kcv)) {
+                hitCount.incrementAndGet();
+                entry.refCount++;
+                return entry;
+            }
+            missCount.incrementAndGet();
+            if (entry != null) {
+                entries.remove(keyLabel);
+                stale = retire(entry);
+            }
+        }
+        destroy(session, stale);
+        return null;
+    }
+
+    /**
+     * 새로 생성한 분할 키 저장 * 기존 항목과 LRU 로 밀려난 항목은 사용 중이 아니면 바로, 사용 중이면 마지막 release 때 삭제
+     * @return 저장한 항목 (호출 측이 사용 중인 상태, 사용 후 release)
+     */
+    public Entry put(String keyLabel, byte[] kcv, CK_OBJECT_HANDLE key1, CK_OBJECT_HANDLE key2, CK_OBJECT_HANDLE key3, CK_SESSION_HANDLE session) {
+        Entry entry = new Entry(kcv, new CK_OBJECT_HANDLE[]{key1, key2, key3});
+        entry.refCount = 1;
+        List<Entry> removed = new ArrayList<>();
+
+        synchronized (this) {
+            Entry previous = entries.put(keyLabel, entry);
+            if (previous != null && retire(previous) != null) {
+                removed.add(previous);
+            }
+
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                if (eldest.getValue() == entry) {
+                    continue;
+                }
+                it.remove();
+                if (retire(eldest.getValue()) != null) {
+                    removed.add(eldest.getValue());
+                }
+            }
+        }
+
+        for (Entry e : removed) {
+            destroy(session, e);
+        }
+        return entry;
+    }
+
+    /**
+     * 라벨의 분할 키 삭제 (키 생성/삭제/주입 시 호출)
+     */
+    public void invalidate(String keyLabel, CK_SESSION_HANDLE session) {
+        Entry removed = null;
+        synchronized (this) {
+            Entry entry = entries.remove(keyLabel);
+            if (entry != null) {
+                removed = retire(entry);
+            }
+        }
+        destroy(session, removed);
+    }
+
+    /**
+     * 사용 중 핸들 오류가 난 항목 제거 (생성한 세션이 닫힘 등)
+     * <p> 그 사이 다른 워커가 같은 라벨에 새로 저장한 항목은 건드리지 않도록 같은 항목일 때만 제거
+     * <p> 호출 측이 아직 사용 중이므로 삭제는 release 때 수행
+     */
+    public synchronized void discard(String keyLabel, Entry failed) {
+        if (entries.get(keyLabel) == failed) {
+            entries.remove(keyLabel);
+        }
+        failed.retired = true;
+    }
+
+    /**
+     * get / put 으로 받은 항목 사용 종료 * 캐시에서 제거된 항목이면 마지막 사용자가 삭제
+     */
+    public void release(Entry entry, CK_SESSION_HANDLE session) {
+        if (entry == null) {
+            return;
+        }
+        boolean destroy;
+        synchronized (this) {
+            entry.refCount--;
+            destroy = entry.retired && entry.refCount == 0;
+        }
+        if (destroy) {
+            destroy(session, entry);
+        }
+    }
+
+    // 캐시에서 뺀 항목 표시 * 사용 중이 아니면 지금 삭제할 항목으로 반환 (캐시 잠금 안에서 호출)
+    private Entry retire(Entry entry) {
+        entry.retired = true;
+        return entry.refCount == 0 ? entry : null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private void destroy(CK_SESSION_HANDLE session, Entry entry) {
+        if (entry == null || session == null) {
+            return;
+        }
+        for (CK_OBJECT_HANDLE hKey : entry.components) {
+            try {
+                CryptokiEx.C_DestroyObject(session, hKey);
+            } catch (CKR_Exception e) {
+                // 세션이 닫혀 이미 사라진 핸들은 무시
+                if (!CKR.OBJECT_HANDLE_INVALID.equals(e.ckrv) && !CKR.KEY_HANDLE_INVALID.equals(e.ckrv)) {
+                    Logger.error("Failed to destroy DES component key " + hKey.longValue(), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DesComponentKeyCache{" +
+                "size=" + size() +
+                ", hit=" + hitCount.get() +
+                ", miss=" + missCount.get() +
+                '}';
+    }
+}
@@ -36,6 +36,7 @@ public class EventMsg {
         public static final int GET_KEY = 7;
         public static final int GET_STATUS = 8;
         public static final int INJECT_KEY = 9;
+        public static final int BATCH_KCV = 10;
 
 
     }
@@ -46,6 +47,57 @@ public class EventMsg {
         public static final String PASSWORD = "0000";
         public static final String SO_PASSWORD = "9999";
 
+        /* 로그 레벨 (DEBUG, INFO, WARN, ERROR, OFF) : INFO 이상이면 키 연산마다의 상세 로그(라벨, KCV/MAC 16진수)는 만들지 않음, -Dhsm.log.level 로 덮어씀 */
+        public static final String LOG_LEVEL = "INFO";
+
+        /* 키 연산 구현 : jcprov = ProtectToolkit HSM, jce = 메모리 키 + JCE (HSM 없는 부하 테스트용, 세션 풀 사용 안함) */
+        public static final String HSM_PROVIDER = "jcprov";
+        public static final long JCE_LATENCY_MICROS = 0; /* jce 구현에서 HSM 호출마다 주입할 지연 시간 (us) */
+
+        /* 세션 풀 / 워커 스레드 설정 */
+        public static final int SESSION_POOL_SIZE = 4;
+        /* 워커는 DB 응답을 기다리는 동안 세션을 풀에 돌려주므로, 세션보다 워커를 많이 두어 그 사이 세션이 놀지 않게 함 */
+        public static final int WORKER_THREAD_COUNT = SESSION_POOL_SIZE * 2;
+        public static final long SESSION_BORROW_TIMEOUT_MS = 5000;
+        public static final long DB_WAIT_TIMEOUT_MS = 10000; /* 워커가 비동기 DB 조회 결과를 기다리는 최대 시간 */
+
+        /* 키 핸들 캐시 최대 크기 (LRU) */
+        public static final int KEY_HANDLE_CACHE_SIZE = 1024;
+
+        /* CBC-MAC 계산용 DES 분할 키 캐시 최대 크기 (KMAC 라벨 단위, 항목당 세션 오브젝트 3개) */
+        public static final int DES_COMPONENT_KEY_CACHE_SIZE = 256;
+
+        /* CBC-MAC 계산 방식 : true = 단일 스트림(ISO 9797-1 MAC 알고리즘 3), false = 블록 단위 호출 */
+        public static final boolean CBC_MAC_SINGLE_PASS = true;
+        /* 단일 스트림 방식에서 C_EncryptUpdate 한 번에 넘기는 최대 바이트 (8의 배수) */
+        public static final int CBC_MAC_UPDATE_CHUNK_SIZE = 4096;
+
+        /* 수신 오프라인 메시지 CBC-MAC 검증 : local = 키를 한 번 꺼내 프로세스 안에서 계산, hsm = 메시지마다 HSM 계산, off = 검증 안함 */
+        public static final String MAC_VERIFY_MODE = "local";
+        public static final int MAC_KEY_CACHE_SIZE = 256; /* local 모드 키 캐시 최대 라벨 수 (LRU) */
+        public static final long MAC_KEY_CACHE_TTL_SEC = 300; /* local 모드 캐시 키 재조회 주기 */
+
+        /* 기존 Java 직렬화(ObjectInputStream) 요청 허용 여부 : false 면 HsmWireCodec 바이너리 형식 연결만 처리 */
+        public static final boolean ALLOW_JAVA_SERIALIZATION = true;
+
+        /* 요청 연결 처리 실행기 : auto/virtual = JDK 21+ 가상 스레드 (미지원 시 풀), pool = 제한된 플랫폼 스레드 풀 */
+        public static final String CONNECTION_EXECUTOR_MODE = "auto";
+        public static final int CONNECTION_POOL_SIZE = 256; /* 풀 모드 최대 동시 연결 수 (연결마다 스레드 하나, 초과 시 연결 거절) */
+        public static final int RESPONSE_WRITER_POOL_SIZE = 16; /* 풀 모드 응답 쓰기 스레드 수 (모든 연결이 공유) */
+        public static final long CONNECTION_METRICS_INTERVAL_SEC = 60; /* 수락률/처리중 핸들러 로그 주기 (0 = 출력 안함) */
+
+        /* 작업 큐 : 전체 용량을 넘으면 busy 응답, 키 생성(LOW)은 별도 상한, GET_STATUS 는 항상 허용 */
+        public static final int TASK_QUEUE_CAPACITY = 1024;
+        public static final int TASK_QUEUE_LOW_PRIORITY_LIMIT = 256;
+        public static final long TASK_QUEUE_METRICS_INTERVAL_SEC = 60; /* 큐 길이/작업별 대기시간 로그 주기 (0 = 출력 안함) */
+
+        /* 작업별/단계별 지연 시간 히스토그램 : JMX(com.nb.kms.hsm:type=HsmMetrics) 로 항상 노출, 아래 주기로 로그에도 출력 (0 = 출력 안함) */
+        public static final long LATENCY_METRICS_INTERVAL_SEC = 300;
+
+        /* 일괄 KCV 검증 : 한 요청의 최대 키 수, 응답 한 건에 담는 키 수 (이 단위로 DB 조회 후 바로 응답) */
+        public static final int BATCH_KCV_MAX_KEYS = 20000;
+        public static final int BATCH_KCV_CHUNK_SIZE = 200;
+
     }
 
 
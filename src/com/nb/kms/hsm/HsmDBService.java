@@ -1,18 +1,106 @@
 package com.nb.kms.hsm;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 import config.AppConfig.*;
 
 public class HsmDBService {
+    /* IN 절 한 번에 바인딩하는 최대 라벨 수 / executeBatch 한 번에 보내는 최대 행 수 */
+    private static final int IN_CLAUSE_BATCH_SIZE = DB_CONFIG.BULK_BATCH_SIZE;
+    private static final int UPDATE_BATCH_SIZE = DB_CONFIG.BULK_BATCH_SIZE;
+
     private static HsmDBService instance;
 
+    private final DbConnectionPool pool;
+
+    /* key_label -> KCV / 유효기간 (CALCULATE_CBC 의 KCV 조회 생략) */
+    private final KcvCache kcvCache = new KcvCache(DB_CONFIG.KCV_CACHE_SIZE, DB_CONFIG.KCV_CACHE_TTL_SEC);
+
+    /* key_label -> KCV / 유효기간 / 키 종류 로컬 사본 (DB 가 느리거나 끊겨도 조회) * 사용하지 않거나 열지 못하면 null */
+    private final KeyMetadataStore keyStore;
+    private boolean incrementalSyncEnabled = DB_CONFIG.KEY_STORE_CHANGE_COLUMN != null;
+    private int syncCount = 0;
+
+    /* 비동기 조회 스레드 (워커가 HSM 세션을 잡은 채 JDBC 응답을 기다리지 않도록) * 연결 풀 크기만큼만 동시에 실행 */
+    private final ExecutorService dbExecutor;
+
+    /* IN 절 자리 수별 SQL (자리 수를 2의 거듭제곱으로 맞춰 연결별 문장 캐시에 재사용) */
+    private final Map<Integer, String> inClauseSql = new ConcurrentHashMap<>();
+
     private HsmDBService() {
         try {
             Class.forName(DB_CONFIG.DRIVER_NAME);
         } catch (ClassNotFoundException e) {
             Logger.error("Database driver not found", e);
         }
+        pool = new DbConnectionPool(
+                DB_CONFIG.CONNECTION_INFORMATION,
+                DB_CONFIG.KMC_ID,
+                DB_CONFIG.KMC_PASSWORD,
+                DB_CONFIG.POOL_MAX_SIZE,
+                DB_CONFIG.POOL_MIN_IDLE,
+                DB_CONFIG.POOL_IDLE_TIMEOUT_SEC * 1000,
+                DB_CONFIG.POOL_VALIDATION_INTERVAL_SEC * 1000,
+                DB_CONFIG.STATEMENT_CACHE_SIZE,
+                (int) DB_CONFIG.QUERY_TIMEOUT,
+                (int) DB_CONFIG.MAX_TIMEOUT);
+        pool.registerMBean();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DB_CONFIG.POOL_MAX_SIZE, DB_CONFIG.POOL_MAX_SIZE,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "HsmDB-" + threadCount.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        dbExecutor = executor;
+
+        // 로컬 저장소를 열고 TB_KMC_KEY 변경분을 주기적으로 받아 반영
+        keyStore = DB_CONFIG.KEY_STORE_ENABLED ? openKeyStore() : null;
+        if (keyStore != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(keyStore::close, "KeyStoreClose"));
+            ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "KeyStoreSync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncKeyStore, 0, DB_CONFIG.KEY_STORE_SYNC_INTERVAL_SEC, TimeUnit.SECONDS);
+        }
+
+        // 캐시된 라벨을 주기적으로 DB 에서 다시 읽어 다른 프로세스의 변경 반영
+        if (DB_CONFIG.KCV_CACHE_REFRESH_INTERVAL_SEC > 0) {
+            ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "KcvCacheRefresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(this::refreshKcvCache,
+                    DB_CONFIG.KCV_CACHE_REFRESH_INTERVAL_SEC, DB_CONFIG.KCV_CACHE_REFRESH_INTERVAL_SEC, TimeUnit.SECONDS);
+        }
     }
 
     public static synchronized HsmDBService getInstance() {
@@ -22,43 +110,230 @@ public class HsmDBService {
         return instance;
     }
 
-    private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                DB_CONFIG.CONNECTION_INFORMATION,
-                DB_CONFIG.KMC_ID,
-                DB_CONFIG.KMC_PASSWORD);
+    private static KeyMetadataStore openKeyStore() {
+        try {
+            return KeyMetadataStore.open(Paths.get(DB_CONFIG.KEY_STORE_DIR), DB_CONFIG.KEY_STORE_COMPACT_BYTES);
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Failed to open key metadata store, using database only", e);
+            return null;
+        }
+    }
+
+    public DbConnectionPool getPool() {
+        return pool;
+    }
+
+    public KeyMetadataStore getKeyStore() {
+        return keyStore;
     }
 
     public String getKCV(String keyLabel) {
-        String sql = "SELECT kcv FROM TB_KMC_KEY WHERE key_label = ?";
-        String kcv = null;
+        KcvCache.Entry entry = getKeyInfo(keyLabel);
+        return entry != null ? entry.getKcv() : null;
+    }
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, keyLabel);
+    /**
+     * 라벨의 KCV / 유효기간 조회 (캐시 -> 로컬 저장소 -> DB 순서, DB 에서 읽은 값은 캐시와 저장소에 반영)
+     * @return DB 에 없거나 조회 실패 시 null
+     */
+    public KcvCache.Entry getKeyInfo(String keyLabel) {
+        KcvCache.Entry entry = localKeyInfo(keyLabel);
+        return entry != null ? entry : loadKeyInfo(keyLabel);
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    kcv = rs.getString("kcv");
-                    Logger.log("INFO", "KCV retrieved for key label: " + keyLabel);
-                } else {
+    // 캐시, 없으면 로컬 저장소에서 조회 (DB 를 거치지 않음)
+    private KcvCache.Entry localKeyInfo(String keyLabel) {
+        KcvCache.Entry entry = kcvCache.get(keyLabel);
+        if (entry != null || keyStore == null) {
+            return entry;
+        }
+        KeyMetadataStore.KeyMetadata metadata = keyStore.get(keyLabel);
+        if (metadata == null) {
+            return null;
+        }
+        entry = new KcvCache.Entry(metadata.getKcv(), metadata.getValidPeriodEnd());
+        kcvCache.put(keyLabel, entry, kcvCache.generation());
+        return entry;
+    }
+
+    /**
+     * {@link #getKCV(String)} 의 비동기 버전 * 캐시나 로컬 저장소에 있으면 완료된 future 를 바로 반환하고, 없으면 DB 조회 스레드에서 조회
+     * @return DB 에 없거나 조회 실패 시 null 로 완료
+     */
+    public CompletableFuture<String> getKCVAsync(String keyLabel) {
+        KcvCache.Entry entry = localKeyInfo(keyLabel);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(entry.getKcv());
+        }
+        return supplyAsync(() -> {
+            KcvCache.Entry loaded = loadKeyInfo(keyLabel);
+            return loaded != null ? loaded.getKcv() : null;
+        });
+    }
+
+    /**
+     * {@link #getKCVs(Collection)} 의 비동기 버전 (조회 실패 시 null 로 완료)
+     */
+    public CompletableFuture<Map<String, String>> getKCVsAsync(Collection<String> keyLabels) {
+        return supplyAsync(() -> getKCVs(keyLabels));
+    }
+
+    // 호출 스레드의 작업 종류를 넘겨 db.* 단계가 원래 작업으로 집계되도록 함
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> work) {
+        int operation = HsmMetrics.currentOperation();
+        return CompletableFuture.supplyAsync(() -> {
+            HsmMetrics.attach(operation);
+            try {
+                return work.get();
+            } finally {
+                HsmMetrics.detach();
+            }
+        }, dbExecutor);
+    }
+
+    // 캐시를 거치지 않고 DB 에서 읽어 캐시 / 로컬 저장소에 반영
+    private KcvCache.Entry loadKeyInfo(String keyLabel) {
+        KcvCache.Entry entry = null;
+        String sql = "SELECT kcv, valid_period_end FROM TB_KMC_KEY WHERE key_label = ?";
+        long generation = kcvCache.generation();
+        long start = System.nanoTime();
+        try {
+            entry = pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+                PreparedStatement pstmt = conn.prepare(sql);
+                pstmt.setString(1, keyLabel);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        Logger.debug("KCV retrieved for key label: {}", keyLabel);
+                        return new KcvCache.Entry(rs.getString("kcv"), rs.getString("valid_period_end"));
+                    }
                     Logger.log("INFO", "No key found with label: " + keyLabel);
+                    return null;
                 }
+            });
+            kcvCache.put(keyLabel, entry, generation);
+            if (generation == kcvCache.generation()) {
+                updateKeyStore(keyLabel, entry);
             }
         } catch (SQLException e) {
             Logger.error("Error retrieving KCV from database", e);
+        } finally {
+            HsmMetrics.record("db.getKCV", start);
+        }
+
+        return entry;
+    }
+
+    /**
+     * 라벨의 캐시 항목 제거 * HSM 키가 바뀌는 작업(생성/주입/복사/삭제)과 유효기간 변경 후 호출
+     */
+    public void invalidateKcv(String keyLabel) {
+        kcvCache.invalidate(keyLabel);
+        if (keyStore != null) {
+            keyStore.remove(keyLabel);
+        }
+    }
+
+    public KcvCache getKcvCache() {
+        return kcvCache;
+    }
+
+    /**
+     * 여러 라벨의 KCV 를 IN 절 조회로 한 번에 가져옴 (라벨이 많으면 IN_CLAUSE_BATCH_SIZE 단위로 나눠 조회)
+     * <p> 일괄 KCV 검증은 DB 자체를 점검하는 용도이므로 캐시를 거치지 않고 항상 DB 를 읽고, 읽은 값으로 캐시를 갱신
+     * @return key_label -> kcv (DB 에 없는 라벨은 포함되지 않음), 조회 실패 시 null
+     */
+    public Map<String, String> getKCVs(Collection<String> keyLabels) {
+        Map<String, KcvCache.Entry> entries = getKeyInfos(keyLabels);
+        if (entries == null) {
+            return null;
+        }
+        Map<String, String> kcvs = new HashMap<>(entries.size() * 2);
+        for (Map.Entry<String, KcvCache.Entry> e : entries.entrySet()) {
+            kcvs.put(e.getKey(), e.getValue().getKcv());
+        }
+        return kcvs;
+    }
+
+    /**
+     * 여러 라벨의 KCV / 유효기간을 IN 절 조회로 DB 에서 직접 읽고 캐시 갱신 (DB 에 없는 라벨은 캐시에서도 제거)
+     * @return key_label -> KCV / 유효기간 (DB 에 없는 라벨은 포함되지 않음), 조회 실패 시 null
+     */
+    public Map<String, KcvCache.Entry> getKeyInfos(Collection<String> keyLabels) {
+        Map<String, KcvCache.Entry> kcvs = new HashMap<>();
+        if (keyLabels.isEmpty()) {
+            return kcvs;
         }
 
-        return kcv;
+        long generation = kcvCache.generation();
+        long start = System.nanoTime();
+        try {
+            pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+                queryKeyInfos(conn, keyLabels, kcvs);
+                return null;
+            });
+            Logger.debug("KCV retrieved for {}/{} key labels", kcvs.size(), keyLabels.size());
+            kcvCache.refresh(keyLabels, kcvs, generation);
+            if (generation == kcvCache.generation()) {
+                for (String label : keyLabels) {
+                    updateKeyStore(label, kcvs.get(label));
+                }
+            }
+        } catch (SQLException e) {
+            Logger.error("Error retrieving KCVs from database", e);
+            return null;
+        } finally {
+            HsmMetrics.record("db.getKCVs", start);
+        }
+        return kcvs;
+    }
+
+    // IN_CLAUSE_BATCH_SIZE 단위로 나눠 조회
+    private void queryKeyInfos(DbConnectionPool.PooledConnection conn, Collection<String> keyLabels, Map<String, KcvCache.Entry> kcvs) throws SQLException {
+        String[] batch = new String[Math.min(IN_CLAUSE_BATCH_SIZE, keyLabels.size())];
+        Iterator<String> it = keyLabels.iterator();
+        while (it.hasNext()) {
+            int n = 0;
+            while (n < batch.length && it.hasNext()) {
+                batch[n++] = it.next();
+            }
+            queryKCVs(conn, batch, n, kcvs);
+        }
+    }
+
+    // 자리 수를 2의 거듭제곱(최대 IN_CLAUSE_BATCH_SIZE)으로 올리고 남는 자리는 마지막 라벨로 채움 (IN 절 중복은 결과에 영향 없음)
+    private void queryKCVs(DbConnectionPool.PooledConnection conn, String[] labels, int count, Map<String, KcvCache.Entry> kcvs) throws SQLException {
+        int slots = count <= 1 ? 1 : Math.min(IN_CLAUSE_BATCH_SIZE, Integer.highestOneBit(count - 1) << 1);
+        PreparedStatement pstmt = conn.prepare(inClauseSql.computeIfAbsent(slots, HsmDBService::buildInClauseSql));
+        for (int i = 0; i < slots; i++) {
+            pstmt.setString(i + 1, labels[Math.min(i, count - 1)]);
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                kcvs.put(rs.getString("key_label"), new KcvCache.Entry(rs.getString("kcv"), rs.getString("valid_period_end")));
+            }
+        }
+    }
+
+    private static String buildInClauseSql(int slots) {
+        StringBuilder sql = new StringBuilder("SELECT key_label, kcv, valid_period_end FROM TB_KMC_KEY WHERE key_label IN (");
+        for (int i = 0; i < slots; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        return sql.append(')').toString();
     }
 
     public void updateKeyExpiry(String keyName, String newExpiryDate) {
         String sql = "UPDATE TB_KMC_KEY SET valid_period_end = ? WHERE key_label = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, newExpiryDate);
-            pstmt.setString(2, keyName);
-            int affectedRows = pstmt.executeUpdate();
+        long start = System.nanoTime();
+        try {
+            int affectedRows = pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+                PreparedStatement pstmt = conn.prepare(sql);
+                pstmt.setString(1, newExpiryDate);
+                pstmt.setString(2, keyName);
+                return pstmt.executeUpdate();
+            });
+            invalidateKcv(keyName);
             if (affectedRows > 0) {
                 Logger.log("INFO", "Key expiry date updated: " + keyName);
             } else {
@@ -66,6 +341,390 @@ public class HsmDBService {
             }
         } catch (SQLException e) {
             Logger.error("Error updating key expiry date in database", e);
+        } finally {
+            HsmMetrics.record("db.updateKeyExpiry", start);
+        }
+    }
+
+    /**
+     * 여러 라벨의 유효기간을 JDBC 배치 UPDATE 로 변경 (UPDATE_BATCH_SIZE 행마다 executeBatch 한 번)
+     * <p> 배치마다 자동 커밋되므로 중간에 연결이 끊기면 앞 배치까지만 반영되고 나머지는 FAILED
+     * <p> 드라이버가 행별 건수를 주지 않으면(SUCCESS_NO_INFO) 같은 연결에서 IN 절로 행 존재 여부를 확인
+     * @param newExpiryDates key_label -> 새 valid_period_end
+     * @return 입력 순서대로 라벨별 결과 (APPLIED / NOT_FOUND / FAILED)
+     */
+    public List<KeyRowResult> updateKeyExpiries(Map<String, String> newExpiryDates) {
+        String sql = "UPDATE TB_KMC_KEY SET valid_period_end = ? WHERE key_label = ?";
+        List<String> labels = new ArrayList<>(newExpiryDates.keySet());
+        int[] status = new int[labels.size()];
+        Arrays.fill(status, KeyRowResult.FAILED);
+        if (labels.isEmpty()) {
+            return toRowResults(labels, status);
+        }
+
+        long start = System.nanoTime();
+        try {
+            pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+                PreparedStatement pstmt = conn.prepare(sql);
+                Set<String> noInfo = new HashSet<>();
+                for (int from = 0; from < labels.size(); from += UPDATE_BATCH_SIZE) {
+                    int to = Math.min(from + UPDATE_BATCH_SIZE, labels.size());
+                    for (int i = from; i < to; i++) {
+                        pstmt.setString(1, newExpiryDates.get(labels.get(i)));
+                        pstmt.setString(2, labels.get(i));
+                        pstmt.addBatch();
+                    }
+
+                    int[] counts;
+                    try {
+                        counts = pstmt.executeBatch();
+                    } catch (BatchUpdateException e) {
+                        pstmt.clearBatch();
+                        if (DbConnectionPool.isConnectionError(e)) {
+                            throw e;
+                        }
+                        // 드라이버에 따라 실패한 행 앞까지만, 또는 배치 전체의 건수를 돌려줌 (돌려주지 않은 행은 FAILED)
+                        Logger.error("Batch update of key expiry dates partially failed", e);
+                        counts = e.getUpdateCounts() != null ? e.getUpdateCounts() : new int[0];
+                    }
+                    for (int i = 0; i < counts.length && from + i < to; i++) {
+                        if (counts[i] > 0) {
+                            status[from + i] = KeyRowResult.APPLIED;
+                        } else if (counts[i] == 0) {
+                            status[from + i] = KeyRowResult.NOT_FOUND;
+                        } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                            noInfo.add(labels.get(from + i));
+                        }
+                    }
+                }
+
+                if (!noInfo.isEmpty()) {
+                    Map<String, KcvCache.Entry> found = new HashMap<>();
+                    queryKeyInfos(conn, noInfo, found);
+                    for (int i = 0; i < labels.size(); i++) {
+                        if (status[i] == KeyRowResult.FAILED && noInfo.contains(labels.get(i))) {
+                            status[i] = found.containsKey(labels.get(i)) ? KeyRowResult.APPLIED : KeyRowResult.NOT_FOUND;
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            Logger.error("Error updating key expiry dates in database", e);
+        } finally {
+            for (String label : labels) {
+                invalidateKcv(label);
+            }
+            HsmMetrics.record("db.updateKeyExpiries", start);
+        }
+
+        List<KeyRowResult> results = toRowResults(labels, status);
+        Logger.log("INFO", "Key expiry dates updated: " + countApplied(results) + "/" + labels.size());
+        return results;
+    }
+
+    /**
+     * labelPattern(LIKE) 범위의 키를 keys 로 교체 (오프라인 REPLACE_ALL_KEYS 반영)
+     * <p> 범위 안의 기존 행을 먼저 읽어 값이 바뀐 라벨은 UPDATE, 없는 라벨은 INSERT, keys 에 없는 라벨만 DELETE
+     *     (기존 행은 지우지 않고 그 자리에서 고치므로 다른 컬럼(updated_at 등)이 유지되고, 값이 같으면 건드리지 않음)
+     * <p> 조회와 배치 UPDATE/INSERT/DELETE(UPDATE_BATCH_SIZE 행 단위)를 한 트랜잭션으로 처리해 실패하면 기존 키가 그대로 남음
+     * <p> keys 의 라벨은 labelPattern 범위 안에 있어야 함 (범위 밖 라벨이 이미 있으면 중복으로 전체 롤백)
+     * @param labelPattern 교체 범위 (예 : "%#" + etcsId : makeLabel 형식에서 해당 ETCS 엔티티의 키 전체)
+     * @param keys key_label -> KCV / 유효기간
+     * @return 입력 순서대로 라벨별 결과 (커밋되면 모두 APPLIED, 롤백되면 모두 FAILED)
+     */
+    public List<KeyRowResult> replaceAllKeys(String labelPattern, Map<String, KcvCache.Entry> keys) {
+        String selectSql = "SELECT key_label, kcv, valid_period_end FROM TB_KMC_KEY WHERE key_label LIKE ?";
+        String updateSql = "UPDATE TB_KMC_KEY SET kcv = ?, valid_period_end = ? WHERE key_label = ?";
+        String insertSql = "INSERT INTO TB_KMC_KEY (key_label, kcv, valid_period_end) VALUES (?, ?, ?)";
+        String deleteSql = "DELETE FROM TB_KMC_KEY WHERE key_label = ?";
+        List<String> labels = new ArrayList<>(keys.keySet());
+        int[] status = new int[labels.size()];
+        Arrays.fill(status, KeyRowResult.FAILED);
+
+        long start = System.nanoTime();
+        try {
+            int[] counts = pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+                Connection connection = conn.getConnection();
+                PreparedStatement update = conn.prepare(updateSql);
+                PreparedStatement insert = conn.prepare(insertSql);
+                PreparedStatement delete = conn.prepare(deleteSql);
+                connection.setAutoCommit(false);
+                try {
+                    Map<String, KcvCache.Entry> existing = new HashMap<>();
+                    PreparedStatement select = conn.prepare(selectSql);
+                    select.setString(1, labelPattern);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            existing.put(rs.getString("key_label"), new KcvCache.Entry(rs.getString("kcv"), rs.getString("valid_period_end")));
+                        }
+                    }
+
+                    int updated = 0;
+                    int inserted = 0;
+                    for (String label : labels) {
+                        KcvCache.Entry entry = keys.get(label);
+                        KcvCache.Entry current = existing.get(label);
+                        if (current == null) {
+                            insert.setString(1, label);
+                            insert.setString(2, entry.getKcv());
+                            insert.setString(3, entry.getValidPeriodEnd());
+                            addBatch(insert, ++inserted);
+                        } else if (!Objects.equals(current.getKcv(), entry.getKcv())
+                                || !Objects.equals(current.getValidPeriodEnd(), entry.getValidPeriodEnd())) {
+                            update.setString(1, entry.getKcv());
+                            update.setString(2, entry.getValidPeriodEnd());
+                            update.setString(3, label);
+                            addBatch(update, ++updated);
+                        }
+                    }
+                    int deleted = 0;
+                    for (String label : existing.keySet()) {
+                        if (!keys.containsKey(label)) {
+                            delete.setString(1, label);
+                            addBatch(delete, ++deleted);
+                        }
+                    }
+                    finishBatch(update, updated);
+                    finishBatch(insert, inserted);
+                    finishBatch(delete, deleted);
+                    connection.commit();
+                    return new int[]{updated, inserted, deleted};
+                } catch (SQLException e) {
+                    update.clearBatch();
+                    insert.clearBatch();
+                    delete.clearBatch();
+                    try {
+                        connection.rollback();
+                    } catch (SQLException re) {
+                        conn.markBroken();
+                    }
+                    throw e;
+                } finally {
+                    try {
+                        connection.setAutoCommit(true);
+                    } catch (SQLException e) {
+                        conn.markBroken();
+                    }
+                }
+            });
+            Arrays.fill(status, KeyRowResult.APPLIED);
+            if (keyStore != null) {
+                Pattern scope = likeToPattern(labelPattern);
+                for (String label : keyStore.labels()) {
+                    if (scope.matcher(label).matches() && !keys.containsKey(label)) {
+                        keyStore.remove(label);
+                    }
+                }
+                for (String label : labels) {
+                    updateKeyStore(label, keys.get(label));
+                }
+            }
+            Logger.log("INFO", "Keys replaced for " + labelPattern + ": updated=" + counts[0] + ", inserted=" + counts[1]
+                    + ", deleted=" + counts[2] + ", unchanged=" + (labels.size() - counts[0] - counts[1]));
+        } catch (SQLException e) {
+            Logger.error("Error replacing keys in database: " + labelPattern, e);
+        } finally {
+            // 범위 안 라벨이 모두 바뀌었을 수 있으므로 (롤백 시에도 안전하게) 캐시 전체 비움
+            kcvCache.clear();
+            HsmMetrics.record("db.replaceAllKeys", start);
+        }
+        return toRowResults(labels, status);
+    }
+
+    // 배치에 추가하고 UPDATE_BATCH_SIZE 행마다 실행 (pending : 추가한 누적 행 수)
+    private static void addBatch(PreparedStatement pstmt, int pending) throws SQLException {
+        pstmt.addBatch();
+        if (pending % UPDATE_BATCH_SIZE == 0) {
+            pstmt.executeBatch();
+        }
+    }
+
+    // 남은 배치 실행
+    private static void finishBatch(PreparedStatement pstmt, int pending) throws SQLException {
+        if (pending % UPDATE_BATCH_SIZE != 0) {
+            pstmt.executeBatch();
+        }
+    }
+
+    // LIKE 패턴 (%, _) -> 정규식
+    private static Pattern likeToPattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : like.split("(?<=[%_])|(?=[%_])")) {
+            if (part.equals("%")) {
+                regex.append(".*");
+            } else if (part.equals("_")) {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(part));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static List<KeyRowResult> toRowResults(List<String> labels, int[] status) {
+        List<KeyRowResult> results = new ArrayList<>(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            results.add(new KeyRowResult(labels.get(i), status[i]));
+        }
+        return results;
+    }
+
+    private static int countApplied(List<KeyRowResult> results) {
+        int applied = 0;
+        for (KeyRowResult result : results) {
+            if (result.isApplied()) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // DB 조회 결과를 로컬 저장소에 반영 (entry == null 이면 DB 에 없는 라벨이므로 삭제)
+    private void updateKeyStore(String keyLabel, KcvCache.Entry entry) {
+        if (keyStore == null) {
+            return;
+        }
+        if (entry != null) {
+            keyStore.put(keyLabel, new KeyMetadataStore.KeyMetadata(entry.getKcv(), entry.getValidPeriodEnd(), keyTypeOf(keyLabel)));
+        } else {
+            keyStore.remove(keyLabel);
+        }
+    }
+
+    // makeLabel 형식 (keyGenType#serial#etcsId) 의 키 종류
+    private static String keyTypeOf(String keyLabel) {
+        int sep = keyLabel.indexOf('#');
+        return sep > 0 ? keyLabel.substring(0, sep) : null;
+    }
+
+    /**
+     * TB_KMC_KEY 변경분을 로컬 저장소에 반영 (KEY_STORE_SYNC_INTERVAL_SEC 주기)
+     * <p> 평소에는 KEY_STORE_CHANGE_COLUMN 기준 증분 조회, watermark 가 없거나 KEY_STORE_FULL_SYNC_EVERY 번마다 전체 조회 (삭제된 행 반영)
+     * <p> DB 에 접속할 수 없으면 기존 사본으로 계속 조회하고 다음 주기에 다시 시도
+     */
+    private void syncKeyStore() {
+        long start = System.nanoTime();
+        try {
+            boolean full = !incrementalSyncEnabled || keyStore.getWatermark() == 0
+                    || ++syncCount % DB_CONFIG.KEY_STORE_FULL_SYNC_EVERY == 0;
+            Set<String> changed;
+            if (full) {
+                changed = fullSyncKeyStore();
+            } else {
+                try {
+                    changed = incrementalSyncKeyStore();
+                } catch (SQLException e) {
+                    if (DbConnectionPool.isConnectionError(e)) {
+                        throw e;
+                    }
+                    disableIncrementalSync(e);
+                    full = true;
+                    changed = fullSyncKeyStore();
+                }
+            }
+
+            for (String label : changed) {
+                kcvCache.invalidate(label);
+            }
+            keyStore.sync();
+            if (!changed.isEmpty()) {
+                Logger.log("INFO", "Key metadata store synced (" + (full ? "full" : "incremental") + "): "
+                        + changed.size() + " changed, " + keyStore.size() + " keys");
+            }
+        } catch (SQLException e) {
+            Logger.error("Error syncing key metadata store, serving local copy", e);
+        } catch (IOException | RuntimeException e) {
+            Logger.error("Error syncing key metadata store", e);
+        } finally {
+            HsmMetrics.record("db.syncKeyStore", start);
+        }
+    }
+
+    private Set<String> fullSyncKeyStore() throws SQLException {
+        String sql = "SELECT key_label, kcv, valid_period_end FROM TB_KMC_KEY";
+        Map<String, KeyMetadataStore.KeyMetadata> all = new HashMap<>();
+        long watermark = pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+            // 전체 조회 전에 기준 시각을 잡아, 조회 중 바뀐 행은 다음 증분 조회에서 다시 받음
+            long changedAt = maxChangeTime(conn);
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setFetchSize(1000);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String label = rs.getString("key_label");
+                    all.put(label, new KeyMetadataStore.KeyMetadata(rs.getString("kcv"), rs.getString("valid_period_end"), keyTypeOf(label)));
+                }
+            }
+            return changedAt;
+        });
+        Set<String> changed = keyStore.replaceAll(all);
+        keyStore.setWatermark(watermark);
+        return changed;
+    }
+
+    private Set<String> incrementalSyncKeyStore() throws SQLException {
+        String column = DB_CONFIG.KEY_STORE_CHANGE_COLUMN;
+        String sql = "SELECT key_label, kcv, valid_period_end, " + column + " FROM TB_KMC_KEY WHERE " + column + " >= ?";
+        Set<String> changed = new HashSet<>();
+        long watermark = pool.execute(DB_CONFIG.POOL_BORROW_TIMEOUT_MS, conn -> {
+            // 같은 시각에 바뀐 행을 놓치지 않도록 >= 로 조회 (이미 같은 값이면 저장소에 기록하지 않음)
+            long changedAt = keyStore.getWatermark();
+            PreparedStatement pstmt = conn.prepare(sql);
+            pstmt.setTimestamp(1, new Timestamp(changedAt));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String label = rs.getString("key_label");
+                    if (keyStore.put(label, new KeyMetadataStore.KeyMetadata(rs.getString("kcv"), rs.getString("valid_period_end"), keyTypeOf(label)))) {
+                        changed.add(label);
+                    }
+                    Timestamp updatedAt = rs.getTimestamp(4);
+                    if (updatedAt != null) {
+                        changedAt = Math.max(changedAt, updatedAt.getTime());
+                    }
+                }
+            }
+            return changedAt;
+        });
+        keyStore.setWatermark(watermark);
+        return changed;
+    }
+
+    // 변경 컬럼의 최댓값 (epoch ms) * 증분 조회를 쓰지 않거나 컬럼이 없으면 0
+    private long maxChangeTime(DbConnectionPool.PooledConnection conn) throws SQLException {
+        if (!incrementalSyncEnabled) {
+            return 0;
+        }
+        try {
+            PreparedStatement pstmt = conn.prepare("SELECT MAX(" + DB_CONFIG.KEY_STORE_CHANGE_COLUMN + ") FROM TB_KMC_KEY");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Timestamp max = rs.next() ? rs.getTimestamp(1) : null;
+                return max != null ? max.getTime() : 0;
+            }
+        } catch (SQLException e) {
+            if (DbConnectionPool.isConnectionError(e)) {
+                throw e;
+            }
+            disableIncrementalSync(e);
+            return 0;
+        }
+    }
+
+    private void disableIncrementalSync(SQLException e) {
+        incrementalSyncEnabled = false;
+        Logger.warn("Incremental key sync unavailable (" + e.getMessage() + "), using full sync only");
+    }
+
+    // 캐시된 라벨 전체를 IN 절로 다시 읽어 갱신
+    private void refreshKcvCache() {
+        try {
+            kcvCache.removeExpired();
+            List<String> labels = kcvCache.labels();
+            if (!labels.isEmpty()) {
+                getKeyInfos(labels);
+                Logger.debug("KCV cache refreshed: {}", kcvCache);
+            }
+        } catch (RuntimeException e) {
+            Logger.error("Error refreshing KCV cache", e);
         }
     }
-}
\ No newline at end of file
+}
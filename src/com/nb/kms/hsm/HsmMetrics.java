@@ -0,0 +1,277 @@
+package com.nb.kms.hsm;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 작업 종류(HSM_MSG_TYPE)별, 단계별 지연 시간 히스토그램과 성공/실패 건수
+ * <p> 워커가 begin(operation) ~ end() 사이에서 실행하는 코드(HsmService, HsmDBService 등)는 record(stage, start) 만 호출하면
+ *     현재 스레드의 작업 종류로 집계됨 (워커 밖에서 호출되면 OTHER)
+ * <p> 단계 이름 규칙 : queueWait / sessionBorrow / process / dbWait / send / total (워커), pkcs11.* (HSM 호출), jce.* (소프트웨어 구현), db.* (DB 조회)
+ */
+public class HsmMetrics implements HsmMetricsMXBean {
+    public static final String OBJECT_NAME = "com.nb.kms.hsm:type=HsmMetrics";
+
+    public static final int OPERATION_OTHER = -1;
+
+    private static final String[] OPERATION_NAMES = {
+            "GENERATE_KEY", "CALCULATE_CBC", "COPY_KEY", "DELETE_KEY", "ENCRYPT_KEY", "DECRYPT_KEY",
+            "GET_KCV", "GET_KEY", "GET_STATUS", "INJECT_KEY", "BATCH_KCV"
+    };
+
+    private static final HsmMetrics instance = new HsmMetrics();
+
+    private static class OperationMetrics {
+        private final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+        private final LongAdder success = new LongAdder();
+        private final LongAdder failure = new LongAdder();
+
+        private LatencyHistogram stage(String name) {
+            LatencyHistogram histogram = stages.get(name);
+            return histogram != null ? histogram : stages.computeIfAbsent(name, k -> new LatencyHistogram());
+        }
+    }
+
+    // 워커 스레드의 현재 작업 (스레드마다 하나를 재사용)
+    private static class Context {
+        private int operation = OPERATION_OTHER;
+        private boolean active;
+        private boolean failed;
+    }
+
+    private final Map<Integer, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final ThreadLocal<Context> context = ThreadLocal.withInitial(Context::new);
+
+    private HsmMetrics() {
+    }
+
+    public static HsmMetrics getInstance() {
+        return instance;
+    }
+
+    public static String operationName(int operation) {
+        return operation >= 0 && operation < OPERATION_NAMES.length ? OPERATION_NAMES[operation] : "OTHER";
+    }
+
+    // ---- 기록 ----
+
+    // 현재 스레드에서 operation 작업 처리 시작
+    public static void begin(int operation) {
+        Context ctx = instance.context.get();
+        ctx.operation = operation;
+        ctx.active = true;
+        ctx.failed = false;
+    }
+
+    // 현재 작업을 실패로 표시 (end 에서 실패 건수로 집계)
+    public static void markFailure() {
+        Context ctx = instance.context.get();
+        if (ctx.active) {
+            ctx.failed = true;
+        }
+    }
+
+    // 현재 스레드의 작업 처리 종료 및 성공/실패 건수 집계
+    public static void end() {
+        Context ctx = instance.context.get();
+        if (!ctx.active) {
+            return;
+        }
+        OperationMetrics metrics = instance.metricsOf(ctx.operation);
+        if (ctx.failed) {
+            metrics.failure.increment();
+        } else {
+            metrics.success.increment();
+        }
+        ctx.operation = OPERATION_OTHER;
+        ctx.active = false;
+        ctx.failed = false;
+    }
+
+    // 현재 스레드의 작업 종류 (다른 스레드로 넘기는 작업에 전달)
+    public static int currentOperation() {
+        return instance.context.get().operation;
+    }
+
+    // 다른 스레드(DB 조회 스레드 등)에서 실행하는 코드를 operation 작업의 단계로 집계 (성공/실패 건수는 집계하지 않음)
+    public static void attach(int operation) {
+        instance.context.get().operation = operation;
+    }
+
+    public static void detach() {
+        instance.context.get().operation = OPERATION_OTHER;
+    }
+
+    // startNanos(System.nanoTime()) 부터 지금까지를 현재 작업의 stage 단계로 기록
+    public static void record(String stage, long startNanos) {
+        record(instance.context.get().operation, stage, System.nanoTime() - startNanos);
+    }
+
+    public static void record(int operation, String stage, long elapsedNanos) {
+        instance.metricsOf(operation).stage(stage).record(elapsedNanos);
+    }
+
+    // 정의되지 않은 작업 값은 모두 OTHER 로 모아 작업별 항목이 무한정 늘지 않도록 함
+    private OperationMetrics metricsOf(int operation) {
+        int key = operation >= 0 && operation < OPERATION_NAMES.length ? operation : OPERATION_OTHER;
+        OperationMetrics metrics = operations.get(key);
+        return metrics != null ? metrics : operations.computeIfAbsent(key, k -> new OperationMetrics());
+    }
+
+    // ---- 조회 (JMX) ----
+
+    @Override
+    public List<StageStats> getStageStats() {
+        List<StageStats> result = new ArrayList<>();
+        for (Map.Entry<Integer, OperationMetrics> op : new TreeMap<>(operations).entrySet()) {
+            for (Map.Entry<String, LatencyHistogram> stage : new TreeMap<>(op.getValue().stages).entrySet()) {
+                LatencyHistogram h = stage.getValue();
+                result.add(new StageStats(operationName(op.getKey()), stage.getKey(), h.getCount(),
+                        micros(h.getMeanNanos()), micros(h.getPercentileNanos(50)), micros(h.getPercentileNanos(99)),
+                        micros(h.getPercentileNanos(99.9)), micros(h.getMaxNanos())));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<OperationCounts> getOperationCounts() {
+        List<OperationCounts> result = new ArrayList<>();
+        for (Map.Entry<Integer, OperationMetrics> op : new TreeMap<>(operations).entrySet()) {
+            result.add(new OperationCounts(operationName(op.getKey()), op.getValue().success.sum(), op.getValue().failure.sum()));
+        }
+        return result;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder("HsmMetrics (us)");
+        for (OperationCounts counts : getOperationCounts()) {
+            sb.append(System.lineSeparator()).append(String.format("  %-14s success=%d failure=%d",
+                    counts.getOperation(), counts.getSuccess(), counts.getFailure()));
+        }
+        for (StageStats s : getStageStats()) {
+            sb.append(System.lineSeparator()).append(String.format("  %-14s %-24s n=%-8d mean=%.1f p50=%.1f p99=%.1f p999=%.1f max=%.1f",
+                    s.getOperation(), s.getStage(), s.getCount(), s.getMeanMicros(), s.getP50Micros(),
+                    s.getP99Micros(), s.getP999Micros(), s.getMaxMicros()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+    }
+
+    // 플랫폼 MBean 서버에 등록 (이미 등록돼 있으면 무시)
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(instance, name);
+            }
+        } catch (Exception e) {
+            Logger.error("Failed to register HsmMetrics MBean", e);
+        }
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1_000.0;
+    }
+
+    /**
+     * 작업 종류 / 단계별 지연 시간 요약 (us)
+     */
+    public static class StageStats {
+        private final String operation;
+        private final String stage;
+        private final long count;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+        private final double maxMicros;
+
+        @ConstructorProperties({"operation", "stage", "count", "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+        public StageStats(String operation, String stage, long count, double meanMicros,
+                          double p50Micros, double p99Micros, double p999Micros, double maxMicros) {
+            this.operation = operation;
+            this.stage = stage;
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.p999Micros = p999Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getP999Micros() {
+            return p999Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+    }
+
+    /**
+     * 작업 종류별 성공 / 실패 건수
+     */
+    public static class OperationCounts {
+        private final String operation;
+        private final long success;
+        private final long failure;
+
+        @ConstructorProperties({"operation", "success", "failure"})
+        public OperationCounts(String operation, long success, long failure) {
+            this.operation = operation;
+            this.success = success;
+            this.failure = failure;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public long getSuccess() {
+            return success;
+        }
+
+        public long getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.nb.kms.hsm;
+
+import java.util.List;
+
+/**
+ * HSM 작업 지연 시간 / 성공·실패 건수 JMX 노출 (ObjectName : com.nb.kms.hsm:type=HsmMetrics)
+ * <p> jconsole / VisualVM 이나 JMX 수집기에서 작업 종류(HSM_MSG_TYPE)별, 단계별 p50/p99/p999 조회
+ */
+public interface HsmMetricsMXBean {
+
+    List<HsmMetrics.StageStats> getStageStats();
+
+    List<HsmMetrics.OperationCounts> getOperationCounts();
+
+    String getReport();
+
+    void reset();
+}
@@ -1,6 +1,7 @@
 package com.nb.kms.hsm;
 
 import java.io.Serializable;
+import java.util.List;
 import com.nb.kms.hsm.EventMsg.*;
 
 public class HsmMsg implements Serializable {
@@ -16,6 +17,9 @@ public class HsmMsg implements Serializable {
     private int newEtcsId;
     private String expirationDate; // 유효기간 필드 추가
     private byte[] data; /* CBC-MAC 계산할 원본 데이터 */
+    private List<KeyRef> keys; /* BATCH_KCV 대상 키 목록 */
+    private long correlationId; /* 0 이 아니면 요청 연결로 HsmResponse 응답, 0 이면 header 주소로 새 연결을 열어 응답 */
+    private transient ResponseChannel responseChannel; /* 요청이 들어온 연결 (수신 측에서 설정) */
 
 
     //HSM Staus 조회용 메세지형식
@@ -67,6 +71,14 @@ public class HsmMsg implements Serializable {
         this.expirationDate = expirationDate;
     }
 
+    // BATCH_KCV
+    // 일괄 KCV 검증용 메세지 형식
+    public HsmMsg(hsmMsgHeader header, int operation, List<KeyRef> keys) {
+        this.header = header;
+        this.operation = operation;
+        this.keys = keys;
+    }
+
     public int getEtcsId() {
         return etcsId;
     }
@@ -156,6 +168,30 @@ public class HsmMsg implements Serializable {
         this.data = keyData;
     }
 
+    public List<KeyRef> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<KeyRef> keys) {
+        this.keys = keys;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public ResponseChannel getResponseChannel() {
+        return responseChannel;
+    }
+
+    public void setResponseChannel(ResponseChannel responseChannel) {
+        this.responseChannel = responseChannel;
+    }
+
     // 메시지 구조의 공통 인터페이스
 
     // hsmMsgHeader 클래스
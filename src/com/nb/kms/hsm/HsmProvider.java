@@ -0,0 +1,76 @@
+package com.nb.kms.hsm;
+
+import com.nb.kms.hsm.EventMsg.*;
+import safenet.jcprov.CK_SESSION_HANDLE;
+
+import java.util.List;
+
+/**
+ * 워커 스레드가 사용하는 HSM 키 연산 인터페이스
+ * <p> {@link HsmService} : ProtectToolkit HSM (jcprov)
+ * <p> {@link JceHsmProvider} : 메모리 키 저장소 + JCE 연산, 호출마다 지연 시간 주입 (HSM 없는 환경에서 부하 테스트용)
+ * <p> 사용할 구현은 HSM_INFO.HSM_PROVIDER 로 선택
+ */
+public interface HsmProvider {
+
+    String PROVIDER_JCPROV = "jcprov";
+    String PROVIDER_JCE = "jce";
+
+    static HsmProvider getInstance() {
+        if (PROVIDER_JCE.equalsIgnoreCase(HSM_INFO.HSM_PROVIDER)) {
+            return JceHsmProvider.getInstance();
+        }
+        return HsmService.getInstance();
+    }
+
+    /**
+     * @return 작업마다 세션 풀에서 세션을 대여해야 하는지 여부
+     */
+    boolean requiresSession();
+
+    /**
+     * 현재 워커 스레드가 사용할 세션 지정 (null 이면 해제)
+     */
+    void setSessionHandle(CK_SESSION_HANDLE session);
+
+    void generateKey(int keyType, String keyGenType, int serialNum, int etcsId);
+
+    void deleteKey(int keyType, String keyGenType, int serialNum, int etcsId);
+
+    byte[] calculateKCV(int keyType, String keyGenType, int serialNum, int etcsId);
+
+    /**
+     * @return 입력 순서와 같은 KCV 배열 (키가 없거나 계산에 실패한 항목은 null)
+     */
+    byte[][] calculateKCVs(List<KeyRef> keys);
+
+    byte[] getPlainTextKey(int keyType, String keyGenType, int serialNum, int etcsId);
+
+    byte[] encryptDataWithKey(String keyGenType, int keySerial, int myEtcsID, byte[] data);
+
+    byte[] decryptDataWithKey(String keyGenType, int keySerial, int myEtcsID, byte[] encryptedData);
+
+    byte[] calculateCBCMAC(String keyGenType, int keySerial, int myEtcsID, byte[] data);
+
+    /**
+     * @param kcv 호출 측에서 이미 계산한 KMAC 의 KCV
+     */
+    byte[] calculateCBCMAC(String keyGenType, int keySerial, int myEtcsID, byte[] data, byte[] kcv);
+
+    void copyKey(String keyGenType, int keySerial, int myEtcsID, int newKeySerial, int newEtcsType, String password);
+
+    void injectPrivateKey(int keyType, String keyGenType, int keySerial, int myEtcsID, byte[] privateKey);
+
+    HsmStatus getHsmStatusAndNetworkState(String ip);
+
+    default String bytesToHex(byte[] bytes) {
+        return Logger.hex(bytes);
+    }
+
+    default String makeLabel(String keyGenType, int keySerial, int myEtcsType) {
+        String op = "#";
+        String formedLabel = keyGenType + op + keySerial + op + myEtcsType;
+        //System.out.println("formed_label: " + formedLabel);
+        return formedLabel;
+    }
+}
@@ -0,0 +1,43 @@
+package com.nb.kms.hsm;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+
+/**
+ * 요청에 대한 응답 전송
+ * <p> 요청 연결(ResponseChannel)이 있으면 correlationId 를 붙여 같은 연결로, 없으면 header 주소로 새 연결을 열어 전송
+ */
+public class HsmResponder {
+
+    private HsmResponder() {
+    }
+
+    public static void send(HsmMsg task, Object message) {
+        HsmMsg.hsmMsgHeader header = task.getHeader();
+
+        // 결과가 없어도 응답을 기다리는 클라이언트가 멈추지 않도록 오류 응답으로 대신함
+        if (message == null) {
+            Logger.error("Attempted to send a null message to " + header.getAddress() + ":" + header.getPort());
+            message = "No result.";
+        }
+
+        // 요청이 들어온 연결로 응답 (correlationId 로 요청과 매칭)
+        ResponseChannel channel = task.getResponseChannel();
+        if (channel != null) {
+            if (!channel.send(task.getCorrelationId(), message)) {
+                Logger.error("Failed to send response " + task.getCorrelationId() + " to " + channel.getRemoteAddress());
+            }
+            return;
+        }
+
+        // correlationId 가 없는 기존 클라이언트는 header 주소로 새 연결을 열어 응답
+        try (Socket socket = new Socket(header.getAddress(), header.getPort());
+             ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream())) {
+            oos.writeObject(message);
+            oos.flush();
+        } catch (IOException e) {
+            Logger.error("Failed to send message via TCP", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.nb.kms.hsm;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 요청이 들어온 연결로 돌려보내는 응답 프레임
+ * <p> correlationId 는 요청 HsmMsg 의 값을 그대로 사용하므로, 클라이언트는 여러 요청을 연속으로 보내고
+ * 도착 순서와 관계없이 응답을 요청에 매칭할 수 있음
+ */
+public class HsmResponse implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private long correlationId;
+    private Object result; /* byte[], String, HsmStatus */
+
+    public HsmResponse(long correlationId, Object result) {
+        this.correlationId = correlationId;
+        this.result = result;
+    }
+
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(long correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public void setResult(Object result) {
+        this.result = result;
+    }
+
+    @Override
+    public String toString() {
+        return "HsmResponse{" +
+                "correlationId=" + correlationId +
+                ", result=" + result +
+                '}';
+    }
+}
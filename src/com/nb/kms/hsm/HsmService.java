@@ -10,11 +10,21 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
-public class HsmService {
+public class HsmService implements HsmProvider {
 
     private static HsmService instance;
-    private CK_SESSION_HANDLE session = null;
+    /* 워커 스레드마다 세션 풀에서 대여한 세션을 사용하므로 스레드별로 보관 */
+    private final ThreadLocal<CK_SESSION_HANDLE> session = new ThreadLocal<>();
+
+    /* 라벨 + 키 타입 -> 오브젝트 핸들 캐시 (토큰 오브젝트 핸들은 세션 간 공유됨) */
+    private final KeyHandleCache keyHandleCache = new KeyHandleCache(HSM_INFO.KEY_HANDLE_CACHE_SIZE);
+
+    /* KMAC 라벨 -> CBC-MAC 계산용 DES 분할 키(세션 오브젝트) 캐시 */
+    private final DesComponentKeyCache desComponentKeyCache = new DesComponentKeyCache(HSM_INFO.DES_COMPONENT_KEY_CACHE_SIZE);
 
 
     private HsmService() {
@@ -34,6 +44,8 @@ public class HsmService {
         try {
 
             String KeyLabel = makeLabel(keyGenType, serialNum, etcsId);
+            keyHandleCache.invalidate(KeyLabel);
+            desComponentKeyCache.invalidate(KeyLabel, getSessionHandle());
 
             switch (keyType) {
                 case HSM_KEY_TYPE.RSA_TYPE:
@@ -79,7 +91,9 @@ public class HsmService {
                 new CK_ATTRIBUTE(CKA.LABEL, keyName.getBytes()),
                 new CK_ATTRIBUTE(CKA.PRIVATE, new CK_BBOOL(bPrivate))
         };
-        CryptokiEx.C_GenerateKey(session, keyGenMech, template, template.length, hKey);
+        long start = System.nanoTime();
+        CryptokiEx.C_GenerateKey(getSessionHandle(), keyGenMech, template, template.length, hKey);
+        HsmMetrics.record("pkcs11.generateKey", start);
     }
 
     private void generateAsymmetricKeyPair(CK_MECHANISM_TYPE mechanismType, int keyType, String keyName, boolean bPrivate, CK_OBJECT_HANDLE hPublicKey, CK_OBJECT_HANDLE hPrivateKey) throws CKR_Exception {
@@ -100,7 +114,9 @@ public class HsmService {
                 new CK_ATTRIBUTE(CKA.LABEL, keyName.getBytes()),
                 new CK_ATTRIBUTE(CKA.PRIVATE, new CK_BBOOL(bPrivate))
         };
-        CryptokiEx.C_GenerateKeyPair(session, keyGenMech, publicTemplate, publicTemplate.length, privateTemplate, privateTemplate.length, hPublicKey, hPrivateKey);
+        long start = System.nanoTime();
+        CryptokiEx.C_GenerateKeyPair(getSessionHandle(), keyGenMech, publicTemplate, publicTemplate.length, privateTemplate, privateTemplate.length, hPublicKey, hPrivateKey);
+        HsmMetrics.record("pkcs11.generateKeyPair", start);
     }
 
     public void deleteKey(int keyType, String keyGenType, int serialNum, int etcsId) {
@@ -111,7 +127,11 @@ public class HsmService {
         try {
             CK_OBJECT_HANDLE hKey = findKey(keyType, KeyLabel, bPrivate);
             if (hKey != null) {
-                CryptokiEx.C_DestroyObject(session, hKey);
+                long start = System.nanoTime();
+                CryptokiEx.C_DestroyObject(getSessionHandle(), hKey);
+                HsmMetrics.record("pkcs11.destroyObject", start);
+                keyHandleCache.invalidate(KeyLabel);
+                desComponentKeyCache.invalidate(KeyLabel, getSessionHandle());
                 Logger.log("INFO", "Key (" + KeyLabel + ") of type " + keyType + " deleted. Handle: " + hKey.longValue());
             } else {
                 Logger.log("ERROR", "Key (" + KeyLabel + ") of type " + keyType + " not found.");
@@ -122,6 +142,16 @@ public class HsmService {
     }
 
     private CK_OBJECT_HANDLE findKey(int keyType, String keyName, boolean bPrivate) throws CKR_Exception {
+        long start = System.nanoTime();
+        CK_OBJECT_HANDLE hKey = keyHandleCache.get(keyType, keyName, bPrivate);
+        if (hKey == null) {
+            hKey = searchKey(keyType, keyName, bPrivate);
+        }
+        HsmMetrics.record("findKey", start);
+        return hKey;
+    }
+
+    private CK_OBJECT_HANDLE searchKey(int keyType, String keyName, boolean bPrivate) throws CKR_Exception {
 
         CK_OBJECT_HANDLE[] foundObjects = {new CK_OBJECT_HANDLE()};
 
@@ -137,39 +167,42 @@ public class HsmService {
 
         try {
             // 세션 유효성 확인
-            if (session == null) {
-                System.err.println("세션 핸들이 null입니다.");
+            if (getSessionHandle() == null) {
+                Logger.error("세션 핸들이 null입니다.");
                 return null;
             } else {
 
                 // 세션 정보 확인
                 CK_SESSION_INFO sessionInfo = new CK_SESSION_INFO();
-                CryptokiEx.C_GetSessionInfo(session, sessionInfo);
+                CryptokiEx.C_GetSessionInfo(getSessionHandle(), sessionInfo);
 
 
                 // 세션 상태 검증
                 if ((sessionInfo.flags & CKF.SERIAL_SESSION) == 0 || (sessionInfo.flags & CKF.RW_SESSION) == 0) {
-                    System.out.println("세션이 올바르게 설정되지 않았습니다. 세션 플래그: " + sessionInfo.flags);
+                    Logger.log("ERROR", "세션이 올바르게 설정되지 않았습니다. 세션 플래그: " + sessionInfo.flags);
                 }
             }
 
 
-            CryptokiEx.C_FindObjectsInit(session, template, template.length);
+            long start = System.nanoTime();
+            CryptokiEx.C_FindObjectsInit(getSessionHandle(), template, template.length);
 
-            CryptokiEx.C_FindObjects(session, foundObjects, foundObjects.length, objectCount);
+            CryptokiEx.C_FindObjects(getSessionHandle(), foundObjects, foundObjects.length, objectCount);
 
-            CryptokiEx.C_FindObjectsFinal(session);
+            CryptokiEx.C_FindObjectsFinal(getSessionHandle());
+            HsmMetrics.record("pkcs11.findObjects", start);
 
             if (objectCount.value > 0) {
-                System.out.println("핸들 값 확인: " + foundObjects[0]);
+                Logger.debug("핸들 값 확인: {}", foundObjects[0]);
+                keyHandleCache.put(keyType, keyName, bPrivate, foundObjects[0]);
 
             } else {
-                System.out.println("템플릿에 일치하는 객체를 찾을 수 없음");
+                Logger.debug("템플릿에 일치하는 객체를 찾을 수 없음 ({})", keyName);
             }
 
 
         } catch (Exception e) {
-            System.err.println("PKCS#11 API 호출 중 예외 발생: " + e.getMessage());
+            Logger.error("PKCS#11 API 호출 중 예외 발생: " + e.getMessage());
         }
         return foundObjects[0];
     }
@@ -223,24 +256,13 @@ public class HsmService {
             // KCV 계산을 위해서는 보통 0x0000000000000000을 암호화
             byte[] zeroBlock = new byte[8]; // 8 바이트 0x00으로 초기화된 블록
 
-
             //유동 메커니즘
             CK_MECHANISM mech = getKeyCalculateMech(keyType);
 
             byte[] encryptedBlock = new byte[8]; // 암호화된 결과를 받을 배열
+            byte[] kcv = encryptKcvBlock(mech, hKey, zeroBlock, encryptedBlock, new LongRef());
 
-            // C_EncryptInit 호출
-            CryptokiEx.C_EncryptInit(session, mech, hKey);
-
-            // C_Encrypt 호출
-            LongRef encryptedLength = new LongRef();
-            encryptedLength.value = encryptedBlock.length;
-            CryptokiEx.C_Encrypt(session, zeroBlock, zeroBlock.length, encryptedBlock, encryptedLength);
-
-            // KCV는 암호화된 첫 3바이트 또는 4바이트
-            byte[] kcv = Arrays.copyOf(encryptedBlock, 3); // DES의 경우 첫 3바이트 사용
-
-            Logger.log("INFO", "Key Check Value (KCV) for key (" + KeyLabel + "): " + bytesToHex(kcv));
+            Logger.debug("Key Check Value (KCV) for key ({}): {}", KeyLabel, kcv);
             return kcv;
 
         } catch (Exception ex) {
@@ -250,6 +272,51 @@ public class HsmService {
     }
 
 
+    /**
+     * 여러 키의 KCV 일괄 계산
+     * <p> 현재 세션과 키 타입별 메커니즘, 입출력 버퍼를 재사용
+     * @return 입력 순서와 같은 KCV 배열 (키가 없거나 계산에 실패한 항목은 null)
+     */
+    public byte[][] calculateKCVs(List<KeyRef> keys) {
+        byte[][] kcvs = new byte[keys.size()][];
+        Map<Integer, CK_MECHANISM> mechs = new HashMap<>();
+        byte[] zeroBlock = new byte[8];
+        byte[] encryptedBlock = new byte[8];
+        LongRef encryptedLength = new LongRef();
+
+        for (int i = 0; i < kcvs.length; i++) {
+            KeyRef key = keys.get(i);
+            String keyLabel = makeLabel(key.getKeyGenType(), key.getSerialNum(), key.getEtcsId());
+            try {
+                CK_OBJECT_HANDLE hKey = findKey(key.getKeyType(), keyLabel, true);
+                if (hKey == null) {
+                    continue;
+                }
+                CK_MECHANISM mech = mechs.computeIfAbsent(key.getKeyType(), this::getKeyCalculateMech);
+                kcvs[i] = encryptKcvBlock(mech, hKey, zeroBlock, encryptedBlock, encryptedLength);
+            } catch (Exception ex) {
+                Logger.error("Error calculating KCV for key (" + keyLabel + ")", ex);
+            }
+        }
+        return kcvs;
+    }
+
+    // 0 블록 암호화 후 앞 3바이트를 KCV 로 반환 (DES 계열)
+    private byte[] encryptKcvBlock(CK_MECHANISM mech, CK_OBJECT_HANDLE hKey, byte[] zeroBlock, byte[] encryptedBlock, LongRef encryptedLength) {
+        // C_EncryptInit 호출
+        long start = System.nanoTime();
+        CryptokiEx.C_EncryptInit(getSessionHandle(), mech, hKey);
+
+        // C_Encrypt 호출
+        encryptedLength.value = encryptedBlock.length;
+        CryptokiEx.C_Encrypt(getSessionHandle(), zeroBlock, zeroBlock.length, encryptedBlock, encryptedLength);
+        HsmMetrics.record("pkcs11.kcvEncrypt", start);
+
+        // KCV는 암호화된 첫 3바이트 또는 4바이트
+        return Arrays.copyOf(encryptedBlock, 3); // DES의 경우 첫 3바이트 사용
+    }
+
+
     public byte[] getPlainTextKey(int keyType, String keyGenType, int serialNum, int etcsId) {
         boolean bPrivate = true;
 
@@ -268,7 +335,9 @@ public class HsmService {
             };
 
             // 속성 값을 가져옵니다.
-            CryptokiEx.C_GetAttributeValue(session, hKey, template, template.length);
+            long start = System.nanoTime();
+            CryptokiEx.C_GetAttributeValue(getSessionHandle(), hKey, template, template.length);
+            HsmMetrics.record("pkcs11.getAttributeValue", start);
 
             // 평문 키 값 반환
             byte[] plainTextKey = (byte[]) template[0].pValue;
@@ -279,14 +348,10 @@ public class HsmService {
                 return null;
             }
 
-            Logger.log("INFO", "Plaintext key (" + KeyLabel + ") retrieved successfully.");
+            Logger.debug("Plaintext key ({}) retrieved successfully.", KeyLabel);
 
-            // 키의 각 바이트를 로깅
-            StringBuilder keyHex = new StringBuilder();
-            for (int i = 0; i < plainTextKey.length; i++) {
-                keyHex.append(String.format("%02X ", plainTextKey[i])); // 각 바이트를 16진수로 변환하여 추가
-            }
-            Logger.log("INFO", "Plaintext key bytes: " + keyHex.toString().trim());
+            // 키의 각 바이트를 로깅 (DEBUG 에서만 16진수 변환)
+            Logger.debug("Plaintext key bytes: {}", plainTextKey);
 
             return plainTextKey;
 
@@ -309,7 +374,7 @@ public class HsmService {
             }
             // 키 라벨 생성
             String keyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
-            System.out.println("Generated key label: " + keyLabel);
+            Logger.debug("Generated key label: {}", keyLabel);
 
             // 키 핸들을 찾기
             CK_OBJECT_HANDLE hKey = findKey(HSM_KEY_TYPE.DES3_TYPE, keyLabel, true);
@@ -334,7 +399,7 @@ public class HsmService {
         try {
             // 키 라벨 생성
             String keyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
-            System.out.println("Generated key label: " + keyLabel);
+            Logger.debug("Generated key label: {}", keyLabel);
 
             // 키 핸들을 찾기
             CK_OBJECT_HANDLE hKey = findKey(HSM_KEY_TYPE.DES3_TYPE, keyLabel, true);
@@ -356,7 +421,7 @@ public class HsmService {
     }
 
     public byte[] encryptData(CK_MECHANISM encMechanism, CK_OBJECT_HANDLE hSecretKey, byte[] bInputData) {
-        if (session == null || encMechanism == null || hSecretKey == null || bInputData == null) {
+        if (getSessionHandle() == null || encMechanism == null || hSecretKey == null || bInputData == null) {
             throw new IllegalArgumentException("input data is null");
         }
         //키 길이 24바이트 아니면 예외처리 or 리턴
@@ -372,11 +437,13 @@ public class HsmService {
         byte[] bOutputData = null;
 
         try {
-            CryptokiEx.C_EncryptInit(session, encMechanism, hSecretKey);
+            long start = System.nanoTime();
+            CryptokiEx.C_EncryptInit(getSessionHandle(), encMechanism, hSecretKey);
             LongRef encryptedLength = new LongRef();
             encryptedLength.value = bInputData.length;
             bOutputData = new byte[bInputData.length];
-            CryptokiEx.C_Encrypt(session, bInputData, bInputData.length, bOutputData, encryptedLength);
+            CryptokiEx.C_Encrypt(getSessionHandle(), bInputData, bInputData.length, bOutputData, encryptedLength);
+            HsmMetrics.record("pkcs11.encrypt", start);
         } catch (Exception e) {
             System.err.println("Encryption failed: " + e.getMessage());
         }
@@ -385,7 +452,7 @@ public class HsmService {
     }
 
     public byte[] decryptData(CK_MECHANISM encMechanism, CK_OBJECT_HANDLE hSecretKey, byte[] bInputData) {
-        if (session == null || encMechanism == null || hSecretKey == null || bInputData == null) {
+        if (getSessionHandle() == null || encMechanism == null || hSecretKey == null || bInputData == null) {
             throw new IllegalArgumentException("input data is null");
         }
         //키 길이 24바이트 아니면 예외처리 or 리턴
@@ -401,11 +468,13 @@ public class HsmService {
         byte[] bOutputData = null;
 
         try {
-            CryptokiEx.C_DecryptInit(session, encMechanism, hSecretKey);
+            long start = System.nanoTime();
+            CryptokiEx.C_DecryptInit(getSessionHandle(), encMechanism, hSecretKey);
             LongRef decryptedLength = new LongRef();
             decryptedLength.value = bInputData.length;
             bOutputData = new byte[bInputData.length];
-            CryptokiEx.C_Decrypt(session, bInputData, bInputData.length, bOutputData, decryptedLength);
+            CryptokiEx.C_Decrypt(getSessionHandle(), bInputData, bInputData.length, bOutputData, decryptedLength);
+            HsmMetrics.record("pkcs11.decrypt", start);
         } catch (Exception e) {
             System.err.println("Decryption failed: " + e.getMessage());
         }
@@ -414,28 +483,49 @@ public class HsmService {
     }
 
     public byte[] calculateCBCMAC(String keyGenType, int keySerial, int myEtcsID, byte[] data) {
+        // 분할 키 캐시 검증용 KCV
+        byte[] kcv = calculateKCV(HSM_KEY_TYPE.DES3_TYPE, keyGenType, keySerial, myEtcsID);
+        if (kcv == null) {
+            return null;
+        }
+        return calculateCBCMAC(keyGenType, keySerial, myEtcsID, data, kcv);
+    }
+
+    /**
+     * @param kcv 호출 측에서 이미 계산한 KMAC 의 KCV (분할 키 캐시 검증에 사용)
+     */
+    public byte[] calculateCBCMAC(String keyGenType, int keySerial, int myEtcsID, byte[] data, byte[] kcv) {
         try {
             // 키 라벨을 생성
             String keyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
-            System.out.println("Generated key label: " + keyLabel);
+            Logger.debug("Generated key label: {}", keyLabel);
 
-            // 키 핸들을 찾기
-            CK_OBJECT_HANDLE hKey = findKey(HSM_KEY_TYPE.DES3_TYPE, keyLabel, true);
-            if (hKey == null) {
-                Logger.log("ERROR", "Key (" + keyLabel + ") not found.");
+            DesComponentKeyCache.Entry components = getDesComponentKeys(keyGenType, keySerial, myEtcsID, keyLabel, kcv);
+            if (components == null) {
                 return null;
             }
 
-            // 평문 키 데이터를 가져오기
-            byte[] plainKey = getPlainTextKey(HSM_KEY_TYPE.DES3_TYPE, keyGenType, keySerial, myEtcsID);
-            if (plainKey == null || plainKey.length != 24) {
-                Logger.log("ERROR", "Failed to retrieve a valid 3DES key.");
-                return null;
+            byte[] mac;
+            try {
+                mac = calculate3DESCBCMAC(getSessionHandle(), components.getKey1(), components.getKey2(), components.getKey3(), data);
+            } catch (CKR_Exception e) {
+                if (!CKR.KEY_HANDLE_INVALID.equals(e.ckrv) && !CKR.OBJECT_HANDLE_INVALID.equals(e.ckrv)) {
+                    throw e;
+                }
+                // 분할 키를 생성한 세션이 닫혀 핸들이 무효화된 경우 실패한 항목만 버리고 한 번만 재생성
+                desComponentKeyCache.discard(keyLabel, components);
+                desComponentKeyCache.release(components, getSessionHandle());
+                components = null;
+                components = getDesComponentKeys(keyGenType, keySerial, myEtcsID, keyLabel, kcv);
+                if (components == null) {
+                    return null;
+                }
+                mac = calculate3DESCBCMAC(getSessionHandle(), components.getKey1(), components.getKey2(), components.getKey3(), data);
+            } finally {
+                // 버린 항목은 위에서 이미 release 했으므로 재생성한 항목(없으면 null)만 반납
+                desComponentKeyCache.release(components, getSessionHandle());
             }
-
-            // 평문 키를 3DES CBC-MAC 계산에 사용
-            byte[] mac = calculate3DESCBCMAC(session, plainKey, data);
-            Logger.log("INFO", "CBC-MAC calculated: " + bytesToHex(mac));
+            Logger.debug("CBC-MAC calculated: {}", mac);
 
             return mac;
 
@@ -445,13 +535,97 @@ public class HsmService {
         }
     }
 
-    private byte[] calculate3DESCBCMAC(CK_SESSION_HANDLE session, byte[] key, byte[] data) throws Exception {
-        CK_MECHANISM mechanism = new CK_MECHANISM(CKM.DES_CBC, new byte[8]);
+    /**
+     * KMAC 라벨의 DES 분할 키 조회 * 캐시에 없거나 KCV 가 다르면 평문 키를 가져와 새로 생성 (사용 후 release)
+     */
+    private DesComponentKeyCache.Entry getDesComponentKeys(String keyGenType, int keySerial, int myEtcsID, String keyLabel, byte[] kcv) throws Exception {
+        DesComponentKeyCache.Entry components = desComponentKeyCache.get(keyLabel, kcv, getSessionHandle());
+        if (components != null) {
+            return components;
+        }
+
+        // 평문 키 데이터를 가져오기
+        byte[] plainKey = getPlainTextKey(HSM_KEY_TYPE.DES3_TYPE, keyGenType, keySerial, myEtcsID);
+        if (plainKey == null || plainKey.length != 24) {
+            Logger.log("ERROR", "Failed to retrieve a valid 3DES key.");
+            return null;
+        }
 
         // 3DES 키를 세 부분으로 나누기
-        CK_OBJECT_HANDLE key1 = generateDESKey(session, Arrays.copyOfRange(key, 0, 8));
-        CK_OBJECT_HANDLE key2 = generateDESKey(session, Arrays.copyOfRange(key, 8, 16));
-        CK_OBJECT_HANDLE key3 = generateDESKey(session, Arrays.copyOfRange(key, 16, 24));
+        CK_SESSION_HANDLE session = getSessionHandle();
+        CK_OBJECT_HANDLE key1 = generateDESKey(session, Arrays.copyOfRange(plainKey, 0, 8));
+        CK_OBJECT_HANDLE key2 = generateDESKey(session, Arrays.copyOfRange(plainKey, 8, 16));
+        CK_OBJECT_HANDLE key3 = generateDESKey(session, Arrays.copyOfRange(plainKey, 16, 24));
+        Arrays.fill(plainKey, (byte) 0);
+
+        return desComponentKeyCache.put(keyLabel, kcv, key1, key2, key3, session);
+    }
+
+    private byte[] calculate3DESCBCMAC(CK_SESSION_HANDLE session, CK_OBJECT_HANDLE key1, CK_OBJECT_HANDLE key2, CK_OBJECT_HANDLE key3, byte[] data) throws Exception {
+        long start = System.nanoTime();
+        byte[] mac = HSM_INFO.CBC_MAC_SINGLE_PASS
+                ? calculateIso9797Alg3Mac(session, key1, key2, key3, data)
+                : calculate3DESCBCMACPerBlock(session, key1, key2, key3, data);
+        HsmMetrics.record("pkcs11.cbcMac", start);
+        return mac;
+    }
+
+    /**
+     * ISO 9797-1 MAC 알고리즘 3 (Retail MAC) * 블록 단위 계산과 결과 동일
+     * <p> key1 DES-CBC 는 C_EncryptUpdate 스트림으로 한 번에 처리하고, 마지막 블록만 key2 복호화 / key3 암호화
+     * <p> 데이터 길이와 관계없이 HSM 호출 수가 거의 일정함 (블록마다 C_EncryptInit/C_Encrypt 호출하지 않음)
+     */
+    public static byte[] calculateIso9797Alg3Mac(CK_SESSION_HANDLE session, CK_OBJECT_HANDLE key1, CK_OBJECT_HANDLE key2, CK_OBJECT_HANDLE key3, byte[] data) throws CKR_Exception {
+        final int blockSize = 8;
+        CK_MECHANISM mechanism = new CK_MECHANISM(CKM.DES_CBC, new byte[8]);
+
+        // 0으로 패딩된 전체 블록 길이
+        int paddedLength = ((data.length + blockSize - 1) / blockSize) * blockSize;
+        if (paddedLength == 0) {
+            return new byte[blockSize];
+        }
+        byte[] padded = paddedLength == data.length ? data : Arrays.copyOf(data, paddedLength);
+
+        // 1단계: key1 CBC 암호화, 마지막 암호 블록만 보관
+        int chunkSize = Math.min(paddedLength, HSM_INFO.CBC_MAC_UPDATE_CHUNK_SIZE);
+        byte[] encryptedChunk = new byte[chunkSize];
+        byte[] stage1 = new byte[blockSize];
+
+        CryptokiEx.C_EncryptInit(session, mechanism, key1);
+        for (int offset = 0; offset < paddedLength; offset += chunkSize) {
+            int length = Math.min(chunkSize, paddedLength - offset);
+            byte[] chunk = (offset == 0 && length == paddedLength) ? padded : Arrays.copyOfRange(padded, offset, offset + length);
+
+            LongRef encryptedLength = new LongRef(encryptedChunk.length);
+            CryptokiEx.C_EncryptUpdate(session, chunk, length, encryptedChunk, encryptedLength);
+            if (encryptedLength.value >= blockSize) {
+                System.arraycopy(encryptedChunk, (int) encryptedLength.value - blockSize, stage1, 0, blockSize);
+            }
+        }
+        byte[] finalBlock = new byte[blockSize];
+        LongRef finalLength = new LongRef(finalBlock.length);
+        CryptokiEx.C_EncryptFinal(session, finalBlock, finalLength);
+        if (finalLength.value == blockSize) {
+            stage1 = finalBlock;
+        }
+
+        // 2단계: 마지막 블록 key2 복호화
+        byte[] stage2 = new byte[blockSize];
+        LongRef stage2Length = new LongRef(blockSize);
+        CryptokiEx.C_DecryptInit(session, mechanism, key2);
+        CryptokiEx.C_Decrypt(session, stage1, stage1.length, stage2, stage2Length);
+
+        // 3단계: key3 암호화
+        byte[] mac = new byte[blockSize];
+        LongRef macLength = new LongRef(blockSize);
+        CryptokiEx.C_EncryptInit(session, mechanism, key3);
+        CryptokiEx.C_Encrypt(session, stage2, stage2.length, mac, macLength);
+
+        return mac;
+    }
+
+    private byte[] calculate3DESCBCMACPerBlock(CK_SESSION_HANDLE session, CK_OBJECT_HANDLE key1, CK_OBJECT_HANDLE key2, CK_OBJECT_HANDLE key3, byte[] data) throws Exception {
+        CK_MECHANISM mechanism = new CK_MECHANISM(CKM.DES_CBC, new byte[8]);
 
         byte[] previousBlock = new byte[8]; // 0으로 초기화된 블록
         int blockSize = 8;
@@ -548,7 +722,11 @@ public class HsmService {
 
             // 키 복사 실행
             CK_OBJECT_HANDLE hNewKey = new CK_OBJECT_HANDLE();
-            CryptokiEx.C_CopyObject(session, hOriginalKey, newTemplate, newTemplate.length, hNewKey);
+            keyHandleCache.invalidate(newKeyLabel);
+            desComponentKeyCache.invalidate(newKeyLabel, getSessionHandle());
+            long start = System.nanoTime();
+            CryptokiEx.C_CopyObject(getSessionHandle(), hOriginalKey, newTemplate, newTemplate.length, hNewKey);
+            HsmMetrics.record("pkcs11.copyObject", start);
 
             Logger.log("INFO", "Key copied from " + originalKeyLabel + " to " + newKeyLabel + ". New key handle: " + hNewKey.longValue());
 
@@ -587,9 +765,13 @@ public class HsmService {
 
             // 2. 키 주입
             CK_OBJECT_HANDLE hPrivateKey = new CK_OBJECT_HANDLE();
-            CryptokiEx.C_CreateObject(session, privateKeyTemplate, privateKeyTemplate.length, hPrivateKey);
+            keyHandleCache.invalidate(keyLabel);
+            desComponentKeyCache.invalidate(keyLabel, getSessionHandle());
+            long start = System.nanoTime();
+            CryptokiEx.C_CreateObject(getSessionHandle(), privateKeyTemplate, privateKeyTemplate.length, hPrivateKey);
+            HsmMetrics.record("pkcs11.createObject", start);
 
-            System.out.println("개인 키가 HSM에 성공적으로 주입되었습니다. 키 핸들: " + hPrivateKey.longValue());
+            Logger.log("INFO", "개인 키가 HSM에 성공적으로 주입되었습니다. 키 핸들: " + hPrivateKey.longValue());
 
         } catch (CKR_Exception e) {
             System.err.println("키 주입 중 에러 발생: " + e.getMessage());
@@ -717,7 +899,7 @@ public class HsmService {
 
         // DB의 KCV와 비교
         if (bytesToHex(calculatedKCV).equals(dbKCV)) {
-            Logger.log("INFO", "KCV matches for key (" + makeLabel(keyGenType, serialNum, etcsId) + ")");
+            Logger.debug(() -> "KCV matches for key (" + makeLabel(keyGenType, serialNum, etcsId) + ")");
             return true;
         } else {
             Logger.log("ERROR", "KCV mismatch for key (" + makeLabel(keyGenType, serialNum, etcsId) + ")");
@@ -757,21 +939,6 @@ public class HsmService {
 
     }
 
-    public String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02X", b));
-        }
-        return sb.toString();
-    }
-
-    public String makeLabel(String keyGenType, int keySerial, int myEtcsType) {
-        String op = "#";
-        String formedLabel = keyGenType + op + keySerial + op + myEtcsType;
-        //System.out.println("formed_label: " + formedLabel);
-        return formedLabel;
-    }
-
     public static long makeSerial() {
         // 1. 현재 시간을 밀리초로 가져옴.
         long uid = new Date().getTime();
@@ -781,22 +948,38 @@ public class HsmService {
 
         // 3. 16진수 문자열의 3번째부터 10번째 문자까지 자름.
         String slicedHex = hex.substring(2, 10);
-        System.out.println("hex.substring(2,10) : " + slicedHex);
+        Logger.debug("hex.substring(2,10) : {}", slicedHex);
 
         // 4. 잘라낸 문자열을 16진수로 해석하고 10진수로 변환.
         long result = Long.parseLong(slicedHex, 16);
-        System.out.println("Long.parseLong(slicedHex, 16) : " + result);
+        Logger.debug("Long.parseLong(slicedHex, 16) : {}", result);
 
         // 5. 결과 반환.
         return result;
     }
 
+    public KeyHandleCache getKeyHandleCache() {
+        return keyHandleCache;
+    }
+
+    public DesComponentKeyCache getDesComponentKeyCache() {
+        return desComponentKeyCache;
+    }
+
+    public boolean requiresSession() {
+        return true;
+    }
+
     public CK_SESSION_HANDLE getSessionHandle() {
-        return session;
+        return session.get();
     }
 
     public void setSessionHandle(CK_SESSION_HANDLE session) {
-        this.session = session;
+        if (session == null) {
+            this.session.remove();
+        } else {
+            this.session.set(session);
+        }
     }
 
     private static byte[] xor(byte[] a, byte[] b) {
@@ -0,0 +1,205 @@
+package com.nb.kms.hsm;
+
+import safenet.jcprov.*;
+import safenet.jcprov.constants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PKCS#11 세션 풀
+ * <p> 기동 시 poolSize 만큼 RW 세션을 열고 로그인해 두고, 워커 스레드는 작업마다 세션을 대여/반납한다.
+ * <p> 대여 시 C_GetSessionInfo 로 세션 상태를 확인하고, 비정상 세션은 닫은 뒤 새 세션으로 교체한다.
+ */
+public class HsmSessionPool {
+
+    private final long slotId;
+    private final String password;
+    private final int poolSize;
+
+    private final BlockingQueue<CK_SESSION_HANDLE> idleSessions;
+    private final List<CK_SESSION_HANDLE> allSessions = new ArrayList<>();
+
+    private final AtomicInteger state = new AtomicInteger(0); // 0: closed, 1: opened
+
+    public HsmSessionPool(long slotId, String password, int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Invalid session pool size: " + poolSize);
+        }
+        this.slotId = slotId;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.idleSessions = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Cryptoki 초기화 후 poolSize 만큼 세션을 열고 로그인
+     */
+    public synchronized boolean open() {
+        if (!state.compareAndSet(0, 1)) {
+            Logger.log("INFO", "Session pool is already opened");
+            return true;
+        }
+
+        try {
+            CryptokiEx.C_Initialize(new CK_C_INITIALIZE_ARGS(CKF.OS_LOCKING_OK));
+            for (int i = 0; i < poolSize; i++) {
+                CK_SESSION_HANDLE session = openSession();
+                allSessions.add(session);
+                idleSessions.add(session);
+            }
+            Logger.log("INFO", "Session pool opened for slot " + slotId + " (size " + poolSize + ")");
+            return true;
+        } catch (CKR_Exception e) {
+            Logger.error("Error opening session pool", e);
+            closeAll();
+            state.set(0); // 초기화 실패시 상태를 복원
+            return false;
+        }
+    }
+
+    /**
+     * 세션 대여 * 사용 후 반드시 {@link #release(CK_SESSION_HANDLE)} 로 반납
+     * @param timeoutMs 대기 시간 (ms)
+     * @return 로그인된 세션, 시간 내에 대여하지 못하면 null
+     */
+    public CK_SESSION_HANDLE borrow(long timeoutMs) throws InterruptedException {
+        if (state.get() != 1) {
+            Logger.error("Session pool is not opened");
+            return null;
+        }
+
+        CK_SESSION_HANDLE session = idleSessions.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (session == null) {
+            Logger.error("Timed out waiting for HSM session (" + timeoutMs + "ms)");
+            return null;
+        }
+
+        if (isHealthy(session)) {
+            return session;
+        }
+
+        // 비정상 세션 교체
+        Logger.log("ERROR", "HSM session " + session.longValue() + " is invalid, reopening");
+        CK_SESSION_HANDLE replaced = replaceSession(session);
+        if (replaced == null) {
+            idleSessions.offer(session); // 교체 실패 시 슬롯을 잃지 않도록 되돌려 놓음
+        }
+        return replaced;
+    }
+
+    /**
+     * 대여한 세션 반납
+     */
+    public void release(CK_SESSION_HANDLE session) {
+        if (session == null) {
+            return;
+        }
+        if (state.get() != 1) {
+            return;
+        }
+        if (!idleSessions.offer(session)) {
+            Logger.error("Session pool is full, dropping session " + session.longValue());
+        }
+    }
+
+    /**
+     * 모든 세션 로그아웃 및 종료, Cryptoki 종료
+     */
+    public synchronized void close() {
+        if (state.compareAndSet(1, 0)) {
+            closeAll();
+            try {
+                Cryptoki.C_Finalize(null);
+            } catch (CKR_Exception ex) {
+                Logger.error("Error finalizing cryptoki", ex);
+            }
+            Logger.log("INFO", "Session pool closed");
+        }
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getIdleCount() {
+        return idleSessions.size();
+    }
+
+    private CK_SESSION_HANDLE openSession() throws CKR_Exception {
+        CK_SESSION_HANDLE session = new CK_SESSION_HANDLE();
+        CryptokiEx.C_OpenSession(slotId, CKF.RW_SESSION | CKF.SERIAL_SESSION, null, null, session);
+        login(session);
+        return session;
+    }
+
+    // 로그인 상태는 토큰 단위로 공유되므로 두 번째 세션부터는 USER_ALREADY_LOGGED_IN 이 정상
+    private void login(CK_SESSION_HANDLE session) throws CKR_Exception {
+        if (password == null || password.isEmpty()) {
+            return;
+        }
+        try {
+            CryptokiEx.C_Login(session, CKU.USER, password.getBytes(), password.length());
+        } catch (CKR_Exception e) {
+            if (!CKR.USER_ALREADY_LOGGED_IN.equals(e.ckrv)) {
+                throw e;
+            }
+        }
+    }
+
+    private boolean isHealthy(CK_SESSION_HANDLE session) {
+        try {
+            CK_SESSION_INFO sessionInfo = new CK_SESSION_INFO();
+            CryptokiEx.C_GetSessionInfo(session, sessionInfo);
+
+            if ((sessionInfo.flags & CKF.RW_SESSION) == 0) {
+                return false;
+            }
+            if (password != null && !password.isEmpty()) {
+                return CKS.RW_USER_FUNCTIONS.equals(sessionInfo.state);
+            }
+            return true;
+        } catch (CKR_Exception e) {
+            return false;
+        }
+    }
+
+    private synchronized CK_SESSION_HANDLE replaceSession(CK_SESSION_HANDLE session) {
+        try {
+            Cryptoki.C_CloseSession(session);
+        } catch (CKR_Exception ignored) {
+            // 이미 무효화된 세션
+        }
+
+        try {
+            CK_SESSION_HANDLE newSession = openSession();
+            allSessions.remove(session);
+            allSessions.add(newSession);
+            return newSession;
+        } catch (CKR_Exception e) {
+            Logger.error("Error reopening HSM session", e);
+            return null;
+        }
+    }
+
+    private void closeAll() {
+        idleSessions.clear();
+        boolean loggedOut = false;
+        for (CK_SESSION_HANDLE session : allSessions) {
+            try {
+                if (!loggedOut && password != null && !password.isEmpty()) {
+                    Cryptoki.C_Logout(session);
+                    loggedOut = true;
+                }
+                Cryptoki.C_CloseSession(session);
+            } catch (CKR_Exception ex) {
+                Logger.error("Error closing session", ex);
+            }
+        }
+        allSessions.clear();
+    }
+}
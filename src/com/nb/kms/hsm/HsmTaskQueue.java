@@ -0,0 +1,392 @@
+package com.nb.kms.hsm;
+
+import com.nb.kms.hsm.EventMsg.*;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 크기 제한 + 우선순위 작업 큐
+ * <p> HIGH(CBC-MAC/KCV/상태) > NORMAL(조회/암복호화/복사/삭제/주입) > LOW(키 생성/일괄 KCV) 순서로 꺼냄
+ * <p> 전체 용량을 넘으면 {@link #offer(HsmMsg)} 가 false 를 반환 (수신 측에서 busy 응답)
+ * <p> LOW 는 별도 상한을 두어 대량 키 생성 요청이 큐를 독점하지 못하게 하고, GET_STATUS 는 용량과 관계없이 항상 허용
+ * <p> 작업 종류별 대기 시간과 우선순위별 큐 길이를 집계
+ */
+public class HsmTaskQueue extends AbstractQueue<HsmMsg> implements BlockingQueue<HsmMsg> {
+
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_LOW = 2;
+    private static final String[] PRIORITY_NAMES = {"HIGH", "NORMAL", "LOW"};
+
+    /* 큐가 가득 찼을 때 클라이언트로 보내는 응답 */
+    public static final String BUSY_RESPONSE = "HSM busy, request rejected.";
+
+    private static class Entry {
+        private final HsmMsg msg;
+        private final long enqueuedAt;
+
+        private Entry(HsmMsg msg) {
+            this.msg = msg;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * 작업 종류별 집계
+     */
+    public static class OperationStats {
+        private final AtomicLong admitted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong dequeued = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        public long getAdmitted() {
+            return admitted.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        public long getDequeued() {
+            return dequeued.get();
+        }
+
+        public double getAverageWaitMillis() {
+            long count = dequeued.get();
+            return count == 0 ? 0 : totalWaitNanos.get() / (count * 1_000_000.0);
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos.get() / 1_000_000.0;
+        }
+
+        private void recordWait(long waitNanos) {
+            dequeued.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("admitted=%d rejected=%d avgWait=%.2fms maxWait=%.2fms",
+                    admitted.get(), rejected.get(), getAverageWaitMillis(), getMaxWaitMillis());
+        }
+    }
+
+    private final int capacity;
+    private final int lowPriorityLimit;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<Entry>[] queues = new ArrayDeque[PRIORITY_NAMES.length];
+    private int count = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final Map<Integer, OperationStats> stats = new ConcurrentHashMap<>();
+
+    public HsmTaskQueue(int capacity, int lowPriorityLimit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid task queue capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.lowPriorityLimit = Math.min(lowPriorityLimit, capacity);
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * 작업 종류별 우선순위
+     */
+    public static int priorityOf(int operation) {
+        switch (operation) {
+            case HSM_MSG_TYPE.CALCULATE_CBC:
+            case HSM_MSG_TYPE.GET_KCV:
+            case HSM_MSG_TYPE.GET_STATUS:
+                return PRIORITY_HIGH;
+            case HSM_MSG_TYPE.GENERATE_KEY:
+            case HSM_MSG_TYPE.BATCH_KCV:
+                return PRIORITY_LOW;
+            default:
+                return PRIORITY_NORMAL;
+        }
+    }
+
+    /**
+     * 용량 안에서만 작업 추가
+     * @return 추가 성공여부 (false 면 busy)
+     */
+    @Override
+    public boolean offer(HsmMsg msg) {
+        if (msg == null) {
+            throw new NullPointerException();
+        }
+        OperationStats opStats = statsOf(msg.getOperation());
+        lock.lock();
+        try {
+            if (!isAdmissible(msg)) {
+                opStats.rejected.incrementAndGet();
+                return false;
+            }
+            enqueue(msg);
+            opStats.admitted.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(HsmMsg msg, long timeout, TimeUnit unit) throws InterruptedException {
+        if (msg == null) {
+            throw new NullPointerException();
+        }
+        long nanos = unit.toNanos(timeout);
+        OperationStats opStats = statsOf(msg.getOperation());
+        lock.lockInterruptibly();
+        try {
+            while (!isAdmissible(msg)) {
+                if (nanos <= 0) {
+                    opStats.rejected.incrementAndGet();
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(msg);
+            opStats.admitted.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 용량이 생길 때까지 대기 후 추가 (내부 작업 등록용)
+     */
+    @Override
+    public void put(HsmMsg msg) throws InterruptedException {
+        if (msg == null) {
+            throw new NullPointerException();
+        }
+        lock.lockInterruptibly();
+        try {
+            while (!isAdmissible(msg)) {
+                notFull.await();
+            }
+            enqueue(msg);
+            statsOf(msg.getOperation()).admitted.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public HsmMsg take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public HsmMsg poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public HsmMsg poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public HsmMsg peek() {
+        lock.lock();
+        try {
+            for (ArrayDeque<Entry> queue : queues) {
+                Entry entry = queue.peek();
+                if (entry != null) {
+                    return entry.msg;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return Math.max(0, capacity - count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 우선순위별 현재 큐 길이
+     */
+    public int depth(int priority) {
+        lock.lock();
+        try {
+            return queues[priority].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super HsmMsg> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super HsmMsg> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            int n = 0;
+            while (n < maxElements && count > 0) {
+                c.add(dequeue());
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 현재 큐 내용의 스냅샷 (우선순위 순서, 제거 미지원)
+     */
+    @Override
+    public Iterator<HsmMsg> iterator() {
+        lock.lock();
+        try {
+            List<HsmMsg> snapshot = new ArrayList<>(count);
+            for (ArrayDeque<Entry> queue : queues) {
+                for (Entry entry : queue) {
+                    snapshot.add(entry.msg);
+                }
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public OperationStats getStats(int operation) {
+        return statsOf(operation);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // lock 보유 상태에서 호출
+    private boolean isAdmissible(HsmMsg msg) {
+        if (msg.getOperation() == HSM_MSG_TYPE.GET_STATUS) {
+            return true;
+        }
+        if (count >= capacity) {
+            return false;
+        }
+        return priorityOf(msg.getOperation()) != PRIORITY_LOW || queues[PRIORITY_LOW].size() < lowPriorityLimit;
+    }
+
+    private void enqueue(HsmMsg msg) {
+        queues[priorityOf(msg.getOperation())].add(new Entry(msg));
+        count++;
+        notEmpty.signal();
+    }
+
+    private HsmMsg dequeue() {
+        for (ArrayDeque<Entry> queue : queues) {
+            Entry entry = queue.poll();
+            if (entry != null) {
+                count--;
+                notFull.signalAll();
+                long waitNanos = System.nanoTime() - entry.enqueuedAt;
+                statsOf(entry.msg.getOperation()).recordWait(waitNanos);
+                HsmMetrics.record(entry.msg.getOperation(), "queueWait", waitNanos);
+                return entry.msg;
+            }
+        }
+        return null;
+    }
+
+    private OperationStats statsOf(int operation) {
+        return stats.computeIfAbsent(operation, op -> new OperationStats());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("HsmTaskQueue{depth=");
+        lock.lock();
+        try {
+            sb.append(count).append('/').append(capacity);
+            for (int i = 0; i < queues.length; i++) {
+                sb.append(", ").append(PRIORITY_NAMES[i]).append('=').append(queues[i].size());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<Integer, OperationStats> e : new TreeMap<>(stats).entrySet()) {
+            sb.append(", op").append(e.getKey()).append("={").append(e.getValue()).append('}');
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,399 @@
+package com.nb.kms.hsm;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HsmMsg / 처리 결과용 길이 prefix 바이너리 인코딩
+ * <p> 연결 시작 시 클라이언트가 {@link #PREAMBLE} 을 한 번 보내고, 이후 [int length][body] 프레임을 반복
+ * <p> BATCH_KCV 응답(KcvBatchResult)도 같은 프레임 형식으로 전송
+ * <p> Java 직렬화 스트림은 0xACED 로 시작하므로 첫 4바이트로 형식을 구분할 수 있음
+ * <p> 인코딩/디코딩 버퍼를 재사용하므로 인스턴스는 스레드 간 공유하지 않음 (연결 방향당 1개)
+ *
+ * <pre>
+ * request  : type(1) correlationId(8) operation(4) hasHeader(1) [senderId(1) address(str) port(4)]
+ *            keyType(4) keyGenType(str) etcsId(4) serialNum(4) newSerialNum(4) newEtcsId(4)
+ *            expirationDate(str) data(bytes) keyCount(4) [keyType(4) keyGenType(str) serialNum(4) etcsId(4)]...
+ * response : type(1) correlationId(8) resultType(1) result
+ * str      : unsigned short 길이 + UTF-8 (0xFFFF = null)
+ * bytes    : int 길이 + 데이터 (-1 = null)
+ * </pre>
+ */
+public class HsmWireCodec {
+
+    /* 바이너리 형식 연결 식별자 ("HSM" + 버전) */
+    public static final byte[] PREAMBLE = {'H', 'S', 'M', 1};
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private static final byte FRAME_REQUEST = 1;
+    private static final byte FRAME_RESPONSE = 2;
+
+    private static final byte RESULT_NULL = 0;
+    private static final byte RESULT_BYTES = 1;
+    private static final byte RESULT_STRING = 2;
+    private static final byte RESULT_STATUS = 3;
+    private static final byte RESULT_KCV_BATCH = 4;
+
+    private static final int NULL_STRING = 0xFFFF;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    /* 연결마다 계속 들고 있을 최대 버퍼 크기 (이보다 큰 프레임은 그 프레임에만 버퍼를 할당하고 버림) */
+    private static final int RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private byte[] readBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private ByteBuffer readView = ByteBuffer.wrap(readBuffer);
+
+    /**
+     * @return 첫 4바이트가 바이너리 형식 PREAMBLE 인지 여부
+     */
+    public static boolean isPreamble(byte[] head, int length) {
+        return length == PREAMBLE.length && Arrays.equals(head, 0, length, PREAMBLE, 0, PREAMBLE.length);
+    }
+
+    public static void writePreamble(OutputStream out) throws IOException {
+        out.write(PREAMBLE);
+    }
+
+    /**
+     * 요청 프레임 인코딩 * 반환된 버퍼는 다음 encode 호출 전까지만 유효
+     */
+    public ByteBuffer encodeMsg(HsmMsg msg) {
+        beginFrame(FRAME_REQUEST, msg.getCorrelationId());
+        putInt(msg.getOperation());
+
+        HsmMsg.hsmMsgHeader header = msg.getHeader();
+        if (header != null) {
+            putByte((byte) 1);
+            putByte(header.getSenderId());
+            putString(header.getAddress());
+            putInt(header.getPort());
+        } else {
+            putByte((byte) 0);
+        }
+
+        putInt(msg.getKeyType());
+        putString(msg.getKeyGenType());
+        putInt(msg.getEtcsId());
+        putInt(msg.getSerialNum());
+        putInt(msg.getNewSerialNum());
+        putInt(msg.getNewEtcsId());
+        putString(msg.getExpirationDate());
+        putBytes(msg.getData());
+
+        List<KeyRef> keys = msg.getKeys();
+        if (keys == null) {
+            putInt(-1);
+        } else {
+            putInt(keys.size());
+            for (KeyRef key : keys) {
+                putInt(key.getKeyType());
+                putString(key.getKeyGenType());
+                putInt(key.getSerialNum());
+                putInt(key.getEtcsId());
+            }
+        }
+        return endFrame();
+    }
+
+    /**
+     * 응답 프레임 인코딩 * 결과는 byte[], String, HsmStatus, KcvBatchResult 만 지원
+     */
+    public ByteBuffer encodeResponse(long correlationId, Object result) {
+        beginFrame(FRAME_RESPONSE, correlationId);
+        if (result == null) {
+            putByte(RESULT_NULL);
+        } else if (result instanceof byte[]) {
+            putByte(RESULT_BYTES);
+            putBytes((byte[]) result);
+        } else if (result instanceof String) {
+            putByte(RESULT_STRING);
+            putString((String) result);
+        } else if (result instanceof HsmStatus) {
+            HsmStatus status = (HsmStatus) result;
+            putByte(RESULT_STATUS);
+            putString(status.getHsmState());
+            putString(status.getNetworkStatus());
+        } else if (result instanceof KcvBatchResult) {
+            KcvBatchResult batch = (KcvBatchResult) result;
+            putByte(RESULT_KCV_BATCH);
+            putInt(batch.getOffset());
+            putInt(batch.getTotal());
+            putByte((byte) (batch.isLast() ? 1 : 0));
+            putInt(batch.getResults().size());
+            for (KcvCheckResult check : batch.getResults()) {
+                putString(check.getKeyLabel());
+                putByte((byte) check.getStatus());
+                putString(check.getHsmKcv());
+                putString(check.getDbKcv());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported result type: " + result.getClass().getName());
+        }
+        return endFrame();
+    }
+
+    public void writeMsg(OutputStream out, HsmMsg msg) throws IOException {
+        ByteBuffer frame = encodeMsg(msg);
+        out.write(frame.array(), 0, frame.limit());
+        shrinkWriteBuffer();
+    }
+
+    public void writeResponse(OutputStream out, long correlationId, Object result) throws IOException {
+        ByteBuffer frame = encodeResponse(correlationId, result);
+        out.write(frame.array(), 0, frame.limit());
+        shrinkWriteBuffer();
+    }
+
+    // 큰 프레임(일괄 KCV 결과 등)을 쓴 뒤 늘어난 버퍼를 연결이 끝날 때까지 들고 있지 않도록 되돌림
+    private void shrinkWriteBuffer() {
+        if (writeBuffer.capacity() > RETAINED_BUFFER_SIZE) {
+            writeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * 요청 프레임 1개 수신
+     * @throws EOFException 프레임 경계에서 연결이 종료된 경우
+     */
+    public HsmMsg readMsg(InputStream in) throws IOException {
+        return decodeMsg(readFrame(in));
+    }
+
+    public HsmResponse readResponse(InputStream in) throws IOException {
+        return decodeResponse(readFrame(in));
+    }
+
+    /**
+     * @param frame 길이 필드를 제외한 프레임 본문
+     */
+    public HsmMsg decodeMsg(ByteBuffer frame) throws IOException {
+        try {
+            checkType(frame, FRAME_REQUEST);
+            long correlationId = frame.getLong();
+            int operation = frame.getInt();
+
+            HsmMsg.hsmMsgHeader header = null;
+            if (frame.get() != 0) {
+                byte senderId = frame.get();
+                String address = getString(frame);
+                int port = frame.getInt();
+                header = new HsmMsg.hsmMsgHeader(senderId, address, port);
+            }
+
+            HsmMsg msg = new HsmMsg(header, operation);
+            msg.setCorrelationId(correlationId);
+            msg.setKeyType(frame.getInt());
+            msg.setKeyGenType(getString(frame));
+            msg.setEtcsId(frame.getInt());
+            msg.setSerialNum(frame.getInt());
+            msg.setNewSerialNum(frame.getInt());
+            msg.setNewEtcsId(frame.getInt());
+            msg.setExpirationDate(getString(frame));
+            msg.setData(getBytes(frame));
+
+            int keyCount = frame.getInt();
+            if (keyCount >= 0) {
+                List<KeyRef> keys = new ArrayList<>(Math.min(keyCount, frame.remaining()));
+                for (int i = 0; i < keyCount; i++) {
+                    keys.add(new KeyRef(frame.getInt(), getString(frame), frame.getInt(), frame.getInt()));
+                }
+                msg.setKeys(keys);
+            }
+            return msg;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated request frame", e);
+        }
+    }
+
+    public HsmResponse decodeResponse(ByteBuffer frame) throws IOException {
+        try {
+            checkType(frame, FRAME_RESPONSE);
+            long correlationId = frame.getLong();
+            byte resultType = frame.get();
+
+            Object result;
+            switch (resultType) {
+                case RESULT_NULL:
+                    result = null;
+                    break;
+                case RESULT_BYTES:
+                    result = getBytes(frame);
+                    break;
+                case RESULT_STRING:
+                    result = getString(frame);
+                    break;
+                case RESULT_STATUS:
+                    result = new HsmStatus(getString(frame), getString(frame));
+                    break;
+                case RESULT_KCV_BATCH:
+                    result = decodeKcvBatch(frame);
+                    break;
+                default:
+                    throw new IOException("Unknown result type: " + resultType);
+            }
+            return new HsmResponse(correlationId, result);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated response frame", e);
+        }
+    }
+
+    private static KcvBatchResult decodeKcvBatch(ByteBuffer frame) throws IOException {
+        int offset = frame.getInt();
+        int total = frame.getInt();
+        boolean last = frame.get() != 0;
+        int count = frame.getInt();
+        List<KcvCheckResult> results = new ArrayList<>(Math.min(Math.max(count, 0), frame.remaining()));
+        for (int i = 0; i < count; i++) {
+            results.add(new KcvCheckResult(getString(frame), frame.get(), getString(frame), getString(frame)));
+        }
+        return new KcvBatchResult(offset, total, last, results);
+    }
+
+    // 길이 필드를 읽고 본문을 재사용 버퍼로 수신
+    private ByteBuffer readFrame(InputStream in) throws IOException {
+        int b0 = in.read();
+        if (b0 < 0) {
+            throw new EOFException();
+        }
+        int length = (b0 << 24) | (readByte(in) << 16) | (readByte(in) << 8) | readByte(in);
+        if (length <= 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+
+        // RETAINED_BUFFER_SIZE 를 넘는 프레임은 이번 프레임용 버퍼에 받아 디코딩 후 버림 (재사용 버퍼는 그 크기까지만 늘림)
+        byte[] buffer;
+        ByteBuffer view;
+        if (length > RETAINED_BUFFER_SIZE) {
+            buffer = new byte[length];
+            view = ByteBuffer.wrap(buffer);
+        } else {
+            if (readBuffer.length < length) {
+                readBuffer = new byte[Math.min(Math.max(length, readBuffer.length * 2), RETAINED_BUFFER_SIZE)];
+                readView = ByteBuffer.wrap(readBuffer);
+            }
+            buffer = readBuffer;
+            view = readView;
+        }
+        int offset = 0;
+        while (offset < length) {
+            int n = in.read(buffer, offset, length - offset);
+            if (n < 0) {
+                throw new EOFException("Connection closed in the middle of a frame");
+            }
+            offset += n;
+        }
+        view.clear();
+        view.limit(length);
+        return view;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Connection closed in the middle of a frame");
+        }
+        return b;
+    }
+
+    private static void checkType(ByteBuffer frame, byte expected) throws IOException {
+        byte type = frame.get();
+        if (type != expected) {
+            throw new IOException("Unexpected frame type: " + type);
+        }
+    }
+
+    // 길이 필드가 프레임 남은 크기를 넘으면 잘못된 프레임
+    private static String getString(ByteBuffer frame) throws IOException {
+        int length = frame.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length > frame.remaining()) {
+            throw new IOException("Invalid string length: " + length + " (remaining " + frame.remaining() + ")");
+        }
+        String value = new String(frame.array(), frame.arrayOffset() + frame.position(), length, StandardCharsets.UTF_8);
+        frame.position(frame.position() + length);
+        return value;
+    }
+
+    private static byte[] getBytes(ByteBuffer frame) throws IOException {
+        int length = frame.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > frame.remaining()) {
+            throw new IOException("Invalid byte array length: " + length + " (remaining " + frame.remaining() + ")");
+        }
+        byte[] value = new byte[length];
+        frame.get(value);
+        return value;
+    }
+
+    private void beginFrame(byte type, long correlationId) {
+        writeBuffer.clear();
+        writeBuffer.putInt(0); // 길이는 endFrame 에서 기록
+        writeBuffer.put(type);
+        writeBuffer.putLong(correlationId);
+    }
+
+    private ByteBuffer endFrame() {
+        writeBuffer.putInt(0, writeBuffer.position() - 4);
+        writeBuffer.flip();
+        return writeBuffer;
+    }
+
+    private void putByte(byte value) {
+        ensureCapacity(1);
+        writeBuffer.put(value);
+    }
+
+    private void putInt(int value) {
+        ensureCapacity(4);
+        writeBuffer.putInt(value);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            ensureCapacity(2);
+            writeBuffer.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length >= NULL_STRING) {
+            throw new IllegalArgumentException("String too long: " + encoded.length + " bytes");
+        }
+        ensureCapacity(2 + encoded.length);
+        writeBuffer.putShort((short) encoded.length);
+        writeBuffer.put(encoded);
+    }
+
+    private void putBytes(byte[] value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        ensureCapacity(4 + value.length);
+        writeBuffer.putInt(value.length);
+        writeBuffer.put(value);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (writeBuffer.remaining() >= needed) {
+            return;
+        }
+        int capacity = Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + needed);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        writeBuffer.flip();
+        grown.put(writeBuffer);
+        writeBuffer = grown;
+    }
+}
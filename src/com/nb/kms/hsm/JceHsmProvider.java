@@ -0,0 +1,365 @@
+package com.nb.kms.hsm;
+
+import com.nb.kms.hsm.EventMsg.*;
+import safenet.jcprov.CK_SESSION_HANDLE;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HSM 없이 동작하는 소프트웨어 키 연산 구현 (부하 테스트용)
+ * <p> 키는 라벨 단위로 메모리에만 보관하고 연산은 JCE(SunJCE) 로 수행 * 결과 값(KCV, 3DES-CBC, ISO 9797-1 MAC 알고리즘 3)은 HsmService 와 같음
+ * <p> HSM 호출 한 번에 해당하는 연산마다 latencyMicros 만큼 대기하여 HSM 왕복 시간을 흉내냄
+ * <p> 주입한 대기 시간 합계를 집계하므로 전체 처리 시간 중 HSM 호출 비중과 자체 오버헤드를 나눠 볼 수 있음
+ */
+public class JceHsmProvider implements HsmProvider {
+
+    private static final int BLOCK_SIZE = 8;
+    private static final int DES3_KEY_SIZE = 24;
+    private static final int KCV_SIZE = 3;
+    private static final int RSA_KEY_BITS = 2048;
+
+    private static JceHsmProvider instance;
+
+    private static class StoredKey {
+        private final int keyType;
+        private final byte[] value;          // DES 계열 키 값
+        private final PrivateKey privateKey; // RSA 개인 키
+
+        private StoredKey(int keyType, byte[] value, PrivateKey privateKey) {
+            this.keyType = keyType;
+            this.value = value;
+            this.privateKey = privateKey;
+        }
+    }
+
+    private final Map<String, StoredKey> keys = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long latencyNanos;
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong injectedNanos = new AtomicLong();
+
+    /**
+     * @param latencyMicros HSM 호출 한 번마다 주입할 지연 시간 (us, 0 이면 대기 없음)
+     */
+    public JceHsmProvider(long latencyMicros) {
+        if (latencyMicros < 0) {
+            throw new IllegalArgumentException("Invalid latency: " + latencyMicros);
+        }
+        this.latencyNanos = latencyMicros * 1_000L;
+    }
+
+    public static synchronized JceHsmProvider getInstance() {
+        if (instance == null) {
+            instance = new JceHsmProvider(HSM_INFO.JCE_LATENCY_MICROS);
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean requiresSession() {
+        return false;
+    }
+
+    @Override
+    public void setSessionHandle(CK_SESSION_HANDLE session) {
+        // 세션 없이 동작
+    }
+
+    @Override
+    public void generateKey(int keyType, String keyGenType, int serialNum, int etcsId) {
+        String keyLabel = makeLabel(keyGenType, serialNum, etcsId);
+        hsmCall();
+        try {
+            switch (keyType) {
+                case HSM_KEY_TYPE.RSA_TYPE -> {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                    generator.initialize(RSA_KEY_BITS, random);
+                    keys.put(keyLabel, new StoredKey(keyType, null, generator.generateKeyPair().getPrivate()));
+                }
+                case HSM_KEY_TYPE.DES_TYPE -> keys.put(keyLabel, new StoredKey(keyType, randomDesKey(8), null));
+                case HSM_KEY_TYPE.DES2_TYPE -> keys.put(keyLabel, new StoredKey(keyType, randomDesKey(16), null));
+                case HSM_KEY_TYPE.DES3_TYPE -> keys.put(keyLabel, new StoredKey(keyType, randomDesKey(DES3_KEY_SIZE), null));
+                default -> {
+                    Logger.log("ERROR", "Invalid key type: " + keyType);
+                    return;
+                }
+            }
+            Logger.log("INFO", "Key (" + keyLabel + ") of type " + keyType + " generated.");
+        } catch (GeneralSecurityException ex) {
+            Logger.error("Error generating key", ex);
+        }
+    }
+
+    @Override
+    public void deleteKey(int keyType, String keyGenType, int serialNum, int etcsId) {
+        String keyLabel = makeLabel(keyGenType, serialNum, etcsId);
+        hsmCall();
+        if (findKey(keyType, keyLabel) != null) {
+            keys.remove(keyLabel);
+            Logger.log("INFO", "Key (" + keyLabel + ") of type " + keyType + " deleted.");
+        } else {
+            Logger.log("ERROR", "Key (" + keyLabel + ") of type " + keyType + " not found.");
+        }
+    }
+
+    @Override
+    public byte[] calculateKCV(int keyType, String keyGenType, int serialNum, int etcsId) {
+        String keyLabel = makeLabel(keyGenType, serialNum, etcsId);
+        StoredKey key = findKey(keyType, keyLabel);
+        if (key == null) {
+            Logger.log("ERROR", "Key (" + keyLabel + ") of type " + keyType + " not found.");
+            return null;
+        }
+        try {
+            return kcv(key);
+        } catch (GeneralSecurityException ex) {
+            Logger.error("Error calculating KCV", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public byte[][] calculateKCVs(List<KeyRef> keyRefs) {
+        byte[][] kcvs = new byte[keyRefs.size()][];
+        for (int i = 0; i < kcvs.length; i++) {
+            KeyRef keyRef = keyRefs.get(i);
+            String keyLabel = makeLabel(keyRef.getKeyGenType(), keyRef.getSerialNum(), keyRef.getEtcsId());
+            StoredKey key = findKey(keyRef.getKeyType(), keyLabel);
+            if (key == null) {
+                continue;
+            }
+            try {
+                kcvs[i] = kcv(key);
+            } catch (GeneralSecurityException ex) {
+                Logger.error("Error calculating KCV for key (" + keyLabel + ")", ex);
+            }
+        }
+        return kcvs;
+    }
+
+    @Override
+    public byte[] getPlainTextKey(int keyType, String keyGenType, int serialNum, int etcsId) {
+        String keyLabel = makeLabel(keyGenType, serialNum, etcsId);
+        StoredKey key = findKey(keyType, keyLabel);
+        if (key == null) {
+            Logger.log("ERROR", "Key (" + keyLabel + ") of type " + keyType + " not found.");
+            return null;
+        }
+        hsmCall();
+        if (key.value == null || key.value.length != DES3_KEY_SIZE) {
+            Logger.log("ERROR", "Key Length is not 24-byte !!!");
+            return null;
+        }
+        return key.value.clone();
+    }
+
+    @Override
+    public byte[] encryptDataWithKey(String keyGenType, int keySerial, int myEtcsID, byte[] data) {
+        return des3Cbc(Cipher.ENCRYPT_MODE, keyGenType, keySerial, myEtcsID, data);
+    }
+
+    @Override
+    public byte[] decryptDataWithKey(String keyGenType, int keySerial, int myEtcsID, byte[] encryptedData) {
+        return des3Cbc(Cipher.DECRYPT_MODE, keyGenType, keySerial, myEtcsID, encryptedData);
+    }
+
+    @Override
+    public byte[] calculateCBCMAC(String keyGenType, int keySerial, int myEtcsID, byte[] data) {
+        byte[] kcv = calculateKCV(HSM_KEY_TYPE.DES3_TYPE, keyGenType, keySerial, myEtcsID);
+        if (kcv == null) {
+            return null;
+        }
+        return calculateCBCMAC(keyGenType, keySerial, myEtcsID, data, kcv);
+    }
+
+    @Override
+    public byte[] calculateCBCMAC(String keyGenType, int keySerial, int myEtcsID, byte[] data, byte[] kcv) {
+        String keyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
+        StoredKey key = findKey(HSM_KEY_TYPE.DES3_TYPE, keyLabel);
+        if (key == null) {
+            Logger.log("ERROR", "Key (" + keyLabel + ") not found.");
+            return null;
+        }
+        hsmCall();
+        try {
+            return iso9797Alg3Mac(key.value, data);
+        } catch (GeneralSecurityException ex) {
+            Logger.error("Error calculating CBC-MAC", ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void copyKey(String keyGenType, int keySerial, int myEtcsID, int newKeySerial, int newEtcsType, String password) {
+        String originalKeyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
+        StoredKey original = findKey(HSM_KEY_TYPE.DES3_TYPE, originalKeyLabel);
+        if (original == null) {
+            Logger.error("Original key not found: " + originalKeyLabel);
+            return;
+        }
+        String newKeyLabel = makeLabel(keyGenType, newKeySerial, newEtcsType);
+        hsmCall();
+        keys.put(newKeyLabel, new StoredKey(original.keyType, original.value.clone(), null));
+        Logger.log("INFO", "Key copied from " + originalKeyLabel + " to " + newKeyLabel);
+    }
+
+    @Override
+    public void injectPrivateKey(int keyType, String keyGenType, int keySerial, int myEtcsID, byte[] privateKey) {
+        if (privateKey.length != DES3_KEY_SIZE) {
+            throw new IllegalArgumentException("Invalid key length: Key must be 24 bytes for 3DES.");
+        }
+        String keyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
+        hsmCall();
+        keys.put(keyLabel, new StoredKey(keyType, privateKey.clone(), null));
+        Logger.log("INFO", "Key (" + keyLabel + ") injected.");
+    }
+
+    @Override
+    public HsmStatus getHsmStatusAndNetworkState(String ip) {
+        hsmCall();
+        return new HsmStatus("NORMAL MODE", "Connected");
+    }
+
+    /**
+     * @return 주입한 HSM 호출 수
+     */
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    /**
+     * @return 주입한 지연 시간 합계 (ns, 실제 대기한 시간 기준)
+     */
+    public long getInjectedNanos() {
+        return injectedNanos.get();
+    }
+
+    public int getKeyCount() {
+        return keys.size();
+    }
+
+    // 키 타입이 다르면 HSM 검색과 같이 없는 키로 처리
+    private StoredKey findKey(int keyType, String keyLabel) {
+        StoredKey key = keys.get(keyLabel);
+        return key != null && key.keyType == keyType ? key : null;
+    }
+
+    // 0 블록 암호화 후 앞 3바이트 (RSA 는 개인 키로 PKCS#1 암호화)
+    private byte[] kcv(StoredKey key) throws GeneralSecurityException {
+        hsmCall();
+        byte[] zeroBlock = new byte[BLOCK_SIZE];
+        Cipher cipher;
+        switch (key.keyType) {
+            case HSM_KEY_TYPE.RSA_TYPE -> {
+                cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+                cipher.init(Cipher.ENCRYPT_MODE, key.privateKey);
+            }
+            case HSM_KEY_TYPE.DES_TYPE -> {
+                cipher = Cipher.getInstance("DES/ECB/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key.value, "DES"));
+            }
+            default -> {
+                cipher = Cipher.getInstance("DESede/ECB/NoPadding");
+                cipher.init(Cipher.ENCRYPT_MODE, des3Key(key.value));
+            }
+        }
+        return Arrays.copyOf(cipher.doFinal(zeroBlock), KCV_SIZE);
+    }
+
+    // HsmService 와 같이 24바이트 데이터만 IV 0 3DES-CBC 로 처리
+    private byte[] des3Cbc(int mode, String keyGenType, int keySerial, int myEtcsID, byte[] data) {
+        String keyLabel = makeLabel(keyGenType, keySerial, myEtcsID);
+        if (data == null || data.length != DES3_KEY_SIZE) {
+            Logger.error("Invalid data length: data must be 24 bytes for 3DES.");
+            return null;
+        }
+        StoredKey key = findKey(HSM_KEY_TYPE.DES3_TYPE, keyLabel);
+        if (key == null) {
+            Logger.log("ERROR", "Key (" + keyLabel + ") not found.");
+            return null;
+        }
+        hsmCall();
+        try {
+            Cipher cipher = Cipher.getInstance("DESede/CBC/NoPadding");
+            cipher.init(mode, des3Key(key.value), new IvParameterSpec(new byte[BLOCK_SIZE]));
+            return cipher.doFinal(data);
+        } catch (GeneralSecurityException ex) {
+            Logger.error("Error processing 3DES-CBC with key (" + keyLabel + ")", ex);
+            return null;
+        }
+    }
+
+    /**
+     * ISO 9797-1 MAC 알고리즘 3 * 0x00 패딩, K1 DES-CBC 후 마지막 블록만 K2 복호화 / K3 암호화
+     * <p> HsmService.calculateIso9797Alg3Mac 과 같이 빈 데이터는 0 블록 반환
+     */
+    private static byte[] iso9797Alg3Mac(byte[] key, byte[] data) throws GeneralSecurityException {
+        int paddedLength = ((data.length + BLOCK_SIZE - 1) / BLOCK_SIZE) * BLOCK_SIZE;
+        if (paddedLength == 0) {
+            return new byte[BLOCK_SIZE];
+        }
+        byte[] padded = paddedLength == data.length ? data : Arrays.copyOf(data, paddedLength);
+
+        Cipher cipher = Cipher.getInstance("DES/CBC/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, 0, 8, "DES"), new IvParameterSpec(new byte[BLOCK_SIZE]));
+        byte[] encrypted = cipher.doFinal(padded);
+        byte[] lastBlock = Arrays.copyOfRange(encrypted, paddedLength - BLOCK_SIZE, paddedLength);
+
+        Cipher ecb = Cipher.getInstance("DES/ECB/NoPadding");
+        ecb.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, 8, 8, "DES"));
+        byte[] stage2 = ecb.doFinal(lastBlock);
+        ecb.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, 16, 8, "DES"));
+        return ecb.doFinal(stage2);
+    }
+
+    // DES2(16바이트) 키는 K1|K2|K1 로 확장
+    private static SecretKeySpec des3Key(byte[] value) {
+        byte[] key = value;
+        if (value.length == 16) {
+            key = Arrays.copyOf(value, DES3_KEY_SIZE);
+            System.arraycopy(value, 0, key, 16, 8);
+        }
+        return new SecretKeySpec(key, "DESede");
+    }
+
+    // 홀수 패리티를 맞춘 DES 키 값
+    private byte[] randomDesKey(int length) {
+        byte[] value = new byte[length];
+        random.nextBytes(value);
+        for (int i = 0; i < value.length; i++) {
+            int b = value[i] & 0xFE;
+            value[i] = (byte) (b | ((Integer.bitCount(b) & 1) == 0 ? 1 : 0));
+        }
+        return value;
+    }
+
+    // HSM 호출 한 번에 해당하는 지연 시간 주입
+    private void hsmCall() {
+        callCount.incrementAndGet();
+        if (latencyNanos == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + latencyNanos;
+        long remaining = latencyNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        injectedNanos.addAndGet(System.nanoTime() - start);
+        HsmMetrics.record("jce.hsmCall", start);
+    }
+}
@@ -0,0 +1,52 @@
+package com.nb.kms.hsm;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 일괄 KCV 검증 응답 * 요청 키 목록을 나눠 처리한 구간마다 하나씩 전송
+ * <p> 마지막 구간은 last = true
+ */
+public class KcvBatchResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private int offset; /* 요청 목록 내 이 구간의 시작 위치 */
+    private int total;  /* 요청 키 전체 개수 */
+    private boolean last;
+    private List<KcvCheckResult> results;
+
+    public KcvBatchResult(int offset, int total, boolean last, List<KcvCheckResult> results) {
+        this.offset = offset;
+        this.total = total;
+        this.last = last;
+        this.results = results;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public List<KcvCheckResult> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        long matched = results.stream().filter(KcvCheckResult::isMatch).count();
+        return "KcvBatchResult{" +
+                "offset=" + offset +
+                ", total=" + total +
+                ", last=" + last +
+                ", size=" + results.size() +
+                ", matched=" + matched +
+                '}';
+    }
+}
@@ -0,0 +1,161 @@
+package com.nb.kms.hsm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키 라벨 -> TB_KMC_KEY 의 KCV / 유효기간 캐시
+ * <p> CALCULATE_CBC 마다 실행되던 KCV 조회를 생략하기 위해 사용 (DB 에 없는 라벨은 캐시하지 않음)
+ * <p> 최대 크기를 넘으면 가장 오래 사용하지 않은 항목부터 제거 (LRU), ttl 이 지난 항목은 조회 시 제거
+ * <p> 무효화할 때마다 세대 값을 올려, 무효화 전에 시작한 DB 조회 결과가 늦게 들어와도 캐시에 넣지 않음
+ */
+public class KcvCache {
+
+    /**
+     * 라벨 하나의 DB 값
+     */
+    public static class Entry {
+        private final String kcv;
+        private final String validPeriodEnd;
+        private final long loadedAt = System.nanoTime();
+
+        public Entry(String kcv, String validPeriodEnd) {
+            this.kcv = kcv;
+            this.validPeriodEnd = validPeriodEnd;
+        }
+
+        public String getKcv() {
+            return kcv;
+        }
+
+        public String getValidPeriodEnd() {
+            return validPeriodEnd;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private long generation = 0;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public KcvCache(int maxSize, long ttlSec) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSec);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > KcvCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized Entry get(String keyLabel) {
+        Entry entry = entries.get(keyLabel);
+        if (entry != null && System.nanoTime() - entry.loadedAt >= ttlNanos) {
+            entries.remove(keyLabel);
+            entry = null;
+        }
+        if (entry != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * DB 조회 전에 세대 값을 받아두고 조회 후 {@link #put(String, Entry, long)} 에 넘김
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * @param loadGeneration 조회 시작 시점의 세대 값 (그 사이 무효화가 있었으면 넣지 않음)
+     */
+    public synchronized void put(String keyLabel, Entry entry, long loadGeneration) {
+        if (entry == null || maxSize <= 0 || loadGeneration != generation) {
+            return;
+        }
+        entries.put(keyLabel, entry);
+    }
+
+    /**
+     * 라벨 제거 (키 생성/삭제/주입/복사, 유효기간 변경 시 호출)
+     */
+    public synchronized void invalidate(String keyLabel) {
+        entries.remove(keyLabel);
+        generation++;
+    }
+
+    /**
+     * 일괄 조회 결과 반영 * 이미 캐시에 있는 라벨만 갱신하고 (일괄 KCV 검증이 자주 쓰는 라벨을 밀어내지 않도록),
+     * loaded 에 없는 라벨은 DB 에서 사라진 것으로 보고 제거
+     */
+    public synchronized void refresh(Collection<String> labels, Map<String, Entry> loaded, long loadGeneration) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        for (String label : labels) {
+            if (!entries.containsKey(label)) {
+                continue;
+            }
+            Entry entry = loaded.get(label);
+            if (entry != null) {
+                entries.put(label, entry);
+            } else {
+                entries.remove(label);
+            }
+        }
+    }
+
+    public synchronized List<String> labels() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        generation++;
+    }
+
+    // ttl 이 지난 항목 제거 (일괄 갱신 주기에 호출)
+    public synchronized void removeExpired() {
+        long now = System.nanoTime();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().loadedAt >= ttlNanos) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "KcvCache{" +
+                "size=" + size() +
+                ", hit=" + hitCount.get() +
+                ", miss=" + missCount.get() +
+                '}';
+    }
+}
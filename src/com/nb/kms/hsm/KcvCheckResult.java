@@ -0,0 +1,58 @@
+package com.nb.kms.hsm;
+
+import java.io.Serializable;
+
+/**
+ * 일괄 KCV 검증의 키별 결과
+ */
+public class KcvCheckResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MATCH = 0;
+    public static final int MISMATCH = 1;
+    public static final int NOT_IN_HSM = 2; /* HSM 에 키가 없거나 KCV 계산 실패 */
+    public static final int NOT_IN_DB = 3;  /* DB 에 KCV 가 없음 */
+
+    private String keyLabel;
+    private int status;
+    private String hsmKcv;
+    private String dbKcv;
+
+    public KcvCheckResult(String keyLabel, int status, String hsmKcv, String dbKcv) {
+        this.keyLabel = keyLabel;
+        this.status = status;
+        this.hsmKcv = hsmKcv;
+        this.dbKcv = dbKcv;
+    }
+
+    public String getKeyLabel() {
+        return keyLabel;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getHsmKcv() {
+        return hsmKcv;
+    }
+
+    public String getDbKcv() {
+        return dbKcv;
+    }
+
+    public boolean isMatch() {
+        return status == MATCH;
+    }
+
+    @Override
+    public String toString() {
+        return "KcvCheckResult{" +
+                "keyLabel='" + keyLabel + '\'' +
+                ", status=" + status +
+                ", hsmKcv='" + hsmKcv + '\'' +
+                ", dbKcv='" + dbKcv + '\'' +
+                '}';
+    }
+}
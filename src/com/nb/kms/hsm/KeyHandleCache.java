@@ -0,0 +1,91 @@
+package com.nb.kms.hsm;
+
+import safenet.jcprov.CK_OBJECT_HANDLE;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키 라벨 + 키 타입 -> CK_OBJECT_HANDLE 캐시
+ * <p> findKey 의 C_FindObjectsInit/C_FindObjects/C_FindObjectsFinal 호출을 생략하기 위해 사용
+ * <p> 최대 크기를 넘으면 가장 오래 사용하지 않은 항목부터 제거 (LRU)
+ */
+public class KeyHandleCache {
+
+    private final int maxSize;
+    private final Map<String, CK_OBJECT_HANDLE> handles;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public KeyHandleCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.handles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CK_OBJECT_HANDLE> eldest) {
+                return size() > KeyHandleCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized CK_OBJECT_HANDLE get(int keyType, String keyLabel, boolean bPrivate) {
+        CK_OBJECT_HANDLE hKey = handles.get(makeKey(keyType, keyLabel, bPrivate));
+        if (hKey != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return hKey;
+    }
+
+    public synchronized void put(int keyType, String keyLabel, boolean bPrivate, CK_OBJECT_HANDLE hKey) {
+        if (hKey == null || maxSize <= 0) {
+            return;
+        }
+        handles.put(makeKey(keyType, keyLabel, bPrivate), hKey);
+    }
+
+    /**
+     * 라벨에 해당하는 모든 키 타입의 핸들 제거 (키 생성/삭제/주입/복사 시 호출)
+     */
+    public synchronized void invalidate(String keyLabel) {
+        String suffix = "|" + keyLabel;
+        Iterator<String> it = handles.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().endsWith(suffix)) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        handles.clear();
+    }
+
+    public synchronized int size() {
+        return handles.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private String makeKey(int keyType, String keyLabel, boolean bPrivate) {
+        return keyType + "|" + (bPrivate ? 1 : 0) + "|" + keyLabel;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyHandleCache{" +
+                "size=" + size() +
+                ", hit=" + hitCount.get() +
+                ", miss=" + missCount.get() +
+                '}';
+    }
+}
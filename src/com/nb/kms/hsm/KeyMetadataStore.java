@@ -0,0 +1,466 @@
+package com.nb.kms.hsm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * key_label -> KCV / 유효기간 / 키 종류 로컬 저장소 (TB_KMC_KEY 사본)
+ * <p> 변경은 메모리 맵 로그 파일(keys.log)에 덧붙이기만 하고, 조회는 메모리 색인에서 처리 (DB 가 느리거나 끊겨도 KCV 조회 가능)
+ * <p> 로그가 compactBytes 를 넘으면 색인 전체를 CRC32 검증 스냅샷(keys.snap)으로 쓰고 로그를 비움
+ * <p> 재시작 시 스냅샷을 읽고 로그를 재생 (CRC 가 맞지 않는 꼬리 레코드는 버림)
+ * <p> DB 가 원본이므로 로그는 {@link #sync()} 에서만 force 하고, 유실분은 다음 DB 동기화에서 다시 받음
+ */
+public class KeyMetadataStore implements Closeable {
+    private static final String LOG_FILE = "keys.log";
+    private static final String SNAPSHOT_FILE = "keys.snap";
+    private static final int SNAPSHOT_MAGIC = 0x4B4D5331; /* "KMS1" */
+    private static final int INITIAL_MAP_SIZE = 1 << 20;
+
+    /* 로그 레코드 : [payload 길이 int][payload CRC32 int][op byte][...] */
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte OP_PUT = 1;       /* label, kcv, valid_period_end, key type */
+    private static final byte OP_DELETE = 2;    /* label */
+    private static final byte OP_WATERMARK = 3; /* 마지막 증분 동기화 기준 시각 (epoch ms) */
+
+    /**
+     * 라벨 하나의 메타데이터
+     */
+    public static class KeyMetadata {
+        private final String kcv;
+        private final String validPeriodEnd;
+        private final String keyType;
+
+        public KeyMetadata(String kcv, String validPeriodEnd, String keyType) {
+            this.kcv = kcv;
+            this.validPeriodEnd = validPeriodEnd;
+            this.keyType = keyType;
+        }
+
+        public String getKcv() {
+            return kcv;
+        }
+
+        public String getValidPeriodEnd() {
+            return validPeriodEnd;
+        }
+
+        public String getKeyType() {
+            return keyType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof KeyMetadata)) {
+                return false;
+            }
+            KeyMetadata other = (KeyMetadata) o;
+            return Objects.equals(kcv, other.kcv) && Objects.equals(validPeriodEnd, other.validPeriodEnd)
+                    && Objects.equals(keyType, other.keyType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kcv, validPeriodEnd, keyType);
+        }
+    }
+
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final long compactBytes;
+
+    /* 조회는 잠금 없이 색인에서, 변경(로그 기록)은 synchronized */
+    private final Map<String, KeyMetadata> index = new ConcurrentHashMap<>();
+    private volatile long watermark = 0;
+
+    private FileChannel logChannel;
+    private MappedByteBuffer log;
+    private ByteBuffer record = ByteBuffer.allocate(512);
+    private final CRC32 crc = new CRC32();
+    private boolean dirty = false;
+    private boolean closed = false;
+
+    private KeyMetadataStore(Path dir, long compactBytes) {
+        this.logPath = dir.resolve(LOG_FILE);
+        this.snapshotPath = dir.resolve(SNAPSHOT_FILE);
+        this.compactBytes = compactBytes;
+    }
+
+    /**
+     * dir 의 스냅샷과 로그를 읽어 저장소를 엶 (없으면 빈 저장소)
+     * <p> 스냅샷이 손상됐으면 버리고 watermark 를 0 으로 두어 다음 동기화에서 전체를 다시 받게 함
+     */
+    public static KeyMetadataStore open(Path dir, long compactBytes) throws IOException {
+        Files.createDirectories(dir);
+        KeyMetadataStore store = new KeyMetadataStore(dir, compactBytes);
+        store.load();
+        return store;
+    }
+
+    private void load() throws IOException {
+        boolean snapshotValid = loadSnapshot();
+
+        logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(logChannel.size(), INITIAL_MAP_SIZE));
+        int replayed = replayLog();
+
+        if (!snapshotValid) {
+            watermark = 0;
+        }
+        Logger.log("INFO", "Key metadata store opened: " + index.size() + " keys (log records replayed: " + replayed + ")");
+    }
+
+    // ---- 조회 ----
+
+    public KeyMetadata get(String keyLabel) {
+        return index.get(keyLabel);
+    }
+
+    public List<String> labels() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // 마지막 증분 동기화 기준 시각 (0 = 전체 동기화 필요)
+    public long getWatermark() {
+        return watermark;
+    }
+
+    // ---- 변경 ----
+
+    /**
+     * @return 값이 바뀌어 로그에 기록했으면 true
+     */
+    public synchronized boolean put(String keyLabel, KeyMetadata metadata) {
+        if (closed || metadata.equals(index.get(keyLabel))) {
+            return false;
+        }
+        beginRecord(OP_PUT);
+        putString(keyLabel);
+        putString(metadata.kcv);
+        putString(metadata.validPeriodEnd);
+        putString(metadata.keyType);
+        append();
+        index.put(keyLabel, metadata);
+        return true;
+    }
+
+    public synchronized boolean remove(String keyLabel) {
+        if (closed || !index.containsKey(keyLabel)) {
+            return false;
+        }
+        beginRecord(OP_DELETE);
+        putString(keyLabel);
+        append();
+        index.remove(keyLabel);
+        return true;
+    }
+
+    /**
+     * DB 전체 조회 결과로 교체 (다른 값만 기록하고 all 에 없는 라벨은 삭제)
+     * @return 바뀌거나 삭제된 라벨
+     */
+    public synchronized Set<String> replaceAll(Map<String, KeyMetadata> all) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, KeyMetadata> e : all.entrySet()) {
+            if (put(e.getKey(), e.getValue())) {
+                changed.add(e.getKey());
+            }
+        }
+        for (String label : labels()) {
+            if (!all.containsKey(label) && remove(label)) {
+                changed.add(label);
+            }
+        }
+        return changed;
+    }
+
+    public synchronized void setWatermark(long watermark) {
+        if (closed || watermark == this.watermark) {
+            return;
+        }
+        beginRecord(OP_WATERMARK);
+        ensureRecordCapacity(Long.BYTES);
+        record.putLong(watermark);
+        append();
+        this.watermark = watermark;
+    }
+
+    /**
+     * 로그를 디스크에 반영하고, compactBytes 를 넘었으면 스냅샷을 쓰고 로그를 비움
+     */
+    public synchronized void sync() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (dirty) {
+            log.force();
+            dirty = false;
+        }
+        if (log.position() > compactBytes) {
+            snapshot();
+        }
+    }
+
+    /**
+     * 색인 전체를 스냅샷으로 쓰고 (임시 파일 -> rename) 로그를 비움
+     * <p> rename 후 로그를 비우기 전에 죽어도 재시작 시 같은 로그를 다시 재생할 뿐이라 결과가 같음
+     */
+    public synchronized void snapshot() throws IOException {
+        Path tmp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        int count;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(watermark);
+            Map<String, KeyMetadata> copy = new HashMap<>(index);
+            count = copy.size();
+            out.writeInt(count);
+            for (Map.Entry<String, KeyMetadata> e : copy.entrySet()) {
+                writeString(out, e.getKey());
+                writeString(out, e.getValue().kcv);
+                writeString(out, e.getValue().validPeriodEnd);
+                writeString(out, e.getValue().keyType);
+            }
+            out.flush();
+            // 체크섬은 본문 뒤에 (체크섬 계산에는 포함하지 않음)
+            long checksum = checked.getChecksum().getValue();
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES).putLong(0, checksum);
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // 매핑을 유지한 채 사용한 구간만 0 으로 지움 (길이 0 레코드 = 로그 끝)
+        zero(0, log.position());
+        log.position(0);
+        log.force();
+        dirty = false;
+        Logger.log("INFO", "Key metadata snapshot written: " + count + " keys");
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException e) {
+            Logger.error("Failed to write key metadata snapshot", e);
+        }
+        closed = true;
+        try {
+            logChannel.close();
+        } catch (IOException e) {
+            // 이미 닫힌 경우
+        }
+    }
+
+    // ---- 로그 ----
+
+    private void beginRecord(byte op) {
+        record.clear();
+        record.put(op);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            ensureRecordCapacity(Short.BYTES);
+            record.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRecordCapacity(Short.BYTES + bytes.length);
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private void ensureRecordCapacity(int extra) {
+        if (record.remaining() < extra) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + extra));
+            record.flip();
+            larger.put(record);
+            record = larger;
+        }
+    }
+
+    // 작성한 레코드를 로그 끝에 덧붙임 (매핑이 부족하면 두 배로 늘려 다시 매핑)
+    private void append() {
+        record.flip();
+        int length = record.remaining();
+        crc.reset();
+        crc.update(record.array(), 0, length);
+
+        int needed = RECORD_HEADER_SIZE + length;
+        if (log.remaining() < needed) {
+            remap(Math.max((long) log.capacity() * 2, (long) log.position() + needed));
+        }
+        log.putInt(length);
+        log.putInt((int) crc.getValue());
+        log.put(record);
+        dirty = true;
+    }
+
+    private void remap(long size) {
+        int position = log.position();
+        try {
+            log.force();
+            log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            log.position(position);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grow key metadata log", e);
+        }
+    }
+
+    // 로그의 유효한 레코드를 색인에 적용하고 쓰기 위치를 마지막 레코드 뒤로 둠
+    private int replayLog() {
+        int position = 0;
+        int replayed = 0;
+        byte[] payload = new byte[256];
+        while (log.capacity() - position >= RECORD_HEADER_SIZE) {
+            int length = log.getInt(position);
+            if (length <= 0 || length > log.capacity() - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            if (payload.length < length) {
+                payload = new byte[Math.max(payload.length * 2, length)];
+            }
+            log.get(position + RECORD_HEADER_SIZE, payload, 0, length);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != log.getInt(position + Integer.BYTES)) {
+                break;
+            }
+            apply(ByteBuffer.wrap(payload, 0, length));
+            position += RECORD_HEADER_SIZE + length;
+            replayed++;
+        }
+
+        // 기록 도중 끊긴 꼬리 레코드가 있으면 지워서 다음 기록과 섞이지 않게 함
+        if (log.capacity() - position >= Integer.BYTES && log.getInt(position) != 0) {
+            Logger.warn("Discarding torn key metadata log tail at offset " + position);
+            zero(position, log.capacity());
+        }
+        log.position(position);
+        return replayed;
+    }
+
+    private void zero(int from, int to) {
+        ByteBuffer view = log.duplicate();
+        view.position(from);
+        byte[] zeros = new byte[8192];
+        while (view.position() < to) {
+            view.put(zeros, 0, Math.min(zeros.length, to - view.position()));
+        }
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte op = payload.get();
+        switch (op) {
+            case OP_PUT -> {
+                String label = getString(payload);
+                index.put(label, new KeyMetadata(getString(payload), getString(payload), getString(payload)));
+            }
+            case OP_DELETE -> index.remove(getString(payload));
+            case OP_WATERMARK -> watermark = payload.getLong();
+            default -> Logger.warn("Unknown key metadata log record: " + op);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // ---- 스냅샷 ----
+
+    // @return 스냅샷이 없거나 정상이면 true, 손상됐으면 false
+    private boolean loadSnapshot() throws IOException {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(snapshotPath);
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        if (data.length < Long.BYTES) {
+            Logger.warn("Key metadata snapshot too short, ignored: " + snapshotPath);
+            return false;
+        }
+
+        int bodyLength = data.length - Long.BYTES;
+        long expected = ByteBuffer.wrap(data, bodyLength, Long.BYTES).getLong();
+        CRC32 checksum = new CRC32();
+        checksum.update(data, 0, bodyLength);
+        if (checksum.getValue() != expected) {
+            Logger.warn("Key metadata snapshot checksum mismatch, ignored: " + snapshotPath);
+            return false;
+        }
+
+        Map<String, KeyMetadata> loaded = new HashMap<>();
+        long loadedWatermark;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, bodyLength))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                Logger.warn("Unknown key metadata snapshot format, ignored: " + snapshotPath);
+                return false;
+            }
+            loadedWatermark = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String label = readString(in);
+                loaded.put(label, new KeyMetadata(readString(in), readString(in), readString(in)));
+            }
+        }
+        index.putAll(loaded);
+        watermark = loadedWatermark;
+        return true;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nb.kms.hsm;
+
+import java.io.Serializable;
+
+/**
+ * 일괄 처리 요청의 키 식별 정보 (keyType, keyGenType, serialNum, etcsId)
+ */
+public class KeyRef implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private int keyType;
+    private String keyGenType;
+    private int serialNum;
+    private int etcsId;
+
+    public KeyRef(int keyType, String keyGenType, int serialNum, int etcsId) {
+        this.keyType = keyType;
+        this.keyGenType = keyGenType;
+        this.serialNum = serialNum;
+        this.etcsId = etcsId;
+    }
+
+    public int getKeyType() {
+        return keyType;
+    }
+
+    public void setKeyType(int keyType) {
+        this.keyType = keyType;
+    }
+
+    public String getKeyGenType() {
+        return keyGenType;
+    }
+
+    public void setKeyGenType(String keyGenType) {
+        this.keyGenType = keyGenType;
+    }
+
+    public int getSerialNum() {
+        return serialNum;
+    }
+
+    public void setSerialNum(int serialNum) {
+        this.serialNum = serialNum;
+    }
+
+    public int getEtcsId() {
+        return etcsId;
+    }
+
+    public void setEtcsId(int etcsId) {
+        this.etcsId = etcsId;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyRef{" +
+                "keyType=" + keyType +
+                ", keyGenType='" + keyGenType + '\'' +
+                ", serialNum=" + serialNum +
+                ", etcsId=" + etcsId +
+                '}';
+    }
+}
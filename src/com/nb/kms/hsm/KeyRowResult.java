@@ -0,0 +1,43 @@
+package com.nb.kms.hsm;
+
+import java.io.Serializable;
+
+/**
+ * TB_KMC_KEY 일괄 변경(유효기간 일괄 변경, 전체 교체)의 라벨별 결과
+ */
+public class KeyRowResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int APPLIED = 0;
+    public static final int NOT_FOUND = 1; /* 해당 라벨의 행이 없음 */
+    public static final int FAILED = 2;    /* 문장 실패 또는 트랜잭션 롤백 */
+
+    private String keyLabel;
+    private int status;
+
+    public KeyRowResult(String keyLabel, int status) {
+        this.keyLabel = keyLabel;
+        this.status = status;
+    }
+
+    public String getKeyLabel() {
+        return keyLabel;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isApplied() {
+        return status == APPLIED;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyRowResult{" +
+                "keyLabel='" + keyLabel + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -1,20 +1,295 @@
 package com.nb.kms.hsm;
 
+import com.nb.kms.hsm.EventMsg.HSM_INFO;
+
+import java.io.PrintStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+/**
+ * HSM 모듈 로거
+ * <p> 레벨(DEBUG < INFO < WARN < ERROR) 이 꺼져 있으면 메시지를 만들지 않도록 Supplier / "{}" 치환 형식을 지원
+ * <p> 호출 스레드는 레벨 확인과 메시지 생성만 하고, 시간 포맷과 콘솔 출력은 별도 스레드에서 모아서 처리
+ * <p> 레벨은 HSM_INFO.LOG_LEVEL 기본값, -Dhsm.log.level 로 덮어쓰거나 setLevel 로 실행 중 변경
+ */
 public class Logger {
+    public static final int DEBUG = 0;
+    public static final int INFO = 1;
+    public static final int WARN = 2;
+    public static final int ERROR = 3;
+    public static final int OFF = 4;
+
+    private static final String[] LEVEL_NAMES = {"DEBUG", "INFO", "WARN", "ERROR", "OFF"};
+
     private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final int BATCH_SIZE = 512;
+
+    private static volatile int level = parseLevel(System.getProperty("hsm.log.level", HSM_INFO.LOG_LEVEL), INFO);
+
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong droppedCount = new AtomicLong();
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // 출력 스레드 상태 (write 에서만 사용)
+    private static long lastDropReported = 0;
+    private static long cachedSecond = Long.MIN_VALUE;
+    private static String cachedTimestamp = "";
+
+    static {
+        Thread writer = new Thread(Logger::drainLoop, "HsmLogger");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Logger::flush, "HsmLoggerShutdown"));
+    }
+
+    // ---- 설정 ----
+
+    public static void setLevel(String levelName) {
+        level = parseLevel(levelName, level);
+    }
+
+    public static String getLevel() {
+        return LEVEL_NAMES[level];
+    }
+
+    public static boolean isEnabled(int messageLevel) {
+        return messageLevel >= level;
+    }
+
+    public static boolean isDebugEnabled() {
+        return DEBUG >= level;
+    }
+
+    // 큐가 가득 차서 버린 DEBUG/INFO/WARN 로그 수 (ERROR 는 버리지 않고 호출 스레드에서 직접 출력)
+    public static long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    // ---- 기존 호출 형식 ----
 
     public static void log(String level, String message) {
-        System.out.println("[" + dtf.format(LocalDateTime.now()) + "][" + level + "] " + message);
+        int messageLevel = parseLevel(level, INFO);
+        if (isEnabled(messageLevel)) {
+            enqueue(messageLevel, message, null, false);
+        }
     }
 
     public static void error(String message, Throwable t) {
-        System.err.println(("[" + dtf.format(LocalDateTime.now()) + "][ERROR] " + message));
-        t.printStackTrace(System.out);
+        if (isEnabled(ERROR)) {
+            enqueue(ERROR, message, t, true);
+        }
     }
+
     public static void error(String message) {
-        System.err.println("[" + dtf.format(LocalDateTime.now()) + "][ERROR] " + message);
+        if (isEnabled(ERROR)) {
+            enqueue(ERROR, message, null, true);
+        }
+    }
+
+    // ---- 레벨별 지연 생성 형식 ----
+
+    public static void debug(String message) {
+        if (isEnabled(DEBUG)) {
+            enqueue(DEBUG, message, null, false);
+        }
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(DEBUG)) {
+            enqueue(DEBUG, message.get(), null, false);
+        }
+    }
+
+    public static void debug(String pattern, Object... args) {
+        if (isEnabled(DEBUG)) {
+            enqueue(DEBUG, format(pattern, args), null, false);
+        }
+    }
+
+    public static void info(String message) {
+        if (isEnabled(INFO)) {
+            enqueue(INFO, message, null, false);
+        }
+    }
+
+    public static void info(Supplier<String> message) {
+        if (isEnabled(INFO)) {
+            enqueue(INFO, message.get(), null, false);
+        }
+    }
+
+    public static void info(String pattern, Object... args) {
+        if (isEnabled(INFO)) {
+            enqueue(INFO, format(pattern, args), null, false);
+        }
+    }
+
+    public static void warn(String message) {
+        if (isEnabled(WARN)) {
+            enqueue(WARN, message, null, false);
+        }
+    }
+
+    public static void warn(String pattern, Object... args) {
+        if (isEnabled(WARN)) {
+            enqueue(WARN, format(pattern, args), null, false);
+        }
+    }
+
+    // 바이트 배열을 공백 없는 대문자 16진수로 변환 (DEBUG Supplier 안에서 사용)
+    public static String hex(byte[] bytes) {
+        if (bytes == null) {
+            return "null";
+        }
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+            out[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+        return new String(out);
+    }
+
+    // "{}" 를 인자 순서대로 치환 (인자가 모자라면 "{}" 그대로 둠)
+    static String format(String pattern, Object[] args) {
+        if (args == null || args.length == 0) {
+            return pattern;
+        }
+        StringBuilder sb = new StringBuilder(pattern.length() + args.length * 16);
+        int argIndex = 0;
+        int start = 0;
+        int idx;
+        while (argIndex < args.length && (idx = pattern.indexOf("{}", start)) >= 0) {
+            sb.append(pattern, start, idx);
+            Object arg = args[argIndex++];
+            sb.append(arg instanceof byte[] ? hex((byte[]) arg) : String.valueOf(arg));
+            start = idx + 2;
+        }
+        sb.append(pattern, start, pattern.length());
+        return sb.toString();
+    }
+
+    private static int parseLevel(String levelName, int defaultLevel) {
+        if (levelName != null) {
+            for (int i = 0; i < LEVEL_NAMES.length; i++) {
+                if (LEVEL_NAMES[i].equalsIgnoreCase(levelName)) {
+                    return i;
+                }
+            }
+        }
+        return defaultLevel;
+    }
+
+    // ---- 비동기 출력 ----
+
+    // stderr : error() 호출 여부 (기존과 같이 log("ERROR", ..) 는 표준 출력)
+    private static void enqueue(int messageLevel, String message, Throwable t, boolean stderr) {
+        Entry entry = new Entry(System.currentTimeMillis(), messageLevel, message, t, stderr);
+        if (!queue.offer(entry)) {
+            if (messageLevel >= ERROR) {
+                // 오류는 버리지 않음 (출력 스레드와 순서가 섞일 수 있음)
+                write(List.of(entry));
+            } else {
+                droppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static void drainLoop() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                Entry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 종료 시 남은 로그 출력
+    private static void flush() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private static synchronized void write(List<Entry> batch) {
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+
+        long dropped = droppedCount.get();
+        if (dropped != lastDropReported) {
+            out.append("[").append(timestamp(System.currentTimeMillis())).append("][WARN] ")
+                    .append(dropped - lastDropReported).append(" log messages dropped (queue full)").append(System.lineSeparator());
+            lastDropReported = dropped;
+        }
+
+        for (Entry entry : batch) {
+            StringBuilder sb = entry.stderr ? err : out;
+            sb.append('[').append(timestamp(entry.timeMillis)).append("][").append(LEVEL_NAMES[entry.level]).append("] ")
+                    .append(entry.message).append(System.lineSeparator());
+            if (entry.throwable != null) {
+                // 스택 트레이스는 순서를 맞추기 위해 지금까지 모은 오류 출력 후 바로 출력
+                System.err.print(err);
+                err.setLength(0);
+                entry.throwable.printStackTrace(System.err);
+            }
+        }
+        print(System.out, out);
+        print(System.err, err);
+    }
+
+    private static void print(PrintStream stream, StringBuilder sb) {
+        if (sb.length() > 0) {
+            stream.print(sb);
+            stream.flush();
+        }
+    }
+
+    // 같은 초 안의 로그는 포맷한 문자열 재사용
+    private static String timestamp(long timeMillis) {
+        long second = timeMillis / 1000;
+        if (second != cachedSecond) {
+            cachedTimestamp = dtf.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneId.systemDefault()));
+            cachedSecond = second;
+        }
+        return cachedTimestamp;
+    }
+
+    private static final class Entry {
+        final long timeMillis;
+        final int level;
+        final String message;
+        final Throwable throwable;
+        final boolean stderr;
+
+        Entry(long timeMillis, int level, String message, Throwable throwable, boolean stderr) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+            this.stderr = stderr;
+        }
     }
-}
\ No newline at end of file
+}
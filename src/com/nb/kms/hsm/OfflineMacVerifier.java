@@ -0,0 +1,304 @@
+package com.nb.kms.hsm;
+
+import Message.CbcMacVerifier;
+import Message.EtcsInfo;
+import Message.constant.Common.*;
+import Message.constant.Offline;
+import Message.constant.Offline.*;
+import Message.offline.entity.sub.OfflineHeader;
+import codec.offlineEntity.OfflineCbcMac;
+import com.nb.kms.hsm.EventMsg.*;
+import safenet.jcprov.CK_SESSION_HANDLE;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 수신 오프라인 메시지 CBC-MAC 검증기
+ * <p> local : 키 값을 HSM 에서 한 번 꺼내 라벨 단위로 캐시하고, 스레드별로 초기화해 둔 DES Cipher(OfflineCbcMac)로 프로세스 안에서 계산 (메시지당 수 us)
+ * <p> hsm : 메시지마다 HsmProvider.calculateCBCMAC 호출 (키 값이 프로세스 메모리에 남지 않음, 메시지당 HSM 왕복)
+ * <p> 키 라벨 : 오프라인 키 메시지는 KTRANS1 + 헤더 serial + ETCS 엔터티(KMC 가 아닌 쪽) ID, KM 메시지는 KMAC + 발신 KM ID + 수신 KM ID
+ * <p> local 캐시는 TTL 이 지나거나 MAC 이 맞지 않으면 HSM 에서 다시 꺼내 한 번 더 확인 (키 교체 반영)
+ * <p> HSM 호출이 필요하면 세션 풀에서 직접 대여하므로 수신 스레드에서 호출 (세션이 지정된 워커 스레드에서는 호출하지 않음)
+ */
+public class OfflineMacVerifier implements CbcMacVerifier {
+
+    public static final String MODE_LOCAL = "local";
+    public static final String MODE_HSM = "hsm";
+    public static final String MODE_OFF = "off";
+
+    private static final int THREAD_CIPHER_CACHE_SIZE = 64;
+    /* MAC 불일치로 키를 다시 꺼내는 최소 간격 (위조 메시지가 몰려도 라벨당 이 간격으로만 HSM 호출) */
+    private static final long REFETCH_MIN_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final int SUCCESS = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_REQUEST_SUCCESSFULLY_PROCESSED;
+    private static final int MAC_FAILED = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_AUTHENTICATION_OF_MAC_COD_HAS_FAILED;
+    private static final int KEY_NOT_FOUND = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_TRANSPORT_KEY_NOT_FOUND;
+    private static final int ETC_ERROR = OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_ETC_ERROR;
+
+    private static class UnwrappedKey {
+        private final byte[] value;
+        private final long fetchedAt;
+
+        private UnwrappedKey(byte[] value, long fetchedAt) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    /* fetchKey 결과 : 세션 대여 시간 초과 / 인터럽트로 HSM 을 조회하지 못함 (키가 없는 경우(null)와 구분) */
+    private static final UnwrappedKey HSM_UNAVAILABLE = new UnwrappedKey(null, 0);
+
+    private static class ThreadCipher {
+        private final byte[] key; // 생성에 사용한 캐시 키 값 (참조가 바뀌면 다시 생성)
+        private final OfflineCbcMac cbcMac;
+
+        private ThreadCipher(byte[] key, OfflineCbcMac cbcMac) {
+            this.key = key;
+            this.cbcMac = cbcMac;
+        }
+    }
+
+    private final HsmProvider hsmProvider;
+    private final HsmSessionPool sessionPool;
+    private final boolean local;
+    private final int cacheSize;
+    private final long ttlNanos;
+
+    /* 라벨 -> HSM 에서 꺼낸 키 값 (LRU) */
+    private final LinkedHashMap<String, UnwrappedKey> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+    /* 스레드별 라벨 -> 초기화된 MAC 계산기 (Cipher 는 스레드 안전하지 않으므로 스레드마다 보관) */
+    private final ThreadLocal<LinkedHashMap<String, ThreadCipher>> threadCiphers = ThreadLocal.withInitial(() ->
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ThreadCipher> eldest) {
+                    return size() > THREAD_CIPHER_CACHE_SIZE;
+                }
+            });
+
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong hsmCalls = new AtomicLong();
+
+    /**
+     * @param hsmProvider 키 조회 / HSM 계산에 사용할 구현
+     * @param sessionPool 세션이 필요한 구현이면 HSM 호출마다 대여 (필요 없으면 null)
+     * @param mode local / hsm
+     */
+    public OfflineMacVerifier(HsmProvider hsmProvider, HsmSessionPool sessionPool, String mode) {
+        this(hsmProvider, sessionPool, mode, HSM_INFO.MAC_KEY_CACHE_SIZE, HSM_INFO.MAC_KEY_CACHE_TTL_SEC);
+    }
+
+    public OfflineMacVerifier(HsmProvider hsmProvider, HsmSessionPool sessionPool, String mode, int cacheSize, long ttlSeconds) {
+        if (!MODE_LOCAL.equalsIgnoreCase(mode) && !MODE_HSM.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Invalid MAC verify mode: " + mode);
+        }
+        this.hsmProvider = hsmProvider;
+        this.sessionPool = sessionPool;
+        this.local = MODE_LOCAL.equalsIgnoreCase(mode);
+        this.cacheSize = cacheSize;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    @Override
+    public int VerifyKeyMessage(OfflineHeader header, ByteBuffer macInput, byte[] receivedMac) {
+        if (header.GetAuthAlgo() != Offline.AUTH_ALGO_3DES) {
+            return OFFLINE_RESPONSE_NOTIFY_MSG_RESULT_CODE.RESPONSE_RESULT_AUTHENTICATION_ALGORITHM_NOT_IMPLEMENTED;
+        }
+        // KMC 가 보낸 요청이면 수신 엔터티, 엔터티가 보낸 통지면 발신 엔터티의 KTRANS
+        EtcsInfo entity = header.GetSender().GetEtcsIdType() == ETCS_TYPE.KEY_MANAGEMENT_ENTITY ? header.GetReceiver() : header.GetSender();
+        return verify(KEY_GEN_TYPE.ktransKey1, toInt(header.GetSerial()), toInt(entity.GetEtcsId()), macInput, receivedMac);
+    }
+
+    @Override
+    public int VerifyKmMessage(byte kmMessageType, EtcsInfo kmEtcsIdIssuer, EtcsInfo kmEtcsIdTarget, ByteBuffer macInput, byte[] receivedMac) {
+        return verify(KEY_GEN_TYPE.kmacKey, toInt(kmEtcsIdIssuer.GetEtcsId()), toInt(kmEtcsIdTarget.GetEtcsId()), macInput, receivedMac);
+    }
+
+    /**
+     * 라벨의 캐시된 키 값 제거 (키 교체/삭제 시 호출)
+     */
+    public void invalidate(String keyLabel) {
+        synchronized (keys) {
+            keys.remove(keyLabel);
+        }
+    }
+
+    public void clear() {
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    public long getVerifiedCount() {
+        return verified.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return 검증 중 발생한 HSM 호출 수 (local 은 키 캐시 미스 때만 증가)
+     */
+    public long getHsmCallCount() {
+        return hsmCalls.get();
+    }
+
+    private int verify(String keyGenType, int keySerial, int etcsId, ByteBuffer macInput, byte[] receivedMac) {
+        String keyLabel = hsmProvider.makeLabel(keyGenType, keySerial, etcsId);
+        int result = local
+                ? verifyLocal(keyGenType, keySerial, etcsId, keyLabel, macInput, receivedMac)
+                : verifyOnHsm(keyGenType, keySerial, etcsId, keyLabel, macInput, receivedMac);
+        if (result == SUCCESS) {
+            verified.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+        return result;
+    }
+
+    private int verifyLocal(String keyGenType, int keySerial, int etcsId, String keyLabel, ByteBuffer macInput, byte[] receivedMac) {
+        UnwrappedKey cached = getCachedKey(keyLabel);
+        UnwrappedKey key = cached != null ? cached : fetchKey(keyGenType, keySerial, etcsId, keyLabel);
+        if (key == null || key == HSM_UNAVAILABLE) {
+            return fetchFailure(key);
+        }
+
+        try {
+            if (localMacMatches(keyLabel, key.value, macInput.duplicate(), receivedMac)) {
+                return SUCCESS;
+            }
+            if (cached == null || System.nanoTime() - cached.fetchedAt < REFETCH_MIN_INTERVAL_NANOS) {
+                return MAC_FAILED;
+            }
+            // 캐시 이후 키가 교체되었을 수 있으므로 HSM 에서 다시 꺼내 한 번 더 확인
+            invalidate(keyLabel);
+            key = fetchKey(keyGenType, keySerial, etcsId, keyLabel);
+            if (key == null || key == HSM_UNAVAILABLE) {
+                return fetchFailure(key);
+            }
+            return localMacMatches(keyLabel, key.value, macInput.duplicate(), receivedMac) ? SUCCESS : MAC_FAILED;
+        } catch (GeneralSecurityException ex) {
+            Logger.error("Error calculating CBC-MAC for key (" + keyLabel + ")", ex);
+            return ETC_ERROR;
+        }
+    }
+
+    // 키가 없으면 KEY_NOT_FOUND, HSM 을 조회하지 못했으면(세션 부족 등) ETC_ERROR (verifyOnHsm 과 같은 응답)
+    private static int fetchFailure(UnwrappedKey key) {
+        return key == null ? KEY_NOT_FOUND : ETC_ERROR;
+    }
+
+    private boolean localMacMatches(String keyLabel, byte[] key, ByteBuffer macInput, byte[] receivedMac) throws GeneralSecurityException {
+        LinkedHashMap<String, ThreadCipher> ciphers = threadCiphers.get();
+        ThreadCipher cipher = ciphers.get(keyLabel);
+        if (cipher == null || cipher.key != key) {
+            cipher = new ThreadCipher(key, new OfflineCbcMac(key));
+            ciphers.put(keyLabel, cipher);
+        }
+        OfflineCbcMac cbcMac = cipher.cbcMac;
+        cbcMac.Reset();
+        cbcMac.Update(macInput);
+        return cbcMac.Verify(receivedMac);
+    }
+
+    private int verifyOnHsm(String keyGenType, int keySerial, int etcsId, String keyLabel, ByteBuffer macInput, byte[] receivedMac) {
+        byte[] data = new byte[macInput.remaining()];
+        macInput.duplicate().get(data);
+
+        CK_SESSION_HANDLE session = null;
+        try {
+            if (hsmProvider.requiresSession()) {
+                session = sessionPool == null ? null : sessionPool.borrow(HSM_INFO.SESSION_BORROW_TIMEOUT_MS);
+                if (session == null) {
+                    return ETC_ERROR;
+                }
+                hsmProvider.setSessionHandle(session);
+            }
+            hsmCalls.incrementAndGet();
+            byte[] mac = hsmProvider.calculateCBCMAC(keyGenType, keySerial, etcsId, data);
+            if (mac == null) {
+                Logger.log("ERROR", "MAC key (" + keyLabel + ") not available.");
+                return KEY_NOT_FOUND;
+            }
+            return MessageDigest.isEqual(mac, receivedMac) ? SUCCESS : MAC_FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ETC_ERROR;
+        } finally {
+            if (session != null) {
+                hsmProvider.setSessionHandle(null);
+                sessionPool.release(session);
+            }
+        }
+    }
+
+    private UnwrappedKey getCachedKey(String keyLabel) {
+        synchronized (keys) {
+            UnwrappedKey key = keys.get(keyLabel);
+            if (key != null && System.nanoTime() - key.fetchedAt > ttlNanos) {
+                keys.remove(keyLabel);
+                return null;
+            }
+            return key;
+        }
+    }
+
+    // HSM 에서 평문 키를 꺼내 캐시 (키가 없으면 null, 세션 대여 시간 초과 / 인터럽트면 HSM_UNAVAILABLE)
+    private UnwrappedKey fetchKey(String keyGenType, int keySerial, int etcsId, String keyLabel) {
+        CK_SESSION_HANDLE session = null;
+        try {
+            if (hsmProvider.requiresSession()) {
+                session = sessionPool == null ? null : sessionPool.borrow(HSM_INFO.SESSION_BORROW_TIMEOUT_MS);
+                if (session == null) {
+                    Logger.error("No HSM session available to fetch MAC key (" + keyLabel + ")");
+                    return HSM_UNAVAILABLE;
+                }
+                hsmProvider.setSessionHandle(session);
+            }
+            hsmCalls.incrementAndGet();
+            byte[] value = hsmProvider.getPlainTextKey(HSM_KEY_TYPE.DES3_TYPE, keyGenType, keySerial, etcsId);
+            if (value == null) {
+                Logger.log("ERROR", "MAC key (" + keyLabel + ") not available.");
+                return null;
+            }
+            UnwrappedKey key = new UnwrappedKey(value, System.nanoTime());
+            synchronized (keys) {
+                keys.put(keyLabel, key);
+                evict();
+            }
+            return key;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return HSM_UNAVAILABLE;
+        } finally {
+            if (session != null) {
+                hsmProvider.setSessionHandle(null);
+                sessionPool.release(session);
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<String> it = keys.keySet().iterator();
+        while (keys.size() > cacheSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static int toInt(byte[] bytes) {
+        int value = 0;
+        for (byte b : bytes) {
+            value = (value << 8) | (b & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,221 @@
+package com.nb.kms.hsm;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 요청이 들어온 TCP 연결을 응답 채널로 재사용
+ * <p> 워커는 응답을 연결별 대기열에 넣기만 하고, 공용 쓰기 실행기(writerExecutor)의 작업이 대기열을 비울 때까지 소켓에 씀
+ *     (느린 클라이언트가 워커 / HSM 세션을 붙잡지 않고, 대기열이 비면 작업이 끝나므로 연결마다 스레드를 두지 않음)
+ * <p> 대기열이 가득 차면 클라이언트가 응답을 읽지 않는 것으로 보고 연결을 닫음
+ * <p> 클라이언트가 송신을 종료(EOF)해도 처리 중인 요청이 남아 있으면 모두 응답한 뒤 연결을 닫음
+ * <p> 요청과 같은 형식(바이너리 프레임 / Java 직렬화)으로 응답
+ */
+public class ResponseChannel {
+
+    /* ObjectOutputStream 핸들 테이블이 계속 커지지 않도록 일정 개수마다 reset */
+    private static final int RESET_INTERVAL = 256;
+
+    /* 연결별 응답 대기열 크기 */
+    private static final int SEND_QUEUE_SIZE = 1024;
+
+    /* 대기열의 응답을 모두 쓴 뒤 연결을 닫으라는 표시 */
+    private static final Object CLOSE = new Object();
+
+    /**
+     * 쓰기 대기 중인 응답
+     */
+    private static class Pending {
+        private final long correlationId;
+        private final Object result;
+
+        private Pending(long correlationId, Object result) {
+            this.correlationId = correlationId;
+            this.result = result;
+        }
+    }
+
+    private final Socket socket;
+    private final boolean binary;
+    private ObjectOutputStream oos = null;
+    private OutputStream out = null;
+    private HsmWireCodec codec = null;
+    private int writeCount = 0;
+
+    private final Executor writerExecutor;
+    private final ArrayDeque<Object> sendQueue = new ArrayDeque<>();
+    private boolean draining = false; /* 쓰기 작업이 실행 중이거나 실행 대기 중 (연결당 하나만) */
+
+    private int inFlight = 0;
+    private boolean inputClosed = false;
+    private boolean closed = false;
+
+    public ResponseChannel(Socket socket, Executor writerExecutor) {
+        this(socket, false, writerExecutor);
+    }
+
+    /**
+     * @param binary true 면 {@link HsmWireCodec} 프레임, false 면 ObjectOutputStream 으로 응답
+     * @param writerExecutor 응답 쓰기 작업을 실행할 공용 실행기 (가상 스레드 또는 크기가 제한된 풀)
+     */
+    public ResponseChannel(Socket socket, boolean binary, Executor writerExecutor) {
+        this.socket = socket;
+        this.binary = binary;
+        this.writerExecutor = writerExecutor;
+    }
+
+    /**
+     * 요청을 큐에 넣기 전에 호출 * 처리 중인 요청 수 증가
+     */
+    public synchronized void begin() {
+        inFlight++;
+    }
+
+    /**
+     * 요청 처리가 끝나면 호출 (응답 전송 여부와 관계없이)
+     */
+    public synchronized void end() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+        closeIfIdle();
+    }
+
+    /**
+     * 수신 측이 EOF 를 받았을 때 호출 * 처리 중인 요청이 없으면 즉시 닫음
+     */
+    public synchronized void inputClosed() {
+        inputClosed = true;
+        closeIfIdle();
+    }
+
+    /**
+     * correlationId 를 붙여 응답 전송 요청 (쓰기 실행기가 전송, 호출 스레드는 기다리지 않음)
+     * @return 대기열에 넣었는지 여부
+     */
+    public synchronized boolean send(long correlationId, Object result) {
+        if (closed) {
+            return false;
+        }
+        if (sendQueue.size() >= SEND_QUEUE_SIZE) {
+            Logger.error("Response queue full, closing connection " + getRemoteAddress());
+            close();
+            return false;
+        }
+        sendQueue.add(new Pending(correlationId, result));
+        scheduleDrain();
+        return true;
+    }
+
+    // 쓰기 작업이 없으면 실행기에 넘김 (synchronized 안에서 호출)
+    private void scheduleDrain() {
+        if (draining) {
+            return;
+        }
+        draining = true;
+        try {
+            writerExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining = false;
+            Logger.error("Response writer rejected, closing connection " + getRemoteAddress());
+            close();
+        }
+    }
+
+    // 대기열이 빌 때까지 순서대로 전송 (CLOSE 를 받거나 연결이 닫히면 종료)
+    private void drain() {
+        while (true) {
+            Object item;
+            synchronized (this) {
+                item = sendQueue.poll();
+                if (item == null || closed) {
+                    draining = false;
+                    return;
+                }
+            }
+            if (item == CLOSE) {
+                close();
+                continue;
+            }
+            Pending pending = (Pending) item;
+            write(pending.correlationId, pending.result);
+        }
+    }
+
+    // 쓰기 작업에서만 호출 (draining 으로 연결당 한 작업만 실행되므로 스트림을 동시에 쓰지 않음)
+    private boolean write(long correlationId, Object result) {
+        try {
+            if (binary) {
+                if (codec == null) {
+                    out = new BufferedOutputStream(socket.getOutputStream());
+                    codec = new HsmWireCodec();
+                }
+                codec.writeResponse(out, correlationId, result);
+                out.flush();
+                return true;
+            }
+
+            if (oos == null) {
+                oos = new ObjectOutputStream(socket.getOutputStream());
+            }
+            oos.writeObject(new HsmResponse(correlationId, result));
+            if (++writeCount % RESET_INTERVAL == 0) {
+                oos.reset();
+            }
+            oos.flush();
+            return true;
+        } catch (IllegalArgumentException e) {
+            Logger.error("Failed to encode response " + correlationId, e);
+            return false;
+        } catch (IOException e) {
+            Logger.error("Failed to send response via request connection", e);
+            close();
+            return false;
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            Logger.error("Failed to close client socket", e);
+        }
+        // 남은 응답은 버림 (실행 중인 쓰기 작업은 다음 poll 에서 종료)
+        sendQueue.clear();
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    // 남은 응답을 모두 쓴 뒤 닫도록 쓰기 작업에 넘김 (보낼 응답이 없으면 바로 닫음)
+    private void closeIfIdle() {
+        if (!inputClosed || inFlight > 0 || closed) {
+            return;
+        }
+        if (!draining && sendQueue.isEmpty()) {
+            close();
+            return;
+        }
+        sendQueue.add(CLOSE);
+        scheduleDrain();
+    }
+}
@@ -16,6 +16,13 @@ public class CONFIG
         /* 서버 구성 정보  */
         public static final String SERVER_IP = "127.0.0.1";
         public static final int SERVER_PORT = 15000;
+
+        /* Selector 이벤트 루프 구성 */
+        public static final int SELECTOR_THREAD_COUNT = 2; /* 연결을 나눠 처리할 이벤트 루프 쓰레드 수 */
+        public static final int READ_BUFFER_SIZE = 4 * 1024; /* 연결별 초기 수신 버퍼 크기 (프레임이 크면 MAX_PACKET_SIZE 까지 확장) */
+        public static final int MAX_PACKET_SIZE = 64 * 1024; /* 허용 최대 패킷 크기, 초과 시 연결 종료 */
+        public static final int WRITE_HIGH_WATER_MARK = 256 * 1024; /* 미전송 바이트가 이 이상이면 해당 연결의 수신 중지 */
+        public static final int WRITE_LOW_WATER_MARK = 64 * 1024; /* 미전송 바이트가 이 이하로 줄면 수신 재개 */
         /* ******************************************************************************/
     }
 }
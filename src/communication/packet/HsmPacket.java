@@ -4,6 +4,7 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -11,6 +12,9 @@ import static communication.CONFIG.*;
 
 public class HsmPacket extends PacketUtil
 {
+    public static final int LENGTH_FIELD_SIZE = 4; /* 프레임 길이 필드 (big-endian int, 길이 필드 제외 패킷 크기) */
+    public static final int HEADER_SIZE = 2; /* headerType + headerEvent */
+
     private byte headerType;
     private byte headerEvent;
     private byte[] bodyData; /* TODO : 위의 헤더 타입과 이벤트를 가지고 바디 데이터를 파싱해야 함 */
@@ -90,6 +94,43 @@ public class HsmPacket extends PacketUtil
         }
     }
 
+    /**
+     * TCP 전송용 프레임 직렬화 * [int length][headerType][headerEvent][bodyData]
+     * @return 길이 필드가 포함된 버퍼
+     */
+    public ByteBuffer EncodeFrame()
+    {
+        int nSize = GetSize();
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_FIELD_SIZE + nSize);
+        frame.putInt(nSize);
+        frame.put(this.headerType);
+        frame.put(this.headerEvent);
+        if (this.bodyData != null)
+        {
+            frame.put(this.bodyData);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * 프레임 본문(길이 필드 제외) 파싱
+     * @param frame position ~ limit 이 패킷 하나
+     * @return 성공여부
+     */
+    public boolean DecodeFrame(ByteBuffer frame)
+    {
+        if (frame.remaining() < HEADER_SIZE)
+        {
+            return false;
+        }
+        this.headerType = frame.get();
+        this.headerEvent = frame.get();
+        this.bodyData = new byte[frame.remaining()];
+        frame.get(this.bodyData);
+        return true;
+    }
+
     public boolean isCheckHeader()
     {
         return isCheckHeaderType() && isCheckHeaderEvent(); /* 타입과 이벤트가 전부 true 반환되어야 정상 헤더  */
@@ -114,7 +155,7 @@ public class HsmPacket extends PacketUtil
 
     public int GetSize()
     {
-        return 1 + 1 + this.bodyData.length;
+        return HEADER_SIZE + (this.bodyData == null ? 0 : this.bodyData.length);
     }
 
     public byte getHeaderType()
@@ -0,0 +1,255 @@
+package communication.tcp;
+
+import communication.CONFIG.*;
+import communication.packet.HsmPacket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selector 이벤트 루프에 등록된 클라이언트 연결
+ * <p> 수신 바이트를 연결별 버퍼에 누적하고 길이 필드 기준으로 패킷을 분리 (분할/병합 수신 처리)
+ * <p> 송신은 큐에 쌓아 두고 OP_WRITE 시점에 전송, 미전송량이 많으면 수신을 멈춰 백프레셔 적용
+ */
+public class ClientConnection
+{
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+    private SelectionKey key;
+
+    private ByteBuffer readBuffer = ByteBuffer.allocate(TCP_CONFIG.READ_BUFFER_SIZE);
+
+    private final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private int pendingWriteBytes = 0;
+    private boolean readPaused = false;
+    private boolean inputClosed = false; /* 클라이언트 송신 종료 * 남은 응답 전송 후 연결 종료 */
+    private boolean closed = false;
+
+    ClientConnection(SocketChannel channel, SelectorLoop loop)
+    {
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    void SetKey(SelectionKey key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * 패킷 전송 요청 * 어느 쓰레드에서 호출해도 되며 실제 전송은 이벤트 루프에서 진행
+     * @return 큐 적재 성공여부 (연결이 닫혔으면 false)
+     */
+    public boolean Send(HsmPacket hsmPacket)
+    {
+        ByteBuffer frame = hsmPacket.EncodeFrame();
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return false;
+            }
+            writeQueue.add(frame);
+            pendingWriteBytes += frame.remaining();
+        }
+        loop.RequestWrite(this);
+        return true;
+    }
+
+    public String GetRemoteAddress()
+    {
+        try
+        {
+            return String.valueOf(channel.getRemoteAddress());
+        }
+        catch (IOException e)
+        {
+            return "unknown";
+        }
+    }
+
+    public synchronized boolean IsClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * 수신 가능한 바이트를 모두 읽고 완성된 패킷 목록 반환
+     * @return 완성된 패킷 (없으면 빈 목록), 연결이 종료되었으면 null
+     */
+    List<HsmPacket> OnReadable() throws IOException
+    {
+        List<HsmPacket> packets = new ArrayList<>();
+        while (true)
+        {
+            int nRead = channel.read(readBuffer);
+            if (nRead < 0)
+            {
+                return packets.isEmpty() ? null : packets; /* 남은 패킷 처리 후 다음 읽기에서 종료 */
+            }
+
+            ExtractPackets(packets);
+
+            if (nRead == 0 || readBuffer.hasRemaining())
+            {
+                return packets;
+            }
+            /* 버퍼가 가득 찼는데 프레임이 완성되지 않은 경우 */
+            GrowReadBuffer();
+        }
+    }
+
+    /* 누적 버퍼에서 완성된 프레임을 모두 꺼내고 남은 바이트는 앞으로 당김 */
+    private void ExtractPackets(List<HsmPacket> packets) throws IOException
+    {
+        readBuffer.flip();
+        while (readBuffer.remaining() >= HsmPacket.LENGTH_FIELD_SIZE)
+        {
+            int nLength = readBuffer.getInt(readBuffer.position());
+            if (nLength < HsmPacket.HEADER_SIZE || nLength > TCP_CONFIG.MAX_PACKET_SIZE)
+            {
+                throw new IOException("Invalid packet length : " + nLength);
+            }
+            if (readBuffer.remaining() < HsmPacket.LENGTH_FIELD_SIZE + nLength)
+            {
+                break; /* 프레임 미완성 * 추가 수신 대기 */
+            }
+
+            readBuffer.position(readBuffer.position() + HsmPacket.LENGTH_FIELD_SIZE);
+            ByteBuffer frame = readBuffer.slice();
+            frame.limit(nLength);
+            readBuffer.position(readBuffer.position() + nLength);
+
+            HsmPacket hsmPacket = new HsmPacket();
+            if (hsmPacket.DecodeFrame(frame))
+            {
+                packets.add(hsmPacket);
+            }
+        }
+        readBuffer.compact();
+    }
+
+    private void GrowReadBuffer() throws IOException
+    {
+        int nMax = HsmPacket.LENGTH_FIELD_SIZE + TCP_CONFIG.MAX_PACKET_SIZE;
+        if (readBuffer.capacity() >= nMax)
+        {
+            throw new IOException("Packet exceeds max size : " + TCP_CONFIG.MAX_PACKET_SIZE);
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, nMax));
+        readBuffer.flip();
+        grown.put(readBuffer);
+        readBuffer = grown;
+    }
+
+    /**
+     * 송신 큐 전송 (이벤트 루프 쓰레드에서만 호출)
+     * @return 큐를 모두 비웠는지 여부
+     */
+    boolean OnWritable() throws IOException
+    {
+        synchronized (this)
+        {
+            while (!writeQueue.isEmpty())
+            {
+                ByteBuffer frame = writeQueue.peek();
+                int nWritten = channel.write(frame);
+                pendingWriteBytes -= nWritten;
+                if (frame.hasRemaining())
+                {
+                    break; /* 소켓 송신 버퍼가 가득 참 */
+                }
+                writeQueue.poll();
+            }
+            UpdateInterest();
+            return writeQueue.isEmpty();
+        }
+    }
+
+    /**
+     * 클라이언트가 송신을 종료했을 때 호출 * 미전송 응답이 없으면 바로 종료
+     */
+    void OnInputClosed()
+    {
+        boolean bCloseNow;
+        synchronized (this)
+        {
+            inputClosed = true;
+            bCloseNow = writeQueue.isEmpty();
+            if (!bCloseNow)
+            {
+                UpdateInterest();
+            }
+        }
+        if (bCloseNow)
+        {
+            Close();
+        }
+    }
+
+    synchronized boolean IsFlushedAfterInputClosed()
+    {
+        return inputClosed && writeQueue.isEmpty();
+    }
+
+    /* 미전송량에 따라 OP_WRITE / OP_READ 관심 설정 (백프레셔) */
+    synchronized void UpdateInterest()
+    {
+        if (key == null || !key.isValid())
+        {
+            return;
+        }
+
+        if (!readPaused && pendingWriteBytes >= TCP_CONFIG.WRITE_HIGH_WATER_MARK)
+        {
+            readPaused = true;
+        }
+        else if (readPaused && pendingWriteBytes <= TCP_CONFIG.WRITE_LOW_WATER_MARK)
+        {
+            readPaused = false;
+        }
+
+        int nOps = 0;
+        if (!readPaused && !inputClosed)
+        {
+            nOps |= SelectionKey.OP_READ;
+        }
+        if (!writeQueue.isEmpty())
+        {
+            nOps |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(nOps);
+    }
+
+    void Close()
+    {
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+            writeQueue.clear();
+            pendingWriteBytes = 0;
+        }
+
+        if (key != null)
+        {
+            key.cancel();
+        }
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package communication.tcp;
+
+import communication.CONFIG.*;
+import communication.packet.HsmPacket;
+
+/**
+ * 수신 패킷 처리 * 헤더 체크 후 요청 타입별로 분기하고 응답 패킷을 생성
+ * <p> 이벤트 루프 쓰레드에서 호출되므로 오래 걸리는 처리는 별도 쓰레드로 넘기고 {@link ClientConnection#Send(HsmPacket)} 로 응답
+ */
+public class HsmPacketProcessor
+{
+    private static void PrintByteArray(byte[] bArray)
+    {
+        System.out.printf("SIZE [%d] : ", bArray.length);
+        for(byte b : bArray)
+        {
+            System.out.printf("%02X ",b);
+        }
+
+        System.out.println();
+    }
+
+    /**
+     * @param connection 패킷을 받은 연결
+     * @param hsmPacket 길이 필드 기준으로 분리된 패킷 하나
+     * @return 응답 패킷, 응답하지 않으면 null
+     */
+    public HsmPacket Process(ClientConnection connection, HsmPacket hsmPacket)
+    {
+        PrintByteArray(hsmPacket.EncodeObject()); /* 받은 패킷 출력 */
+
+        /* 2. 리시브,이벤트 타입 처리 */
+        if( !hsmPacket.isCheckHeader() ) /* 헤더 타입과 이벤트가 정상인지 체크 */
+        {
+            return null; /* 해더 체크 실패 시 다시 수신대기 */
+        }
+
+        /* 3. 바디데이터 처리  */
+        switch (hsmPacket.getHeaderType()) /* TODO : 들어온 요청 데이터를 체크하고 알맞은 HSM API 호출하고 값 반환받음 */
+        {
+            case HSM_PACKET.HEADER_TYPE_DIST_APP ->
+            {
+                /* TODO : 이벤트 타입 체크 후 데이터 처리 */
+            }
+            case HSM_PACKET.HEADER_TYPE_WEB_APP ->
+            {
+                /* WEB APP 에서 온 데이터 */
+                /* TODO : 이벤트 타입 체크 후 데이터 처리 */
+            }
+            default ->
+            {
+                System.out.println("알 수 없는 패킷 타입");
+            }
+        }
+
+        byte EVENT_TYPE = 0x00;
+        byte[] BODY_DATE = new byte[]{(byte)0x00,(byte)0x01,(byte)0x02};
+        /* 4. 리턴 데이터 생성 (현재 더미 데이터) */
+        return new HsmPacket(HSM_PACKET.HEADER_TYPE_HSM,EVENT_TYPE,BODY_DATE);
+    }
+}
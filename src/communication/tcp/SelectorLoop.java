@@ -0,0 +1,200 @@
+package communication.tcp;
+
+import communication.packet.HsmPacket;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking Selector 이벤트 루프 쓰레드
+ * <p> {@link Server} 가 수락한 연결을 넘겨받아 읽기/쓰기 이벤트를 처리하며, 쓰레드 하나로 다수의 유휴 연결을 유지
+ * <p> 다른 쓰레드의 등록/송신 요청은 큐에 넣고 {@link Selector#wakeup()} 으로 루프에 전달
+ */
+public class SelectorLoop extends Thread
+{
+    private final Selector selector;
+    private final HsmPacketProcessor processor;
+
+    private final ConcurrentLinkedQueue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ClientConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connectionCount = new AtomicInteger(0);
+
+    public SelectorLoop(String name, HsmPacketProcessor processor) throws IOException
+    {
+        super(name);
+        this.setDaemon(true);
+        this.selector = Selector.open();
+        this.processor = processor;
+    }
+
+    /**
+     * 수락한 연결을 이 루프에 등록 (등록은 루프 쓰레드에서 진행)
+     */
+    public void Register(SocketChannel channel)
+    {
+        pendingChannels.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * 송신 큐에 데이터가 생긴 연결의 OP_WRITE 설정 요청
+     */
+    void RequestWrite(ClientConnection connection)
+    {
+        if (Thread.currentThread() == this)
+        {
+            connection.UpdateInterest();
+            return;
+        }
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    public int GetConnectionCount()
+    {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (!isInterrupted())
+            {
+                selector.select();
+                RegisterPendingChannels();
+                ApplyPendingWrites();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext())
+                {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    HandleKey(key);
+                }
+            }
+        }
+        catch (IOException | ClosedSelectorException e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            CloseAll();
+        }
+    }
+
+    private void RegisterPendingChannels()
+    {
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null)
+        {
+            try
+            {
+                channel.configureBlocking(false);
+                ClientConnection connection = new ClientConnection(channel, this);
+                connection.SetKey(channel.register(selector, SelectionKey.OP_READ, connection));
+                connectionCount.incrementAndGet();
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+                try
+                {
+                    channel.close();
+                }
+                catch (IOException ignored)
+                {
+                    /* 이미 닫힌 연결 */
+                }
+            }
+        }
+    }
+
+    private void ApplyPendingWrites()
+    {
+        ClientConnection connection;
+        while ((connection = pendingWrites.poll()) != null)
+        {
+            connection.UpdateInterest();
+        }
+    }
+
+    private void HandleKey(SelectionKey key)
+    {
+        ClientConnection connection = (ClientConnection) key.attachment();
+        try
+        {
+            if (key.isValid() && key.isReadable())
+            {
+                List<HsmPacket> packets = connection.OnReadable();
+                if (packets == null)
+                {
+                    System.out.println("Client Disconnected : " + connection.GetRemoteAddress());
+                    connection.OnInputClosed();
+                }
+                else
+                {
+                    for (HsmPacket hsmPacket : packets)
+                    {
+                        HsmPacket response = processor.Process(connection, hsmPacket);
+                        if (response != null)
+                        {
+                            connection.Send(response);
+                        }
+                    }
+                }
+            }
+
+            if (key.isValid() && key.isWritable())
+            {
+                if (connection.OnWritable() && connection.IsFlushedAfterInputClosed())
+                {
+                    connection.Close();
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            System.out.println("Client Disconnected : " + connection.GetRemoteAddress() + " (" + e.getMessage() + ")");
+            connection.Close();
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace(); /* 패킷 처리 중 예외 * 연결 종료 */
+            connection.Close();
+        }
+
+        if (connection.IsClosed())
+        {
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    private void CloseAll()
+    {
+        try
+        {
+            for (SelectionKey key : selector.keys())
+            {
+                if (key.attachment() instanceof ClientConnection connection)
+                {
+                    connection.Close();
+                }
+            }
+            selector.close();
+        }
+        catch (IOException | ClosedSelectorException e)
+        {
+            e.printStackTrace();
+        }
+    }
+}
@@ -32,5 +32,29 @@ public class AppConfig {
         public static final int TIMEOUT_CHECK_INTERVAL = 100;
         public static final int TIMEOUT_SEC_SETTING_OF_INTERVAL = 1000 / TIMEOUT_CHECK_INTERVAL;
 
+        /* 커넥션 풀 (QUERY_TIMEOUT = 문장별 쿼리 타임아웃, MAX_TIMEOUT = 접속 / 소켓 대기 최대 시간) */
+        public static final int POOL_MAX_SIZE = 8;
+        public static final int POOL_MIN_IDLE = 1;
+        public static final long POOL_BORROW_TIMEOUT_MS = 5000;       /* 모든 연결이 사용 중일 때 대기 시간 */
+        public static final long POOL_IDLE_TIMEOUT_SEC = 300;         /* 이 시간 이상 쉬는 연결은 POOL_MIN_IDLE 개만 남기고 닫음 */
+        public static final long POOL_VALIDATION_INTERVAL_SEC = 30;   /* 이 시간 이상 쉬었던 연결은 대여 전 유효성 확인 */
+        public static final int STATEMENT_CACHE_SIZE = 32;            /* 연결별 PreparedStatement 캐시 수 */
+
+        /* 일괄 처리 (IN 절 조회 라벨 수, executeBatch 한 번에 보내는 행 수) */
+        public static final int BULK_BATCH_SIZE = 500;
+
+        /* KCV 캐시 (key_label -> kcv / 유효기간) : 키 생성/주입/복사/삭제, 유효기간 변경 시 무효화 */
+        public static final int KCV_CACHE_SIZE = 20000;
+        public static final long KCV_CACHE_TTL_SEC = 600;             /* 다른 프로세스가 바꾼 값이 반영되는 최대 시간 */
+        public static final long KCV_CACHE_REFRESH_INTERVAL_SEC = 0;  /* 캐시된 라벨 일괄 재조회 주기 (0 = 안함) */
+
+        /* 로컬 키 메타데이터 저장소 (TB_KMC_KEY 사본) : DB 가 느리거나 끊겨도 KCV 조회 */
+        public static final boolean KEY_STORE_ENABLED = true;
+        public static final String KEY_STORE_DIR = "keystore";
+        public static final long KEY_STORE_SYNC_INTERVAL_SEC = 30;         /* DB 변경분 조회 주기 */
+        public static final int KEY_STORE_FULL_SYNC_EVERY = 20;            /* 증분 조회 N 번마다 전체 조회 (삭제된 행 반영) */
+        public static final String KEY_STORE_CHANGE_COLUMN = "updated_at"; /* 증분 조회 기준 컬럼 (null = 항상 전체 조회) */
+        public static final long KEY_STORE_COMPACT_BYTES = 16L << 20;      /* 로그가 이 크기를 넘으면 스냅샷 후 로그 비움 */
+
     }
 }
@@ -1,22 +1,37 @@
 package singleton;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.nio.file.FileAlreadyExistsException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 로그 관리 싱글톤 클래스 * 블로킹 큐를 통해 순차적으로 로그 처리 진행
+ * 로그 관리 싱글톤 클래스 * 로그 타입별 비동기 기록 스레드로 순차적으로 로그 처리 진행
  * <p> GetInstance() 를 통해 인스턴스를 획득하고 Write(String message, int logType) 메서드를 통해 로그 작성
  * <p> 싱글톤 디자인 패턴으로 기본 생성자 호출은 허용하지 않음
+ * <p> Write 는 큐에 넣기만 하고 대기하지 않음 * 큐가 가득 차면 로그를 버리고 개수만 집계 (다음 기록 시 버린 개수를 파일에 남김)
+ * <p> 기록 스레드는 파일 채널을 열어 둔 채 모아서 쓰고 FLUSH_INTERVAL_MS 마다 내보냄 * 날짜가 바뀌면 타이머가 파일 교체를 요청
  *
  *      <p>사용 할 쓰레드의 숫자 설정하는 값 만큼 멀티 쓰레딩
  *      <p>1. 파일 이름(LogTypeName) 에 파일이름 추가
@@ -29,9 +44,7 @@ public class Logger
         1. 파일 이름(LogTypeName) 에 파일이름 추가
         2. 로그 타입 상수 순서에 맞춰 추가
     */
-    private static Logger instance;
-    /* THREAD_COUNT 크기만큼 파일 이름 설정 */
-    private static String LogDirectory;
+    private static volatile Logger instance;
     /* 파일 이름 정의 */
     private static final String[] LogTypeName = new String[]{
             "UncaughtException.log", /* 처리되지 않은 예외 발생 시 후킹하여 로깅 진행 */
@@ -48,27 +61,45 @@ public class Logger
     public static final int LOG_TYPE_CODEC = 1;
     public static final int LOG_TYPE_DATABASE_HELPER = 2;
 
+    private static final int QUEUE_CAPACITY = 65536;        /* 로그 타입별 대기 로그 최대 수 (초과 시 버림) */
+    private static final int BATCH_SIZE = 1024;             /* 한 번에 꺼내는 로그 수 */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024; /* 파일에 쓰기 전 모아두는 버퍼 크기 */
+    private static final long FLUSH_INTERVAL_MS = 200;      /* 버퍼가 차지 않아도 이 간격으로 파일에 기록 */
+    private static final long CLOSE_TIMEOUT_MS = 2000;      /* 종료 시 남은 로그 기록 대기 시간 */
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final DateTimeFormatter DIRECTORY_FORMATTER = DateTimeFormatter.ofPattern("yyMM");
+    private static final DateTimeFormatter FILE_PREFIX_FORMATTER = DateTimeFormatter.ofPattern("dd_");
 
     /* 로그 프로세서를 저장하는 배열 */
     private final LogProcessor[] logProcessors = new LogProcessor[THREAD_COUNT];
 
+    /* 자정마다 파일 교체를 요청하는 타이머 */
+    private final ScheduledExecutorService rotationTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "LogRotation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
-     *  Singleton 인스턴스를 반환하는 메서드
+     *  Singleton 인스턴스를 반환하는 메서드 * 로그마다 호출되므로 생성 이후에는 잠금 없이 반환
      *  */
-    public static synchronized Logger GetInstance()
+    public static Logger GetInstance()
     {
-        /*assert THREAD_COUNT == LogTypeName.length :  ("THREAD_COUNT Error ");*/
-        if(THREAD_COUNT != LogTypeName.length)
+        Logger logger = instance;
+        if (logger == null)
         {
-            System.err.println("[Logger] THREAD_COUNT value error ");
-        }
-
-        if (instance == null)
-        {
-            instance = new Logger();
+            synchronized (Logger.class)
+            {
+                logger = instance;
+                if (logger == null)
+                {
+                    logger = new Logger();
+                    instance = logger;
+                }
+            }
         }
-
-        return instance;
+        return logger;
     }
 
     /* 생성자, 외부에서 접근하지 못하도록 private 으로 설정 */
@@ -82,80 +113,91 @@ public class Logger
             logProcessors[i].setDaemon(true); /* 데몬 스레드로 설정 (따로 종료해주지 않아도 애플리케이션이 종료될 때 함께 종료) */
             logProcessors[i].start();
         }
+        ScheduleRotation();
+
+        /* 종료 시 버퍼에 남은 로그 기록 */
+        Runtime.getRuntime().addShutdownHook(new Thread(this::Close, "LoggerShutdown"));
     }
 
-    private String AddTimeStampFromString(String Message)
+    private static String AddTimeStampFromString(String Message)
     {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
-        LocalDateTime now = LocalDateTime.now();
-        return String.format("%s : %s \n",now.format(formatter),Message);
+        return LocalDateTime.now().format(TIME_FORMATTER) + " : " + Message + " \n";
     }
 
     /**
-     * 로그 메시지를 큐에 추가하는 메서드
+     * 로그 메시지를 큐에 추가하는 메서드 (대기하지 않음)
      * @param message 로그 메시지 내용
      * @param logType 로그 타입
-     * @return 로깅 성공여부
+     * @return 로깅 성공여부 (타입 오류 또는 큐가 가득 차서 버린 경우 false)
      */
     public boolean Write(String message, int logType)
     {
-        boolean bResult = !(logType < 0 || logType >= THREAD_COUNT); /* 타입 범위 체크 */
-
-        CheckLogDirectory(); /* 디렉토리 체크 */
-
-        message = AddTimeStampFromString(message);
-        try
-        {
-            if(bResult)
-            {
-                logProcessors[logType].putLog(message);
-            }
-        }
-        catch (Exception e)
+        if (logType < 0 || logType >= THREAD_COUNT) /* 타입 범위 체크 */
         {
-            Thread.currentThread().interrupt();
-            bResult = false;
+            return false;
         }
-        finally
+        return logProcessors[logType].PutLog(AddTimeStampFromString(message));
+    }
+
+    /**
+     * @return 큐가 가득 차서 버린 로그 누적 수
+     */
+    public long GetDroppedCount()
+    {
+        long nDropped = 0;
+        for (LogProcessor processor : logProcessors)
         {
-            return bResult;
+            nDropped += processor.droppedCount.get();
         }
+        return nDropped;
     }
 
     /**
-     *  로그를 작성할 디렉토리가 있는 지 체크하고 없다면 생성
-     *  */
-    private static void CheckLogDirectory()
+     * 남은 로그를 모두 기록하고 파일을 닫음 (종료 훅에서 호출)
+     */
+    public void Close()
     {
-        String strPath = System.getProperty("user.dir");
-        String strDirectoryPath = strPath + "/log" ;
-        try /* 작업 위치에 로그 디렉토리 생성 */
+        rotationTimer.shutdownNow();
+        for (LogProcessor processor : logProcessors)
         {
-            Path path;
-
-            path =Paths.get(strDirectoryPath);
-            if( !Files.isDirectory(path) )  /* 로그 폴더가 존재하지 않는다면 디렉토리 생성 */
+            processor.Shutdown();
+        }
+        for (LogProcessor processor : logProcessors)
+        {
+            try
             {
-                Files.createDirectory(path);
+                processor.join(CLOSE_TIMEOUT_MS);
             }
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("/yyMM");
-            LocalDateTime now = LocalDateTime.now();
-            path =Paths.get( strDirectoryPath + String.format("%s",now.format(formatter)) );
-            if( !Files.isDirectory(path) )  /* 로그 폴더가 존재하지 않는다면 디렉토리 생성 */
+            catch (InterruptedException e)
             {
-                Files.createDirectory(path);
+                Thread.currentThread().interrupt();
+                return;
             }
-
-            LogDirectory = path.toString() + "/";
         }
-        catch (IOException e)
-        {
-            if( !(e instanceof FileAlreadyExistsException) )
+    }
+
+    /* 다음 자정에 파일 교체 요청 후 다시 예약 (서머타임 등으로 하루 길이가 달라도 자정 기준 유지) */
+    private void ScheduleRotation()
+    {
+        LocalDateTime now = LocalDateTime.now();
+        long nDelayMs = Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).toMillis();
+        rotationTimer.schedule(() -> {
+            for (LogProcessor processor : logProcessors)
             {
-                e.printStackTrace();
+                processor.RequestRotation();
             }
-        }
+            ScheduleRotation();
+        }, Math.max(nDelayMs, 1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     *  작업 위치의 log/yyMM 디렉토리 경로를 반환하고 없다면 생성 (파일을 열 때만 호출)
+     *  */
+    private static Path CheckLogDirectory(LocalDate date) throws IOException
+    {
+        Path path = Paths.get(System.getProperty("user.dir"), "log", date.format(DIRECTORY_FORMATTER));
+        Files.createDirectories(path);
+        return path;
     }
 
     /**
@@ -163,52 +205,175 @@ public class Logger
      */
     private static class LogProcessor extends Thread
     {
-        private final int MAX_LOG_CNT = 100; // 큐의 최대 크기
         private final String LOG_FILE_NAME;
-        private final BlockingQueue<String> logQueue = new LinkedBlockingQueue<>(MAX_LOG_CNT);
+        private final BlockingQueue<String> logQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicLong droppedCount = new AtomicLong();
+        private long nReportedDropped = 0; /* 파일에 이미 기록한 버린 로그 수 */
+
+        private final List<String> batch = new ArrayList<>(BATCH_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private FileChannel channel;
+        private volatile boolean bRotationRequested = false;
+        private volatile boolean bRunning = true;
 
         public LogProcessor(String fileName)
         {
+            super("Logger-" + fileName);
             this.LOG_FILE_NAME = fileName;
         }
 
-        /* 로그 메시지를 큐에 추가하는 메서드 */
-        public void putLog(String message) throws InterruptedException
+        /* 로그 메시지를 큐에 추가하는 메서드 * 가득 차면 버리고 개수만 집계 */
+        public boolean PutLog(String message)
         {
-            logQueue.put(message);
+            if (logQueue.offer(message))
+            {
+                return true;
+            }
+            droppedCount.incrementAndGet();
+            return false;
+        }
+
+        public void RequestRotation()
+        {
+            bRotationRequested = true;
+        }
+
+        /* 인터럽트하면 FileChannel 이 닫혀(ClosedByInterruptException) 남은 로그를 못 쓰므로 플래그만 내림
+         * 기록 스레드는 최대 FLUSH_INTERVAL_MS 안에 poll 에서 깨어나 종료 처리 */
+        public void Shutdown()
+        {
+            bRunning = false;
         }
 
         @Override
         public void run()
         {
+            long nLastFlush = System.currentTimeMillis();
+            while (bRunning)
+            {
+                try
+                {
+                    long nWaitMs = FLUSH_INTERVAL_MS - (System.currentTimeMillis() - nLastFlush);
+                    String message = nWaitMs > 0 ? logQueue.poll(nWaitMs, TimeUnit.MILLISECONDS) : logQueue.poll();
+                    if (message != null)
+                    {
+                        batch.add(message);
+                        logQueue.drainTo(batch, BATCH_SIZE - 1);
+                        Append(batch);
+                        batch.clear();
+                    }
+                    if (System.currentTimeMillis() - nLastFlush >= FLUSH_INTERVAL_MS)
+                    {
+                        Flush();
+                        nLastFlush = System.currentTimeMillis();
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    /* 외부 인터럽트는 무시하고 bRunning 으로만 종료 */
+                }
+            }
+
+            /* 남은 로그 기록 전에 인터럽트 상태를 지워 채널이 닫히지 않도록 함 */
+            Thread.interrupted();
+            while (logQueue.drainTo(batch, BATCH_SIZE) > 0)
+            {
+                Append(batch);
+                batch.clear();
+            }
+            Flush();
+            CloseChannel();
+        }
+
+        /* 버퍼에 로그를 모으고, 가득 차면 파일에 기록 */
+        private void Append(List<String> messages)
+        {
+            long nDropped = droppedCount.get();
+            if (nDropped != nReportedDropped)
+            {
+                Encode(AddTimeStampFromString("[Logger] " + (nDropped - nReportedDropped) + " log messages dropped (queue full)"));
+                nReportedDropped = nDropped;
+            }
+            for (String message : messages)
+            {
+                Encode(message);
+            }
+        }
+
+        private void Encode(String message)
+        {
+            CharBuffer chars = CharBuffer.wrap(message);
+            encoder.reset();
+            /* 버퍼가 부족하면 기록 후 이어서 인코딩 (UTF-8 은 flush 시 추가 출력 없음) */
+            while (encoder.encode(chars, writeBuffer, true).isOverflow())
+            {
+                Flush();
+            }
+        }
+
+        /* 로그 메시지를 실제로 파일에 기록하는 메서드 */
+        private void Flush()
+        {
+            if (writeBuffer.position() == 0)
+            {
+                return;
+            }
+            writeBuffer.flip();
             try
             {
-                while (true)
+                FileChannel fileChannel = GetChannel();
+                while (writeBuffer.hasRemaining())
                 {
-                    String message = logQueue.take();
-                    ProcessLog(message);
+                    fileChannel.write(writeBuffer);
                 }
             }
-            catch (InterruptedException e)
+            catch (IOException e)
             {
-                Thread.currentThread().interrupt();
+                e.printStackTrace();
+                CloseChannel(); /* 다음 기록 때 다시 열기 */
             }
+            finally
+            {
+                writeBuffer.clear();
+            }
+        }
+
+        /* 파일 채널은 한 번 열어 재사용하고, 날짜가 바뀌면 새 파일로 교체 */
+        private FileChannel GetChannel() throws IOException
+        {
+            if (bRotationRequested)
+            {
+                bRotationRequested = false;
+                CloseChannel();
+            }
+            if (channel == null)
+            {
+                LocalDate today = LocalDate.now();
+                Path path = CheckLogDirectory(today).resolve(today.format(FILE_PREFIX_FORMATTER) + this.LOG_FILE_NAME);
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            return channel;
         }
 
-        /* 로그 메시지를 실제로 처리하는 메서드 */
-        private void ProcessLog(String logMessage)
+        private void CloseChannel()
         {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd_");
-            LocalDateTime now = LocalDateTime.now();
-            /* save log file */
-            try (FileWriter logWriter = new FileWriter(LogDirectory + now.format(formatter) + this.LOG_FILE_NAME, true) )
+            if (channel == null)
+            {
+                return;
+            }
+            try
             {
-                logWriter.write(logMessage);
+                channel.close();
             }
             catch (IOException e)
             {
                 e.printStackTrace();
             }
+            channel = null;
         }
     }
 
@@ -252,4 +417,4 @@ public class Logger
             return sw.toString();
         }
     }
-}
\ No newline at end of file
+}